@@ -75,7 +75,7 @@ public class App extends Application {
 
     /**
      * Reinicia la aplicación volviendo a la pantalla de inicio de sesión.
-     * Guarda el estado actual antes de reiniciar.
+     * Escribe las mutaciones pendientes antes de reiniciar.
      * Útil para implementar la funcionalidad de cerrar sesión.
      * 
      * @return true si se pudo reiniciar correctamente
@@ -85,7 +85,7 @@ public class App extends Application {
             System.out.println("App.restartApp(): Delegando a AppUtils.restartApp()...");
 
             if (dataManager != null) {
-                dataManager.saveState();
+                dataManager.flushAndWait();
             }
             
             return AppUtils.restartApp();
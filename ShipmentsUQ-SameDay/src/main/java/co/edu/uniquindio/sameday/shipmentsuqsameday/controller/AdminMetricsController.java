@@ -1,10 +1,11 @@
 package co.edu.uniquindio.sameday.shipmentsuqsameday.controller;
 
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.BatchDispatchService;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.ShipmentService;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.DelivererService;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.App;
-import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.dto.DispatchMetricsDTO;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
 
 import java.time.LocalDateTime;
@@ -16,6 +17,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.UUID;
 
 /**
  * Controlador para las métricas y reportes del sistema
@@ -42,8 +44,7 @@ public class AdminMetricsController {
      */
     public int getTotalShipments() {
         try {
-            List<Shipment> allShipments = shipmentService.findAll();
-            return allShipments != null ? allShipments.size() : 0;
+            return (int) shipmentService.count();
         } catch (Exception e) {
             System.err.println("Error al obtener total de envíos: " + e.getMessage());
             return 0;
@@ -56,11 +57,8 @@ public class AdminMetricsController {
      */
     public int getMonthlyShipments() {
         try {
-            List<Shipment> allShipments = shipmentService.findAll();
-            if (allShipments == null) return 0;
-            
             LocalDate now = LocalDate.now();
-            return (int) allShipments.stream()
+            return (int) shipmentService.stream()
                     .filter(shipment -> shipment.getCreationDate() != null)
                     .filter(shipment -> {
                         LocalDate shipmentDate = shipment.getCreationDate().toLocalDate();
@@ -80,11 +78,8 @@ public class AdminMetricsController {
      */
     public int getDailyShipments() {
         try {
-            List<Shipment> allShipments = shipmentService.findAll();
-            if (allShipments == null) return 0;
-            
             LocalDate today = LocalDate.now();
-            return (int) allShipments.stream()
+            return (int) shipmentService.stream()
                     .filter(shipment -> shipment.getCreationDate() != null)
                     .filter(shipment -> shipment.getCreationDate().toLocalDate().equals(today))
                     .count();
@@ -102,17 +97,11 @@ public class AdminMetricsController {
         Map<ShipmentStatus, Integer> statusCount = new HashMap<>();
         
         try {
-            List<Shipment> allShipments = shipmentService.findAll();
-            if (allShipments == null) return statusCount;
-            
             for (ShipmentStatus status : ShipmentStatus.values()) {
                 statusCount.put(status, 0);
             }
             
-            for (Shipment shipment : allShipments) {
-                ShipmentStatus status = shipment.getStatus();
-                statusCount.put(status, statusCount.get(status) + 1);
-            }
+            shipmentService.stream().forEach(shipment -> statusCount.merge(shipment.getStatus(), 1, Integer::sum));
             
         } catch (Exception e) {
             System.err.println("Error al obtener envíos por estado: " + e.getMessage());
@@ -127,15 +116,9 @@ public class AdminMetricsController {
      */
     public double getAverageDeliveryTime() {
         try {
-            List<Shipment> deliveredShipments = shipmentService.findAll()
-                    .stream()
+            double totalMinutes = shipmentService.stream()
                     .filter(s -> s.getStatus() == ShipmentStatus.DELIVERED)
                     .filter(s -> s.getCreationDate() != null && s.getDeliveryDate() != null)
-                    .collect(Collectors.toList());
-            
-            if (deliveredShipments.isEmpty()) return 0.0;
-            
-            double totalMinutes = deliveredShipments.stream()
                     .mapToLong(s -> java.time.Duration.between(
                             s.getCreationDate(), s.getDeliveryDate()).toMinutes())
                     .average()
@@ -155,14 +138,14 @@ public class AdminMetricsController {
      */
     public double getSuccessRate() {
         try {
-            List<Shipment> allShipments = shipmentService.findAll();
-            if (allShipments == null || allShipments.isEmpty()) return 0.0;
+            long total = shipmentService.count();
+            if (total == 0) return 0.0;
             
-            long deliveredCount = allShipments.stream()
+            long deliveredCount = shipmentService.stream()
                     .filter(s -> s.getStatus() == ShipmentStatus.DELIVERED)
                     .count();
             
-            double rate = (deliveredCount * 100.0) / allShipments.size();
+            double rate = (deliveredCount * 100.0) / total;
             return Math.round(rate * 100.0) / 100.0;
             
         } catch (Exception e) {
@@ -177,27 +160,27 @@ public class AdminMetricsController {
      */
     public double getCourierEfficiency() {
         try {
-            List<Deliverer> allDeliverers = delivererService.findAll();
-            if (allDeliverers == null || allDeliverers.isEmpty()) return 0.0;
+            // Una sola pasada: [envíos, entregados] por repartidor
+            Map<UUID, long[]> countsByDeliverer = new HashMap<>();
+            shipmentService.stream()
+                    .filter(s -> s.getDeliverer() != null && s.getDeliverer().getId() != null)
+                    .forEach(s -> {
+                        long[] counts = countsByDeliverer.computeIfAbsent(s.getDeliverer().getId(), id -> new long[2]);
+                        counts[0]++;
+                        if (s.getStatus() == ShipmentStatus.DELIVERED) {
+                            counts[1]++;
+                        }
+                    });
             
             double totalEfficiency = 0.0;
             int activeDeliverers = 0;
             
-            for (Deliverer deliverer : allDeliverers) {
-                List<Shipment> delivererShipments = shipmentService.findAll()
-                        .stream()
-                        .filter(s -> deliverer.equals(s.getDeliverer()))
-                        .collect(Collectors.toList());
-                
-                if (!delivererShipments.isEmpty()) {
-                    long delivered = delivererShipments.stream()
-                            .filter(s -> s.getStatus() == ShipmentStatus.DELIVERED)
-                            .count();
-                    
-                    double efficiency = (delivered * 100.0) / delivererShipments.size();
-                    totalEfficiency += efficiency;
-                    activeDeliverers++;
-                }
+            for (Map.Entry<UUID, long[]> entry : countsByDeliverer.entrySet()) {
+                if (!delivererService.exists(entry.getKey())) continue;
+                long[] counts = entry.getValue();
+                double efficiency = (counts[1] * 100.0) / counts[0];
+                totalEfficiency += efficiency;
+                activeDeliverers++;
             }
             
             if (activeDeliverers == 0) return 0.0;
@@ -211,6 +194,19 @@ public class AdminMetricsController {
         }
     }
     
+    /**
+     * Obtiene las métricas del despacho por lotes de envíos pendientes
+     * @return métricas acumuladas y del último lote; en cero si el despacho no está iniciado
+     */
+    public DispatchMetricsDTO getDispatchMetrics() {
+        try {
+            return BatchDispatchService.getInstance().getMetrics();
+        } catch (Exception e) {
+            System.err.println("Error al obtener métricas de despacho: " + e.getMessage());
+            return DispatchMetricsDTO.builder().build();
+        }
+    }
+    
     /**
      * Obtiene datos para el gráfico de envíos por mes
      * @return mapa con mes como clave y cantidad como valor
@@ -219,12 +215,9 @@ public class AdminMetricsController {
         Map<String, Integer> monthlyData = new HashMap<>();
         
         try {
-            List<Shipment> allShipments = shipmentService.findAll();
-            if (allShipments == null) return monthlyData;
-            
             DateTimeFormatter monthFormatter = DateTimeFormatter.ofPattern("MMM yyyy");
             
-            Map<String, Integer> shipmentsByMonth = allShipments.stream()
+            Map<String, Integer> shipmentsByMonth = shipmentService.stream()
                     .filter(s -> s.getCreationDate() != null)
                     .collect(Collectors.groupingBy(
                             s -> s.getCreationDate().format(monthFormatter),
@@ -313,13 +306,10 @@ public class AdminMetricsController {
             // Obtener envíos del día con detalles
             List<Shipment> todayShipments = new ArrayList<>();
             try {
-                List<Shipment> allShipments = shipmentService.findAll();
-                if (allShipments != null) {
-                    todayShipments = allShipments.stream()
-                            .filter(s -> s.getCreationDate() != null)
-                            .filter(s -> s.getCreationDate().toLocalDate().equals(today))
-                            .collect(Collectors.toList());
-                }
+                todayShipments = shipmentService.stream()
+                        .filter(s -> s.getCreationDate() != null)
+                        .filter(s -> s.getCreationDate().toLocalDate().equals(today))
+                        .collect(Collectors.toList());
             } catch (Exception e) {
                 System.err.println("Error al obtener envíos del día: " + e.getMessage());
             }
@@ -3,7 +3,9 @@ package co.edu.uniquindio.sameday.shipmentsuqsameday.controller;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Incident;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.dto.PaginatedDataDTO;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.CapacityReservation;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.DelivererService;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.ShipmentService;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.simulation.DeliverySimulator;
@@ -30,10 +32,21 @@ import java.util.*;
  */
 public class AdminShipmentsController implements Initializable {
 
+    // Envíos por página en la tabla
+    private static final int PAGE_SIZE = 50;
+    // Los envíos más recientes primero; los que no tienen fecha al final
+    private static final Comparator<Shipment> NEWEST_FIRST = Comparator.comparing(Shipment::getCreationDate,
+            Comparator.nullsLast(Comparator.reverseOrder()));
+
     private ViewController viewController;
 
     private ObservableList<Shipment> shipmentsList = FXCollections.observableArrayList();
 
+    // Página y filtros actuales
+    private int currentPage = 0;
+    private String statusFilter = "TODOS";
+    private LocalDate dateFilter;
+
     private ShipmentService shipmentService;
     private DelivererService delivererService;
     private DeliverySimulator deliverySimulator;
@@ -60,63 +73,89 @@ public class AdminShipmentsController implements Initializable {
     }
 
     /**
-     * Carga todos los envíos desde el servicio
+     * Quita los filtros y carga la primera página de envíos
      */
     public void loadAllShipments() {
-        try {
-            shipmentsList.clear();
-            
-            shipmentsList.addAll(shipmentService.findAll());
-            
-            if (viewController != null) {
-                viewController.loadTableData(shipmentsList);
-            }
-        } catch (Exception e) {
-            System.err.println("Error al cargar envíos: " + e.getMessage());
-            e.printStackTrace();
-            
-            if (viewController != null) {
-                viewController.showStatusMessage("Error al cargar envíos: " + e.getMessage(), "error");
-            }
-        }
+        statusFilter = "TODOS";
+        dateFilter = null;
+        currentPage = 0;
+        loadCurrentPage();
     }
 
     /**
-     * Filtra los envíos según criterios específicos
+     * Filtra los envíos según criterios específicos y carga la primera página
      * @param statusFilter filtro por estado (TODOS para todos)
      * @param dateFilter filtro por fecha (null para todos)
      */
     public void filterShipments(String statusFilter, LocalDate dateFilter) {
+        this.statusFilter = statusFilter;
+        this.dateFilter = dateFilter;
+        currentPage = 0;
+        loadCurrentPage();
+    }
+
+    /**
+     * Carga la página siguiente, si existe
+     */
+    public void nextPage() {
+        currentPage++;
+        loadCurrentPage();
+    }
+
+    /**
+     * Carga la página anterior, si existe
+     */
+    public void previousPage() {
+        if (currentPage > 0) {
+            currentPage--;
+            loadCurrentPage();
+        }
+    }
+
+    /**
+     * Carga la página actual con los filtros vigentes. Sin filtros la página se lee
+     * directamente del repositorio; con filtros se recorren los envíos sin copiar la
+     * colección completa y solo se guardan los que coinciden
+     */
+    private void loadCurrentPage() {
         try {
-            // Lista para almacenar los resultados filtrados
-            List<Shipment> filteredList = new ArrayList<>();
-            
-            // Aplicar filtros a la lista completa de envíos
-            for (Shipment shipment : shipmentService.findAll()) {
-                boolean statusMatch = "TODOS".equals(statusFilter) || 
-                                      shipment.getStatus().name().equals(statusFilter);
-                                      
-                boolean dateMatch = dateFilter == null || 
-                                   (shipment.getCreationDate() != null && 
-                                    shipment.getCreationDate().toLocalDate().equals(dateFilter));
-                
-                if (statusMatch && dateMatch) {
-                    filteredList.add(shipment);
-                }
+            PaginatedDataDTO<Shipment> page;
+            if ("TODOS".equals(statusFilter) && dateFilter == null) {
+                page = shipmentService.findPage(currentPage * PAGE_SIZE, PAGE_SIZE, NEWEST_FIRST);
+            } else {
+                List<Shipment> matches = shipmentService.stream()
+                        .filter(shipment -> "TODOS".equals(statusFilter)
+                                || shipment.getStatus().name().equals(statusFilter))
+                        .filter(shipment -> dateFilter == null
+                                || (shipment.getCreationDate() != null
+                                    && shipment.getCreationDate().toLocalDate().equals(dateFilter)))
+                        .sorted(NEWEST_FIRST.thenComparing(Shipment::getId))
+                        .toList();
+                int from = Math.min(currentPage * PAGE_SIZE, matches.size());
+                int to = Math.min(from + PAGE_SIZE, matches.size());
+                page = new PaginatedDataDTO<>(matches.subList(from, to),
+                        (int) Math.ceil((double) matches.size() / PAGE_SIZE), matches.size(), currentPage);
             }
             
-            shipmentsList.clear();
-            shipmentsList.addAll(filteredList);
+            // Si la página quedó fuera de rango (p. ej. tras eliminar), volver a la última
+            if (page.getItems().isEmpty() && currentPage > 0 && page.getTotalItems() > 0) {
+                currentPage = Math.max(0, page.getTotalPages() - 1);
+                loadCurrentPage();
+                return;
+            }
+            
+            shipmentsList.setAll(page.getItems());
             
             if (viewController != null) {
                 viewController.loadTableData(shipmentsList);
+                viewController.updatePagination(currentPage, Math.max(1, page.getTotalPages()), page.getTotalItems());
             }
         } catch (Exception e) {
-            System.err.println("Error al filtrar envíos: " + e.getMessage());
+            System.err.println("Error al cargar envíos: " + e.getMessage());
             e.printStackTrace();
             
             if (viewController != null) {
-                viewController.showStatusMessage("Error al filtrar envíos: " + e.getMessage(), "error");
+                viewController.showStatusMessage("Error al cargar envíos: " + e.getMessage(), "error");
             }
         }
     }
@@ -131,15 +170,13 @@ public class AdminShipmentsController implements Initializable {
             System.out.println("Envío ID: " + shipment.getId());
             System.out.println("Estado actual del envío: " + shipment.getStatus());
             
-            List<Deliverer> allDeliverers = delivererService.findAll();
-            System.out.println("Total de repartidores en el sistema: " + allDeliverers.size());
+            System.out.println("Total de repartidores en el sistema: " + delivererService.count());
             
-            for (Deliverer d : allDeliverers) {
+            delivererService.stream().forEach(d ->
                 System.out.println("  - " + d.getName() + 
                                    " | Estado: " + d.getStatus() + 
                                    " | Envíos actuales: " + d.getCurrentShipments().size() +
-                                   " | Zona: " + d.getZone());
-            }
+                                   " | Zona: " + d.getZone()));
             
             List<Deliverer> availableDeliverers = delivererService.getAvailableDeliverers();
             System.out.println("Repartidores disponibles para asignación: " + availableDeliverers.size());
@@ -148,7 +185,7 @@ public class AdminShipmentsController implements Initializable {
                 System.out.println("[ERROR] No hay repartidores disponibles (estado AVAILABLE)");
                 
                 // Buscar también repartidores ACTIVE
-                List<Deliverer> activeDeliverers = delivererService.findAll().stream()
+                List<Deliverer> activeDeliverers = delivererService.stream()
                     .filter(d -> d.getStatus() == co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.DelivererStatus.ACTIVE)
                     .toList();
                 
@@ -251,6 +288,21 @@ public class AdminShipmentsController implements Initializable {
      */
     private void assignCourierToShipment(Shipment shipment, Deliverer deliverer) {
         try {
+            // Reservar el cupo en el repartidor; otra asignación concurrente pudo ocupar el último
+            CapacityReservation reservation = delivererService.reserveCapacity(deliverer);
+            if (reservation == null) {
+                if (viewController != null) {
+                    viewController.showStatusMessage("El repartidor no puede aceptar más envíos en este momento", "error");
+                }
+                return;
+            }
+            
+            // Liberar el cupo del repartidor anterior, si lo había
+            Deliverer previousDeliverer = shipment.getDeliverer();
+            if (previousDeliverer != null && !previousDeliverer.equals(deliverer)) {
+                delivererService.releaseShipment(previousDeliverer, shipment);
+            }
+            
             // Asignar el repartidor al envío
             shipment.setDeliverer(deliverer);
             
@@ -260,12 +312,11 @@ public class AdminShipmentsController implements Initializable {
             // Registrar la fecha de asignación
             shipment.setAssignmentDate(LocalDateTime.now());
             
-            // Agregar el envío a la lista de envíos actuales del repartidor
-            deliverer.getCurrentShipments().add(shipment);
+            // Confirmar el cupo: agrega el envío a los envíos actuales del repartidor y lo guarda
+            reservation.commit(shipment);
             
             // Guardar los cambios
             shipmentService.update(shipment);
-            delivererService.update(deliverer);
             
             // Actualizar la UI
             if (viewController != null) {
@@ -390,7 +441,7 @@ public class AdminShipmentsController implements Initializable {
                 // Si tiene repartidor asignado, mover de envíos actuales a históricos
                 if (shipment.getDeliverer() != null) {
                     Deliverer deliverer = shipment.getDeliverer();
-                    deliverer.getCurrentShipments().remove(shipment);
+                    delivererService.releaseShipment(deliverer, shipment);
                     deliverer.getShipmentHistory().add(shipment);
                     deliverer.setTotalDeliveries(deliverer.getTotalDeliveries() + 1);
                     
@@ -443,10 +494,9 @@ public class AdminShipmentsController implements Initializable {
                 // Si se cancela y tiene repartidor, quitarlo de sus envíos actuales
                 if (shipment.getDeliverer() != null) {
                     Deliverer deliverer = shipment.getDeliverer();
-                    deliverer.getCurrentShipments().remove(shipment);
                     
-                    // Actualizar el repartidor
-                    delivererService.update(deliverer);
+                    // Liberar su cupo y actualizar el repartidor
+                    delivererService.releaseShipment(deliverer, shipment);
                 }
                 
                 // Cancelar simulación si existe
@@ -605,11 +655,8 @@ public class AdminShipmentsController implements Initializable {
                 .date(LocalDateTime.now())
                 .build();
             
-            // Agregar la incidencia al envío
-            shipment.getIncidents().add(incident);
-            
-            // Guardar los cambios
-            shipmentService.update(shipment);
+            // Registrar la incidencia en su repositorio y enlazarla al envío
+            shipmentService.reportIncident(incident);
             
             // Actualizar la UI
             if (viewController != null) {
@@ -662,6 +709,7 @@ public class AdminShipmentsController implements Initializable {
      */
     public interface ViewController {
         void loadTableData(ObservableList<Shipment> shipments);
+        void updatePagination(int currentPage, int totalPages, long totalItems);
         void updateShipmentInTable(Shipment shipment);
         void removeShipmentFromTable(Shipment shipment);
         void showStatusMessage(String message, String messageType);
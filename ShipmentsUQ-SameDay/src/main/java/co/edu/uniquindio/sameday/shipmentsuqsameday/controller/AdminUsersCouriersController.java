@@ -3,22 +3,21 @@ package co.edu.uniquindio.sameday.shipmentsuqsameday.controller;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.internalController.GridMapViewController;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.User;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.dto.PaginatedDataDTO;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.DelivererStatus;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.UserRole;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.DelivererRepository;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.UserRepository;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.DelivererService;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.UserService;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.Initializable;
+import javafx.scene.control.TableView;
 import javafx.scene.layout.Pane;
 
 import java.net.URL;
 import java.util.ResourceBundle;
 import java.util.UUID;
-import java.util.List;
-import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controlador para la gestión de usuarios y repartidores
@@ -30,10 +29,6 @@ public class AdminUsersCouriersController implements Initializable {
     // Referencia al View Controller para interacciones con la UI
     private viewController viewController;
 
-    // Colecciones para almacenar usuarios y repartidores
-    private ObservableList<User> usersList = FXCollections.observableArrayList();
-    private ObservableList<Deliverer> deliverersList = FXCollections.observableArrayList();
-
     // Servicios para acceso a datos
     private UserService userService;
     private DelivererService delivererService;
@@ -106,16 +101,13 @@ public class AdminUsersCouriersController implements Initializable {
             viewController.updateUIForMode(mode);
             
             // Actualizar la tabla con los datos correspondientes
-            if ("users".equals(mode)) {
-                viewController.loadTableData(usersList);
-            } else {
-                viewController.loadTableData(deliverersList);
-            }
+            viewController.loadTableData();
         }
     }
 
     /**
-     * Carga datos desde los servicios
+     * Obtiene los servicios con los repositorios del DataManager; las tablas leen
+     * de ellos página por página
      */
     private void loadMockData() {
         try {
@@ -127,31 +119,17 @@ public class AdminUsersCouriersController implements Initializable {
             userService = UserService.getInstance(userRepository);
             delivererService = DelivererService.getInstance(delivererRepository);
             
-            // Cargar usuarios desde el servicio
-            usersList.clear();
-            usersList.addAll(userService.findAll());
-            
-            // Si no hay usuarios en el servicio (primera ejecución), mostrar mensaje
-            if (usersList.isEmpty()) {
+            // Si no hay datos en el servicio (primera ejecución), mostrar mensaje
+            if (userService.count() == 0) {
                 System.out.println("No se encontraron usuarios en el repositorio");
             }
-            
-            // Cargar repartidores desde el servicio
-            deliverersList.clear();
-            deliverersList.addAll(delivererService.findAll());
-            
-            // Si no hay repartidores en el servicio (primera ejecución), mostrar mensaje
-            if (deliverersList.isEmpty()) {
+            if (delivererService.count() == 0) {
                 System.out.println("No se encontraron repartidores en el repositorio");
             }
             
             // Si el ViewController está configurado, cargar los datos en la tabla
             if (viewController != null) {
-                if ("users".equals(currentMode)) {
-                    viewController.loadTableData(usersList);
-                } else {
-                    viewController.loadTableData(deliverersList);
-                }
+                viewController.loadTableData();
             }
         } catch (Exception e) {
             System.err.println("Error al cargar datos: " + e.getMessage());
@@ -164,6 +142,21 @@ public class AdminUsersCouriersController implements Initializable {
         }
     }
 
+    /**
+     * Carga en la tabla una página de usuarios o repartidores según el modo actual,
+     * leída directamente del repositorio
+     * @param tableView tabla a llenar
+     * @param pageIndex número de página, desde 0
+     * @param pageSize tamaño de la página
+     * @return página cargada, con los totales para el paginador
+     */
+    public CompletableFuture<? extends PaginatedDataDTO<?>> loadPage(TableView<Object> tableView, int pageIndex, int pageSize) {
+        if ("users".equals(currentMode)) {
+            return DataLoadManager.loadPageAsync(tableView, userService.getRepository(), pageIndex, pageSize, null);
+        }
+        return DataLoadManager.loadPageAsync(tableView, delivererService.getRepository(), pageIndex, pageSize, null);
+    }
+
     /**
      * Agrega un nuevo usuario
      * @param name nombre
@@ -192,9 +185,6 @@ public class AdminUsersCouriersController implements Initializable {
                 
             // Guardar en el servicio
             userService.create(newUser);
-                
-            // Actualizar la lista observable
-            usersList.add(newUser);
             return true;
         } catch (Exception e) {
             System.err.println("Error al agregar usuario: " + e.getMessage());
@@ -219,8 +209,7 @@ public class AdminUsersCouriersController implements Initializable {
                                 double coordX, double coordY, Double gpsLatitude, Double gpsLongitude) {
         try {
             // Verificar si ya existe un repartidor con el mismo documento
-            boolean existeRepartidor = deliverersList.stream()
-                .anyMatch(d -> d.getDocument().equals(document));
+            boolean existeRepartidor = delivererService.getRepository().findByDocument(document).isPresent();
                 
             if (existeRepartidor) {
                 if (viewController != null) {
@@ -252,9 +241,6 @@ public class AdminUsersCouriersController implements Initializable {
                 
             // Guardar en el servicio
             delivererService.create(newDeliverer);
-                
-            // Actualizar la lista observable
-            deliverersList.add(newDeliverer);
             return true;
         } catch (Exception e) {
             System.err.println("Error al agregar repartidor: " + e.getMessage());
@@ -285,13 +271,7 @@ public class AdminUsersCouriersController implements Initializable {
             selectedUser.setName(name);
             selectedUser.setEmail(email);
             selectedUser.setPhone(phone);
-            
-            // Actualizar la lista para reflejar los cambios
-            int index = usersList.indexOf(selectedUser);
-            if (index >= 0) {
-                usersList.set(index, selectedUser);
-            }
-            
+            userService.update(selectedUser);
             return true;
         } catch (Exception e) {
             return false;
@@ -320,13 +300,7 @@ public class AdminUsersCouriersController implements Initializable {
             selectedDeliverer.setZone(zone);
             selectedDeliverer.setStatus(status);
             selectedDeliverer.updatePosition(coordX, coordY);
-            
-            // Actualizar la lista para reflejar los cambios
-            int index = deliverersList.indexOf(selectedDeliverer);
-            if (index >= 0) {
-                deliverersList.set(index, selectedDeliverer);
-            }
-            
+            delivererService.update(selectedDeliverer);
             return true;
         } catch (Exception e) {
             return false;
@@ -339,7 +313,11 @@ public class AdminUsersCouriersController implements Initializable {
      * @return true si la operación fue exitosa
      */
     public boolean deleteUser(User user) {
-        return usersList.remove(user);
+        if (!userService.exists(user.getId())) {
+            return false;
+        }
+        userService.delete(user.getId());
+        return true;
     }
 
     /**
@@ -348,43 +326,19 @@ public class AdminUsersCouriersController implements Initializable {
      * @return true si la operación fue exitosa
      */
     public boolean deleteDeliverer(Deliverer deliverer) {
-        return deliverersList.remove(deliverer);
-    }
-
-    /**
-     * Obtiene la lista de usuarios
-     * @return lista observable de usuarios
-     */
-    public ObservableList<User> getUsersList() {
-        return usersList;
-    }
-
-    /**
-     * Obtiene la lista de repartidores
-     * @return lista observable de repartidores
-     */
-    public ObservableList<Deliverer> getDeliverersList() {
-        return deliverersList;
-    }
-
-    /**
-     * Obtiene los datos actuales según el modo
-     * @return Lista de usuarios o repartidores según el modo actual
-     */
-    public List<?> getCurrentData() {
-        if ("users".equals(currentMode)) {
-            return new ArrayList<>(usersList);
-        } else {
-            return new ArrayList<>(deliverersList);
+        if (!delivererService.exists(deliverer.getId())) {
+            return false;
         }
+        delivererService.delete(deliverer.getId());
+        return true;
     }
-    
+
     /**
      * Interfaz para la comunicación con el ViewController
      */
     public interface viewController {
         void updateUIForMode(String mode);
-        void loadTableData(ObservableList<?> data);
+        void loadTableData();
         void updateZoneCoordinates(double x, double y);
         void showStatusMessage(String message, String messageType);
     }
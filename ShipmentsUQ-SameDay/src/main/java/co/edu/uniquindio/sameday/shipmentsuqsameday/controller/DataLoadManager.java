@@ -3,10 +3,12 @@ package co.edu.uniquindio.sameday.shipmentsuqsameday.controller;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.User;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.dto.PaginatedDataDTO;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.Repository;
 import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
 import javafx.scene.control.TableView;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
@@ -40,6 +42,41 @@ public class DataLoadManager {
         new Thread(task).start();
     }
     
+    /**
+     * Carga en la tabla una página leída directamente del repositorio, sin copiar
+     * la colección completa
+     * @param tableView tabla a llenar
+     * @param repository repositorio de origen
+     * @param pageIndex número de página, desde 0
+     * @param pageSize tamaño de la página
+     * @param sort orden de las filas, o null para ordenarlas por ID
+     * @return página cargada, con los totales para el paginador
+     */
+    public static <T> CompletableFuture<PaginatedDataDTO<T>> loadPageAsync(TableView<? super T> tableView, Repository<T> repository,
+                                                                         int pageIndex, int pageSize, Comparator<? super T> sort) {
+        CompletableFuture<PaginatedDataDTO<T>> result = new CompletableFuture<>();
+        Task<PaginatedDataDTO<T>> task = new Task<>() {
+            @Override
+            protected PaginatedDataDTO<T> call() {
+                return repository.findPage(pageIndex * pageSize, pageSize, sort);
+            }
+        };
+        
+        task.setOnSucceeded(e -> {
+            PaginatedDataDTO<T> page = task.getValue();
+            tableView.getItems().setAll(page.getItems());
+            result.complete(page);
+        });
+        
+        task.setOnFailed(e -> {
+            System.err.println("Error al cargar la página: " + task.getException().getMessage());
+            result.completeExceptionally(task.getException());
+        });
+        
+        new Thread(task).start();
+        return result;
+    }
+    
     public static CompletableFuture<PaginatedDataDTO<Object>> searchData(
             String searchTerm, 
             List<User> users, 
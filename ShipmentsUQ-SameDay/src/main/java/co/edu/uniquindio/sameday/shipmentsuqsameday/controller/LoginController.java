@@ -129,10 +129,9 @@ public class LoginController {
         
         // Buscar en todos los usuarios
         UserRepository repo = userService.getRepository();
-        List<User> allUsers = repo.findAll();
         
         // Buscar el primer usuario que tenga esa contraseña
-        return allUsers.stream()
+        return repo.stream()
             .filter(user -> password.equals(user.getPassword()))
             .map(User::getEmail)
             .findFirst()
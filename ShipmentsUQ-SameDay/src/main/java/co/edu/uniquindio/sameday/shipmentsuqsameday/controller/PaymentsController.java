@@ -12,6 +12,7 @@ import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.PaymentMethod;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.PaymentStatus;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.PaymentService;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.ShipmentService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.UserService;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -192,6 +193,17 @@ public class PaymentsController {
         }
     }
     
+    /**
+     * Guarda el usuario actual después de modificar sus métodos de pago en memoria
+     */
+    private void saveCurrentUser() {
+        UserService userService = UserService.getInstance();
+        if (userService.exists(currentUser.getId())) {
+            userService.update(currentUser);
+        }
+        UserDashboardController.setCurrentUser(currentUser);
+    }
+    
     /**
      * Obtiene un comprobante de pago y lo guarda como HTML en la carpeta de descargas
      * @param paymentId ID del pago
@@ -293,8 +305,8 @@ public class PaymentsController {
                     .removeIf(method -> method.getId().equals(paymentMethodId));
             
             if (removed) {
-                // Actualizar usuario en el servicio (esto persistirá los cambios)
-                UserDashboardController.setCurrentUser(currentUser);
+                // Guardar el usuario para que el cambio llegue a la persistencia
+                saveCurrentUser();
                 return true;
             }
             
@@ -327,8 +339,8 @@ public class PaymentsController {
                 UserPaymentMethod method = methodOpt.get();
                 method.setAlias(newAlias.trim());
                 
-                // Actualizar usuario en el servicio (esto persistirá los cambios)
-                UserDashboardController.setCurrentUser(currentUser);
+                // Guardar el usuario para que el cambio llegue a la persistencia
+                saveCurrentUser();
                 return true;
             }
             
@@ -132,7 +132,7 @@ public class RegisterController {
         }
         
         // Verificar si el teléfono ya está registrado
-        if (delivererService.getRepository().findAll().stream()
+        if (delivererService.stream()
                 .anyMatch(d -> d.getPhone().equals(phone.trim()))) {
             throw new IllegalArgumentException("El número de teléfono ya está registrado");
         }
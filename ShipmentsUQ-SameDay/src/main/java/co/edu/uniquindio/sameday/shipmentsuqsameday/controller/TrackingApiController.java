@@ -86,16 +86,11 @@ public class TrackingApiController implements HttpHandler {
         List<Map<String, Object>> activeShipments = new ArrayList<>();
         
         // Buscar todos los envíos en tránsito
-        List<Shipment> shipments = shipmentService.findAll();
-        
-        for (Shipment shipment : shipments) {
-            if (shipment.getDeliverer() != null && shipment.getDestination() != null) {
-                Map<String, Object> trackingData = buildTrackingData(shipment);
-                if (trackingData != null) {
-                    activeShipments.add(trackingData);
-                }
-            }
-        }
+        shipmentService.stream()
+            .filter(shipment -> shipment.getDeliverer() != null && shipment.getDestination() != null)
+            .map(this::buildTrackingData)
+            .filter(Objects::nonNull)
+            .forEach(activeShipments::add);
         
         Map<String, Object> result = new HashMap<>();
         result.put("success", true);
@@ -1,6 +1,9 @@
 package co.edu.uniquindio.sameday.shipmentsuqsameday.mapping;
 
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.service.EtaEstimator;
+
 import java.time.Duration;
+import java.time.LocalDateTime;
 
 /**
  * Calculadora para métricas basadas en coordenadas reales del mapa
@@ -8,9 +11,6 @@ import java.time.Duration;
  */
 public class MapCalculator {
     
-    // Velocidad promedio en ciudad (km/h)
-    private static final double AVERAGE_SPEED_KMH = 30.0;
-    
     // Costo base por kilómetro
     private static final double COST_PER_KM = 2500.0; // COP
     
@@ -29,16 +29,17 @@ public class MapCalculator {
     }
     
     /**
-     * Calcula el tiempo estimado de entrega
+     * Calcula el tiempo estimado de entrega.
+     * Parte de 30 km/h y aplica el ritmo aprendido para la zona de destino y la hora actual
      * @param origin Coordenadas de origen
      * @param destination Coordenadas de destino
      * @return Tiempo estimado en minutos
      */
     public static long calculateEstimatedTimeMinutes(Coordinates origin, Coordinates destination) {
         double distance = origin.distanceTo(destination);
-        double hours = distance / AVERAGE_SPEED_KMH;
+        double minutes = EtaEstimator.getInstance().estimateMinutes(distance, destination, LocalDateTime.now());
         // Agregar 10 minutos de buffer por procesamiento y carga/descarga
-        return Math.round(hours * 60) + 10;
+        return Math.round(minutes) + 10;
     }
     
     /**
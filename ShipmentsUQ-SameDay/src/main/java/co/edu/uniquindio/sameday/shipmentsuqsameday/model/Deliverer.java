@@ -2,27 +2,48 @@ package co.edu.uniquindio.sameday.shipmentsuqsameday.model;
 
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.DelivererStatus;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.interfaces.IGridCoordinate;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.interfaces.Observable;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.interfaces.Observer;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.strategy.GridCoordinateStrategy;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * Clase que representa un repartidor en el sistema
+ * Clase que representa un repartidor en el sistema.
+ * Dos repartidores son iguales si tienen el mismo ID; los envíos asignados y el
+ * historial se guardan como {@link ShipmentReferenceList}.
+ * Notifica {@link #POSITION_CHANGED} a sus observadores cuando cambia su posición.
  */
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Deliverer implements Serializable, IGridCoordinate {
+public class Deliverer implements Serializable, IGridCoordinate, Observable {
     
     private static final long serialVersionUID = 2L; // Incrementado para nueva versión
+    
+    /**
+     * Evento notificado cuando cambian las coordenadas del repartidor
+     */
+    public static final String POSITION_CHANGED = "POSITION_CHANGED";
+    
+    @EqualsAndHashCode.Include
     private UUID id;
     private String name;
     private String document;
@@ -42,10 +63,41 @@ public class Deliverer implements Serializable, IGridCoordinate {
     private Double realLongitude; // Usar Double (nullable) para compatibilidad con datos existentes
 
     @Builder.Default
-    private List<Shipment> currentShipments = new ArrayList<>();
+    private List<Shipment> currentShipments = new ShipmentReferenceList();
     
     @Builder.Default
-    private List<Shipment> shipmentHistory = new ArrayList<>();
+    private List<Shipment> shipmentHistory = new ShipmentReferenceList();
+    
+    // Observadores en memoria (por ejemplo, el índice espacial del repositorio); no se persisten
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient List<Observer> observers = new CopyOnWriteArrayList<>();
+
+    public List<Shipment> getCurrentShipments() {
+        if (!(currentShipments instanceof ShipmentReferenceList)) {
+            currentShipments = ShipmentReferenceList.copyOf(currentShipments);
+        }
+        return currentShipments;
+    }
+
+    public void setCurrentShipments(List<Shipment> currentShipments) {
+        this.currentShipments = currentShipments instanceof ShipmentReferenceList
+                ? currentShipments : ShipmentReferenceList.copyOf(currentShipments);
+    }
+
+    public List<Shipment> getShipmentHistory() {
+        if (!(shipmentHistory instanceof ShipmentReferenceList)) {
+            shipmentHistory = ShipmentReferenceList.copyOf(shipmentHistory);
+        }
+        return shipmentHistory;
+    }
+
+    public void setShipmentHistory(List<Shipment> shipmentHistory) {
+        this.shipmentHistory = shipmentHistory instanceof ShipmentReferenceList
+                ? shipmentHistory : ShipmentReferenceList.copyOf(shipmentHistory);
+    }
     
     /**
      * Implementación de IGridCoordinate para obtener la coordenada X
@@ -73,6 +125,7 @@ public class Deliverer implements Serializable, IGridCoordinate {
     public void updatePosition(double x, double y) {
         this.currentX = x;
         this.currentY = y;
+        notifyObservers(POSITION_CHANGED, this);
     }
     
     /**
@@ -89,6 +142,7 @@ public class Deliverer implements Serializable, IGridCoordinate {
         double[] gridCoords = GridCoordinateStrategy.convertRealToGrid(latitude, longitude);
         this.currentX = gridCoords[0];
         this.currentY = gridCoords[1];
+        notifyObservers(POSITION_CHANGED, this);
     }
     
     /**
@@ -114,7 +168,10 @@ public class Deliverer implements Serializable, IGridCoordinate {
             double[] gpsCoords = GridCoordinateStrategy.convertGridToReal(currentX, currentY);
             this.realLatitude = gpsCoords[0];
             this.realLongitude = gpsCoords[1];
+        } else {
+            return;
         }
+        notifyObservers(POSITION_CHANGED, this);
     }
     
     /**
@@ -131,5 +188,34 @@ public class Deliverer implements Serializable, IGridCoordinate {
         double[] gpsCoords = GridCoordinateStrategy.convertGridToReal(x, y);
         this.realLatitude = gpsCoords[0];
         this.realLongitude = gpsCoords[1];
+        notifyObservers(POSITION_CHANGED, this);
+    }
+    
+    @Override
+    public void registerObserver(Observer observer) {
+        observers.add(observer);
+    }
+    
+    @Override
+    public void removeObserver(Observer observer) {
+        observers.remove(observer);
+    }
+    
+    @Override
+    public void notifyObservers(String event, Object data) {
+        for (Observer observer : observers) {
+            observer.update(event, data);
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        getCurrentShipments();
+        getShipmentHistory();
+        out.defaultWriteObject();
+    }
+    
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        observers = new CopyOnWriteArrayList<>();
     }
-}
\ No newline at end of file
+}
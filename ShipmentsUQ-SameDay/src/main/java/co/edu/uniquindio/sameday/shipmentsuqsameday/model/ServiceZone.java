@@ -0,0 +1,123 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Clase que representa una zona de servicio delimitada por un polígono en coordenadas GPS.
+ * El ID de la zona es su nombre normalizado con {@link #normalizeId(String)}, de modo que
+ * coincide con las zonas escritas a mano en direcciones y repartidores.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ServiceZone implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final double KM_PER_DEGREE = 111.195;
+
+    private String id;
+    private String name;
+
+    // Vértices del polígono en orden (el último se une con el primero)
+    @Builder.Default
+    private List<Coordinates> boundary = new ArrayList<>();
+
+    /**
+     * Verifica si un punto está dentro del polígono (regla par-impar)
+     * @param latitude latitud del punto
+     * @param longitude longitud del punto
+     * @return true si el punto está dentro de la zona
+     */
+    public boolean contains(double latitude, double longitude) {
+        boolean inside = false;
+        int count = boundary.size();
+        for (int i = 0, j = count - 1; i < count; j = i++) {
+            Coordinates a = boundary.get(i);
+            Coordinates b = boundary.get(j);
+            if ((a.getLatitude() > latitude) != (b.getLatitude() > latitude)) {
+                double crossing = a.getLongitude() + (latitude - a.getLatitude())
+                        * (b.getLongitude() - a.getLongitude()) / (b.getLatitude() - a.getLatitude());
+                if (longitude < crossing) {
+                    inside = !inside;
+                }
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Normaliza el nombre de una zona para usarlo como ID o clave de partición
+     * @param zone nombre de la zona
+     * @return nombre en minúsculas y sin espacios alrededor, o null si está vacío
+     */
+    public static String normalizeId(String zone) {
+        if (zone == null || zone.isBlank()) {
+            return null;
+        }
+        return zone.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Crea una zona a partir de sus vértices
+     * @param name nombre de la zona
+     * @param boundary vértices del polígono
+     * @return zona con ID normalizado
+     */
+    public static ServiceZone of(String name, List<Coordinates> boundary) {
+        return ServiceZone.builder()
+                .id(normalizeId(name))
+                .name(name)
+                .boundary(new ArrayList<>(boundary))
+                .build();
+    }
+
+    /**
+     * Crea una zona poligonal que circunscribe un círculo
+     * @param name nombre de la zona
+     * @param center centro del círculo
+     * @param radiusKm radio en kilómetros
+     * @param vertices número de vértices del polígono
+     * @return zona que contiene el círculo y se aparta de él menos de radiusKm·(1/cos(π/vertices) − 1)
+     */
+    public static ServiceZone circle(String name, Coordinates center, double radiusKm, int vertices) {
+        double latitudeRadius = radiusKm / KM_PER_DEGREE;
+        double longitudeRadius = latitudeRadius / Math.cos(Math.toRadians(center.getLatitude()));
+        return ellipse(name, center, latitudeRadius, longitudeRadius, vertices);
+    }
+
+    /**
+     * Crea una zona poligonal que circunscribe una elipse con ejes en grados
+     * @param name nombre de la zona
+     * @param center centro de la elipse
+     * @param latitudeRadius semieje en latitud (grados)
+     * @param longitudeRadius semieje en longitud (grados)
+     * @param vertices número de vértices del polígono
+     * @return zona que contiene la elipse
+     */
+    public static ServiceZone ellipse(String name, Coordinates center, double latitudeRadius,
+                                      double longitudeRadius, int vertices) {
+        if (vertices < 3) {
+            throw new IllegalArgumentException("Una zona necesita al menos 3 vértices");
+        }
+        // Los vértices se alejan 1/cos(π/n) para que los lados queden por fuera de la curva
+        double scale = 1.0 / Math.cos(Math.PI / vertices);
+        List<Coordinates> boundary = new ArrayList<>(vertices);
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            boundary.add(new Coordinates(
+                    center.getLatitude() + latitudeRadius * scale * Math.sin(angle),
+                    center.getLongitude() + longitudeRadius * scale * Math.cos(angle)));
+        }
+        return of(name, boundary);
+    }
+}
@@ -7,6 +7,7 @@ import co.edu.uniquindio.sameday.shipmentsuqsameday.model.interfaces.Observer;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
@@ -15,15 +16,19 @@ import java.util.List;
 import java.util.UUID;
 
 /**
- * Clase que representa un envío en el sistema
+ * Clase que representa un envío en el sistema.
+ * Dos envíos son iguales si tienen el mismo ID, así comparar o buscar un envío no
+ * recorre su usuario y repartidor.
  */
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Shipment implements Observable {
     
     private static final long serialVersionUID = 1L;
+    @EqualsAndHashCode.Include
     private UUID id;
     private User user;
     private Deliverer deliverer;
@@ -0,0 +1,245 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Lista de envíos guardada como sus IDs.
+ * Los usuarios y repartidores la usan para sus envíos asignados e historiales: al
+ * serializarse solo escribe los IDs, así que guardar un repartidor no arrastra los envíos
+ * ni, a través de ellos, a los usuarios y demás repartidores del grafo.
+ *
+ * Los envíos se resuelven contra el repositorio en el primer acceso a los elementos y los
+ * que ya no existen se descartan. El tamaño, la búsqueda y la eliminación de un envío
+ * comparan por ID, de modo que no necesitan resolver la lista.
+ */
+public final class ShipmentReferenceList extends AbstractList<Shipment> implements RandomAccess, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static volatile Function<UUID, Shipment> defaultResolver;
+
+    private final ArrayList<UUID> ids;
+    private transient ArrayList<Shipment> items;
+    private transient Map<UUID, Shipment> attached;
+    private transient Function<UUID, Shipment> resolver;
+
+    /**
+     * Crea una lista vacía
+     */
+    public ShipmentReferenceList() {
+        this.ids = new ArrayList<>();
+        this.items = new ArrayList<>();
+    }
+
+    private ShipmentReferenceList(ArrayList<UUID> ids, Function<UUID, Shipment> resolver) {
+        this.ids = ids;
+        this.resolver = resolver;
+    }
+
+    /**
+     * @param shipments envíos iniciales (puede ser null)
+     * @return lista con los envíos dados, ya resuelta
+     */
+    public static ShipmentReferenceList copyOf(Collection<? extends Shipment> shipments) {
+        ShipmentReferenceList list = new ShipmentReferenceList();
+        if (shipments != null) {
+            list.addAll(shipments);
+        }
+        return list;
+    }
+
+    /**
+     * @param ids IDs de los envíos, en orden
+     * @param resolver obtiene el envío de un ID, o null si ya no existe;
+     *                 si es null se usa el resolutor por defecto
+     * @return lista que se resuelve en el primer acceso a sus elementos
+     */
+    public static ShipmentReferenceList ofIds(Collection<UUID> ids, Function<UUID, Shipment> resolver) {
+        return new ShipmentReferenceList(new ArrayList<>(ids), resolver);
+    }
+
+    /**
+     * Define cómo se resuelven las listas que no tienen un resolutor propio
+     * (normalmente, una búsqueda por ID en el repositorio de envíos)
+     */
+    public static void setDefaultResolver(Function<UUID, Shipment> resolver) {
+        defaultResolver = resolver;
+    }
+
+    /**
+     * Asigna el resolutor de una lista que todavía no se ha resuelto; si ya se resolvió no tiene efecto
+     */
+    public synchronized void resolveWith(Function<UUID, Shipment> resolver) {
+        if (items == null) {
+            this.resolver = resolver;
+        }
+    }
+
+    public synchronized boolean isResolved() {
+        return items != null;
+    }
+
+    /**
+     * Resuelve la lista si todavía no se ha resuelto
+     */
+    public void resolve() {
+        items();
+    }
+
+    /**
+     * @return copia de los IDs de los envíos, sin resolverlos
+     */
+    public synchronized List<UUID> getIds() {
+        return new ArrayList<>(ids);
+    }
+
+    private synchronized ArrayList<Shipment> items() {
+        if (items == null) {
+            Function<UUID, Shipment> source = resolver != null ? resolver : defaultResolver;
+            ArrayList<Shipment> resolved = new ArrayList<>(ids.size());
+            Iterator<UUID> iterator = ids.iterator();
+            while (iterator.hasNext()) {
+                UUID id = iterator.next();
+                Shipment shipment = attached != null ? attached.get(id) : null;
+                if (shipment == null && source != null) {
+                    shipment = source.apply(id);
+                }
+                if (shipment != null) {
+                    resolved.add(shipment);
+                } else {
+                    iterator.remove();
+                }
+            }
+            if (source == null && !ids.isEmpty()) {
+                System.err.println("[PERSISTENCE] Lista de envíos sin resolutor; se descartaron las referencias pendientes");
+            }
+            items = resolved;
+            attached = null;
+            resolver = null;
+        }
+        return items;
+    }
+
+    private static UUID idOf(Object element) {
+        if (!(element instanceof Shipment)) {
+            return null;
+        }
+        return ((Shipment) element).getId();
+    }
+
+    private static UUID requireId(Shipment shipment) {
+        UUID id = idOf(shipment);
+        if (id == null) {
+            throw new IllegalArgumentException("Solo se pueden agregar envíos con ID");
+        }
+        return id;
+    }
+
+    @Override
+    public Shipment get(int index) {
+        return items().get(index);
+    }
+
+    @Override
+    public synchronized int size() {
+        return ids.size();
+    }
+
+    @Override
+    public synchronized Shipment set(int index, Shipment element) {
+        UUID id = requireId(element);
+        Shipment previous = items().set(index, element);
+        ids.set(index, id);
+        return previous;
+    }
+
+    /**
+     * Agrega un envío; si la lista no se ha resuelto lo conserva hasta que se resuelva
+     */
+    @Override
+    public synchronized void add(int index, Shipment element) {
+        UUID id = requireId(element);
+        if (items != null) {
+            items.add(index, element);
+        } else {
+            if (attached == null) {
+                attached = new HashMap<>();
+            }
+            attached.put(id, element);
+        }
+        ids.add(index, id);
+        modCount++;
+    }
+
+    @Override
+    public synchronized Shipment remove(int index) {
+        Shipment removed = items().remove(index);
+        ids.remove(index);
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Elimina la primera aparición del envío con el mismo ID, sin resolver la lista
+     */
+    @Override
+    public synchronized boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        UUID id = ids.remove(index);
+        if (items != null) {
+            items.remove(index);
+        } else if (attached != null && !ids.contains(id)) {
+            attached.remove(id);
+        }
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public synchronized int indexOf(Object o) {
+        UUID id = idOf(o);
+        return id != null ? ids.indexOf(id) : -1;
+    }
+
+    @Override
+    public synchronized int lastIndexOf(Object o) {
+        UUID id = idOf(o);
+        return id != null ? ids.lastIndexOf(id) : -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public synchronized void clear() {
+        ids.clear();
+        items = new ArrayList<>();
+        attached = null;
+        resolver = null;
+        modCount++;
+    }
+
+    /**
+     * Muestra los IDs para no recorrer el grafo (los envíos apuntan a su usuario y repartidor)
+     */
+    @Override
+    public synchronized String toString() {
+        return ids.toString();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (ids == null) {
+            throw new IOException("Lista de envíos sin IDs");
+        }
+    }
+}
@@ -4,23 +4,30 @@ import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.UserRole;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 /**
- * Clase que representa un usuario en el sistema
+ * Clase que representa un usuario en el sistema.
+ * Dos usuarios son iguales si tienen el mismo ID; el historial de envíos se guarda
+ * como una {@link ShipmentReferenceList}.
  */
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class User implements Serializable {
     
     private static final long serialVersionUID = 1L;
+    @EqualsAndHashCode.Include
     private UUID id;
     private String name;
     private String email;
@@ -35,5 +42,22 @@ public class User implements Serializable {
     private List<UserPaymentMethod> paymentMethods = new ArrayList<>();
     
     @Builder.Default
-    private List<Shipment> shipmentHistory = new ArrayList<>();
+    private List<Shipment> shipmentHistory = new ShipmentReferenceList();
+
+    public List<Shipment> getShipmentHistory() {
+        if (!(shipmentHistory instanceof ShipmentReferenceList)) {
+            shipmentHistory = ShipmentReferenceList.copyOf(shipmentHistory);
+        }
+        return shipmentHistory;
+    }
+
+    public void setShipmentHistory(List<Shipment> shipmentHistory) {
+        this.shipmentHistory = shipmentHistory instanceof ShipmentReferenceList
+                ? shipmentHistory : ShipmentReferenceList.copyOf(shipmentHistory);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        getShipmentHistory();
+        out.defaultWriteObject();
+    }
 }
@@ -87,6 +87,22 @@ public class CommandManager {
         return true;
     }
     
+    /**
+     * Obtiene el comando que se deshará en la próxima llamada a {@link #undoLastCommand()}
+     * @return comando o null si no hay ninguno
+     */
+    public Command peekUndoCommand() {
+        return undoStack.isEmpty() ? null : undoStack.peek();
+    }
+    
+    /**
+     * Obtiene el comando que se rehará en la próxima llamada a {@link #redoLastCommand()}
+     * @return comando o null si no hay ninguno
+     */
+    public Command peekRedoCommand() {
+        return redoStack.isEmpty() ? null : redoStack.peek();
+    }
+    
     /**
      * Verifica si hay comandos que se pueden deshacer
      * @return true si hay comandos en la pila de deshacer
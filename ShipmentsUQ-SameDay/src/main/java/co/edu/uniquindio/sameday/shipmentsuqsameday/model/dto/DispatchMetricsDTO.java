@@ -0,0 +1,39 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * DTO con las métricas acumuladas del despacho por lotes
+ */
+@Data
+@Builder
+public class DispatchMetricsDTO {
+    // Acumulados desde el arranque
+    private long runs;
+    private long shipmentsConsidered;
+    private long shipmentsAssigned;
+    private long totalDurationMillis;
+
+    // Último lote
+    private int lastBatchSize;
+    private int lastAssigned;
+    private int lastLeftPending;
+    private int lastSlots;
+    private long lastDurationMillis;
+    private double lastTotalDistanceKm;
+
+    /**
+     * @return envíos asignados por segundo de trabajo del despachador
+     */
+    public double getAssignmentsPerSecond() {
+        return totalDurationMillis > 0 ? shipmentsAssigned * 1000.0 / totalDurationMillis : 0;
+    }
+
+    /**
+     * @return distancia promedio en kilómetros entre repartidor y origen en el último lote
+     */
+    public double getLastAverageDistanceKm() {
+        return lastAssigned > 0 ? lastTotalDistanceKm / lastAssigned : 0;
+    }
+}
@@ -14,4 +14,10 @@ public class PaginatedDataDTO<T> {
     private int totalPages;
     private long totalItems;
     private int currentPage;
-}
\ No newline at end of file
+    // ID desde el que continúa la siguiente página (paginación por cursor); null si es la última
+    private String nextCursor;
+
+    public PaginatedDataDTO(List<T> items, int totalPages, long totalItems, int currentPage) {
+        this(items, totalPages, totalItems, currentPage, null);
+    }
+}
@@ -0,0 +1,32 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * DTO con un movimiento recomendado para ubicar a un repartidor libre cerca de la demanda esperada
+ */
+@Data
+@Builder
+public class RepositioningMoveDTO {
+    private UUID delivererId;
+    private String delivererName;
+
+    // Posición actual y recomendada en el Grid
+    private double fromX;
+    private double fromY;
+    private double toX;
+    private double toY;
+
+    // Envíos esperados en la celda de destino para la hora planificada
+    private double expectedDemand;
+
+    /**
+     * @return distancia del movimiento en unidades del Grid
+     */
+    public double getDistance() {
+        return Math.hypot(toX - fromX, toY - fromY);
+    }
+}
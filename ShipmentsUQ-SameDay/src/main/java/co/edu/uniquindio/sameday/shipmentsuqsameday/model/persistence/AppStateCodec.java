@@ -0,0 +1,827 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.*;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.util.AppState;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+
+/**
+ * Códec binario versionado para {@link AppState}.
+ * A diferencia de la serialización de Java, escribe cada entidad una sola vez y de forma
+ * plana: las relaciones entre usuarios, repartidores, envíos, pagos e incidencias se
+ * guardan como UUID y se resuelven al leer. Las direcciones y métodos de pago se guardan
+ * en tablas y se referencian por posición, conservando las instancias compartidas.
+ *
+ * Estructura (versión 3): cabecera [magic, versión de esquema, generación del journal],
+ * registros de cada sección (direcciones, métodos de pago, usuarios, repartidores, envíos,
+ * pagos, incidencias, tarifas) precedidos por su longitud y su CRC32C, índices y
+ * directorio al final. Cada registro es autocontenido y se verifica por separado, de modo
+ * que {@link MappedSnapshot} puede leer una entidad sin recorrer ni validar el resto del
+ * archivo. Las secciones con índices secundarios en su repositorio (repartidores, envíos
+ * y pagos) guardan además un registro de claves con solo los campos indexados de cada
+ * entidad. El pie guarda el CRC32C de la cabecera y del directorio. En cada sección van
+ * primero las entradas que pertenecen a las listas del estado; las restantes son entidades
+ * solo alcanzables por referencia.
+ *
+ * Todavía se pueden leer la versión 2 (igual, sin checksums) y la versión 1 (secuencial,
+ * con un diccionario de cadenas global).
+ */
+public final class AppStateCodec {
+
+    static final int MAGIC = 0x53555153; // "SUQS"
+    static final int END_MARK = 0x454E4421; // "END!"
+
+    /** Versión actual del esquema; incrementarla al cambiar el formato */
+    public static final short SCHEMA_VERSION = 3;
+
+    /** Versión indexada sin checksums, soportada solo para lectura */
+    static final short UNCHECKED_SCHEMA_VERSION = 2;
+
+    /** Versión del formato secuencial anterior, soportada solo para lectura */
+    private static final short STREAM_SCHEMA_VERSION = 1;
+
+    // Secciones del formato indexado, en el orden en que se escriben
+    static final int ADDRESSES = 0;
+    static final int PAYMENT_METHODS = 1;
+    static final int USERS = 2;
+    static final int DELIVERERS = 3;
+    static final int SHIPMENTS = 4;
+    static final int PAYMENTS = 5;
+    static final int INCIDENTS = 6;
+    static final int RATES = 7;
+    static final int SECTION_COUNT = 8;
+
+    /** Bytes de cada entrada del índice por ID: [msb][lsb][posición] */
+    static final int ID_ENTRY_BYTES = 20;
+
+    /** Bytes de la cabecera: [magic][versión][generación del journal] */
+    static final int HEADER_BYTES = 14;
+
+    /** Bytes del pie: [offset del directorio][crc32c de la cabecera y el directorio][marca final] */
+    static final int FOOTER_BYTES = 16;
+
+    /** Bytes del pie de la versión 2, sin checksum */
+    static final int UNCHECKED_FOOTER_BYTES = 12;
+
+    /** Bytes que preceden a cada registro: [longitud][crc32c] */
+    static final int RECORD_PREFIX_BYTES = 8;
+
+    private AppStateCodec() {
+    }
+
+    /**
+     * Escribe el estado en formato binario compacto
+     * @param state estado a escribir
+     * @param out flujo de salida (se recomienda que tenga buffer)
+     * @throws IOException si ocurre un error de escritura o el estado excede 2 GB
+     */
+    public static void write(AppState state, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        new Encoder(state).write(data);
+        data.flush();
+    }
+
+    /**
+     * Lee un estado escrito con {@link #write(AppState, OutputStream)} o con la versión 1
+     * del formato, materializando todas las entidades
+     * @param in flujo de entrada
+     * @return estado reconstruido con todas sus referencias resueltas
+     * @throws IOException si el formato es inválido o la versión no es soportada
+     */
+    public static AppState read(InputStream in) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(in.readAllBytes());
+        if (buffer.remaining() < 6 || buffer.getInt(0) != MAGIC) {
+            throw new IOException("El archivo no tiene formato de estado compacto");
+        }
+        short version = buffer.getShort(4);
+        if (version == STREAM_SCHEMA_VERSION) {
+            return new StreamDecoder(new CompactInput(buffer, null)).read();
+        }
+        try {
+            return MappedSnapshot.wrap(buffer).toAppState();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * CRC32C de una región de un buffer, sin modificar su posición
+     */
+    static int checksum(ByteBuffer buffer, int from, int to) {
+        ByteBuffer region = buffer.duplicate();
+        region.limit(to);
+        region.position(from);
+        CRC32C crc = new CRC32C();
+        crc.update(region);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Compara dos IDs en el orden del índice del formato (con signo, msb y luego lsb)
+     */
+    static int compareIds(long msb1, long lsb1, long msb2, long lsb2) {
+        int result = Long.compare(msb1, msb2);
+        return result != 0 ? result : Long.compare(lsb1, lsb2);
+    }
+
+    // ------------------------------------------------------------------
+    // Escritura
+    // ------------------------------------------------------------------
+
+    /**
+     * Entidades raíz indexadas por ID; las primeras {@code listed} pertenecen a la lista del estado
+     */
+    private static final class RootTable<T> {
+        final Map<UUID, T> entries = new LinkedHashMap<>();
+        int listed;
+
+        void addListed(List<T> list, Function<T, UUID> idOf) {
+            if (list != null) {
+                for (T entity : list) {
+                    UUID id = entity != null ? idOf.apply(entity) : null;
+                    if (id != null) {
+                        entries.putIfAbsent(id, entity);
+                    }
+                }
+            }
+            listed = entries.size();
+        }
+
+        boolean addReachable(T entity, UUID id) {
+            return entity != null && id != null && entries.putIfAbsent(id, entity) == null;
+        }
+    }
+
+    /**
+     * Objetos de valor indexados por identidad
+     */
+    private static final class IdentityTable<T> {
+        final Map<T, Integer> positions = new IdentityHashMap<>();
+        final List<T> items = new ArrayList<>();
+        int listed;
+
+        void add(T item) {
+            if (item != null && !positions.containsKey(item)) {
+                positions.put(item, items.size());
+                items.add(item);
+            }
+        }
+
+        void addListed(List<T> list) {
+            if (list != null) {
+                list.forEach(this::add);
+            }
+            listed = items.size();
+        }
+
+        /** @return posición + 1, o 0 para null */
+        int refOf(T item) {
+            Integer position = item != null ? positions.get(item) : null;
+            return position != null ? position + 1 : 0;
+        }
+    }
+
+    private interface RecordWriter<T> {
+        void write(CompactOutput out, T entity) throws IOException;
+    }
+
+    /**
+     * Escribe los registros de una sección y recuerda sus posiciones en el archivo
+     */
+    private static final class SectionWriter {
+        private final DataOutputStream data;
+        private final Map<String, Integer> symbols;
+        private final RecordBuffer record = new RecordBuffer(512);
+
+        SectionWriter(DataOutputStream data, Map<String, Integer> symbols) {
+            this.data = data;
+            this.symbols = symbols;
+        }
+
+        <T> SectionIndex write(RootTable<T> table, Function<T, UUID> idOf, RecordWriter<T> writer) throws IOException {
+            return write(new ArrayList<>(table.entries.values()), table.listed, idOf, writer);
+        }
+
+        /**
+         * Escribe a continuación de la sección un registro con las claves de sus entidades listadas
+         */
+        <T> SectionIndex write(RootTable<T> table, Function<T, UUID> idOf, RecordWriter<T> writer,
+                               RecordWriter<T> keyWriter) throws IOException {
+            List<T> items = new ArrayList<>(table.entries.values());
+            SectionIndex section = write(items, table.listed, idOf, writer);
+            section.keysOffset = offsetOf(data);
+            record.reset();
+            CompactOutput out = new CompactOutput(record, symbols);
+            out.writeVarInt(table.listed);
+            for (T entity : items.subList(0, table.listed)) {
+                keyWriter.write(out, entity);
+            }
+            out.flush();
+            writeRecord();
+            return section;
+        }
+
+        <T> SectionIndex write(List<T> items, int listed, Function<T, UUID> idOf, RecordWriter<T> writer) throws IOException {
+            SectionIndex section = new SectionIndex(items.size(), listed);
+            for (int i = 0; i < items.size(); i++) {
+                T entity = items.get(i);
+                section.add(i, offsetOf(data), idOf.apply(entity));
+
+                // Cada registro tiene su propio diccionario de cadenas para poder leerse por separado
+                record.reset();
+                CompactOutput out = new CompactOutput(record, symbols);
+                writer.write(out, entity);
+                out.flush();
+                writeRecord();
+            }
+            return section;
+        }
+
+        private void writeRecord() throws IOException {
+            data.writeInt(record.size());
+            data.writeInt(record.checksum(null));
+            record.writeTo(data);
+        }
+    }
+
+    /**
+     * Buffer de un registro o del directorio que calcula su CRC32C sin copiar los bytes
+     */
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+        RecordBuffer(int size) {
+            super(size);
+        }
+
+        /**
+         * @param prefix bytes que se incluyen antes del contenido (o null)
+         */
+        int checksum(byte[] prefix) {
+            CRC32C crc = new CRC32C();
+            if (prefix != null) {
+                crc.update(prefix);
+            }
+            crc.update(buf, 0, count);
+            return (int) crc.getValue();
+        }
+    }
+
+    /**
+     * Índices de una sección: offset de cada registro por posición y posiciones ordenadas por ID
+     */
+    private static final class SectionIndex {
+        final int total;
+        final int listed;
+        final long[] offsets;
+        final long[] msb;
+        final long[] lsb;
+        final int[] idPositions;
+        long positionsOffset;
+        long idsOffset;
+        int idCount;
+        // Offset del registro de claves, o 0 si la sección no lo tiene
+        long keysOffset;
+
+        SectionIndex(int total, int listed) {
+            this.total = total;
+            this.listed = listed;
+            this.offsets = new long[total];
+            this.msb = new long[total];
+            this.lsb = new long[total];
+            this.idPositions = new int[total];
+        }
+
+        void add(int position, long offset, UUID id) {
+            offsets[position] = offset;
+            if (id != null) {
+                msb[idCount] = id.getMostSignificantBits();
+                lsb[idCount] = id.getLeastSignificantBits();
+                idPositions[idCount] = position;
+                idCount++;
+            }
+        }
+
+        void writeTo(DataOutputStream data) throws IOException {
+            positionsOffset = offsetOf(data);
+            for (long offset : offsets) {
+                data.writeLong(offset);
+            }
+
+            // Orden por ID y, ante IDs repetidos, por posición: se conserva la primera aparición
+            Integer[] order = new Integer[idCount];
+            for (int i = 0; i < idCount; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> {
+                int result = compareIds(msb[a], lsb[a], msb[b], lsb[b]);
+                return result != 0 ? result : Integer.compare(idPositions[a], idPositions[b]);
+            });
+
+            idsOffset = offsetOf(data);
+            int written = 0;
+            for (int i = 0; i < order.length; i++) {
+                int entry = order[i];
+                int previous = i > 0 ? order[i - 1] : -1;
+                if (previous >= 0 && compareIds(msb[entry], lsb[entry], msb[previous], lsb[previous]) == 0) {
+                    continue;
+                }
+                data.writeLong(msb[entry]);
+                data.writeLong(lsb[entry]);
+                data.writeInt(idPositions[entry]);
+                written++;
+            }
+            idCount = written;
+        }
+    }
+
+    /**
+     * Posición actual del archivo; el formato indexado se lee mapeado, por lo que no puede exceder 2 GB
+     */
+    private static long offsetOf(DataOutputStream data) throws IOException {
+        int size = data.size();
+        if (size < 0 || size == Integer.MAX_VALUE) {
+            throw new IOException("El estado excede el tamaño máximo de un snapshot (2 GB)");
+        }
+        return size;
+    }
+
+    private static final class Encoder {
+        private final AppState state;
+        private final IdentityTable<Address> addresses = new IdentityTable<>();
+        private final IdentityTable<UserPaymentMethod> paymentMethods = new IdentityTable<>();
+        private final RootTable<User> users = new RootTable<>();
+        private final RootTable<Deliverer> deliverers = new RootTable<>();
+        private final RootTable<Shipment> shipments = new RootTable<>();
+        private final RootTable<Payment> payments = new RootTable<>();
+        private final RootTable<Incident> incidents = new RootTable<>();
+        private final RootTable<Rate> rates = new RootTable<>();
+        private final Deque<Object> pending = new ArrayDeque<>();
+
+        Encoder(AppState state) {
+            this.state = state;
+        }
+
+        void write(DataOutputStream data) throws IOException {
+            collect();
+
+            byte[] header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC)
+                    .putShort(SCHEMA_VERSION)
+                    .putLong(state.getJournalGeneration())
+                    .array();
+            data.write(header);
+
+            Map<String, Integer> symbols = new LinkedHashMap<>();
+            SectionWriter writer = new SectionWriter(data, symbols);
+            SectionIndex[] sections = new SectionIndex[SECTION_COUNT];
+            sections[ADDRESSES] = writer.write(addresses.items, addresses.listed, Address::getId, this::writeAddress);
+            sections[PAYMENT_METHODS] = writer.write(paymentMethods.items, paymentMethods.listed,
+                    UserPaymentMethod::getId, this::writePaymentMethod);
+            sections[USERS] = writer.write(users, User::getId, this::writeUser);
+            sections[DELIVERERS] = writer.write(deliverers, Deliverer::getId, this::writeDeliverer, this::writeDelivererKeys);
+            sections[SHIPMENTS] = writer.write(shipments, Shipment::getId, this::writeShipment, this::writeShipmentKeys);
+            sections[PAYMENTS] = writer.write(payments, Payment::getId, this::writePayment, this::writePaymentKeys);
+            sections[INCIDENTS] = writer.write(incidents, Incident::getId, this::writeIncident);
+            sections[RATES] = writer.write(rates, Rate::getId, this::writeRate);
+
+            for (SectionIndex section : sections) {
+                section.writeTo(data);
+            }
+
+            RecordBuffer directory = new RecordBuffer(256);
+            DataOutputStream entries = new DataOutputStream(directory);
+            entries.writeInt(symbols.size());
+            for (String symbol : symbols.keySet()) {
+                entries.writeUTF(symbol);
+            }
+            for (SectionIndex section : sections) {
+                entries.writeInt(section.total);
+                entries.writeInt(section.listed);
+                entries.writeLong(section.positionsOffset);
+                entries.writeLong(section.idsOffset);
+                entries.writeInt(section.idCount);
+                entries.writeLong(section.keysOffset);
+            }
+            entries.flush();
+
+            long directoryOffset = offsetOf(data);
+            directory.writeTo(data);
+            data.writeLong(directoryOffset);
+            data.writeInt(directory.checksum(header));
+            data.writeInt(END_MARK);
+        }
+
+        /**
+         * Registra las entidades del estado y todas las alcanzables desde ellas
+         */
+        private void collect() {
+            addresses.addListed(state.getAddresses());
+            paymentMethods.addListed(state.getPaymentMethods());
+            users.addListed(state.getUsers(), User::getId);
+            deliverers.addListed(state.getDeliverers(), Deliverer::getId);
+            shipments.addListed(state.getShipments(), Shipment::getId);
+            payments.addListed(state.getPayments(), Payment::getId);
+            incidents.addListed(state.getIncidents(), Incident::getId);
+            rates.addListed(state.getRates(), Rate::getId);
+
+            pending.addAll(users.entries.values());
+            pending.addAll(deliverers.entries.values());
+            pending.addAll(shipments.entries.values());
+            pending.addAll(payments.entries.values());
+            pending.addAll(incidents.entries.values());
+            paymentMethods.items.forEach(method -> reachUser(method.getUser()));
+
+            while (!pending.isEmpty()) {
+                Object entity = pending.poll();
+                if (entity instanceof User) {
+                    User user = (User) entity;
+                    nullSafe(user.getAddresses()).forEach(addresses::add);
+                    for (UserPaymentMethod method : nullSafe(user.getPaymentMethods())) {
+                        paymentMethods.add(method);
+                        reachUser(method.getUser());
+                    }
+                    nullSafe(user.getShipmentHistory()).forEach(this::reachShipment);
+                } else if (entity instanceof Deliverer) {
+                    Deliverer deliverer = (Deliverer) entity;
+                    nullSafe(deliverer.getCurrentShipments()).forEach(this::reachShipment);
+                    nullSafe(deliverer.getShipmentHistory()).forEach(this::reachShipment);
+                } else if (entity instanceof Shipment) {
+                    Shipment shipment = (Shipment) entity;
+                    reachUser(shipment.getUser());
+                    if (shipment.getDeliverer() != null && deliverers.addReachable(shipment.getDeliverer(), shipment.getDeliverer().getId())) {
+                        pending.add(shipment.getDeliverer());
+                    }
+                    addresses.add(shipment.getOrigin());
+                    addresses.add(shipment.getDestination());
+                    for (Incident incident : nullSafe(shipment.getIncidents())) {
+                        if (incident != null && incidents.addReachable(incident, incident.getId())) {
+                            pending.add(incident);
+                        }
+                    }
+                } else if (entity instanceof Payment) {
+                    Payment payment = (Payment) entity;
+                    reachShipment(payment.getShipment());
+                    reachUser(payment.getUser());
+                } else if (entity instanceof Incident) {
+                    reachShipment(((Incident) entity).getShipment());
+                }
+            }
+        }
+
+        private void reachUser(User user) {
+            if (user != null && users.addReachable(user, user.getId())) {
+                pending.add(user);
+            }
+        }
+
+        private void reachShipment(Shipment shipment) {
+            if (shipment != null && shipments.addReachable(shipment, shipment.getId())) {
+                pending.add(shipment);
+            }
+        }
+
+        private void writeAddress(CompactOutput out, Address address) throws IOException {
+            out.writeUuid(address.getId());
+            out.writeString(address.getAlias());
+            out.writeString(address.getStreet());
+            out.writeString(address.getZone());
+            out.writeString(address.getCity());
+            out.writeString(address.getZipCode());
+            out.writeString(address.getComplement());
+            out.writeDouble(address.getCoordX());
+            out.writeDouble(address.getCoordY());
+            out.writeBoolean(address.isDefault());
+            out.writeNullableDouble(address.getGpsLatitude());
+            out.writeNullableDouble(address.getGpsLongitude());
+        }
+
+        private void writePaymentMethod(CompactOutput out, UserPaymentMethod method) throws IOException {
+            out.writeUuid(method.getId());
+            out.writeUuid(method.getUser() != null ? method.getUser().getId() : null);
+            out.writeEnum(method.getPaymentMethod());
+            out.writeString(method.getAlias());
+            out.writeString(method.getLastFourDigits());
+            out.writeString(method.getCardType());
+            out.writeBoolean(method.isDefault());
+            out.writeString(method.getPhoneNumber());
+            out.writeString(method.getBankName());
+            out.writeString(method.getAccountType());
+        }
+
+        private void writeUser(CompactOutput out, User user) throws IOException {
+            out.writeUuid(user.getId());
+            out.writeString(user.getName());
+            out.writeString(user.getEmail());
+            out.writeString(user.getPhone());
+            out.writeString(user.getPassword());
+            out.writeEnum(user.getRole());
+
+            List<Address> userAddresses = nullSafe(user.getAddresses());
+            out.writeVarInt(userAddresses.size());
+            for (Address address : userAddresses) {
+                out.writeVarInt(addresses.refOf(address));
+            }
+            List<UserPaymentMethod> methods = nullSafe(user.getPaymentMethods());
+            out.writeVarInt(methods.size());
+            for (UserPaymentMethod method : methods) {
+                out.writeVarInt(paymentMethods.refOf(method));
+            }
+            writeShipmentIds(out, user.getShipmentHistory());
+        }
+
+        private void writeDeliverer(CompactOutput out, Deliverer deliverer) throws IOException {
+            out.writeUuid(deliverer.getId());
+            out.writeString(deliverer.getName());
+            out.writeString(deliverer.getDocument());
+            out.writeString(deliverer.getPhone());
+            out.writeEnum(deliverer.getStatus());
+            out.writeString(deliverer.getZone());
+            out.writeDouble(deliverer.getAverageRating());
+            out.writeVarInt(Math.max(0, deliverer.getTotalDeliveries()));
+            out.writeDouble(deliverer.getCurrentX());
+            out.writeDouble(deliverer.getCurrentY());
+            out.writeNullableDouble(deliverer.getRealLatitude());
+            out.writeNullableDouble(deliverer.getRealLongitude());
+            writeShipmentIds(out, deliverer.getCurrentShipments());
+            writeShipmentIds(out, deliverer.getShipmentHistory());
+        }
+
+        private void writeShipment(CompactOutput out, Shipment shipment) throws IOException {
+            out.writeUuid(shipment.getId());
+            out.writeUuid(shipment.getUser() != null ? shipment.getUser().getId() : null);
+            out.writeUuid(shipment.getDeliverer() != null ? shipment.getDeliverer().getId() : null);
+            out.writeVarInt(addresses.refOf(shipment.getOrigin()));
+            out.writeVarInt(addresses.refOf(shipment.getDestination()));
+            out.writeDouble(shipment.getWeight());
+            out.writeDouble(shipment.getVolume());
+            out.writeDouble(shipment.getCost());
+            out.writeEnum(shipment.getStatus());
+            out.writeEnum(shipment.getPriority());
+            out.writeDateTime(shipment.getCreationDate());
+            out.writeDateTime(shipment.getAssignmentDate());
+            out.writeDateTime(shipment.getDeliveryDate());
+            out.writeDateTime(shipment.getCreatedAt());
+            out.writeDateTime(shipment.getDeliveredAt());
+            out.writeBoolean(shipment.isHasInsurance());
+            out.writeBoolean(shipment.isFragile());
+            out.writeString(shipment.getSpecialInstructions());
+            writeDetails(out, shipment.getDetails());
+
+            List<Incident> shipmentIncidents = nullSafe(shipment.getIncidents());
+            out.writeVarInt(shipmentIncidents.size());
+            for (Incident incident : shipmentIncidents) {
+                out.writeUuid(incident != null ? incident.getId() : null);
+            }
+        }
+
+        /**
+         * Claves de los índices de ShipmentRepository: estado, prioridad, usuario, repartidor y fecha de creación
+         */
+        private void writeShipmentKeys(CompactOutput out, Shipment shipment) throws IOException {
+            out.writeUuid(shipment.getId());
+            out.writeUuid(shipment.getUser() != null ? shipment.getUser().getId() : null);
+            out.writeUuid(shipment.getDeliverer() != null ? shipment.getDeliverer().getId() : null);
+            out.writeEnum(shipment.getStatus());
+            out.writeEnum(shipment.getPriority());
+            out.writeDateTime(shipment.getCreationDate());
+        }
+
+        /**
+         * Claves de los índices de DelivererRepository: estado, zona asignada y posiciones
+         */
+        private void writeDelivererKeys(CompactOutput out, Deliverer deliverer) throws IOException {
+            out.writeUuid(deliverer.getId());
+            out.writeEnum(deliverer.getStatus());
+            out.writeString(deliverer.getZone());
+            out.writeDouble(deliverer.getCurrentX());
+            out.writeDouble(deliverer.getCurrentY());
+            out.writeNullableDouble(deliverer.getRealLatitude());
+            out.writeNullableDouble(deliverer.getRealLongitude());
+        }
+
+        /**
+         * Claves de los índices de PaymentRepository: envío pagado
+         */
+        private void writePaymentKeys(CompactOutput out, Payment payment) throws IOException {
+            out.writeUuid(payment.getId());
+            out.writeUuid(payment.getShipment() != null ? payment.getShipment().getId() : null);
+        }
+
+        private void writeDetails(CompactOutput out, ShipmentDetails details) throws IOException {
+            out.writeBoolean(details != null);
+            if (details == null) {
+                return;
+            }
+            out.writeDouble(details.getDistance());
+            out.writeDouble(details.getBaseCost());
+            out.writeDouble(details.getTotalCost());
+            out.writeDouble(details.getEstimatedDuration());
+            writeCoordinates(out, details.getOriginCoordinates());
+            writeCoordinates(out, details.getDestinationCoordinates());
+            out.writeString(details.getCoordinateSystem());
+        }
+
+        private void writeCoordinates(CompactOutput out, Coordinates coordinates) throws IOException {
+            out.writeBoolean(coordinates != null);
+            if (coordinates != null) {
+                out.writeDouble(coordinates.getLatitude());
+                out.writeDouble(coordinates.getLongitude());
+            }
+        }
+
+        private void writePayment(CompactOutput out, Payment payment) throws IOException {
+            out.writeUuid(payment.getId());
+            out.writeUuid(payment.getShipment() != null ? payment.getShipment().getId() : null);
+            out.writeUuid(payment.getUser() != null ? payment.getUser().getId() : null);
+            out.writeDouble(payment.getAmount());
+            out.writeEnum(payment.getPaymentMethod());
+            out.writeEnum(payment.getStatus());
+            out.writeDateTime(payment.getCreationDate());
+            out.writeDateTime(payment.getProcessingDate());
+            out.writeString(payment.getPaymentReference());
+            out.writeString(payment.getTransactionDetails());
+            out.writeBoolean(payment.isRefundable());
+        }
+
+        private void writeIncident(CompactOutput out, Incident incident) throws IOException {
+            out.writeUuid(incident.getId());
+            out.writeUuid(incident.getShipment() != null ? incident.getShipment().getId() : null);
+            out.writeEnum(incident.getType());
+            out.writeString(incident.getDescription());
+            out.writeDateTime(incident.getDate());
+            out.writeBoolean(incident.isResolved());
+            out.writeDateTime(incident.getResolutionDate());
+            out.writeString(incident.getSolution());
+        }
+
+        private void writeRate(CompactOutput out, Rate rate) throws IOException {
+            out.writeUuid(rate.getId());
+            out.writeDateTime(rate.getEffectiveFrom());
+            out.writeDateTime(rate.getEffectiveUntil());
+            out.writeBoolean(rate.isActive());
+            out.writeDouble(rate.getBaseRate());
+            out.writeDouble(rate.getCostPerKm());
+            out.writeDouble(rate.getCostPerKg());
+            out.writeDouble(rate.getCostPerM3());
+            out.writeDouble(rate.getInsuranceSurcharge());
+            out.writeDouble(rate.getFragileSurcharge());
+        }
+
+        private void writeShipmentIds(CompactOutput out, List<Shipment> list) throws IOException {
+            List<Shipment> items = nullSafe(list);
+            out.writeVarInt(items.size());
+            for (Shipment shipment : items) {
+                out.writeUuid(shipment != null ? shipment.getId() : null);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Lectura
+    // ------------------------------------------------------------------
+
+    /**
+     * Lector del formato secuencial (versión 1): las entidades se leen en orden y los
+     * enlaces se resuelven al final, cuando todas ya fueron leídas
+     */
+    private static final class StreamDecoder implements EntityRecords.Links {
+        private final CompactInput in;
+        private final List<Address> addresses = new ArrayList<>();
+        private final List<UserPaymentMethod> paymentMethods = new ArrayList<>();
+        private final Map<UUID, User> users = new LinkedHashMap<>();
+        private final Map<UUID, Deliverer> deliverers = new LinkedHashMap<>();
+        private final Map<UUID, Shipment> shipments = new LinkedHashMap<>();
+        private final Map<UUID, Incident> incidents = new LinkedHashMap<>();
+
+        // Enlaces que se resuelven cuando todas las entidades ya fueron leídas
+        private final List<Runnable> links = new ArrayList<>();
+
+        StreamDecoder(CompactInput in) {
+            this.in = in;
+        }
+
+        AppState read() throws IOException {
+            in.readInt();
+            in.readShort();
+
+            AppState state = new AppState();
+            state.setJournalGeneration(in.readLong());
+
+            int total = in.readVarInt();
+            int listed = in.readVarInt();
+            for (int i = 0; i < total; i++) {
+                addresses.add(EntityRecords.readAddress(in));
+            }
+            state.setAddresses(new ArrayList<>(addresses.subList(0, listed)));
+
+            total = in.readVarInt();
+            listed = in.readVarInt();
+            for (int i = 0; i < total; i++) {
+                paymentMethods.add(EntityRecords.readPaymentMethod(in, this));
+            }
+            state.setPaymentMethods(new ArrayList<>(paymentMethods.subList(0, listed)));
+
+            state.setUsers(readSection(users, () -> EntityRecords.readUser(in, this), User::getId));
+            state.setDeliverers(readSection(deliverers, () -> EntityRecords.readDeliverer(in, this), Deliverer::getId));
+            state.setShipments(readSection(shipments, () -> EntityRecords.readShipment(in, this), Shipment::getId));
+            state.setPayments(readSection(null, () -> EntityRecords.readPayment(in, this), Payment::getId));
+            state.setIncidents(readSection(incidents, () -> EntityRecords.readIncident(in, this), Incident::getId));
+            state.setRates(readSection(null, () -> EntityRecords.readRate(in), Rate::getId));
+
+            if (in.readInt() != END_MARK) {
+                throw new IOException("Archivo de estado incompleto");
+            }
+
+            links.forEach(Runnable::run);
+            return state;
+        }
+
+        private interface EntityReader<T> {
+            T read() throws IOException;
+        }
+
+        /**
+         * Lee una sección de entidades raíz
+         * @return las entidades que pertenecen a la lista del estado
+         */
+        private <T> List<T> readSection(Map<UUID, T> byId, EntityReader<T> reader, Function<T, UUID> idOf) throws IOException {
+            int total = in.readVarInt();
+            int listed = in.readVarInt();
+            List<T> result = new ArrayList<>(listed);
+            for (int i = 0; i < total; i++) {
+                T entity = reader.read();
+                if (byId != null) {
+                    byId.put(idOf.apply(entity), entity);
+                }
+                if (i < listed) {
+                    result.add(entity);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public Address address(int ref) {
+            return ref > 0 && ref <= addresses.size() ? addresses.get(ref - 1) : null;
+        }
+
+        @Override
+        public UserPaymentMethod paymentMethod(int ref) {
+            return ref > 0 && ref <= paymentMethods.size() ? paymentMethods.get(ref - 1) : null;
+        }
+
+        @Override
+        public User user(UUID id) {
+            return id != null ? users.get(id) : null;
+        }
+
+        @Override
+        public Deliverer deliverer(UUID id) {
+            return id != null ? deliverers.get(id) : null;
+        }
+
+        @Override
+        public Shipment shipment(UUID id) {
+            return id != null ? shipments.get(id) : null;
+        }
+
+        @Override
+        public List<Shipment> shipments(List<UUID> ids) {
+            return resolve(ids, shipments);
+        }
+
+        @Override
+        public List<Incident> incidents(List<UUID> ids) {
+            return resolve(ids, incidents);
+        }
+
+        @Override
+        public void link(Runnable link) {
+            links.add(link);
+        }
+
+        private static <T> List<T> resolve(List<UUID> ids, Map<UUID, T> byId) {
+            List<T> result = new ArrayList<>(ids.size());
+            for (UUID id : ids) {
+                T entity = byId.get(id);
+                if (entity != null) {
+                    result.add(entity);
+                }
+            }
+            return result;
+        }
+    }
+
+    private static <T> List<T> nullSafe(List<T> list) {
+        return list != null ? list : Collections.emptyList();
+    }
+}
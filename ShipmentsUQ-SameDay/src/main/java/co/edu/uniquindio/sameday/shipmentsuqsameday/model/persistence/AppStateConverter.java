@@ -0,0 +1,96 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.ShipmentReferenceList;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.User;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.util.AppState;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Convierte un archivo de estado serializado con Java ({@code .dat}) al formato
+ * binario compacto de {@link AppStateCodec} ({@code .bin}).
+ * El destino se escribe con {@link SnapshotFile}, igual que los guardados de la aplicación:
+ * de forma atómica, con su pie de longitud y CRC32C y conservando la generación anterior.
+ * DataManager realiza esta migración automáticamente al iniciar; esta clase permite
+ * hacerlo fuera de la aplicación:
+ * <pre>
+ * java ... co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.AppStateConverter data/app_state.dat data/app_state.bin
+ * </pre>
+ */
+public final class AppStateConverter {
+
+    private AppStateConverter() {
+    }
+
+    /**
+     * Convierte un archivo de estado al formato compacto
+     * @param legacyFile archivo serializado con Java
+     * @param compactFile archivo de destino
+     * @return estado convertido
+     * @throws IOException si no se puede leer o escribir alguno de los archivos
+     */
+    public static AppState convert(File legacyFile, File compactFile) throws IOException {
+        AppState state;
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(legacyFile)))) {
+            state = (AppState) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("El archivo no contiene un AppState válido: " + legacyFile, e);
+        }
+        resolveShipmentLists(state);
+
+        SnapshotFile.write(compactFile.toPath(), out -> AppStateCodec.write(state, out));
+        return state;
+    }
+
+    /**
+     * Fuera de la aplicación no hay repositorio de envíos: las listas de envíos de usuarios
+     * y repartidores, serializadas como IDs, se resuelven contra los envíos del propio estado
+     */
+    private static void resolveShipmentLists(AppState state) {
+        Map<UUID, Shipment> shipments = new HashMap<>();
+        for (Shipment shipment : orEmpty(state.getShipments())) {
+            shipments.put(shipment.getId(), shipment);
+        }
+        for (User user : orEmpty(state.getUsers())) {
+            resolveWith(user.getShipmentHistory(), shipments);
+        }
+        for (Deliverer deliverer : orEmpty(state.getDeliverers())) {
+            resolveWith(deliverer.getCurrentShipments(), shipments);
+            resolveWith(deliverer.getShipmentHistory(), shipments);
+        }
+    }
+
+    private static void resolveWith(List<Shipment> list, Map<UUID, Shipment> shipments) {
+        if (list instanceof ShipmentReferenceList) {
+            ((ShipmentReferenceList) list).resolveWith(shipments::get);
+        }
+    }
+
+    private static <T> List<T> orEmpty(List<T> list) {
+        return list != null ? list : List.of();
+    }
+
+    public static void main(String[] args) {
+        File legacyFile = new File(args.length > 0 ? args[0] : "data/app_state.dat");
+        File compactFile = new File(args.length > 1 ? args[1] : "data/app_state.bin");
+
+        try {
+            AppState state = convert(legacyFile, compactFile);
+            System.out.println("Convertido " + legacyFile + " (" + legacyFile.length() + " bytes) -> "
+                    + compactFile + " (" + compactFile.length() + " bytes)");
+            System.out.println("  Usuarios: " + state.getUsers().size()
+                    + ", repartidores: " + state.getDeliverers().size()
+                    + ", envíos: " + state.getShipments().size()
+                    + ", pagos: " + state.getPayments().size());
+        } catch (IOException e) {
+            System.err.println("Error al convertir el estado: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
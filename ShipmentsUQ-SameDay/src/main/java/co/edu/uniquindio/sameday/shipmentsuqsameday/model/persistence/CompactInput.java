@@ -0,0 +1,179 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lector del formato escrito por {@link CompactOutput}
+ */
+class CompactInput {
+
+    private final DataInputStream in;
+    private final List<String> stringPool = new ArrayList<>();
+    private final List<String> symbols;
+
+    CompactInput(InputStream in) {
+        this(in, null);
+    }
+
+    /**
+     * @param symbols tabla de símbolos con la que se escribieron los enums, o null si
+     *                se escribieron como cadenas
+     */
+    CompactInput(InputStream in, List<String> symbols) {
+        this.in = new DataInputStream(in);
+        this.symbols = symbols;
+    }
+
+    /**
+     * Lee desde la posición actual de un buffer (por ejemplo, un registro de un archivo mapeado)
+     */
+    CompactInput(ByteBuffer buffer, List<String> symbols) {
+        this(new ByteBufferInputStream(buffer), symbols);
+    }
+
+    int readInt() throws IOException {
+        return in.readInt();
+    }
+
+    short readShort() throws IOException {
+        return in.readShort();
+    }
+
+    long readLong() throws IOException {
+        return in.readLong();
+    }
+
+    int readVarInt() throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (shift > 28) {
+                throw new IOException("Entero variable mal formado");
+            }
+            b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    long readVarLong() throws IOException {
+        long zigzag = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (shift > 63) {
+                throw new IOException("Long variable mal formado");
+            }
+            b = in.readUnsignedByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    String readUtf() throws IOException {
+        return in.readUTF();
+    }
+
+    boolean readBoolean() throws IOException {
+        return in.readBoolean();
+    }
+
+    double readDouble() throws IOException {
+        return in.readDouble();
+    }
+
+    Double readNullableDouble() throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    String readString() throws IOException {
+        int tag = readVarInt();
+        if (tag == 0) {
+            return null;
+        }
+        if (tag == 1) {
+            String value = in.readUTF();
+            stringPool.add(value);
+            return value;
+        }
+        int index = tag - 2;
+        if (index >= stringPool.size()) {
+            throw new IOException("Referencia de cadena inválida: " + index);
+        }
+        return stringPool.get(index);
+    }
+
+    <E extends Enum<E>> E readEnum(Class<E> type) throws IOException {
+        String name;
+        if (symbols == null) {
+            name = readString();
+        } else {
+            int index = readVarInt();
+            if (index > symbols.size()) {
+                throw new IOException("Símbolo inválido: " + index);
+            }
+            name = index > 0 ? symbols.get(index - 1) : null;
+        }
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Valor desconocido para " + type.getSimpleName() + ": " + name, e);
+        }
+    }
+
+    UUID readUuid() throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    LocalDateTime readDateTime() throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long epochSecond = readVarLong();
+        int nano = readVarInt();
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    /**
+     * Adaptador de ByteBuffer a InputStream; avanza la posición del buffer
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(bytes, off, count);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Escritor binario compacto usado por los códecs de persistencia.
+ * Usa enteros de longitud variable y un diccionario de cadenas: cada cadena
+ * repetida (zonas, ciudades, nombres de enums) se escribe una sola vez.
+ */
+class CompactOutput {
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> stringPool = new HashMap<>();
+    private final Map<String, Integer> symbols;
+
+    CompactOutput(OutputStream out) {
+        this(out, null);
+    }
+
+    /**
+     * @param symbols tabla de símbolos compartida entre escritores; si no es null, los enums
+     *                se escriben como índice en ella en lugar de pasar por el diccionario de cadenas
+     */
+    CompactOutput(OutputStream out, Map<String, Integer> symbols) {
+        this.out = new DataOutputStream(out);
+        this.symbols = symbols;
+    }
+
+    void writeInt(int value) throws IOException {
+        out.writeInt(value);
+    }
+
+    void writeShort(int value) throws IOException {
+        out.writeShort(value);
+    }
+
+    void writeLong(long value) throws IOException {
+        out.writeLong(value);
+    }
+
+    /**
+     * Escribe un entero no negativo en formato de longitud variable (7 bits por byte)
+     */
+    void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Escribe un long con signo en formato zigzag de longitud variable
+     */
+    void writeVarLong(long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    void writeBoolean(boolean value) throws IOException {
+        out.writeBoolean(value);
+    }
+
+    void writeDouble(double value) throws IOException {
+        out.writeDouble(value);
+    }
+
+    void writeNullableDouble(Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    /**
+     * Escribe una cadena usando el diccionario: 0 = null, 1 = literal nuevo, n = entrada n-2
+     */
+    void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        Integer index = stringPool.get(value);
+        if (index != null) {
+            writeVarInt(index + 2);
+            return;
+        }
+        writeVarInt(1);
+        out.writeUTF(value);
+        stringPool.put(value, stringPool.size());
+    }
+
+    void writeEnum(Enum<?> value) throws IOException {
+        if (symbols == null) {
+            writeString(value != null ? value.name() : null);
+            return;
+        }
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        Integer index = symbols.get(value.name());
+        if (index == null) {
+            index = symbols.size();
+            symbols.put(value.name(), index);
+        }
+        writeVarInt(index + 1);
+    }
+
+    void writeUuid(UUID value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getMostSignificantBits());
+            out.writeLong(value.getLeastSignificantBits());
+        }
+    }
+
+    void writeDateTime(LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeVarLong(value.toEpochSecond(ZoneOffset.UTC));
+            writeVarInt(value.getNano());
+        }
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+}
@@ -0,0 +1,234 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.RepositoryChanges;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshot incremental: contiene solo las entidades guardadas o eliminadas en cada
+ * repositorio desde el punto de guardado anterior. Los deltas forman una cadena sobre
+ * un snapshot base; el delta de la generación N se aplica sobre el estado de la
+ * generación N - 1 y, al fusionarlos en un snapshot base nuevo, se descartan.
+ *
+ * Formato: cabecera [magic, versión, generación base, generación], por cada repositorio
+ * [nombre, guardadas, eliminadas] seguido de [id, longitud, entidad serializada] por cada
+ * entidad guardada y [id] por cada eliminada; al final [crc32 de todo lo anterior, marca final].
+ * Las entidades se serializan como en el journal, con las demás entidades raíz como referencias.
+ */
+public final class DeltaSnapshot {
+
+    private static final int MAGIC = 0x53555144; // "SUQD"
+    private static final short FORMAT_VERSION = 1;
+    private static final int END_MARK = 0x454E4421; // "END!"
+    private static final int TRAILER_SIZE = 4 + 4;
+
+    private final long baseGeneration;
+    private final long generation;
+    private final byte[] body;
+    private final int changeCount;
+
+    private DeltaSnapshot(long baseGeneration, long generation, byte[] body, int changeCount) {
+        this.baseGeneration = baseGeneration;
+        this.generation = generation;
+        this.body = body;
+        this.changeCount = changeCount;
+    }
+
+    /**
+     * Escribe un delta y lo asegura en disco antes de volver
+     * @param file archivo de destino
+     * @param baseGeneration generación del snapshot base sobre el que se aplica la cadena
+     * @param generation generación que produce este delta
+     * @param changes cambios por nombre de repositorio
+     * @return bytes escritos
+     * @throws IOException si no se puede escribir el archivo
+     */
+    public static long write(Path file, long baseGeneration, long generation,
+                             Map<String, RepositoryChanges<?>> changes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeInt(MAGIC);
+        data.writeShort(FORMAT_VERSION);
+        data.writeLong(baseGeneration);
+        data.writeLong(generation);
+        data.writeInt(changes.size());
+        for (Map.Entry<String, RepositoryChanges<?>> entry : changes.entrySet()) {
+            RepositoryChanges<?> repository = entry.getValue();
+            data.writeUTF(entry.getKey());
+            data.writeInt(repository.getSaved().size());
+            data.writeInt(repository.getDeleted().size());
+            for (Map.Entry<UUID, ?> saved : repository.getSaved().entrySet()) {
+                byte[] entity = WriteAheadJournal.encode(saved.getValue());
+                writeId(data, saved.getKey());
+                data.writeInt(entity.length);
+                data.write(entity);
+            }
+            for (UUID id : repository.getDeleted()) {
+                writeId(data, id);
+            }
+        }
+        data.flush();
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        data.writeInt((int) crc.getValue());
+        data.writeInt(END_MARK);
+        data.flush();
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        return bytes.size();
+    }
+
+    /**
+     * Lee un delta y valida su integridad; las entidades no se deserializan hasta aplicarlo
+     * @param file archivo del delta
+     * @return delta leído
+     * @throws IOException si el archivo está incompleto, dañado o tiene otro formato
+     */
+    public static DeltaSnapshot read(Path file) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        int bodyLength = content.length - TRAILER_SIZE;
+        if (bodyLength < 4 + 2 + 8 + 8 + 4) {
+            throw new IOException("Delta incompleto: " + file);
+        }
+        ByteBuffer trailer = ByteBuffer.wrap(content, bodyLength, TRAILER_SIZE);
+        int checksum = trailer.getInt();
+        if (trailer.getInt() != END_MARK) {
+            throw new IOException("Delta sin marca final: " + file);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(content, 0, bodyLength);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Checksum inválido en el delta: " + file);
+        }
+
+        byte[] body = Arrays.copyOf(content, bodyLength);
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(body));
+        if (data.readInt() != MAGIC || data.readShort() != FORMAT_VERSION) {
+            throw new IOException("El archivo no es un delta de estado: " + file);
+        }
+        long baseGeneration = data.readLong();
+        long generation = data.readLong();
+        int changeCount = 0;
+        int repositories = data.readInt();
+        for (int r = 0; r < repositories; r++) {
+            data.readUTF();
+            int saved = data.readInt();
+            int deleted = data.readInt();
+            for (int i = 0; i < saved; i++) {
+                data.skipNBytes(16);
+                data.skipNBytes(data.readInt());
+            }
+            data.skipNBytes(16L * deleted);
+            changeCount += saved + deleted;
+        }
+        return new DeltaSnapshot(baseGeneration, generation, body, changeCount);
+    }
+
+    /**
+     * Aplica el delta: primero las entidades guardadas y luego las eliminaciones.
+     * Dentro de un delta las entidades nuevas pueden referenciarse entre sí (por ejemplo,
+     * un usuario y el envío de su historial); las que tenían referencias que todavía no
+     * existían se vuelven a leer al final, cuando ya todas están en los repositorios.
+     * Igual que con el journal, después hay que reenlazar las entidades materializadas.
+     * @param handler receptor de los cambios
+     * @param resolver resuelve las referencias a otras entidades contra los repositorios
+     * @return número de cambios aplicados
+     * @throws IOException si una entidad no se puede deserializar
+     */
+    public int apply(WriteAheadJournal.ReplayHandler handler,
+                     Function<EntityReference, Object> resolver) throws IOException {
+        List<String> pendingRepositories = new ArrayList<>();
+        List<UUID> pendingIds = new ArrayList<>();
+        List<byte[]> pendingEntities = new ArrayList<>();
+        boolean[] unresolved = new boolean[1];
+        Function<EntityReference, Object> tracking = reference -> {
+            Object resolved = resolver.apply(reference);
+            if (resolved == null) {
+                unresolved[0] = true;
+            }
+            return resolved;
+        };
+
+        try {
+            DataInputStream data = new DataInputStream(new ByteArrayInputStream(body));
+            data.skipNBytes(4 + 2 + 8 + 8);
+            int repositories = data.readInt();
+            for (int r = 0; r < repositories; r++) {
+                String repository = data.readUTF();
+                int saved = data.readInt();
+                int deleted = data.readInt();
+                for (int i = 0; i < saved; i++) {
+                    UUID id = readId(data);
+                    byte[] entity = data.readNBytes(data.readInt());
+                    unresolved[0] = false;
+                    handler.onPut(repository, id, WriteAheadJournal.decode(new ByteArrayInputStream(entity), tracking));
+                    if (unresolved[0]) {
+                        pendingRepositories.add(repository);
+                        pendingIds.add(id);
+                        pendingEntities.add(entity);
+                    }
+                }
+                for (int i = 0; i < deleted; i++) {
+                    handler.onDelete(repository, readId(data));
+                }
+            }
+
+            for (int i = 0; i < pendingEntities.size(); i++) {
+                Object entity = WriteAheadJournal.decode(new ByteArrayInputStream(pendingEntities.get(i)), resolver);
+                handler.onPut(pendingRepositories.get(i), pendingIds.get(i), entity);
+            }
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Delta con una clase desconocida", e);
+        }
+        return changeCount;
+    }
+
+    /**
+     * @return generación del snapshot base de la cadena
+     */
+    public long getBaseGeneration() {
+        return baseGeneration;
+    }
+
+    /**
+     * @return generación que produce el delta
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return número de entidades guardadas y eliminadas
+     */
+    public int getChangeCount() {
+        return changeCount;
+    }
+
+    private static void writeId(DataOutputStream data, UUID id) throws IOException {
+        data.writeLong(id.getMostSignificantBits());
+        data.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readId(DataInputStream data) throws IOException {
+        return new UUID(data.readLong(), data.readLong());
+    }
+}
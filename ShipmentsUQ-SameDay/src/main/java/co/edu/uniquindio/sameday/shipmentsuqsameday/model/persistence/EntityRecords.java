@@ -0,0 +1,308 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.*;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lectura de los registros de entidades del formato compacto.
+ * La comparten el lector secuencial (versión 1) y el snapshot indexado (versiones 2 y 3);
+ * cada uno decide cómo resolver las referencias a través de {@link Links}.
+ */
+final class EntityRecords {
+
+    private EntityRecords() {
+    }
+
+    /**
+     * Resuelve las referencias de un registro hacia otras entidades
+     */
+    interface Links {
+        Address address(int ref);
+
+        UserPaymentMethod paymentMethod(int ref);
+
+        User user(UUID id);
+
+        Deliverer deliverer(UUID id);
+
+        Shipment shipment(UUID id);
+
+        /**
+         * Construye una lista de envíos a partir de sus IDs
+         */
+        List<Shipment> shipments(List<UUID> ids);
+
+        /**
+         * Construye una lista de incidencias a partir de sus IDs
+         */
+        List<Incident> incidents(List<UUID> ids);
+
+        /**
+         * Registra un enlace que solo puede resolverse cuando la entidad que se está
+         * leyendo ya es alcanzable por las demás
+         */
+        void link(Runnable link);
+    }
+
+    static Address readAddress(CompactInput in) throws IOException {
+        return Address.builder()
+                .id(in.readUuid())
+                .alias(in.readString())
+                .street(in.readString())
+                .zone(in.readString())
+                .city(in.readString())
+                .zipCode(in.readString())
+                .complement(in.readString())
+                .coordX(in.readDouble())
+                .coordY(in.readDouble())
+                .isDefault(in.readBoolean())
+                .gpsLatitude(in.readNullableDouble())
+                .gpsLongitude(in.readNullableDouble())
+                .build();
+    }
+
+    static UserPaymentMethod readPaymentMethod(CompactInput in, Links links) throws IOException {
+        UserPaymentMethod method = new UserPaymentMethod();
+        method.setId(in.readUuid());
+        UUID userId = in.readUuid();
+        method.setPaymentMethod(in.readEnum(PaymentMethod.class));
+        method.setAlias(in.readString());
+        method.setLastFourDigits(in.readString());
+        method.setCardType(in.readString());
+        method.setDefault(in.readBoolean());
+        method.setPhoneNumber(in.readString());
+        method.setBankName(in.readString());
+        method.setAccountType(in.readString());
+        links.link(() -> method.setUser(links.user(userId)));
+        return method;
+    }
+
+    static User readUser(CompactInput in, Links links) throws IOException {
+        User user = User.builder()
+                .id(in.readUuid())
+                .name(in.readString())
+                .email(in.readString())
+                .phone(in.readString())
+                .password(in.readString())
+                .role(in.readEnum(UserRole.class))
+                .build();
+
+        int count = in.readVarInt();
+        List<Address> userAddresses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Address address = links.address(in.readVarInt());
+            if (address != null) {
+                userAddresses.add(address);
+            }
+        }
+        user.setAddresses(userAddresses);
+
+        count = in.readVarInt();
+        List<UserPaymentMethod> methods = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UserPaymentMethod method = links.paymentMethod(in.readVarInt());
+            if (method != null) {
+                methods.add(method);
+            }
+        }
+        user.setPaymentMethods(methods);
+
+        List<UUID> history = readIds(in);
+        links.link(() -> user.setShipmentHistory(links.shipments(history)));
+        return user;
+    }
+
+    static Deliverer readDeliverer(CompactInput in, Links links) throws IOException {
+        Deliverer deliverer = Deliverer.builder()
+                .id(in.readUuid())
+                .name(in.readString())
+                .document(in.readString())
+                .phone(in.readString())
+                .status(in.readEnum(DelivererStatus.class))
+                .zone(in.readString())
+                .averageRating(in.readDouble())
+                .totalDeliveries(in.readVarInt())
+                .currentX(in.readDouble())
+                .currentY(in.readDouble())
+                .realLatitude(in.readNullableDouble())
+                .realLongitude(in.readNullableDouble())
+                .build();
+
+        List<UUID> current = readIds(in);
+        List<UUID> history = readIds(in);
+        links.link(() -> {
+            deliverer.setCurrentShipments(links.shipments(current));
+            deliverer.setShipmentHistory(links.shipments(history));
+        });
+        return deliverer;
+    }
+
+    /**
+     * Lee las claves de un repartidor: una proyección con el estado, la zona y las posiciones
+     */
+    static Deliverer readDelivererKeys(CompactInput in) throws IOException {
+        return Deliverer.builder()
+                .id(in.readUuid())
+                .status(in.readEnum(DelivererStatus.class))
+                .zone(in.readString())
+                .currentX(in.readDouble())
+                .currentY(in.readDouble())
+                .realLatitude(in.readNullableDouble())
+                .realLongitude(in.readNullableDouble())
+                .build();
+    }
+
+    static Shipment readShipment(CompactInput in, Links links) throws IOException {
+        UUID id = in.readUuid();
+        UUID userId = in.readUuid();
+        UUID delivererId = in.readUuid();
+
+        Shipment shipment = Shipment.builder()
+                .id(id)
+                .origin(links.address(in.readVarInt()))
+                .destination(links.address(in.readVarInt()))
+                .weight(in.readDouble())
+                .volume(in.readDouble())
+                .cost(in.readDouble())
+                .status(in.readEnum(ShipmentStatus.class))
+                .priority(in.readEnum(ShipmentPriority.class))
+                .creationDate(in.readDateTime())
+                .assignmentDate(in.readDateTime())
+                .deliveryDate(in.readDateTime())
+                .createdAt(in.readDateTime())
+                .deliveredAt(in.readDateTime())
+                .hasInsurance(in.readBoolean())
+                .isFragile(in.readBoolean())
+                .specialInstructions(in.readString())
+                .details(readDetails(in))
+                .build();
+
+        List<UUID> incidentIds = readIds(in);
+        links.link(() -> {
+            shipment.setUser(links.user(userId));
+            shipment.setDeliverer(links.deliverer(delivererId));
+            shipment.setIncidents(links.incidents(incidentIds));
+        });
+        return shipment;
+    }
+
+    /**
+     * Lee las claves de un envío: una proyección con solo los campos indexados, cuyo usuario
+     * y repartidor son instancias que solo tienen el ID
+     */
+    static Shipment readShipmentKeys(CompactInput in) throws IOException {
+        UUID id = in.readUuid();
+        UUID userId = in.readUuid();
+        UUID delivererId = in.readUuid();
+        return Shipment.builder()
+                .id(id)
+                .user(userId != null ? User.builder().id(userId).build() : null)
+                .deliverer(delivererId != null ? Deliverer.builder().id(delivererId).build() : null)
+                .status(in.readEnum(ShipmentStatus.class))
+                .priority(in.readEnum(ShipmentPriority.class))
+                .creationDate(in.readDateTime())
+                .build();
+    }
+
+    private static ShipmentDetails readDetails(CompactInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return ShipmentDetails.builder()
+                .distance(in.readDouble())
+                .baseCost(in.readDouble())
+                .totalCost(in.readDouble())
+                .estimatedDuration(in.readDouble())
+                .originCoordinates(readCoordinates(in))
+                .destinationCoordinates(readCoordinates(in))
+                .coordinateSystem(in.readString())
+                .build();
+    }
+
+    private static Coordinates readCoordinates(CompactInput in) throws IOException {
+        return in.readBoolean() ? new Coordinates(in.readDouble(), in.readDouble()) : null;
+    }
+
+    /**
+     * Lee las claves de un pago: una proyección con solo el ID y el envío (que solo tiene su ID)
+     */
+    static Payment readPaymentKeys(CompactInput in) throws IOException {
+        UUID id = in.readUuid();
+        UUID shipmentId = in.readUuid();
+        return Payment.builder()
+                .id(id)
+                .shipment(shipmentId != null ? Shipment.builder().id(shipmentId).build() : null)
+                .build();
+    }
+
+    static Payment readPayment(CompactInput in, Links links) throws IOException {
+        UUID id = in.readUuid();
+        UUID shipmentId = in.readUuid();
+        UUID userId = in.readUuid();
+        Payment payment = Payment.builder()
+                .id(id)
+                .amount(in.readDouble())
+                .paymentMethod(in.readEnum(PaymentMethod.class))
+                .status(in.readEnum(PaymentStatus.class))
+                .creationDate(in.readDateTime())
+                .processingDate(in.readDateTime())
+                .paymentReference(in.readString())
+                .transactionDetails(in.readString())
+                .refundable(in.readBoolean())
+                .build();
+        links.link(() -> {
+            payment.setShipment(links.shipment(shipmentId));
+            payment.setUser(links.user(userId));
+        });
+        return payment;
+    }
+
+    static Incident readIncident(CompactInput in, Links links) throws IOException {
+        UUID id = in.readUuid();
+        UUID shipmentId = in.readUuid();
+        Incident incident = Incident.builder()
+                .id(id)
+                .type(in.readEnum(IncidentType.class))
+                .description(in.readString())
+                .date(in.readDateTime())
+                .resolved(in.readBoolean())
+                .resolutionDate(in.readDateTime())
+                .solution(in.readString())
+                .build();
+        links.link(() -> incident.setShipment(links.shipment(shipmentId)));
+        return incident;
+    }
+
+    static Rate readRate(CompactInput in) throws IOException {
+        return Rate.builder()
+                .id(in.readUuid())
+                .effectiveFrom(in.readDateTime())
+                .effectiveUntil(in.readDateTime())
+                .isActive(in.readBoolean())
+                .baseRate(in.readDouble())
+                .costPerKm(in.readDouble())
+                .costPerKg(in.readDouble())
+                .costPerM3(in.readDouble())
+                .insuranceSurcharge(in.readDouble())
+                .fragileSurcharge(in.readDouble())
+                .build();
+    }
+
+    private static List<UUID> readIds(CompactInput in) throws IOException {
+        int count = in.readVarInt();
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID id = in.readUuid();
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+}
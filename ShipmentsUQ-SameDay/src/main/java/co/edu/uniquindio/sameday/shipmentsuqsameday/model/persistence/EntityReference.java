@@ -0,0 +1,95 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Incident;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Payment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.User;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Referencia ligera a una entidad raíz (usuario, repartidor, envío, pago o incidencia).
+ * Se escribe en lugar de la entidad completa cuando otra entidad la referencia,
+ * para que un registro persistido no arrastre todo el grafo de objetos.
+ */
+public final class EntityReference implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String USERS = "users";
+    public static final String DELIVERERS = "deliverers";
+    public static final String SHIPMENTS = "shipments";
+    public static final String PAYMENTS = "payments";
+    public static final String INCIDENTS = "incidents";
+
+    private final String kind;
+    private final UUID id;
+
+    public EntityReference(String kind, UUID id) {
+        this.kind = kind;
+        this.id = id;
+    }
+
+    /**
+     * Crea una referencia para una entidad raíz
+     * @param entity entidad a referenciar
+     * @return referencia, o null si el objeto no es una entidad raíz o no tiene ID
+     */
+    public static EntityReference of(Object entity) {
+        String kind = kindOf(entity);
+        UUID id = idOf(entity);
+        return kind != null && id != null ? new EntityReference(kind, id) : null;
+    }
+
+    /**
+     * Obtiene el tipo de repositorio al que pertenece una entidad raíz
+     * @param entity entidad
+     * @return nombre del tipo, o null si no es una entidad raíz
+     */
+    public static String kindOf(Object entity) {
+        if (entity instanceof User) return USERS;
+        if (entity instanceof Deliverer) return DELIVERERS;
+        if (entity instanceof Shipment) return SHIPMENTS;
+        if (entity instanceof Payment) return PAYMENTS;
+        if (entity instanceof Incident) return INCIDENTS;
+        return null;
+    }
+
+    static UUID idOf(Object entity) {
+        if (entity instanceof User) return ((User) entity).getId();
+        if (entity instanceof Deliverer) return ((Deliverer) entity).getId();
+        if (entity instanceof Shipment) return ((Shipment) entity).getId();
+        if (entity instanceof Payment) return ((Payment) entity).getId();
+        if (entity instanceof Incident) return ((Incident) entity).getId();
+        return null;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EntityReference)) return false;
+        EntityReference that = (EntityReference) o;
+        return kind.equals(that.kind) && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, id);
+    }
+
+    @Override
+    public String toString() {
+        return kind + ":" + id;
+    }
+}
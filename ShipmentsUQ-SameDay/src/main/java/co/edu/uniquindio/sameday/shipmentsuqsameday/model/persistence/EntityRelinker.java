@@ -0,0 +1,87 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Incident;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Payment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.ShipmentReferenceList;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.User;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.UserPaymentMethod;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Reenlaza las referencias entre entidades con las instancias canónicas de los repositorios.
+ * Después de reproducir el journal, una entidad restaurada reemplaza a la instancia del
+ * snapshot y las demás entidades todavía apuntarían a la copia antigua; este paso
+ * garantiza que todo el grafo comparta las mismas instancias.
+ */
+public class EntityRelinker {
+
+    private final Function<EntityReference, Object> resolver;
+
+    /**
+     * @param resolver obtiene la instancia canónica de una entidad (o null si ya no existe)
+     */
+    public EntityRelinker(Function<EntityReference, Object> resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Reenlaza todas las entidades
+     */
+    public void relink(List<User> users, List<Deliverer> deliverers, List<Shipment> shipments,
+                       List<Payment> payments, List<Incident> incidents) {
+        for (User user : users) {
+            relinkList(user.getShipmentHistory());
+            for (UserPaymentMethod method : user.getPaymentMethods()) {
+                method.setUser(canonical(method.getUser()));
+            }
+        }
+        for (Deliverer deliverer : deliverers) {
+            relinkList(deliverer.getCurrentShipments());
+            relinkList(deliverer.getShipmentHistory());
+        }
+        for (Shipment shipment : shipments) {
+            shipment.setUser(canonical(shipment.getUser()));
+            shipment.setDeliverer(canonical(shipment.getDeliverer()));
+            relinkList(shipment.getIncidents());
+        }
+        for (Payment payment : payments) {
+            payment.setShipment(canonical(payment.getShipment()));
+            payment.setUser(canonical(payment.getUser()));
+        }
+        for (Incident incident : incidents) {
+            incident.setShipment(canonical(incident.getShipment()));
+        }
+    }
+
+    /**
+     * Sustituye cada elemento por su instancia canónica y descarta las referencias
+     * a entidades que ya no existen. Las listas diferidas aún sin resolver se omiten:
+     * ya resuelven contra los repositorios en su primer acceso.
+     */
+    private <T> void relinkList(List<T> list) {
+        if (list == null || LazyReferenceList.isPending(list)
+                || (list instanceof ShipmentReferenceList && !((ShipmentReferenceList) list).isResolved())) {
+            return;
+        }
+        list.replaceAll(this::canonical);
+        list.removeIf(Objects::isNull);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T canonical(T entity) {
+        if (entity == null) {
+            return null;
+        }
+        EntityReference reference = EntityReference.of(entity);
+        if (reference == null) {
+            return entity;
+        }
+        Object resolved = resolver.apply(reference);
+        return resolved != null ? (T) resolved : entity;
+    }
+}
@@ -0,0 +1,91 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Lista de referencias que se resuelven en el primer acceso.
+ * La usa {@link MappedSnapshot} para que materializar un usuario o repartidor no
+ * arrastre todo su historial de envíos. Al serializarse se escribe como ArrayList.
+ * @param <T> tipo de las entidades referenciadas
+ */
+final class LazyReferenceList<T> extends AbstractList<T> implements RandomAccess, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient List<UUID> ids;
+    private transient Function<UUID, T> resolver;
+    private List<T> items;
+
+    /**
+     * @param ids IDs de las entidades, en orden
+     * @param resolver obtiene la entidad de un ID, o null si ya no existe
+     */
+    LazyReferenceList(List<UUID> ids, Function<UUID, T> resolver) {
+        this.ids = ids;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Indica si una lista es una lista diferida que todavía no se ha resuelto
+     */
+    static boolean isPending(List<?> list) {
+        return list instanceof LazyReferenceList && !((LazyReferenceList<?>) list).isResolved();
+    }
+
+    synchronized boolean isResolved() {
+        return items != null;
+    }
+
+    private synchronized List<T> items() {
+        if (items == null) {
+            List<T> resolved = new ArrayList<>(ids.size());
+            for (UUID id : ids) {
+                T entity = resolver.apply(id);
+                if (entity != null) {
+                    resolved.add(entity);
+                }
+            }
+            items = resolved;
+            ids = null;
+            resolver = null;
+        }
+        return items;
+    }
+
+    @Override
+    public T get(int index) {
+        return items().get(index);
+    }
+
+    @Override
+    public int size() {
+        return items().size();
+    }
+
+    @Override
+    public T set(int index, T element) {
+        return items().set(index, element);
+    }
+
+    @Override
+    public void add(int index, T element) {
+        items().add(index, element);
+        modCount++;
+    }
+
+    @Override
+    public T remove(int index) {
+        modCount++;
+        return items().remove(index);
+    }
+
+    private Object writeReplace() {
+        return new ArrayList<>(items());
+    }
+}
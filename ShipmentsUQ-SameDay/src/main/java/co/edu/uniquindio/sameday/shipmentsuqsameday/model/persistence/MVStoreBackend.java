@@ -0,0 +1,94 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.StorageBackend;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.h2.mvstore.MVStoreException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Backend de almacenamiento en disco sobre MVStore (el almacén clave-valor embebido de H2).
+ * Cada repositorio es un árbol B ordenado por ID dentro de un único archivo y solo las
+ * entidades en uso ocupan memoria, así que los repositorios pueden ser mayores que ella.
+ *
+ * MVStore escribe sus cambios en segundo plano y solo agrega datos al archivo, de modo
+ * que tras una caída se recupera la última versión confirmada; este backend reemplaza
+ * al snapshot y al journal, que no se usan mientras está activo.
+ */
+public class MVStoreBackend implements StorageBackend, Closeable {
+
+    private final Path file;
+    private final MVStore store;
+    private final Function<EntityReference, Object> resolver;
+
+    private MVStoreBackend(Path file, MVStore store, Function<EntityReference, Object> resolver) {
+        this.file = file;
+        this.store = store;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Abre (o crea) el almacén
+     * @param file archivo del almacén
+     * @param commitDelayMillis intervalo máximo entre escrituras automáticas en disco
+     * @param resolver resuelve las referencias entre entidades contra los repositorios
+     * @return backend abierto
+     * @throws IOException si el archivo no se puede abrir o está dañado
+     */
+    public static MVStoreBackend open(Path file, int commitDelayMillis,
+                                      Function<EntityReference, Object> resolver) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try {
+            MVStore store = new MVStore.Builder()
+                .fileName(file.toString())
+                .compress()
+                .open();
+            store.setAutoCommitDelay(Math.max(1, commitDelayMillis));
+            System.out.println("[STORAGE] Almacén abierto: " + file + " (" + store.getMapNames().size() + " repositorios)");
+            return new MVStoreBackend(file, store, resolver);
+        } catch (MVStoreException e) {
+            throw new IOException("No se pudo abrir el almacén " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public <T> Map<UUID, T> openMap(String name) {
+        MVMap<UUID, byte[]> map = store.openMap(name);
+        return new StoredEntityMap<>(map, resolver);
+    }
+
+    /**
+     * Confirma los cambios y los escribe en disco sin esperar a la escritura automática
+     */
+    public void commit() {
+        if (!store.isClosed()) {
+            store.commit();
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() {
+        if (!store.isClosed()) {
+            store.close();
+            System.out.println("[STORAGE] Almacén cerrado: " + file);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "mvstore";
+    }
+}
@@ -0,0 +1,686 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.*;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.EntitySource;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.util.AppState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+
+/**
+ * Snapshot indexado de {@link AppStateCodec} leído a través de un {@link MappedByteBuffer}.
+ * Abrirlo solo valida la cabecera y el directorio, por lo que el tiempo de arranque no
+ * depende del tamaño del archivo; cada entidad se materializa en el primer acceso
+ * buscando su ID en el índice ordenado de su sección, y su registro se verifica con su
+ * propio CRC32C antes de leerlo. Las fuentes de los repositorios exponen además el
+ * registro de claves de su sección, con el que se construyen los índices secundarios
+ * sin materializar las entidades. Un registro dañado se informa al manejador de daños
+ * (por ejemplo, para pasar a la generación anterior del archivo).
+ *
+ * Las referencias hacia entidades raíz se resuelven primero con el resolvedor (los
+ * repositorios), de modo que todas apunten a las instancias canónicas; los historiales
+ * de envíos se resuelven de forma diferida con {@link ShipmentReferenceList}.
+ *
+ * Todos los accesos al buffer se hacen bajo el monitor del snapshot; después de
+ * {@link #close()} el buffer no vuelve a leerse.
+ */
+public final class MappedSnapshot implements Closeable {
+
+    public static final String ADDRESSES = "addresses";
+    public static final String PAYMENT_METHODS = "paymentMethods";
+    public static final String RATES = "rates";
+
+    // Nombre de cada sección, en el orden de AppStateCodec
+    private static final String[] SECTION_NAMES = {
+        ADDRESSES, PAYMENT_METHODS, EntityReference.USERS, EntityReference.DELIVERERS,
+        EntityReference.SHIPMENTS, EntityReference.PAYMENTS, EntityReference.INCIDENTS, RATES
+    };
+
+    private static final int HEADER_BYTES = AppStateCodec.HEADER_BYTES;
+
+    private ByteBuffer buffer;
+    private final Path file;
+    private final long journalGeneration;
+    // Los registros de la versión 2 no tienen checksum
+    private final boolean checksums;
+    private final List<String> symbols = new ArrayList<>();
+    private final Section[] sections = new Section[AppStateCodec.SECTION_COUNT];
+
+    private Function<EntityReference, Object> resolver;
+
+    // Enlaces pendientes de la entidad que se está materializando
+    private List<Runnable> pendingLinks;
+
+    // En la carga completa, listas que se llenan cuando todas las entidades existen
+    private List<Runnable> deferredLists;
+
+    // Se avisa una sola vez, con el primer registro dañado
+    private Consumer<IOException> damageHandler;
+    private boolean damageReported;
+
+    private static final class Section {
+        int total;
+        int listed;
+        long positionsOffset;
+        long idsOffset;
+        int idCount;
+        // Registro con las claves de los índices (versión 3), o 0 si la sección no lo tiene
+        long keysOffset;
+        final Map<Integer, Object> cache = new HashMap<>();
+        // Entidades fuera de las listas del estado, conservadas al cerrar el snapshot
+        Map<UUID, Object> orphans = Collections.emptyMap();
+    }
+
+    private MappedSnapshot(ByteBuffer buffer, Path file) throws IOException {
+        int limit = buffer.limit();
+        if (limit < HEADER_BYTES + AppStateCodec.UNCHECKED_FOOTER_BYTES || buffer.getInt(0) != AppStateCodec.MAGIC) {
+            throw new IOException("El archivo no tiene formato de estado compacto");
+        }
+        short version = buffer.getShort(4);
+        if (version != AppStateCodec.SCHEMA_VERSION && version != AppStateCodec.UNCHECKED_SCHEMA_VERSION) {
+            throw new IOException("La versión " + version + " del formato no es indexada");
+        }
+        this.checksums = version == AppStateCodec.SCHEMA_VERSION;
+        int footer = checksums ? AppStateCodec.FOOTER_BYTES : AppStateCodec.UNCHECKED_FOOTER_BYTES;
+        if (limit < HEADER_BYTES + footer || buffer.getInt(limit - 4) != AppStateCodec.END_MARK) {
+            throw new IOException("Archivo de estado incompleto");
+        }
+        long directory = buffer.getLong(limit - footer);
+        if (directory < HEADER_BYTES || directory > limit - footer) {
+            throw new IOException("Directorio del snapshot fuera de rango: " + directory);
+        }
+        if (checksums) {
+            int expected = buffer.getInt(limit - footer + 8);
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.duplicate().limit(HEADER_BYTES).position(0));
+            crc.update(buffer.duplicate().limit(limit - footer).position((int) directory));
+            if ((int) crc.getValue() != expected) {
+                throw new IOException("Checksum inválido en la cabecera o el directorio del snapshot");
+            }
+        }
+
+        this.buffer = buffer;
+        this.file = file;
+        this.journalGeneration = buffer.getLong(6);
+
+        ByteBuffer view = buffer.duplicate();
+        view.position((int) directory);
+        CompactInput in = new CompactInput(view, null);
+        int symbolCount = in.readInt();
+        for (int i = 0; i < symbolCount; i++) {
+            symbols.add(in.readUtf());
+        }
+        for (int i = 0; i < sections.length; i++) {
+            Section section = new Section();
+            section.total = in.readInt();
+            section.listed = in.readInt();
+            section.positionsOffset = in.readLong();
+            section.idsOffset = in.readLong();
+            section.idCount = in.readInt();
+            if (checksums) {
+                section.keysOffset = in.readLong();
+            }
+            if (section.listed < 0 || section.listed > section.total
+                    || section.positionsOffset + 8L * section.total > directory
+                    || section.idsOffset + (long) AppStateCodec.ID_ENTRY_BYTES * section.idCount > directory
+                    || section.keysOffset < 0 || section.keysOffset > directory) {
+                throw new IOException("Índice dañado en la sección " + SECTION_NAMES[i]);
+            }
+            sections[i] = section;
+        }
+    }
+
+    /**
+     * Mapea un snapshot en memoria sin materializar ninguna entidad
+     * @param file archivo escrito con {@link AppStateCodec#write}
+     * @return snapshot abierto
+     * @throws IOException si el archivo no existe, no es indexado o está dañado
+     */
+    public static MappedSnapshot open(Path file) throws IOException {
+        return open(file, Files.size(file));
+    }
+
+    /**
+     * Mapea los primeros bytes de un archivo como snapshot, por ejemplo el contenido
+     * validado de un {@link SnapshotFile} sin su pie
+     * @param file archivo que contiene el snapshot
+     * @param size bytes del snapshot desde el inicio del archivo
+     * @return snapshot abierto
+     * @throws IOException si el archivo no existe, no es indexado o está dañado
+     */
+    public static MappedSnapshot open(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (size > channel.size()) {
+                throw new IOException("El snapshot excede el tamaño del archivo");
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("El snapshot es demasiado grande para mapearse: " + size + " bytes");
+            }
+            // El mapeo sigue siendo válido después de cerrar el canal
+            return new MappedSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), file);
+        }
+    }
+
+    /**
+     * Usa un buffer en memoria como snapshot
+     */
+    static MappedSnapshot wrap(ByteBuffer buffer) throws IOException {
+        return new MappedSnapshot(buffer, null);
+    }
+
+    public long getJournalGeneration() {
+        return journalGeneration;
+    }
+
+    /**
+     * @return archivo mapeado, o null si el snapshot está en memoria
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Número de entidades de una sección que pertenecen a las listas del estado
+     * @param name nombre de la sección (por ejemplo, {@link EntityReference#USERS})
+     * @return número de entidades
+     */
+    public int count(String name) {
+        return sections[sectionIndex(name)].listed;
+    }
+
+    /**
+     * Establece cómo obtener la instancia actual de una entidad referenciada
+     * @param resolver devuelve la instancia canónica, o null si la entidad no existe
+     */
+    public synchronized void setResolver(Function<EntityReference, Object> resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Establece a quién avisar cuando un registro resulta dañado al materializarlo. Se llama
+     * una sola vez, desde el hilo que leía el registro y antes de lanzar el error, de modo
+     * que el manejador puede reemplazar las fuentes de los repositorios y quien leía
+     * reintentar con la nueva fuente.
+     * @param handler recibe la causa del daño
+     */
+    public synchronized void setDamageHandler(Consumer<IOException> handler) {
+        this.damageHandler = handler;
+    }
+
+    /**
+     * Crea una fuente de entidades para cargar un repositorio de forma diferida
+     * @param name nombre de la sección (por ejemplo, {@link EntityReference#SHIPMENTS} o {@link #RATES})
+     * @return fuente con las entidades de las listas del estado
+     */
+    public <T> EntitySource<T> source(String name) {
+        return new SectionSource<>(sectionIndex(name));
+    }
+
+    /**
+     * Materializa todo el snapshot como un AppState independiente del buffer
+     */
+    synchronized AppState toAppState() {
+        deferredLists = new ArrayList<>();
+        try {
+            List<List<Object>> listed = new ArrayList<>();
+            for (int index = 0; index < sections.length; index++) {
+                Section section = sections[index];
+                List<Object> entities = new ArrayList<>(section.listed);
+                for (int position = 0; position < section.total; position++) {
+                    Object entity = materialize(index, position);
+                    if (position < section.listed) {
+                        entities.add(entity);
+                    }
+                }
+                listed.add(entities);
+            }
+            deferredLists.forEach(Runnable::run);
+
+            AppState state = new AppState();
+            state.setJournalGeneration(journalGeneration);
+            state.setAddresses(cast(listed.get(AppStateCodec.ADDRESSES)));
+            state.setPaymentMethods(cast(listed.get(AppStateCodec.PAYMENT_METHODS)));
+            state.setUsers(cast(listed.get(AppStateCodec.USERS)));
+            state.setDeliverers(cast(listed.get(AppStateCodec.DELIVERERS)));
+            state.setShipments(cast(listed.get(AppStateCodec.SHIPMENTS)));
+            state.setPayments(cast(listed.get(AppStateCodec.PAYMENTS)));
+            state.setIncidents(cast(listed.get(AppStateCodec.INCIDENTS)));
+            state.setRates(cast(listed.get(AppStateCodec.RATES)));
+            return state;
+        } finally {
+            deferredLists = null;
+        }
+    }
+
+    /**
+     * Libera el mapeo. Antes materializa las entidades que solo son alcanzables por
+     * referencia, para que las listas diferidas que aún no se han resuelto las encuentren.
+     * Los repositorios deben haber cargado ya todas sus entidades.
+     */
+    @Override
+    public synchronized void close() {
+        if (buffer == null) {
+            return;
+        }
+        for (int index = 0; index < sections.length; index++) {
+            Section section = sections[index];
+            Map<UUID, Object> orphans = new HashMap<>();
+            for (int position = section.listed; position < section.total; position++) {
+                Object entity;
+                try {
+                    entity = materialize(index, position);
+                } catch (UncheckedIOException e) {
+                    // Ya se informó al manejador; la referencia quedará sin resolver
+                    continue;
+                }
+                UUID id = idOf(entity);
+                if (id != null) {
+                    orphans.put(id, entity);
+                }
+            }
+            section.orphans = orphans;
+            section.cache.clear();
+        }
+        ByteBuffer mapped = buffer;
+        buffer = null;
+        unmap(mapped);
+    }
+
+    /**
+     * Deja de leer un snapshot dañado sin materializar nada más: las referencias que aún no
+     * se resolvieron quedan vacías. El mapeo no se libera explícitamente porque otro hilo
+     * puede venir de leer un registro; se libera con el recolector.
+     */
+    public synchronized void discard() {
+        if (buffer == null) {
+            return;
+        }
+        for (Section section : sections) {
+            section.cache.clear();
+        }
+        buffer = null;
+    }
+
+    // ------------------------------------------------------------------
+    // Acceso al buffer (siempre bajo el monitor del snapshot)
+    // ------------------------------------------------------------------
+
+    private static int sectionIndex(String name) {
+        for (int i = 0; i < SECTION_NAMES.length; i++) {
+            if (SECTION_NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Sección desconocida: " + name);
+    }
+
+    /**
+     * Busca un ID en el índice ordenado de la sección
+     * @return posición del registro, o -1 si no está
+     */
+    private int find(Section section, UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int low = 0;
+        int high = section.idCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int entry = (int) (section.idsOffset + (long) AppStateCodec.ID_ENTRY_BYTES * middle);
+            int comparison = AppStateCodec.compareIds(buffer.getLong(entry), buffer.getLong(entry + 8), msb, lsb);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return buffer.getInt(entry + 16);
+            }
+        }
+        return -1;
+    }
+
+    private Object materialize(int index, int position) {
+        Section section = sections[index];
+        Object cached = section.cache.get(position);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<Runnable> outer = pendingLinks;
+        List<Runnable> links = new ArrayList<>();
+        pendingLinks = links;
+        Object entity;
+        try {
+            entity = readRecord(index, new CompactInput(record(section, position), symbols));
+        } catch (IOException | RuntimeException e) {
+            throw damaged(new IOException(
+                    "Registro dañado en la sección " + SECTION_NAMES[index] + ", posición " + position, e));
+        } finally {
+            pendingLinks = outer;
+        }
+
+        // Se registra antes de enlazar para que las referencias circulares encuentren la instancia
+        section.cache.put(position, entity);
+        links.forEach(Runnable::run);
+        return entity;
+    }
+
+    /**
+     * Materializa la entidad que el índice por ID ubica en una posición y comprueba que
+     * sea la pedida; un índice dañado podría apuntar a otro registro válido
+     */
+    private Object materialize(int index, int position, UUID id) {
+        Object entity = materialize(index, position);
+        if (!id.equals(idOf(entity))) {
+            throw damaged(new IOException("El índice de la sección " + SECTION_NAMES[index] +
+                                          " apunta a otra entidad en la posición " + position));
+        }
+        return entity;
+    }
+
+    /**
+     * Ubica el registro de una posición y verifica su checksum
+     * @return vista del contenido del registro
+     */
+    private ByteBuffer record(Section section, int position) throws IOException {
+        return record(buffer.getLong((int) (section.positionsOffset + 8L * position)));
+    }
+
+    /**
+     * Ubica el registro que empieza en un offset y verifica su checksum
+     * @return vista del contenido del registro
+     */
+    private ByteBuffer record(long offset) throws IOException {
+        int limit = buffer.limit();
+        int prefix = checksums ? AppStateCodec.RECORD_PREFIX_BYTES : 4;
+        if (offset < HEADER_BYTES || offset > limit - prefix) {
+            throw new IOException("Offset fuera de rango: " + offset);
+        }
+        int start = (int) offset + prefix;
+        int length = buffer.getInt((int) offset);
+        if (length < 0 || length > limit - start) {
+            throw new IOException("Longitud fuera de rango: " + length);
+        }
+        if (checksums && AppStateCodec.checksum(buffer, start, start + length) != buffer.getInt((int) offset + 4)) {
+            throw new IOException("Checksum inválido");
+        }
+        ByteBuffer record = buffer.duplicate();
+        record.limit(start + length);
+        record.position(start);
+        return record;
+    }
+
+    /**
+     * Avisa al manejador del primer daño encontrado
+     * @return error para lanzar a quien leía el registro
+     */
+    private UncheckedIOException damaged(IOException cause) {
+        if (cause.getCause() instanceof UncheckedIOException) {
+            // Un registro anidado ya lo informó
+            return new UncheckedIOException(cause);
+        }
+        System.err.println("[SNAPSHOT] " + cause.getMessage() + (file != null ? " (" + file.getFileName() + ")" : ""));
+        Consumer<IOException> handler = damageHandler;
+        if (handler != null && !damageReported) {
+            damageReported = true;
+            handler.accept(cause);
+        }
+        return new UncheckedIOException(cause);
+    }
+
+    /**
+     * Lee el registro de claves de una sección
+     * @return proyecciones de las entidades listadas, o null si la sección no lo tiene
+     */
+    private List<Object> readKeys(int index) {
+        Section section = sections[index];
+        if (section.keysOffset == 0) {
+            return null;
+        }
+        try {
+            CompactInput in = new CompactInput(record(section.keysOffset), symbols);
+            int count = in.readVarInt();
+            if (count != section.listed) {
+                throw new IOException("El registro de claves no coincide con la sección");
+            }
+            List<Object> keys = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                switch (index) {
+                    case AppStateCodec.DELIVERERS:
+                        keys.add(EntityRecords.readDelivererKeys(in));
+                        break;
+                    case AppStateCodec.SHIPMENTS:
+                        keys.add(EntityRecords.readShipmentKeys(in));
+                        break;
+                    default:
+                        keys.add(EntityRecords.readPaymentKeys(in));
+                        break;
+                }
+            }
+            return keys;
+        } catch (IOException | RuntimeException e) {
+            throw damaged(new IOException("Registro de claves dañado en la sección " + SECTION_NAMES[index], e));
+        }
+    }
+
+    private Object readRecord(int index, CompactInput in) throws IOException {
+        switch (index) {
+            case AppStateCodec.ADDRESSES:
+                return EntityRecords.readAddress(in);
+            case AppStateCodec.PAYMENT_METHODS:
+                return EntityRecords.readPaymentMethod(in, links);
+            case AppStateCodec.USERS:
+                return EntityRecords.readUser(in, links);
+            case AppStateCodec.DELIVERERS:
+                return EntityRecords.readDeliverer(in, links);
+            case AppStateCodec.SHIPMENTS:
+                return EntityRecords.readShipment(in, links);
+            case AppStateCodec.PAYMENTS:
+                return EntityRecords.readPayment(in, links);
+            case AppStateCodec.INCIDENTS:
+                return EntityRecords.readIncident(in, links);
+            default:
+                return EntityRecords.readRate(in);
+        }
+    }
+
+    /**
+     * Resuelve una referencia a una entidad raíz: primero la instancia canónica del
+     * resolvedor y, si no existe, una entidad del snapshot que no pertenezca a las listas
+     * del estado (las que sí pertenecen y no están en el repositorio fueron eliminadas)
+     */
+    private synchronized Object resolve(int index, UUID id) {
+        if (id == null) {
+            return null;
+        }
+        if (resolver != null) {
+            Object current = resolver.apply(new EntityReference(SECTION_NAMES[index], id));
+            if (current != null) {
+                return current;
+            }
+        }
+        Section section = sections[index];
+        if (buffer == null) {
+            return section.orphans.get(id);
+        }
+        int position = find(section, id);
+        if (position < 0 || (resolver != null && position < section.listed)) {
+            return null;
+        }
+        return materialize(index, position, id);
+    }
+
+    private <T> List<T> references(int index, List<UUID> ids, Class<T> type) {
+        if (deferredLists == null) {
+            return new LazyReferenceList<>(ids, id -> type.cast(resolve(index, id)));
+        }
+        List<T> list = new ArrayList<>(ids.size());
+        deferredLists.add(() -> {
+            for (UUID id : ids) {
+                Object entity = resolve(index, id);
+                if (entity != null) {
+                    list.add(type.cast(entity));
+                }
+            }
+        });
+        return list;
+    }
+
+    private final EntityRecords.Links links = new EntityRecords.Links() {
+        @Override
+        public Address address(int ref) {
+            return ref > 0 && ref <= sections[AppStateCodec.ADDRESSES].total
+                    ? (Address) materialize(AppStateCodec.ADDRESSES, ref - 1) : null;
+        }
+
+        @Override
+        public UserPaymentMethod paymentMethod(int ref) {
+            return ref > 0 && ref <= sections[AppStateCodec.PAYMENT_METHODS].total
+                    ? (UserPaymentMethod) materialize(AppStateCodec.PAYMENT_METHODS, ref - 1) : null;
+        }
+
+        @Override
+        public User user(UUID id) {
+            return (User) resolve(AppStateCodec.USERS, id);
+        }
+
+        @Override
+        public Deliverer deliverer(UUID id) {
+            return (Deliverer) resolve(AppStateCodec.DELIVERERS, id);
+        }
+
+        @Override
+        public Shipment shipment(UUID id) {
+            return (Shipment) resolve(AppStateCodec.SHIPMENTS, id);
+        }
+
+        @Override
+        public List<Shipment> shipments(List<UUID> ids) {
+            ShipmentReferenceList list = ShipmentReferenceList.ofIds(ids,
+                id -> (Shipment) resolve(AppStateCodec.SHIPMENTS, id));
+            if (deferredLists != null) {
+                deferredLists.add(list::resolve);
+            }
+            return list;
+        }
+
+        @Override
+        public List<Incident> incidents(List<UUID> ids) {
+            return references(AppStateCodec.INCIDENTS, ids, Incident.class);
+        }
+
+        @Override
+        public void link(Runnable link) {
+            pendingLinks.add(link);
+        }
+    };
+
+    /**
+     * Fuente de un repositorio: solo expone las entidades de las listas del estado
+     */
+    private final class SectionSource<T> implements EntitySource<T> {
+        private final int index;
+
+        SectionSource(int index) {
+            this.index = index;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T load(UUID id) {
+            synchronized (MappedSnapshot.this) {
+                if (buffer == null || id == null) {
+                    return null;
+                }
+                int position = find(sections[index], id);
+                return position >= 0 && position < sections[index].listed ? (T) materialize(index, position, id) : null;
+            }
+        }
+
+        @Override
+        public boolean contains(UUID id) {
+            synchronized (MappedSnapshot.this) {
+                if (buffer == null || id == null) {
+                    return false;
+                }
+                int position = find(sections[index], id);
+                return position >= 0 && position < sections[index].listed;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<T> loadAll() {
+            synchronized (MappedSnapshot.this) {
+                if (buffer == null) {
+                    return new ArrayList<>();
+                }
+                Section section = sections[index];
+                List<T> entities = new ArrayList<>(section.listed);
+                for (int position = 0; position < section.listed; position++) {
+                    entities.add((T) materialize(index, position));
+                }
+                if (index >= AppStateCodec.USERS) {
+                    // A partir de aquí el repositorio es dueño de estas instancias; las
+                    // direcciones y métodos de pago se siguen compartiendo por posición
+                    section.cache.keySet().removeIf(position -> position < section.listed);
+                }
+                return entities;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<T> loadIndexKeys() {
+            synchronized (MappedSnapshot.this) {
+                if (buffer == null) {
+                    return new ArrayList<>();
+                }
+                return (List<T>) (List<?>) readKeys(index);
+            }
+        }
+    }
+
+    private static UUID idOf(Object entity) {
+        if (entity instanceof Address) return ((Address) entity).getId();
+        if (entity instanceof UserPaymentMethod) return ((UserPaymentMethod) entity).getId();
+        if (entity instanceof Rate) return ((Rate) entity).getId();
+        return EntityReference.idOf(entity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> cast(List<Object> list) {
+        return (List<T>) (List<?>) list;
+    }
+
+    /**
+     * Libera el mapeo de inmediato; sin esto, en Windows el archivo no puede reemplazarse
+     * hasta que el recolector de basura reclame el buffer
+     */
+    private static void unmap(ByteBuffer mapped) {
+        if (!(mapped instanceof MappedByteBuffer)) {
+            return;
+        }
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            invokeCleaner.invoke(field.get(null), mapped);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            System.err.println("[SNAPSHOT] No se pudo liberar el mapeo, se liberará con el recolector: " + e.getMessage());
+        }
+    }
+}
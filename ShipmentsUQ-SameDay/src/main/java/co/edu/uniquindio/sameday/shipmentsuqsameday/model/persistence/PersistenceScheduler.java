@@ -0,0 +1,239 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Programa la persistencia en un hilo de fondo.
+ * Cada mutación marca su repositorio como sucio; la primera de una ráfaga programa un
+ * único flush al cumplirse la ventana y las siguientes se agrupan en él, de modo que
+ * los flujos de negocio nunca esperan a la escritura en disco.
+ * Si un flush falla, los repositorios siguen sucios y se reintenta con espera exponencial
+ * (desde la ventana hasta un minuto) mientras el disco siga fallando.
+ */
+public class PersistenceScheduler implements Closeable {
+
+    private static final long MIN_RETRY_MILLIS = 100;
+    private static final long MAX_RETRY_MILLIS = 60_000;
+
+    /**
+     * Escritura que se ejecuta en el hilo de fondo
+     */
+    public interface FlushTask {
+        /**
+         * @param dirtyRepositories repositorios modificados desde el último flush
+         * @throws IOException si la escritura falla; los repositorios vuelven a marcarse como sucios
+         */
+        void flush(Set<String> dirtyRepositories) throws IOException;
+    }
+
+    private final long windowMillis;
+    private final FlushTask task;
+    private final ScheduledExecutorService executor;
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private volatile Thread worker;
+
+    // Métricas
+    private final AtomicLong mutations = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    /**
+     * @param windowMillis ventana en milisegundos durante la que se agrupan las mutaciones
+     * @param task escritura a ejecutar en cada flush
+     */
+    public PersistenceScheduler(long windowMillis, FlushTask task) {
+        this.windowMillis = Math.max(0, windowMillis);
+        this.task = task;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "persistence-scheduler");
+            thread.setDaemon(true);
+            worker = thread;
+            return thread;
+        });
+    }
+
+    /**
+     * Marca un repositorio como modificado y programa un flush si no hay uno pendiente
+     * @param repository nombre del repositorio
+     */
+    public void markDirty(String repository) {
+        mutations.incrementAndGet();
+        addDirty(repository);
+    }
+
+    /**
+     * Ejecuta de inmediato el flush pendiente y espera a que termine.
+     * Pensado para las pruebas y el cierre de la aplicación.
+     * @throws IOException si la escritura falla
+     */
+    public void flushAndWait() throws IOException {
+        if (Thread.currentThread() == worker) {
+            flushNow();
+            return;
+        }
+        Future<?> result;
+        try {
+            result = executor.submit(() -> {
+                flushNow();
+                return null;
+            });
+        } catch (RejectedExecutionException e) {
+            // Ya cerrado: se escribe en el hilo actual
+            flushNow();
+            return;
+        }
+        try {
+            result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrumpido mientras se esperaba el flush", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Error durante el flush", cause);
+        }
+    }
+
+    /**
+     * Ejecuta una tarea de mantenimiento (por ejemplo, una fusión de snapshots) en el hilo
+     * de fondo, sin solaparse con los flush. Si el planificador ya se cerró, se descarta.
+     * @param task tarea a ejecutar
+     */
+    public void execute(Runnable task) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                    System.err.println("[PERSISTENCE] Error en una tarea de fondo: " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            System.out.println("[PERSISTENCE] Planificador cerrado, se omite la tarea de fondo");
+        }
+    }
+
+    /**
+     * @return repositorios modificados que aún no se han escrito
+     */
+    public Set<String> getDirtyRepositories() {
+        return new TreeSet<>(dirty);
+    }
+
+    public long getMutationCount() {
+        return mutations.get();
+    }
+
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * @return flush fallidos desde el último exitoso (0 si el último funcionó)
+     */
+    public int getConsecutiveFailureCount() {
+        return consecutiveFailures.get();
+    }
+
+    /**
+     * @return mutaciones, flush, fallos totales y seguidos, y repositorios pendientes
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("mutations", mutations.get());
+        stats.put("flushes", flushes.get());
+        stats.put("failures", failures.get());
+        stats.put("consecutiveFailures", consecutiveFailures.get());
+        stats.put("dirtyRepositories", getDirtyRepositories());
+        return stats;
+    }
+
+    /**
+     * Escribe lo pendiente y detiene el hilo de fondo
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flushAndWait();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void runFlush() {
+        try {
+            flushNow();
+        } catch (IOException e) {
+            // flushNow ya registró el error y programó el reintento
+        }
+    }
+
+    private synchronized void flushNow() throws IOException {
+        // Las mutaciones que lleguen desde aquí programan un nuevo flush
+        scheduled.set(false);
+        if (dirty.isEmpty()) {
+            return;
+        }
+        Set<String> batch = new TreeSet<>();
+        for (String repository : dirty) {
+            if (dirty.remove(repository)) {
+                batch.add(repository);
+            }
+        }
+        try {
+            task.flush(batch);
+            flushes.incrementAndGet();
+            consecutiveFailures.set(0);
+        } catch (IOException | RuntimeException e) {
+            failures.incrementAndGet();
+            int attempt = consecutiveFailures.incrementAndGet();
+            long delay = retryDelay(attempt);
+            dirty.addAll(batch);
+            scheduleFlush(delay);
+            System.err.println("[PERSISTENCE] Error en el flush (" + attempt + " seguidos, reintento en "
+                + delay + " ms): " + e.getMessage());
+            throw e instanceof IOException ? (IOException) e : new IOException(e);
+        }
+    }
+
+    /**
+     * Espera antes del reintento: la ventana duplicada por cada fallo seguido, hasta un minuto
+     */
+    private long retryDelay(int attempt) {
+        long base = Math.max(windowMillis, MIN_RETRY_MILLIS);
+        return Math.min(MAX_RETRY_MILLIS, base << Math.min(attempt - 1, 20));
+    }
+
+    private void addDirty(String repository) {
+        dirty.add(repository);
+        scheduleFlush(windowMillis);
+    }
+
+    private void scheduleFlush(long delayMillis) {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.schedule(this::runFlush, delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Escritura atómica y validada de los archivos de estado.
+ * El contenido se escribe en un archivo temporal, se le agrega un pie con su longitud y
+ * su CRC32C, se fuerza a disco y solo entonces reemplaza al archivo vigente con un
+ * renombrado atómico; el archivo reemplazado se conserva como generación anterior.
+ * Así una caída durante el guardado nunca deja el único archivo a medio escribir, y
+ * quien lea el archivo vigente mientras se guarda ve siempre una versión completa.
+ *
+ * Pie: [longitud del contenido, crc32c del contenido, marca]. Un archivo sin la marca se
+ * escribió antes de este formato; como el renombrado nunca publica un archivo incompleto,
+ * se acepta tal cual y su propio formato se encarga de detectar daños.
+ *
+ * Antes de rotar el archivo vigente a la generación anterior no se vuelve a leer entero:
+ * si es el que este proceso escribió o validó (mismo tamaño y fecha de modificación) se
+ * sabe válido; si no, basta con revisar su pie. Un archivo marcado como dañado nunca se rota.
+ *
+ * Los formatos que verifican su contenido por partes (como el snapshot indexado, con un
+ * CRC32C por registro) se abren con {@link #openUnverified(Path)}, que solo revisa el pie:
+ * así el arranque no lee el archivo entero.
+ */
+public final class SnapshotFile {
+
+    private static final int TRAILER_MAGIC = 0x53555143; // "SUQC"
+    private static final int TRAILER_BYTES = 8 + 4 + 4;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String PREVIOUS_SUFFIX = ".prev";
+
+    // Tamaño y fecha de modificación de los archivos que este proceso escribió o validó
+    private static final Map<Path, String> KNOWN_VALID = new ConcurrentHashMap<>();
+    // Igual, para los archivos en los que quien los leía encontró contenido dañado
+    private static final Map<Path, String> KNOWN_DAMAGED = new ConcurrentHashMap<>();
+
+    /**
+     * Escribe el contenido de un archivo de estado
+     */
+    public interface ContentWriter {
+        /**
+         * @param out flujo con buffer; cerrarlo no tiene efecto
+         * @throws IOException si ocurre un error de escritura
+         */
+        void write(OutputStream out) throws IOException;
+    }
+
+    private final Path path;
+    private final long contentLength;
+    private final boolean previous;
+
+    private SnapshotFile(Path path, long contentLength, boolean previous) {
+        this.path = path;
+        this.contentLength = contentLength;
+        this.previous = previous;
+    }
+
+    /**
+     * Escribe un archivo de estado de forma atómica. Si el archivo vigente es válido
+     * pasa a ser la generación anterior; si está dañado se descarta para no perder
+     * la última generación anterior válida.
+     * @param target archivo de destino
+     * @param writer escribe el contenido
+     * @return bytes de contenido escritos
+     * @throws IOException si no se puede escribir; el archivo vigente queda intacto
+     */
+    public static long write(Path target, ContentWriter writer) throws IOException {
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        Path temp = sibling(target, TEMP_SUFFIX);
+        long length;
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            BufferedOutputStream buffered = new BufferedOutputStream(file, BUFFER_SIZE);
+            ChecksumOutputStream content = new ChecksumOutputStream(buffered);
+            writer.write(content);
+            content.flush();
+            length = content.count;
+
+            DataOutputStream trailer = new DataOutputStream(buffered);
+            trailer.writeLong(length);
+            trailer.writeInt((int) content.crc.getValue());
+            trailer.writeInt(TRAILER_MAGIC);
+            trailer.flush();
+            file.getChannel().force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        if (Files.exists(target)) {
+            if (!isKnown(KNOWN_DAMAGED, target) && (isKnown(KNOWN_VALID, target) || hasValidTrailer(target))) {
+                move(target, sibling(target, PREVIOUS_SUFFIX));
+            } else {
+                System.err.println("[SNAPSHOT] " + target.getFileName() + " estaba dañado; se conserva la generación anterior");
+            }
+        }
+        move(temp, target);
+        syncDirectory(target.getParent());
+        rememberValid(target);
+        return length;
+    }
+
+    /**
+     * Abre el archivo vigente si es válido o, si no, la generación anterior
+     * @param target archivo de estado
+     * @return archivo validado
+     * @throws IOException si no existe ninguna generación válida
+     */
+    public static SnapshotFile open(Path target) throws IOException {
+        try {
+            SnapshotFile current = new SnapshotFile(target, validate(target, true), false);
+            rememberValid(target);
+            return current;
+        } catch (IOException e) {
+            return fallBack(target, e, true);
+        }
+    }
+
+    /**
+     * Abre el archivo vigente revisando solo su pie (longitud y marca), sin leer el contenido;
+     * si el pie no es válido o el archivo se marcó como dañado, abre la generación anterior.
+     * Quien lo lea debe verificar el contenido y llamar a {@link #markDamaged(Path)} si falla.
+     * @param target archivo de estado
+     * @return archivo con el pie validado
+     * @throws IOException si no existe ninguna generación con un pie válido
+     */
+    public static SnapshotFile openUnverified(Path target) throws IOException {
+        try {
+            if (isKnown(KNOWN_DAMAGED, target)) {
+                throw new IOException(target.getFileName() + " tiene registros dañados");
+            }
+            return new SnapshotFile(target, validate(target, false), false);
+        } catch (IOException e) {
+            return fallBack(target, e, false);
+        }
+    }
+
+    /**
+     * Abre la generación anterior revisando solo su pie, por ejemplo cuando el archivo
+     * vigente resultó dañado después de abrirlo con {@link #openUnverified(Path)}
+     * @param target archivo de estado (no su generación anterior)
+     * @return generación anterior con el pie validado
+     * @throws IOException si no existe o su pie no es válido
+     */
+    public static SnapshotFile openPrevious(Path target) throws IOException {
+        Path previous = sibling(target, PREVIOUS_SUFFIX);
+        return new SnapshotFile(previous, validate(previous, false), true);
+    }
+
+    /**
+     * Marca un archivo cuyo contenido resultó dañado: no se rota a la generación anterior
+     * al escribir el siguiente y {@link #openUnverified(Path)} lo descarta
+     * @param file archivo vigente o generación anterior
+     */
+    public static void markDamaged(Path file) {
+        KNOWN_VALID.remove(file.toAbsolutePath());
+        String stamp = stamp(file);
+        if (stamp != null) {
+            KNOWN_DAMAGED.put(file.toAbsolutePath(), stamp);
+        }
+    }
+
+    /**
+     * @param target archivo de estado
+     * @return true si existe el archivo vigente o su generación anterior
+     */
+    public static boolean exists(Path target) {
+        return Files.exists(target) || Files.exists(sibling(target, PREVIOUS_SUFFIX));
+    }
+
+    /**
+     * Elimina el archivo vigente y su generación anterior
+     * @param target archivo de estado
+     * @return true si se eliminó algún archivo
+     */
+    public static boolean delete(Path target) throws IOException {
+        KNOWN_VALID.remove(target.toAbsolutePath());
+        KNOWN_DAMAGED.remove(target.toAbsolutePath());
+        boolean deleted = Files.deleteIfExists(target);
+        return Files.deleteIfExists(sibling(target, PREVIOUS_SUFFIX)) || deleted;
+    }
+
+    /**
+     * @return archivo validado (el vigente o la generación anterior)
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return longitud del contenido, sin el pie
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * @return true si el archivo vigente no era válido y se abrió la generación anterior
+     */
+    public boolean isPrevious() {
+        return previous;
+    }
+
+    /**
+     * @return flujo con buffer que termina donde termina el contenido
+     */
+    public InputStream newInputStream() throws IOException {
+        return new BoundedInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE), contentLength);
+    }
+
+    /**
+     * Abre la generación anterior cuando el archivo vigente no es válido; el vigente queda
+     * marcado como dañado para que el siguiente guardado no lo rote sobre ella
+     * @param failure motivo por el que se descartó el archivo vigente
+     */
+    private static SnapshotFile fallBack(Path target, IOException failure, boolean checkContent) throws IOException {
+        if (Files.exists(target)) {
+            markDamaged(target);
+        }
+        Path previous = sibling(target, PREVIOUS_SUFFIX);
+        if (Files.exists(previous)) {
+            try {
+                SnapshotFile fallback = new SnapshotFile(previous, validate(previous, checkContent), true);
+                System.err.println("[SNAPSHOT] " + target.getFileName() + " no es válido (" + failure.getMessage() +
+                                 "); se usa la generación anterior");
+                return fallback;
+            } catch (IOException e) {
+                failure.addSuppressed(e);
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * Valida el pie y, si se pide, el checksum del contenido de un archivo
+     * @param checkContent false para revisar solo el pie, sin leer el contenido
+     * @return longitud del contenido
+     */
+    private static long validate(Path file, boolean checkContent) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                throw new IOException("El archivo está vacío: " + file);
+            }
+            if (size < TRAILER_BYTES) {
+                return size;
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+            while (trailer.hasRemaining()) {
+                if (channel.read(trailer, size - TRAILER_BYTES + trailer.position()) < 0) {
+                    throw new IOException("Fin inesperado de " + file.getFileName());
+                }
+            }
+            trailer.flip();
+            long length = trailer.getLong();
+            int checksum = trailer.getInt();
+            if (trailer.getInt() != TRAILER_MAGIC) {
+                return size;
+            }
+            if (length != size - TRAILER_BYTES) {
+                throw new IOException("Longitud inconsistente en " + file.getFileName());
+            }
+            if (!checkContent) {
+                return length;
+            }
+
+            CRC32C crc = new CRC32C();
+            ByteBuffer chunk = ByteBuffer.allocateDirect(BUFFER_SIZE * 16);
+            long position = 0;
+            while (position < length) {
+                chunk.clear();
+                if (length - position < chunk.capacity()) {
+                    chunk.limit((int) (length - position));
+                }
+                int read = channel.read(chunk, position);
+                if (read < 0) {
+                    throw new IOException("Fin inesperado de " + file.getFileName());
+                }
+                chunk.flip();
+                crc.update(chunk);
+                position += read;
+            }
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("Checksum inválido en " + file.getFileName());
+            }
+            return length;
+        }
+    }
+
+    private static boolean hasValidTrailer(Path file) {
+        try {
+            validate(file, false);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static boolean isKnown(Map<Path, String> registry, Path file) {
+        String known = registry.get(file.toAbsolutePath());
+        return known != null && known.equals(stamp(file));
+    }
+
+    private static void rememberValid(Path file) {
+        KNOWN_DAMAGED.remove(file.toAbsolutePath());
+        String stamp = stamp(file);
+        if (stamp != null) {
+            KNOWN_VALID.put(file.toAbsolutePath(), stamp);
+        }
+    }
+
+    /**
+     * @return tamaño y fecha de modificación, o null si no se pueden leer
+     */
+    private static String stamp(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.size() + "@" + attributes.lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Path sibling(Path target, String suffix) {
+        return target.resolveSibling(target.getFileName() + suffix);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Fuerza a disco el directorio para que los renombrados sobrevivan a una caída.
+     * No todas las plataformas permiten abrir un directorio; ahí basta con el renombrado.
+     */
+    private static void syncDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Sin soporte para sincronizar directorios
+        }
+    }
+
+    /**
+     * Calcula el CRC32C y la longitud de lo escrito; cerrarlo solo vacía el buffer
+     */
+    private static final class ChecksumOutputStream extends FilterOutputStream {
+        final CRC32C crc = new CRC32C();
+        long count;
+
+        ChecksumOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            crc.update(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            crc.update(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    /**
+     * Flujo de lectura que no pasa del final del contenido
+     */
+    private static final class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = in.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
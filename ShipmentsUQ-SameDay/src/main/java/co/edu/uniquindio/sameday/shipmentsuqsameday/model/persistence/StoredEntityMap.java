@@ -0,0 +1,354 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.ShipmentReferenceList;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.OrderedEntityMap;
+import org.h2.mvstore.MVMap;
+
+import java.io.*;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Mapa de entidades de un repositorio guardado en un {@link MVMap}.
+ * Cada entidad se serializa por separado, con las demás entidades raíz como referencias
+ * y las listas de entidades raíz como listas de IDs que se resuelven en su primer acceso
+ * (los historiales y envíos asignados ya son {@link ShipmentReferenceList}); así leer una entidad no arrastra el resto del grafo.
+ *
+ * Las entidades leídas se conservan en una caché de referencias suaves: mientras alguien
+ * use una entidad, leerla de nuevo devuelve la misma instancia, y las que nadie usa las
+ * puede liberar el recolector cuando falte memoria.
+ * @param <T> tipo de entidad
+ */
+final class StoredEntityMap<T> extends AbstractMap<UUID, T> implements OrderedEntityMap<T> {
+
+    private final MVMap<UUID, byte[]> map;
+    private final Function<EntityReference, Object> resolver;
+    private final Map<UUID, CachedEntity<T>> cache = new ConcurrentHashMap<>();
+    private final ReferenceQueue<T> collected = new ReferenceQueue<>();
+    private final Set<Entry<UUID, T>> entrySet = new EntrySet();
+
+    /**
+     * @param map mapa del almacén con las entidades serializadas
+     * @param resolver resuelve las referencias a otras entidades contra los repositorios
+     */
+    StoredEntityMap(MVMap<UUID, byte[]> map, Function<EntityReference, Object> resolver) {
+        this.map = map;
+        this.resolver = resolver;
+    }
+
+    @Override
+    public T get(Object key) {
+        if (!(key instanceof UUID)) {
+            return null;
+        }
+        UUID id = (UUID) key;
+        T cached = cached(id);
+        if (cached != null) {
+            return cached;
+        }
+        byte[] bytes = map.get(id);
+        return bytes != null ? install(id, bytes) : null;
+    }
+
+    /**
+     * Escribe la entidad en el almacén
+     * @return la instancia que estaba en caché para ese ID, si la había
+     */
+    @Override
+    public T put(UUID id, T entity) {
+        map.put(id, encode(entity));
+        expunge();
+        CachedEntity<T> previous = cache.put(id, new CachedEntity<>(id, entity, collected));
+        return previous != null ? previous.get() : null;
+    }
+
+    @Override
+    public synchronized T putIfAbsent(UUID id, T entity) {
+        T existing = get(id);
+        if (existing != null) {
+            return existing;
+        }
+        put(id, entity);
+        return null;
+    }
+
+    @Override
+    public T remove(Object key) {
+        if (!(key instanceof UUID)) {
+            return null;
+        }
+        UUID id = (UUID) key;
+        T cached = cached(id);
+        byte[] removed = map.remove(id);
+        cache.remove(id);
+        if (removed == null) {
+            return null;
+        }
+        return cached != null ? cached : decode(removed, new boolean[1]);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof UUID && map.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, map.sizeAsLong());
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+        cache.clear();
+    }
+
+    @Override
+    public Set<UUID> keySet() {
+        return map.keySet();
+    }
+
+    @Override
+    public Set<Entry<UUID, T>> entrySet() {
+        return entrySet;
+    }
+
+    @Override
+    public List<UUID> keys(long offset, int limit) {
+        List<UUID> keys = new ArrayList<>();
+        if (limit <= 0 || offset >= map.sizeAsLong()) {
+            return keys;
+        }
+        UUID first = map.getKey(offset);
+        Iterator<UUID> iterator = map.keyIterator(first);
+        while (iterator.hasNext() && keys.size() < limit) {
+            keys.add(iterator.next());
+        }
+        return keys;
+    }
+
+    @Override
+    public List<UUID> keysAfter(UUID after, int limit) {
+        List<UUID> keys = new ArrayList<>();
+        UUID first = after != null ? map.higherKey(after) : map.firstKey();
+        if (limit <= 0 || first == null) {
+            return keys;
+        }
+        Iterator<UUID> iterator = map.keyIterator(first);
+        while (iterator.hasNext() && keys.size() < limit) {
+            keys.add(iterator.next());
+        }
+        return keys;
+    }
+
+    private T cached(UUID id) {
+        CachedEntity<T> reference = cache.get(id);
+        return reference != null ? reference.get() : null;
+    }
+
+    /**
+     * Deserializa una entidad y la registra en la caché. Si otro hilo la registró mientras
+     * tanto se devuelve esa instancia. Una entidad con referencias que todavía no se pueden
+     * resolver (por ejemplo, durante el arranque) no se guarda en la caché.
+     */
+    private T install(UUID id, byte[] bytes) {
+        boolean[] unresolved = new boolean[1];
+        T entity = decode(bytes, unresolved);
+        if (unresolved[0]) {
+            return entity;
+        }
+        expunge();
+        CachedEntity<T> installed = cache.compute(id, (key, current) -> {
+            if (current != null && current.get() != null) {
+                return current;
+            }
+            return new CachedEntity<>(id, entity, collected);
+        });
+        T result = installed.get();
+        return result != null ? result : entity;
+    }
+
+    /**
+     * Retira de la caché las entradas cuyas entidades ya liberó el recolector
+     */
+    @SuppressWarnings("unchecked")
+    private void expunge() {
+        CachedEntity<T> reference;
+        while ((reference = (CachedEntity<T>) collected.poll()) != null) {
+            cache.remove(reference.id, reference);
+        }
+    }
+
+    private byte[] encode(T entity) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new StoreWritingStream(bytes, entity)) {
+            out.writeObject(entity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo serializar la entidad", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private T decode(byte[] bytes, boolean[] unresolved) {
+        Function<EntityReference, Object> tracking = reference -> {
+            Object resolved = resolver.apply(reference);
+            if (resolved == null) {
+                unresolved[0] = true;
+            }
+            return resolved;
+        };
+        try (ObjectInputStream in = new StoreResolvingStream(new ByteArrayInputStream(bytes), tracking, resolver)) {
+            return (T) in.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Entidad dañada en el almacén", e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Entidad con una clase desconocida en el almacén", e);
+        }
+    }
+
+    /**
+     * Entrada de la caché; conserva el ID para poder retirarla cuando se libera la entidad
+     */
+    private static final class CachedEntity<T> extends SoftReference<T> {
+        final UUID id;
+
+        CachedEntity(UUID id, T entity, ReferenceQueue<T> queue) {
+            super(entity, queue);
+            this.id = id;
+        }
+    }
+
+    /**
+     * Lista de entidades raíz escrita como sus IDs
+     */
+    private static final class ReferenceList implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final String kind;
+        final UUID[] ids;
+
+        ReferenceList(String kind, UUID[] ids) {
+            this.kind = kind;
+            this.ids = ids;
+        }
+
+        /**
+         * @return la lista de IDs, o null si la lista no contiene solo entidades raíz del mismo tipo
+         */
+        static ReferenceList of(List<?> list) {
+            if (list.isEmpty()) {
+                return null;
+            }
+            String kind = EntityReference.kindOf(list.get(0));
+            UUID[] ids = new UUID[list.size()];
+            for (int i = 0; i < ids.length; i++) {
+                Object element = list.get(i);
+                ids[i] = EntityReference.idOf(element);
+                if (kind == null || ids[i] == null || !kind.equals(EntityReference.kindOf(element))) {
+                    return null;
+                }
+            }
+            return new ReferenceList(kind, ids);
+        }
+    }
+
+    private static final class StoreWritingStream extends WriteAheadJournal.ReferenceWritingStream {
+        StoreWritingStream(OutputStream out, Object root) throws IOException {
+            super(out, root);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            // Las listas diferidas llegan aquí como ArrayList (ver LazyReferenceList)
+            if (obj != null && obj.getClass() == ArrayList.class) {
+                ReferenceList references = ReferenceList.of((List<?>) obj);
+                if (references != null) {
+                    return references;
+                }
+            }
+            return super.replaceObject(obj);
+        }
+    }
+
+    private static final class StoreResolvingStream extends WriteAheadJournal.ReferenceResolvingStream {
+        private final Function<EntityReference, Object> lazyResolver;
+
+        StoreResolvingStream(InputStream in, Function<EntityReference, Object> resolver,
+                             Function<EntityReference, Object> lazyResolver) throws IOException {
+            super(in, resolver);
+            this.lazyResolver = lazyResolver;
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) {
+            if (obj instanceof ReferenceList) {
+                ReferenceList references = (ReferenceList) obj;
+                String kind = references.kind;
+                return new LazyReferenceList<>(new ArrayList<>(Arrays.asList(references.ids)),
+                    id -> lazyResolver.apply(new EntityReference(kind, id)));
+            }
+            if (obj instanceof ShipmentReferenceList) {
+                ((ShipmentReferenceList) obj).resolveWith(
+                    id -> (Shipment) lazyResolver.apply(new EntityReference(EntityReference.SHIPMENTS, id)));
+                return obj;
+            }
+            return super.resolveObject(obj);
+        }
+    }
+
+    /**
+     * Recorre las entidades en orden de ID, leyéndolas a medida que se avanza
+     */
+    private final class EntrySet extends AbstractSet<Entry<UUID, T>> {
+        @Override
+        public Iterator<Entry<UUID, T>> iterator() {
+            Iterator<UUID> keys = map.keyIterator(null);
+            return new Iterator<>() {
+                private Entry<UUID, T> next;
+                private UUID last;
+
+                @Override
+                public boolean hasNext() {
+                    while (next == null && keys.hasNext()) {
+                        UUID id = keys.next();
+                        T entity = get(id);
+                        if (entity != null) {
+                            next = new SimpleImmutableEntry<>(id, entity);
+                        }
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public Entry<UUID, T> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Entry<UUID, T> current = next;
+                    next = null;
+                    last = current.getKey();
+                    return current;
+                }
+
+                @Override
+                public void remove() {
+                    if (last == null) {
+                        throw new IllegalStateException();
+                    }
+                    StoredEntityMap.this.remove(last);
+                    last = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return StoredEntityMap.this.size();
+        }
+    }
+}
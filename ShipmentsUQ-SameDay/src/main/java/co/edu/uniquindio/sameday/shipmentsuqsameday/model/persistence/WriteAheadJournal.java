@@ -0,0 +1,375 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.ShipmentReferenceList;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Journal de escritura anticipada (write-ahead log) de solo anexado.
+ * Cada mutación de un repositorio se escribe como un registro independiente,
+ * de modo que el costo de persistir un cambio no depende del tamaño total de los datos.
+ * El journal pertenece a una generación de snapshot: al compactar se escribe un
+ * snapshot nuevo y el journal se reinicia con la generación siguiente.
+ *
+ * Formato: cabecera [magic, versión, generación] seguida de registros
+ * [longitud, crc32, operación, repositorio, id, entidad serializada].
+ */
+public class WriteAheadJournal implements Closeable {
+
+    private static final int MAGIC = 0x53554A4C; // "SUJL"
+    private static final short FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 8;
+    private static final int RECORD_HEADER_SIZE = 4 + 4;
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+
+    /**
+     * Receptor de los registros leídos durante la reproducción del journal
+     */
+    public interface ReplayHandler {
+        /**
+         * Una entidad fue guardada o actualizada
+         * @param repository nombre del repositorio
+         * @param id ID de la entidad
+         * @param entity entidad deserializada
+         */
+        void onPut(String repository, UUID id, Object entity);
+
+        /**
+         * Una entidad fue eliminada
+         * @param repository nombre del repositorio
+         * @param id ID de la entidad
+         */
+        void onDelete(String repository, UUID id);
+    }
+
+    private final Path file;
+    private FileChannel channel;
+    private long generation;
+    private long recordCount;
+
+    /**
+     * Crea un journal asociado a un archivo
+     * @param file ruta del archivo del journal
+     */
+    public WriteAheadJournal(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Abre el journal para anexar registros. Si el archivo pertenece a otra
+     * generación (o está dañado) se reinicia; si termina en un registro incompleto
+     * se trunca hasta el último registro válido.
+     * @param generation generación del snapshot actual
+     * @throws IOException si no se puede abrir el archivo
+     */
+    public synchronized void open(long generation) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.generation = generation;
+
+        if (readGeneration() != generation) {
+            reset(generation);
+            return;
+        }
+
+        long validEnd = HEADER_SIZE;
+        recordCount = 0;
+        try (DataInputStream in = openInput()) {
+            in.skipNBytes(HEADER_SIZE);
+            byte[] payload;
+            while ((payload = readRecord(in)) != null) {
+                validEnd += RECORD_HEADER_SIZE + payload.length;
+                recordCount++;
+            }
+        }
+        channel.truncate(validEnd);
+        channel.position(validEnd);
+    }
+
+    /**
+     * Reproduce los registros del journal en orden.
+     * Se detiene en el primer registro incompleto o con checksum inválido.
+     * @param expectedGeneration generación del snapshot cargado; si no coincide no se reproduce nada
+     * @param handler receptor de los registros
+     * @param resolver resuelve las referencias a otras entidades contra los repositorios
+     * @return número de registros aplicados
+     * @throws IOException si ocurre un error de lectura
+     */
+    public int replay(long expectedGeneration, ReplayHandler handler,
+                      Function<EntityReference, Object> resolver) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < HEADER_SIZE) {
+            return 0;
+        }
+
+        int applied = 0;
+        try (DataInputStream in = openInput()) {
+            if (in.readInt() != MAGIC || in.readShort() != FORMAT_VERSION || in.readLong() != expectedGeneration) {
+                return 0;
+            }
+
+            byte[] payload;
+            while ((payload = readRecord(in)) != null) {
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                byte op = record.readByte();
+                String repository = record.readUTF();
+                UUID id = new UUID(record.readLong(), record.readLong());
+
+                if (op == OP_PUT) {
+                    handler.onPut(repository, id, decode(record, resolver));
+                } else if (op == OP_DELETE) {
+                    handler.onDelete(repository, id);
+                }
+                applied++;
+            }
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Registro del journal con clase desconocida", e);
+        }
+        return applied;
+    }
+
+    /**
+     * Anexa el estado actual de una entidad
+     * @param repository nombre del repositorio
+     * @param id ID de la entidad
+     * @param entity entidad a registrar
+     * @throws IOException si no se puede escribir el registro
+     */
+    public synchronized void appendPut(String repository, UUID id, Object entity) throws IOException {
+        append(OP_PUT, repository, id, encode(entity));
+    }
+
+    /**
+     * Anexa la eliminación de una entidad
+     * @param repository nombre del repositorio
+     * @param id ID de la entidad eliminada
+     * @throws IOException si no se puede escribir el registro
+     */
+    public synchronized void appendDelete(String repository, UUID id) throws IOException {
+        append(OP_DELETE, repository, id, new byte[0]);
+    }
+
+    /**
+     * Fuerza los registros anexados al disco
+     * @throws IOException si falla la sincronización
+     */
+    public synchronized void flush() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Vacía el journal y lo asocia a una nueva generación de snapshot
+     * @param newGeneration generación del snapshot recién escrito
+     * @throws IOException si no se puede reiniciar el archivo
+     */
+    public synchronized void reset(long newGeneration) throws IOException {
+        ensureOpen();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(FORMAT_VERSION).putLong(newGeneration).flip();
+
+        channel.truncate(0);
+        channel.position(0);
+        writeFully(header);
+        channel.force(true);
+
+        generation = newGeneration;
+        recordCount = 0;
+    }
+
+    /**
+     * @return true si el journal está abierto para anexar registros
+     */
+    public synchronized boolean isOpen() {
+        return channel != null;
+    }
+
+    /**
+     * @return tamaño actual del journal en bytes
+     */
+    public synchronized long size() throws IOException {
+        return channel != null ? channel.size() : 0;
+    }
+
+    /**
+     * @return número de registros desde el último snapshot
+     */
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return generación de snapshot a la que pertenece el journal
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.force(true);
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void append(byte op, String repository, UUID id, byte[] entityBytes) throws IOException {
+        ensureOpen();
+
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(entityBytes.length + 64);
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        payload.writeByte(op);
+        payload.writeUTF(repository);
+        payload.writeLong(id.getMostSignificantBits());
+        payload.writeLong(id.getLeastSignificantBits());
+        payload.write(entityBytes);
+        payload.flush();
+        byte[] data = payloadBytes.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(data);
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + data.length);
+        record.putInt(data.length).putInt((int) crc.getValue()).put(data).flip();
+        writeFully(record);
+        recordCount++;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (channel == null) {
+            throw new IOException("El journal no está abierto: " + file);
+        }
+    }
+
+    private long readGeneration() throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            return -1;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getShort() != FORMAT_VERSION) {
+            return -1;
+        }
+        return header.getLong();
+    }
+
+    private DataInputStream openInput() throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+    }
+
+    /**
+     * Lee el siguiente registro válido
+     * @return contenido del registro o null si se llegó al final o a un registro dañado
+     */
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        int length;
+        int checksum;
+        try {
+            length = in.readInt();
+            checksum = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length <= 0) {
+            return null;
+        }
+
+        byte[] payload = in.readNBytes(length);
+        if (payload.length < length) {
+            return null;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue() == checksum ? payload : null;
+    }
+
+    /**
+     * Serializa una entidad reemplazando las demás entidades raíz por referencias
+     */
+    static byte[] encode(Object entity) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ReferenceWritingStream(bytes, entity)) {
+            out.writeObject(entity);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Deserializa una entidad escrita con {@link #encode(Object)}
+     */
+    static Object decode(InputStream in, Function<EntityReference, Object> resolver)
+            throws IOException, ClassNotFoundException {
+        try (ObjectInputStream objectIn = new ReferenceResolvingStream(in, resolver)) {
+            return objectIn.readObject();
+        }
+    }
+
+    /**
+     * Serializa una entidad sustituyendo las demás entidades raíz por referencias
+     */
+    static class ReferenceWritingStream extends ObjectOutputStream {
+        private final Object root;
+
+        ReferenceWritingStream(OutputStream out, Object root) throws IOException {
+            super(out);
+            this.root = root;
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            if (obj == root) {
+                return obj;
+            }
+            EntityReference reference = EntityReference.of(obj);
+            return reference != null ? reference : obj;
+        }
+    }
+
+    /**
+     * Deserializa una entidad resolviendo las referencias contra los repositorios
+     */
+    static class ReferenceResolvingStream extends ObjectInputStream {
+        private final Function<EntityReference, Object> resolver;
+
+        ReferenceResolvingStream(InputStream in, Function<EntityReference, Object> resolver) throws IOException {
+            super(in);
+            this.resolver = resolver;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) {
+            if (obj instanceof EntityReference) {
+                return resolver.apply((EntityReference) obj);
+            }
+            if (obj instanceof ShipmentReferenceList) {
+                ((ShipmentReferenceList) obj).resolveWith(
+                    id -> (Shipment) resolver.apply(new EntityReference(EntityReference.SHIPMENTS, id)));
+            }
+            return obj;
+        }
+    }
+}
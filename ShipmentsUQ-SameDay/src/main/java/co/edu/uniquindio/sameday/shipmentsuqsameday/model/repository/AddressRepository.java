@@ -10,6 +10,20 @@ import java.util.stream.Collectors;
  */
 public class AddressRepository extends BaseRepository<Address> {
     
+    /**
+     * Crea el repositorio sobre el backend por defecto
+     */
+    public AddressRepository() {
+    }
+    
+    /**
+     * Crea el repositorio sobre un backend concreto
+     * @param backend backend que proporciona el mapa de entidades
+     */
+    public AddressRepository(StorageBackend backend) {
+        super(backend, AddressRepository.class.getSimpleName());
+    }
+    
     @Override
     protected UUID getEntityId(Address address) {
         return address.getId();
@@ -26,7 +40,7 @@ public class AddressRepository extends BaseRepository<Address> {
      * @return lista de direcciones en la zona especificada
      */
     public List<Address> findByZone(String zone) {
-        return entities.values().stream()
+        return entityValues().stream()
                 .filter(a -> a.getZone().equals(zone))
                 .collect(Collectors.toList());
     }
@@ -37,7 +51,7 @@ public class AddressRepository extends BaseRepository<Address> {
      * @return lista de direcciones en la ciudad especificada
      */
     public List<Address> findByCity(String city) {
-        return entities.values().stream()
+        return entityValues().stream()
                 .filter(a -> a.getCity().equals(city))
                 .collect(Collectors.toList());
     }
@@ -47,7 +61,7 @@ public class AddressRepository extends BaseRepository<Address> {
      * @return lista de direcciones marcadas como predeterminadas
      */
     public List<Address> findDefaultAddresses() {
-        return entities.values().stream()
+        return entityValues().stream()
                 .filter(Address::isDefault)
                 .collect(Collectors.toList());
     }
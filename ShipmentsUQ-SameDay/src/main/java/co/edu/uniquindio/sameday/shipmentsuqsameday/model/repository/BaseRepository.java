@@ -2,14 +2,60 @@ package co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.dto.PaginatedDataDTO;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.util.Serializer;
 
 /**
- * Implementación base abstracta del repositorio usando un Map en memoria
+ * Implementación base abstracta del repositorio sobre un Map de entidades por ID.
+ * El mapa lo proporciona el {@link StorageBackend} recibido en el constructor: en memoria
+ * por defecto, o respaldado por un almacén embebido en disco.
  * @param <T> tipo de entidad que maneja el repositorio
  */
 public abstract class BaseRepository<T> implements Repository<T> {
-    protected Map<UUID, T> entities = new ConcurrentHashMap<>();
+    // Backend de los repositorios creados sin indicar uno; no cambia una vez usado
+    private static StorageBackend defaultBackend = StorageBackend.MEMORY;
+    private static boolean defaultBackendUsed;
+    
+    protected final Map<UUID, T> entities;
+    
+    // Índices secundarios de los repositorios concretos, registrados en el primer uso
+    private volatile List<RepositoryIndex<T, ?>> indexes;
+    private final Object indexLock = new Object();
+    
+    // Observadores de mutaciones (por ejemplo, el journal de persistencia)
+    private final List<RepositoryListener<T>> listeners = new CopyOnWriteArrayList<>();
+    
+    // Entidades todavía no materializadas (carga diferida desde un snapshot)
+    private volatile EntitySource<T> source;
+    private final Set<UUID> deletedFromSource = new HashSet<>();
+    private final Object sourceLock = new Object();
+    
+    // Fuente cuyas proyecciones ya están en los índices, e IDs indexados solo por su proyección
+    private volatile EntitySource<T> indexedSource;
+    private final Set<UUID> projectedIds = new HashSet<>();
+    
+    // Cambios desde el último punto de guardado, para los snapshots incrementales
+    private final Set<UUID> dirtyIds = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> deletedIds = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * Crea el repositorio sobre el backend por defecto, con el nombre de la clase como nombre del mapa
+     */
+    protected BaseRepository() {
+        this(defaultBackend(), null);
+    }
+    
+    /**
+     * Crea el repositorio sobre un backend concreto
+     * @param backend backend que proporciona el mapa de entidades
+     * @param mapName nombre del mapa en el backend (null para usar el nombre de la clase)
+     */
+    protected BaseRepository(StorageBackend backend, String mapName) {
+        this.entities = Objects.requireNonNull(backend).openMap(mapName != null ? mapName : getClass().getSimpleName());
+    }
     
     @Override
     public T save(T entity) {
@@ -19,32 +65,120 @@ public abstract class BaseRepository<T> implements Repository<T> {
             setEntityId(entity, id);
         }
         entities.put(id, entity);
+        reindex(id, entity);
+        markChanged(id);
+        notifySaved(id, entity);
         return entity;
     }
     
     @Override
     public Optional<T> findById(UUID id) {
-        return Optional.ofNullable(entities.get(id));
+        T entity = entities.get(id);
+        if (entity == null && source != null) {
+            entity = loadFromSource(id);
+        }
+        return Optional.ofNullable(entity);
     }
     
     @Override
     public List<T> findAll() {
-        return new ArrayList<>(entities.values());
+        return new ArrayList<>(entityValues());
+    }
+    
+    @Override
+    public List<T> findAll(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset y limit no pueden ser negativos");
+        }
+        ensureLoaded();
+        List<UUID> ids;
+        if (entities instanceof OrderedEntityMap) {
+            ids = ((OrderedEntityMap<T>) entities).keys(offset, limit);
+        } else {
+            List<UUID> window = smallest(entities.keySet().stream(), offset + (long) limit, Comparator.naturalOrder());
+            ids = window.subList(Math.min(offset, window.size()), window.size());
+        }
+        return resolve(ids, e -> true);
+    }
+    
+    @Override
+    public PaginatedDataDTO<T> findPage(int offset, int limit, Comparator<? super T> sort) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo");
+        }
+        List<T> items;
+        if (sort == null) {
+            items = findAll(offset, limit);
+        } else {
+            if (offset < 0) {
+                throw new IllegalArgumentException("offset no puede ser negativo");
+            }
+            // Empates por ID para que las páginas no se solapen
+            Comparator<T> bySort = sort::compare;
+            Comparator<T> order = bySort.thenComparing(this::getEntityId);
+            List<T> window = smallest(stream(), offset + (long) limit, order);
+            items = new ArrayList<>(window.subList(Math.min(offset, window.size()), window.size()));
+        }
+        return page(items, count(), offset / limit, limit, null);
+    }
+    
+    @Override
+    public PaginatedDataDTO<T> findAfter(UUID cursor, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo");
+        }
+        ensureLoaded();
+        List<UUID> ids;
+        if (entities instanceof OrderedEntityMap) {
+            ids = ((OrderedEntityMap<T>) entities).keysAfter(cursor, limit);
+        } else {
+            Stream<UUID> after = entities.keySet().stream().filter(id -> cursor == null || id.compareTo(cursor) > 0);
+            ids = smallest(after, limit, Comparator.naturalOrder());
+        }
+        // El cursor es el último ID leído aunque su entidad se haya eliminado entre tanto
+        String next = ids.size() == limit ? ids.get(ids.size() - 1).toString() : null;
+        return page(resolve(ids, e -> true), count(), -1, limit, next);
+    }
+    
+    @Override
+    public Stream<T> stream() {
+        return entityValues().stream();
     }
     
     @Override
     public T update(T entity) {
         UUID id = getEntityId(entity);
-        if (id == null || !entities.containsKey(id)) {
+        if (id == null || !existsById(id)) {
             throw new IllegalArgumentException("Entity not found");
         }
         entities.put(id, entity);
+        reindex(id, entity);
+        markChanged(id);
+        notifySaved(id, entity);
         return entity;
     }
     
     @Override
     public void deleteById(UUID id) {
-        entities.remove(id);
+        EntitySource<T> pending = source;
+        boolean inSource = pending != null && pending.contains(id);
+        T removed;
+        synchronized (sourceLock) {
+            inSource = inSource && !deletedFromSource.contains(id);
+            if (source != null) {
+                // Evita que la entidad vuelva a cargarse desde la fuente
+                deletedFromSource.add(id);
+            }
+            removed = entities.remove(id);
+        }
+        if (removed != null || inSource) {
+            indexes().forEach(index -> index.remove(id));
+            dirtyIds.remove(id);
+            deletedIds.add(id);
+            for (RepositoryListener<T> listener : listeners) {
+                listener.onDeleted(id);
+            }
+        }
     }
     
     @Override
@@ -57,14 +191,54 @@ public abstract class BaseRepository<T> implements Repository<T> {
     
     @Override
     public boolean existsById(UUID id) {
-        return entities.containsKey(id);
+        if (entities.containsKey(id)) {
+            return true;
+        }
+        EntitySource<T> pending = source;
+        if (pending == null) {
+            return false;
+        }
+        synchronized (sourceLock) {
+            if (deletedFromSource.contains(id)) {
+                return false;
+            }
+        }
+        return pending.contains(id);
     }
     
     @Override
     public long count() {
+        ensureLoaded();
         return entities.size();
     }
     
+    /**
+     * Establece el backend de los repositorios que se creen sin indicar uno. Solo puede
+     * cambiarse antes de crear el primero de ellos: los repositorios de una misma
+     * aplicación deben compartir el almacenamiento.
+     * @param backend backend a usar
+     * @throws IllegalStateException si ya se crearon repositorios con otro backend por defecto
+     */
+    public static synchronized void useStorageBackend(StorageBackend backend) {
+        Objects.requireNonNull(backend);
+        if (defaultBackendUsed && backend != defaultBackend) {
+            throw new IllegalStateException("Ya se crearon repositorios con el backend " + defaultBackend);
+        }
+        defaultBackend = backend;
+    }
+    
+    /**
+     * @return backend con el que se crean los repositorios que no indican uno
+     */
+    public static synchronized StorageBackend getStorageBackend() {
+        return defaultBackend;
+    }
+    
+    private static synchronized StorageBackend defaultBackend() {
+        defaultBackendUsed = true;
+        return defaultBackend;
+    }
+    
     /**
      * Obtiene el ID de una entidad
      * @param entity entidad
@@ -79,6 +253,457 @@ public abstract class BaseRepository<T> implements Repository<T> {
      */
     protected abstract void setEntityId(T entity, UUID id);
     
+    /**
+     * Registra un observador de las mutaciones del repositorio
+     * @param listener observador a registrar
+     */
+    public void addListener(RepositoryListener<T> listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Elimina un observador registrado
+     * @param listener observador a eliminar
+     */
+    public void removeListener(RepositoryListener<T> listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Índices secundarios del repositorio concreto. Se consulta una sola vez, en el primer
+     * uso del repositorio, de modo que los índices pueden crearse en los inicializadores de
+     * campo sin publicar el repositorio antes de que termine su constructor.
+     * Los índices se mantienen en save, update, deleteById y loadEntities; las entidades
+     * modificadas en memoria deben pasar por update() para reindexarse.
+     * @return índices a mantener (ninguno por defecto)
+     */
+    protected List<RepositoryIndex<T, ?>> secondaryIndexes() {
+        return List.of();
+    }
+    
+    /**
+     * Busca entidades a través de un índice por clave exacta
+     * @param index índice a consultar
+     * @param key clave buscada
+     * @return lista de entidades indexadas con esa clave
+     */
+    protected <K> List<T> findByIndex(RepositoryIndex<T, K> index, K key) {
+        ensureIndexed();
+        return resolve(index.get(key), e -> Objects.equals(index.keyOf(e), key));
+    }
+    
+    /**
+     * Obtiene las claves de un índice que tienen al menos una entidad
+     * @param index índice a consultar
+     * @return claves del índice
+     */
+    protected <K> List<K> indexKeys(RepositoryIndex<T, K> index) {
+        ensureIndexed();
+        return index.keys();
+    }
+    
+    /**
+     * Busca entidades a través de un índice ordenado por rango de claves (ambos extremos inclusive)
+     * @param index índice ordenado a consultar
+     * @param from clave inicial
+     * @param to clave final
+     * @return lista de entidades ordenadas por clave
+     */
+    protected <K extends Comparable<? super K>> List<T> findByIndexRange(RepositoryIndex<T, K> index, K from, K to) {
+        ensureIndexed();
+        return resolve(index.range(from, to), e -> {
+            K key = index.keyOf(e);
+            return key != null && key.compareTo(from) >= 0 && key.compareTo(to) <= 0;
+        });
+    }
+    
+    /**
+     * Busca las entidades más cercanas a un punto a través de un índice espacial
+     * @param index índice espacial a consultar
+     * @param x coordenada X del punto
+     * @param y coordenada Y del punto
+     * @param limit cantidad máxima de entidades
+     * @param maxDistance distancia máxima (Double.POSITIVE_INFINITY para no limitarla)
+     * @param filter condición que deben cumplir las entidades
+     * @return entidades ordenadas de la más cercana a la más lejana
+     */
+    protected List<T> findNearest(SpatialIndex<T> index, double x, double y, int limit,
+                                  double maxDistance, Predicate<T> filter) {
+        ensureIndexed();
+        Set<UUID> rejected = new HashSet<>();
+        while (true) {
+            // Las entidades sin materializar se aceptan como candidatas y se cargan fuera
+            // del candado del índice; las que no cumplen el filtro se descartan en la siguiente vuelta
+            List<UUID> ids = index.nearest(x, y, limit, maxDistance, id -> {
+                if (rejected.contains(id)) {
+                    return false;
+                }
+                T entity = entities.get(id);
+                return entity == null || filter.test(entity);
+            });
+            boolean pending = false;
+            for (UUID id : ids) {
+                if (!entities.containsKey(id)) {
+                    pending = true;
+                    T entity = findById(id).orElse(null);
+                    if (entity == null || !filter.test(entity)) {
+                        rejected.add(id);
+                    }
+                }
+            }
+            if (!pending) {
+                return resolve(ids, e -> true);
+            }
+        }
+    }
+    
+    /**
+     * Obtiene todas las entidades del repositorio, materializando las pendientes de la fuente.
+     * Los repositorios concretos deben usarlo en lugar de recorrer el mapa directamente.
+     * @return vista de las entidades
+     */
+    protected Collection<T> entityValues() {
+        ensureLoaded();
+        return entities.values();
+    }
+    
+    /**
+     * Carga el repositorio de forma diferida: las entidades se materializan desde la fuente
+     * en el primer findById, o todas a la vez en la primera consulta que las recorra
+     * (findAll, count). Si la fuente guarda las claves de los índices, las consultas por
+     * índice solo materializan las entidades encontradas. Igual que loadEntities, no genera
+     * notificaciones.
+     * @param source fuente de entidades
+     */
+    public void loadLazily(EntitySource<T> source) {
+        List<RepositoryIndex<T, ?>> registered = indexes();
+        synchronized (sourceLock) {
+            entities.clear();
+            registered.forEach(RepositoryIndex::clear);
+            deletedFromSource.clear();
+            indexedSource = null;
+            projectedIds.clear();
+            this.source = source;
+        }
+        clearChanges();
+        System.out.println("loadLazily: repositorio " + this.getClass().getSimpleName() + " con carga diferida");
+    }
+    
+    /**
+     * Reemplaza la fuente de las entidades todavía no materializadas, por ejemplo por la
+     * generación anterior de un snapshot cuyo archivo vigente resultó dañado. Las entidades
+     * ya materializadas y las eliminadas se conservan; sin carga diferida no tiene efecto.
+     * Una lectura que falló en la fuente anterior se reintenta con la nueva, y las claves
+     * indexadas a partir de ella se descartan para volver a leerlas de la nueva.
+     * @param replacement nueva fuente de las entidades pendientes
+     */
+    public void replaceSource(EntitySource<T> replacement) {
+        indexes();
+        synchronized (sourceLock) {
+            if (source != null) {
+                source = replacement;
+                dropProjections();
+            }
+        }
+    }
+    
+    /**
+     * Obtiene las entidades ya materializadas, sin cargar las pendientes de la fuente
+     * @return lista de entidades en memoria
+     */
+    public List<T> getLoadedEntities() {
+        return new ArrayList<>(entities.values());
+    }
+    
+    /**
+     * Indica si hubo mutaciones desde el último punto de guardado
+     * @return true si hay entidades guardadas o eliminadas pendientes de persistir
+     */
+    public boolean hasChanges() {
+        return !dirtyIds.isEmpty() || !deletedIds.isEmpty();
+    }
+    
+    /**
+     * Toma los cambios acumulados y deja el repositorio limpio. Cada ID se retira antes
+     * de leer su entidad, así que una mutación concurrente queda en los cambios tomados
+     * o vuelve a marcarse para el siguiente punto de guardado, nunca se pierde.
+     * Al igual que el journal, solo ve las mutaciones hechas con save, update o deleteById.
+     * @return entidades modificadas (con su estado actual) e IDs eliminados
+     */
+    public RepositoryChanges<T> drainChanges() {
+        Map<UUID, T> saved = new LinkedHashMap<>();
+        for (UUID id : dirtyIds) {
+            if (dirtyIds.remove(id)) {
+                T entity = entities.get(id);
+                if (entity != null) {
+                    saved.put(id, entity);
+                }
+            }
+        }
+        Set<UUID> deleted = new HashSet<>();
+        for (UUID id : deletedIds) {
+            if (deletedIds.remove(id)) {
+                deleted.add(id);
+            }
+        }
+        return new RepositoryChanges<>(saved, deleted);
+    }
+    
+    /**
+     * Vuelve a marcar como pendientes unos cambios tomados con drainChanges,
+     * por ejemplo si no se pudieron escribir
+     * @param changes cambios a restaurar
+     */
+    public void restoreChanges(RepositoryChanges<T> changes) {
+        for (UUID id : changes.getSaved().keySet()) {
+            if (!deletedIds.contains(id)) {
+                dirtyIds.add(id);
+            }
+        }
+        for (UUID id : changes.getDeleted()) {
+            if (!dirtyIds.contains(id)) {
+                deletedIds.add(id);
+            }
+        }
+    }
+    
+    /**
+     * Descarta los cambios acumulados, por ejemplo después de escribir un snapshot completo
+     */
+    public void clearChanges() {
+        dirtyIds.clear();
+        deletedIds.clear();
+    }
+    
+    /**
+     * Materializa una entidad de la fuente y la registra en el repositorio.
+     * La fuente se consulta fuera del candado porque puede resolver referencias
+     * a través de otros repositorios.
+     */
+    private T loadFromSource(UUID id) {
+        EntitySource<T> pending = source;
+        if (pending == null) {
+            return entities.get(id);
+        }
+        indexes();
+        T loaded;
+        try {
+            loaded = pending.load(id);
+        } catch (RuntimeException e) {
+            if (source == pending) {
+                throw e;
+            }
+            // La fuente se reemplazó al detectar el error
+            return loadFromSource(id);
+        }
+        if (loaded == null) {
+            return entities.get(id);
+        }
+        synchronized (sourceLock) {
+            if (source != pending || deletedFromSource.contains(id)) {
+                return entities.get(id);
+            }
+            T existing = entities.putIfAbsent(id, loaded);
+            if (existing != null) {
+                return existing;
+            }
+            reindex(id, loaded);
+            return loaded;
+        }
+    }
+    
+    /**
+     * Prepara los índices para una consulta: con las proyecciones de la fuente si las
+     * guarda, o materializando todas las entidades pendientes si no
+     */
+    private void ensureIndexed() {
+        indexes();
+        EntitySource<T> pending = source;
+        if (pending == null || indexedSource == pending) {
+            return;
+        }
+        List<T> keys;
+        try {
+            keys = pending.loadIndexKeys();
+        } catch (RuntimeException e) {
+            if (source == pending) {
+                throw e;
+            }
+            ensureIndexed();
+            return;
+        }
+        if (keys == null) {
+            ensureLoaded();
+            return;
+        }
+        synchronized (sourceLock) {
+            if (source == pending) {
+                if (indexedSource != pending) {
+                    for (T key : keys) {
+                        UUID id = getEntityId(key);
+                        if (id != null && !deletedFromSource.contains(id) && !entities.containsKey(id)) {
+                            reindex(id, key);
+                            projectedIds.add(id);
+                            // Un save concurrente pudo indexar la entidad real entre tanto
+                            T current = entities.get(id);
+                            if (current != null) {
+                                reindex(id, current);
+                            }
+                        }
+                    }
+                    indexedSource = pending;
+                }
+                return;
+            }
+        }
+        // La fuente cambió mientras se leían las claves
+        ensureIndexed();
+    }
+    
+    /**
+     * Retira de los índices las proyecciones de entidades que no llegaron a materializarse;
+     * quien llama debe tener sourceLock
+     */
+    private void dropProjections() {
+        for (UUID id : projectedIds) {
+            if (!entities.containsKey(id)) {
+                indexes().forEach(index -> index.remove(id));
+            }
+        }
+        projectedIds.clear();
+        indexedSource = null;
+    }
+    
+    /**
+     * Materializa todas las entidades pendientes y suelta la fuente
+     */
+    private void ensureLoaded() {
+        EntitySource<T> pending = source;
+        if (pending == null) {
+            return;
+        }
+        indexes();
+        List<T> loaded;
+        try {
+            loaded = pending.loadAll();
+        } catch (RuntimeException e) {
+            if (source == pending) {
+                throw e;
+            }
+            ensureLoaded();
+            return;
+        }
+        synchronized (sourceLock) {
+            if (source != pending) {
+                return;
+            }
+            for (T entity : loaded) {
+                UUID id = getEntityId(entity);
+                if (id != null && !deletedFromSource.contains(id) && entities.putIfAbsent(id, entity) == null) {
+                    reindex(id, entity);
+                }
+            }
+            source = null;
+            deletedFromSource.clear();
+            dropProjections();
+        }
+        System.out.println("Repositorio " + this.getClass().getSimpleName() + " materializado: " + entities.size() + " entidades");
+    }
+    
+    /**
+     * Selecciona los k menores elementos de un flujo, ordenados, conservando solo k en memoria
+     */
+    private static <E> List<E> smallest(Stream<E> elements, long k, Comparator<? super E> order) {
+        int bound = (int) Math.min(k, Integer.MAX_VALUE - 1);
+        if (bound <= 0) {
+            return new ArrayList<>();
+        }
+        PriorityQueue<E> heap = new PriorityQueue<>(Math.min(bound, 1024) + 1, order.reversed());
+        elements.forEach(element -> {
+            if (heap.size() < bound) {
+                heap.offer(element);
+            } else if (order.compare(element, heap.peek()) < 0) {
+                heap.poll();
+                heap.offer(element);
+            }
+        });
+        List<E> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+    
+    private static <E> PaginatedDataDTO<E> page(List<E> items, long total, int currentPage, int limit, String nextCursor) {
+        int totalPages = (int) ((total + limit - 1) / limit);
+        return new PaginatedDataDTO<>(items, totalPages, total, currentPage, nextCursor);
+    }
+    
+    /**
+     * Convierte IDs en entidades, materializando las pendientes de la fuente y descartando
+     * las que ya no cumplen la condición (por ejemplo, si fueron modificadas en memoria sin
+     * llamar a update)
+     */
+    private List<T> resolve(List<UUID> ids, Predicate<T> stillMatches) {
+        List<T> result = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            T entity = entities.get(id);
+            if (entity == null && source != null) {
+                entity = loadFromSource(id);
+            }
+            if (entity != null && stillMatches.test(entity)) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Notifica a los observadores que una entidad fue guardada
+     */
+    private void notifySaved(UUID id, T entity) {
+        for (RepositoryListener<T> listener : listeners) {
+            listener.onSaved(id, entity);
+        }
+    }
+    
+    /**
+     * Registra una entidad como modificada desde el último punto de guardado
+     */
+    private void markChanged(UUID id) {
+        deletedIds.remove(id);
+        dirtyIds.add(id);
+    }
+    
+    /**
+     * Obtiene los índices secundarios, registrándolos y construyéndolos con las entidades
+     * en memoria la primera vez; las pendientes de la fuente se indexan al cargarlas.
+     * Los métodos que toman sourceLock lo llaman antes, para no recorrer el mapa con el candado.
+     */
+    private List<RepositoryIndex<T, ?>> indexes() {
+        List<RepositoryIndex<T, ?>> registered = indexes;
+        if (registered == null) {
+            synchronized (indexLock) {
+                registered = indexes;
+                if (registered == null) {
+                    registered = List.copyOf(secondaryIndexes());
+                    for (RepositoryIndex<T, ?> index : registered) {
+                        entities.forEach(index::put);
+                    }
+                    indexes = registered;
+                }
+            }
+        }
+        return registered;
+    }
+    
+    /**
+     * Actualiza todos los índices para una entidad
+     */
+    private void reindex(UUID id, T entity) {
+        for (RepositoryIndex<T, ?> index : indexes()) {
+            index.put(id, entity);
+        }
+    }
+    
     /**
      * Guarda el estado actual del repositorio en el archivo
      * @throws IOException si hay error al guardar
@@ -86,7 +711,7 @@ public abstract class BaseRepository<T> implements Repository<T> {
     public void saveToFile() {
         try {
             String fileName = getFileName();
-            Serializer.guardarEstado(new ArrayList<>(entities.values()), fileName);
+            Serializer.guardarEstado(new ArrayList<>(entityValues()), fileName);
             System.out.println("Repositorio " + this.getClass().getSimpleName() + " guardado en " + fileName);
         } catch (Exception e) {
             System.err.println("Error al guardar repositorio " + this.getClass().getSimpleName() + ": " + e.getMessage());
@@ -134,11 +759,20 @@ public abstract class BaseRepository<T> implements Repository<T> {
         
         System.out.println("loadEntities: cargando " + entities.size() + " entidades en el repositorio " + this.getClass().getSimpleName());
         
+        synchronized (sourceLock) {
+            source = null;
+            deletedFromSource.clear();
+            indexedSource = null;
+            projectedIds.clear();
+        }
         this.entities.clear();
+        indexes().forEach(RepositoryIndex::clear);
+        clearChanges();
         for (T entity : entities) {
             UUID id = getEntityId(entity);
             if (id != null) {
                 this.entities.put(id, entity);
+                reindex(id, entity);
                 System.out.println("  - Entidad cargada con ID: " + id);
             } else {
                 System.err.println("  - ERROR: Entidad sin ID, no se puede cargar");
@@ -153,6 +787,6 @@ public abstract class BaseRepository<T> implements Repository<T> {
      * @return Lista de todas las entidades
      */
     public List<T> getEntitiesAsList() {
-        return new ArrayList<>(entities.values());
+        return new ArrayList<>(entityValues());
     }
 }
\ No newline at end of file
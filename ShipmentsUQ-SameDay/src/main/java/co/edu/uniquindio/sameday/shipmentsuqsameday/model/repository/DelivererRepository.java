@@ -1,11 +1,18 @@
 package co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository;
 
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Address;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.ServiceZone;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.DelivererStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.strategy.GridCoordinateStrategy;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.strategy.RealCoordinateStrategy;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.util.ZoneLocator;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -13,6 +20,69 @@ import java.util.stream.Collectors;
  */
 public class DelivererRepository extends BaseRepository<Deliverer> {
     
+    // Lado de las celdas del índice sobre el Grid (unidades del Grid)
+    private static final double GRID_CELL_SIZE = 5.0;
+    // Lado de las celdas del índice GPS (km) y proyección equirectangular centrada en Armenia
+    private static final double GPS_CELL_SIZE_KM = 1.0;
+    private static final double KM_PER_DEGREE = 111.195;
+    private static final double REFERENCE_LATITUDE = 4.533889;
+    // Margen con el que se amplía la búsqueda proyectada antes de ordenar por Haversine
+    private static final double GPS_SEARCH_MARGIN = 1.02;
+    private static final RealCoordinateStrategy HAVERSINE = new RealCoordinateStrategy();
+    
+    // Zonas de servicio con las que se ubica a cada repartidor
+    private final ZoneLocator zoneLocator;
+    
+    // Partición por zona: la zona que contiene la posición del repartidor, o su zona asignada
+    // si está fuera de todas; sigue los cambios de posición sin pasar por update()
+    private final RepositoryIndex<Deliverer, String> zoneIndex;
+    
+    // Índices espaciales sobre las posiciones en el Grid y en GPS
+    private final SpatialIndex<Deliverer> gridIndex =
+            new SpatialIndex<>(d -> new double[]{d.getCurrentX(), d.getCurrentY()}, GRID_CELL_SIZE);
+    private final SpatialIndex<Deliverer> gpsIndex =
+            new SpatialIndex<>(d -> project(realPosition(d)), GPS_CELL_SIZE_KM);
+    
+    /**
+     * Crea el repositorio con las zonas por defecto
+     */
+    public DelivererRepository() {
+        this(ZoneLocator.getDefault());
+    }
+    
+    /**
+     * Crea el repositorio con unas zonas de servicio propias
+     * @param zoneLocator índice de zonas con el que se ubica a los repartidores
+     */
+    public DelivererRepository(ZoneLocator zoneLocator) {
+        this.zoneLocator = zoneLocator;
+        this.zoneIndex = RepositoryIndex.tracking(zoneLocator::zoneId);
+    }
+    
+    /**
+     * Crea el repositorio sobre un backend concreto con las zonas por defecto
+     * @param backend backend que proporciona el mapa de entidades
+     */
+    public DelivererRepository(StorageBackend backend) {
+        this(backend, ZoneLocator.getDefault());
+    }
+    
+    /**
+     * Crea el repositorio sobre un backend concreto con unas zonas de servicio propias
+     * @param backend backend que proporciona el mapa de entidades
+     * @param zoneLocator índice de zonas con el que se ubica a los repartidores
+     */
+    public DelivererRepository(StorageBackend backend, ZoneLocator zoneLocator) {
+        super(backend, DelivererRepository.class.getSimpleName());
+        this.zoneLocator = zoneLocator;
+        this.zoneIndex = RepositoryIndex.tracking(zoneLocator::zoneId);
+    }
+    
+    @Override
+    protected List<RepositoryIndex<Deliverer, ?>> secondaryIndexes() {
+        return List.of(zoneIndex, gridIndex, gpsIndex);
+    }
+    
     @Override
     protected UUID getEntityId(Deliverer deliverer) {
         return deliverer.getId();
@@ -29,20 +99,21 @@ public class DelivererRepository extends BaseRepository<Deliverer> {
      * @return lista de repartidores con el estado especificado
      */
     public List<Deliverer> findByStatus(DelivererStatus status) {
-        return entities.values().stream()
+        return entityValues().stream()
                 .filter(d -> d.getStatus() == status)
                 .collect(Collectors.toList());
     }
     
     /**
-     * Busca repartidores por zona
-     * @param zone zona asignada
+     * Busca repartidores por zona (sin distinguir mayúsculas ni espacios alrededor).
+     * Un repartidor pertenece a la zona que contiene su posición; solo si está fuera de
+     * todas las zonas cuenta la zona que tiene asignada
+     * @param zone ID o nombre de la zona
      * @return lista de repartidores en la zona especificada
      */
     public List<Deliverer> findByZone(String zone) {
-        return entities.values().stream()
-                .filter(d -> d.getZone().equalsIgnoreCase(zone))
-                .collect(Collectors.toList());
+        String key = zoneKey(zone);
+        return key != null ? findByIndex(zoneIndex, key) : List.of();
     }
     
     /**
@@ -51,19 +122,60 @@ public class DelivererRepository extends BaseRepository<Deliverer> {
      * @return lista de repartidores disponibles en la zona
      */
     public List<Deliverer> findAvailableByZone(String zone) {
-        return entities.values().stream()
-                .filter(d -> d.getZone().equalsIgnoreCase(zone) && 
-                           d.getStatus() == DelivererStatus.AVAILABLE)
+        return findByZone(zone).stream()
+                .filter(d -> d.getStatus() == DelivererStatus.AVAILABLE)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Obtiene las zonas que tienen al menos un repartidor
+     * @return claves de zona normalizadas
+     */
+    public List<String> findZones() {
+        return indexKeys(zoneIndex);
+    }
+    
+    /**
+     * Obtiene la zona de un repartidor con el índice de zonas del repositorio
+     * @param deliverer repartidor
+     * @return ID de zona o null si no tiene
+     */
+    public String zoneOf(Deliverer deliverer) {
+        return zoneLocator.zoneId(deliverer);
+    }
+    
+    /**
+     * Obtiene la zona de una dirección con el índice de zonas del repositorio
+     * @param address dirección
+     * @return ID de zona o null si no tiene
+     */
+    public String zoneOf(Address address) {
+        return zoneLocator.zoneId(address);
+    }
+    
+    /**
+     * Obtiene el índice de zonas con el que se ubica a los repartidores
+     */
+    public ZoneLocator getZoneLocator() {
+        return zoneLocator;
+    }
+    
+    /**
+     * Normaliza el nombre de una zona para usarlo como clave de partición
+     * @param zone nombre de la zona
+     * @return nombre en minúsculas y sin espacios alrededor, o null si está vacío
+     */
+    public static String zoneKey(String zone) {
+        return ServiceZone.normalizeId(zone);
+    }
+    
     /**
      * Busca repartidor por número de documento
      * @param document número de documento
      * @return repartidor encontrado o empty si no existe
      */
     public Optional<Deliverer> findByDocument(String document) {
-        return entities.values().stream()
+        return entityValues().stream()
                 .filter(d -> d.getDocument().equals(document))
                 .findFirst();
     }
@@ -74,8 +186,121 @@ public class DelivererRepository extends BaseRepository<Deliverer> {
      * @return lista de repartidores con calificación mayor o igual
      */
     public List<Deliverer> findByMinimumRating(double minRating) {
-        return entities.values().stream()
+        return entityValues().stream()
                 .filter(d -> d.getAverageRating() >= minRating)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+    
+    /**
+     * Busca los repartidores más cercanos a un punto del Grid (distancia euclidiana)
+     * @param x coordenada X
+     * @param y coordenada Y
+     * @param limit cantidad máxima de repartidores
+     * @param filter condición que deben cumplir (por ejemplo, estar disponibles)
+     * @return repartidores ordenados del más cercano al más lejano
+     */
+    public List<Deliverer> findNearest(double x, double y, int limit, Predicate<Deliverer> filter) {
+        return findNearest(gridIndex, x, y, limit, Double.POSITIVE_INFINITY, filter);
+    }
+    
+    /**
+     * Busca los repartidores a una distancia máxima de un punto del Grid
+     * @param x coordenada X
+     * @param y coordenada Y
+     * @param radius distancia máxima, en unidades del Grid
+     * @param filter condición que deben cumplir
+     * @return repartidores ordenados del más cercano al más lejano
+     */
+    public List<Deliverer> findWithinRadius(double x, double y, double radius, Predicate<Deliverer> filter) {
+        return findNearest(gridIndex, x, y, Integer.MAX_VALUE, radius, filter);
+    }
+    
+    /**
+     * Busca los repartidores más cercanos a unas coordenadas GPS (distancia Haversine).
+     * Los repartidores sin coordenadas reales se ubican a partir de su posición en el Grid.
+     * @param latitude latitud
+     * @param longitude longitud
+     * @param limit cantidad máxima de repartidores
+     * @param filter condición que deben cumplir
+     * @return repartidores ordenados del más cercano al más lejano
+     */
+    public List<Deliverer> findNearestByGps(double latitude, double longitude, int limit, Predicate<Deliverer> filter) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        double[] point = project(new double[]{latitude, longitude});
+        List<Deliverer> nearest = findNearest(gpsIndex, point[0], point[1], limit, Double.POSITIVE_INFINITY, filter);
+        if (nearest.isEmpty()) {
+            return nearest;
+        }
+        // La proyección se aparta poco de Haversine cerca de Armenia: se amplía el radio
+        // hasta el candidato más lejano y se ordena de nuevo con la distancia exacta
+        double radius = 0;
+        for (Deliverer deliverer : nearest) {
+            double[] position = project(realPosition(deliverer));
+            radius = Math.max(radius, Math.hypot(position[0] - point[0], position[1] - point[1]));
+        }
+        return findNearest(gpsIndex, point[0], point[1], Integer.MAX_VALUE, radius * GPS_SEARCH_MARGIN + 1e-9, filter)
+                .stream()
+                .sorted(Comparator.comparingDouble(d -> gpsDistance(d, latitude, longitude)))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Busca los repartidores a una distancia máxima de unas coordenadas GPS
+     * @param latitude latitud
+     * @param longitude longitud
+     * @param radiusKm distancia máxima en kilómetros (Haversine)
+     * @param filter condición que deben cumplir
+     * @return repartidores ordenados del más cercano al más lejano
+     */
+    public List<Deliverer> findWithinRadiusByGps(double latitude, double longitude, double radiusKm,
+                                                 Predicate<Deliverer> filter) {
+        double[] point = project(new double[]{latitude, longitude});
+        return findNearest(gpsIndex, point[0], point[1], Integer.MAX_VALUE, radiusKm * GPS_SEARCH_MARGIN, filter)
+                .stream()
+                .filter(d -> gpsDistance(d, latitude, longitude) <= radiusKm)
+                .sorted(Comparator.comparingDouble(d -> gpsDistance(d, latitude, longitude)))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Distancia Haversine en kilómetros entre un repartidor y unas coordenadas GPS.
+     * Los repartidores sin coordenadas reales se ubican a partir de su posición en el Grid.
+     * @param deliverer repartidor
+     * @param latitude latitud
+     * @param longitude longitud
+     * @return distancia en kilómetros
+     */
+    public double distanceByGps(Deliverer deliverer, double latitude, double longitude) {
+        return gpsDistance(deliverer, latitude, longitude);
+    }
+    
+    /**
+     * Posición GPS [latitud, longitud] del repartidor; si no tiene, la estima a partir del Grid
+     */
+    private static double[] realPosition(Deliverer deliverer) {
+        Double latitude = deliverer.getRealLatitude();
+        Double longitude = deliverer.getRealLongitude();
+        if (latitude != null && longitude != null) {
+            return new double[]{latitude, longitude};
+        }
+        return GridCoordinateStrategy.convertGridToReal(deliverer.getCurrentX(), deliverer.getCurrentY());
+    }
+    
+    /**
+     * Proyecta [latitud, longitud] a un plano en kilómetros
+     */
+    private static double[] project(double[] position) {
+        return new double[]{
+            position[1] * KM_PER_DEGREE * Math.cos(Math.toRadians(REFERENCE_LATITUDE)),
+            position[0] * KM_PER_DEGREE
+        };
+    }
+    
+    private static double gpsDistance(Deliverer deliverer, double latitude, double longitude) {
+        double[] position = realPosition(deliverer);
+        return HAVERSINE.calculateDistance(position[0], position[1], latitude, longitude);
+    }
+}
@@ -0,0 +1,41 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fuente de entidades que todavía no se han cargado en un repositorio
+ * (por ejemplo, un snapshot mapeado en memoria). El repositorio materializa
+ * cada entidad en el primer acceso.
+ * @param <T> tipo de entidad
+ */
+public interface EntitySource<T> {
+    /**
+     * Materializa una entidad
+     * @param id ID de la entidad
+     * @return la entidad, o null si la fuente no la contiene
+     */
+    T load(UUID id);
+
+    /**
+     * Verifica si la fuente contiene una entidad sin materializarla
+     * @param id ID a verificar
+     * @return true si la fuente contiene la entidad
+     */
+    boolean contains(UUID id);
+
+    /**
+     * Materializa todas las entidades de la fuente
+     * @return lista de entidades
+     */
+    List<T> loadAll();
+
+    /**
+     * Obtiene proyecciones de las entidades con solo los campos que usan los índices
+     * secundarios, para construirlos sin materializar las entidades completas
+     * @return proyecciones de todas las entidades de la fuente, o null si la fuente no las guarda
+     */
+    default List<T> loadIndexKeys() {
+        return null;
+    }
+}
@@ -14,6 +14,20 @@ import java.util.stream.Collectors;
  */
 public class IncidentRepository extends BaseRepository<Incident> {
     
+    /**
+     * Crea el repositorio sobre el backend por defecto
+     */
+    public IncidentRepository() {
+    }
+    
+    /**
+     * Crea el repositorio sobre un backend concreto
+     * @param backend backend que proporciona el mapa de entidades
+     */
+    public IncidentRepository(StorageBackend backend) {
+        super(backend, IncidentRepository.class.getSimpleName());
+    }
+    
     @Override
     protected UUID getEntityId(Incident incident) {
         return incident.getId();
@@ -30,7 +44,7 @@ public class IncidentRepository extends BaseRepository<Incident> {
      * @return lista de incidencias del tipo especificado
      */
     public List<Incident> findByType(IncidentType type) {
-        return entities.values().stream()
+        return entityValues().stream()
                 .filter(i -> i.getType() == type)
                 .collect(Collectors.toList());
     }
@@ -41,7 +55,7 @@ public class IncidentRepository extends BaseRepository<Incident> {
      * @return lista de incidencias del envío
      */
     public List<Incident> findByShipment(Shipment shipment) {
-        return entities.values().stream()
+        return entityValues().stream()
                 .filter(i -> i.getShipment().getId().equals(shipment.getId()))
                 .collect(Collectors.toList());
     }
@@ -52,7 +66,7 @@ public class IncidentRepository extends BaseRepository<Incident> {
      * @return lista de incidencias asociadas al envío
      */
     public List<Incident> findByShipmentId(UUID shipmentId) {
-        return entities.values().stream()
+        return entityValues().stream()
                 .filter(i -> i.getShipment().getId().equals(shipmentId))
                 .collect(Collectors.toList());
     }
@@ -71,7 +85,7 @@ public class IncidentRepository extends BaseRepository<Incident> {
      * @return lista de incidencias según estado de resolución
      */
     public List<Incident> findByResolutionStatus(boolean resolved) {
-        return entities.values().stream()
+        return entityValues().stream()
                 .filter(i -> i.isResolved() == resolved)
                 .collect(Collectors.toList());
     }
@@ -83,7 +97,7 @@ public class IncidentRepository extends BaseRepository<Incident> {
      * @return lista de incidencias en el rango especificado
      */
     public List<Incident> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return entities.values().stream()
+        return entityValues().stream()
                 .filter(i -> !i.getDate().isBefore(startDate) && 
                            !i.getDate().isAfter(endDate))
                 .collect(Collectors.toList());
@@ -94,7 +108,7 @@ public class IncidentRepository extends BaseRepository<Incident> {
      * @return cantidad de incidencias sin resolver
      */
     public long countPendingIncidents() {
-        return entities.values().stream()
+        return entityValues().stream()
                 .filter(i -> !i.isResolved())
                 .count();
     }
@@ -104,7 +118,7 @@ public class IncidentRepository extends BaseRepository<Incident> {
      * @return lista de incidencias que necesitan reasignación de repartidor
      */
     public List<Incident> findRequiringReassignment() {
-        return entities.values().stream()
+        return entityValues().stream()
                 .filter(i -> !i.isResolved() && 
                            (i.getType() == IncidentType.INACCESSIBLE_ZONE ||
                             i.getType() == IncidentType.DELIVERER_UNAVAILABLE))
@@ -0,0 +1,28 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Mapa de entidades que mantiene sus claves ordenadas por ID y permite leerlas por
+ * posición, de modo que una página se obtiene sin recorrer ni ordenar todo el mapa.
+ * @param <T> tipo de entidad
+ */
+public interface OrderedEntityMap<T> extends Map<UUID, T> {
+    /**
+     * Obtiene los IDs de una página, en orden ascendente
+     * @param offset posición del primer ID
+     * @param limit número máximo de IDs
+     * @return IDs de la página
+     */
+    List<UUID> keys(long offset, int limit);
+
+    /**
+     * Obtiene los IDs que siguen a uno dado, en orden ascendente
+     * @param after ID anterior al primero, o null para empezar desde el principio
+     * @param limit número máximo de IDs
+     * @return IDs siguientes
+     */
+    List<UUID> keysAfter(UUID after, int limit);
+}
@@ -17,6 +17,29 @@ import java.util.stream.Collectors;
  */
 public class PaymentRepository extends BaseRepository<Payment> {
     
+    // Índice por envío: el despacho por lotes consulta el pago de cada envío pendiente
+    private final RepositoryIndex<Payment, UUID> shipmentIndex =
+            RepositoryIndex.byHash(p -> p.getShipment() != null ? p.getShipment().getId() : null);
+    
+    /**
+     * Crea el repositorio sobre el backend por defecto
+     */
+    public PaymentRepository() {
+    }
+    
+    /**
+     * Crea el repositorio sobre un backend concreto
+     * @param backend backend que proporciona el mapa de entidades
+     */
+    public PaymentRepository(StorageBackend backend) {
+        super(backend, PaymentRepository.class.getSimpleName());
+    }
+    
+    @Override
+    protected List<RepositoryIndex<Payment, ?>> secondaryIndexes() {
+        return List.of(shipmentIndex);
+    }
+    
     @Override
     protected UUID getEntityId(Payment payment) {
         return payment.getId();
@@ -89,11 +112,7 @@ public class PaymentRepository extends BaseRepository<Payment> {
      * @return lista de pagos asociados al envío
      */
     public List<Payment> findByShipmentId(UUID shipmentId) {
-        return findAll().stream()
-                .filter(p -> p.getShipment() != null && 
-                           p.getShipment().getId() != null && 
-                           p.getShipment().getId().equals(shipmentId))
-                .collect(Collectors.toList());
+        return shipmentId != null ? findByIndex(shipmentIndex, shipmentId) : List.of();
     }
 
     /**
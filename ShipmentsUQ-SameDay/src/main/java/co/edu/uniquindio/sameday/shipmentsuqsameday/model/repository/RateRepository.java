@@ -13,6 +13,20 @@ import java.util.stream.Collectors;
  */
 public class RateRepository extends BaseRepository<Rate> {
 
+    /**
+     * Crea el repositorio sobre el backend por defecto
+     */
+    public RateRepository() {
+    }
+    
+    /**
+     * Crea el repositorio sobre un backend concreto
+     * @param backend backend que proporciona el mapa de entidades
+     */
+    public RateRepository(StorageBackend backend) {
+        super(backend, RateRepository.class.getSimpleName());
+    }
+    
     @Override
     protected UUID getEntityId(Rate rate) {
         return rate.getId();
@@ -28,7 +42,7 @@ public class RateRepository extends BaseRepository<Rate> {
      * @return la tarifa actual o null si no hay ninguna activa
      */
     public Rate getCurrentRate() {
-        return entities.values().stream()
+        return entityValues().stream()
             .filter(Rate::isActive)
             .findFirst()
             .orElse(null);
@@ -61,7 +75,7 @@ public class RateRepository extends BaseRepository<Rate> {
      * @return lista de tarifas ordenadas por fecha de efectividad
      */
     public List<Rate> getRateHistory() {
-        return entities.values().stream()
+        return entityValues().stream()
             .sorted(Comparator.comparing(Rate::getEffectiveFrom))
             .collect(Collectors.toList());
     }
@@ -72,7 +86,7 @@ public class RateRepository extends BaseRepository<Rate> {
      * @return tarifa vigente en esa fecha
      */
     public Optional<Rate> getRateAtDate(LocalDateTime date) {
-        return entities.values().stream()
+        return entityValues().stream()
             .filter(rate -> 
                 rate.getEffectiveFrom().isBefore(date) && 
                 (rate.getEffectiveUntil() == null || rate.getEffectiveUntil().isAfter(date)))
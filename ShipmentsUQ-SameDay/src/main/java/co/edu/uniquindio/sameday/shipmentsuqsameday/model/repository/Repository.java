@@ -1,8 +1,12 @@
 package co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository;
 
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.dto.PaginatedDataDTO;
+
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Interfaz genérica para operaciones CRUD de repositorio
@@ -29,6 +33,41 @@ public interface Repository<T> {
      */
     List<T> findAll();
     
+    /**
+     * Obtiene una página de entidades ordenadas por ID, sin cargar las demás
+     * @param offset posición de la primera entidad
+     * @param limit número máximo de entidades
+     * @return entidades de la página
+     */
+    List<T> findAll(int offset, int limit);
+    
+    /**
+     * Obtiene una página de entidades. Con un orden distinto al de ID solo se conservan
+     * en memoria las entidades hasta el final de la página, no toda la colección.
+     * @param offset posición de la primera entidad
+     * @param limit tamaño de la página
+     * @param sort orden de las entidades, o null para ordenarlas por ID
+     * @return página con el total de entidades y de páginas
+     */
+    PaginatedDataDTO<T> findPage(int offset, int limit, Comparator<? super T> sort);
+    
+    /**
+     * Obtiene las entidades que siguen a un cursor en orden de ID. A diferencia de una
+     * página por posición, las inserciones y eliminaciones concurrentes no desplazan
+     * las páginas siguientes.
+     * @param cursor ID de la última entidad de la página anterior, o null para empezar
+     * @param limit tamaño de la página
+     * @return página con el cursor de la siguiente, o sin cursor si es la última; su número
+     *         de página es -1 porque la posición del cursor no se calcula
+     */
+    PaginatedDataDTO<T> findAfter(UUID cursor, int limit);
+    
+    /**
+     * Recorre las entidades sin copiarlas a una lista
+     * @return flujo de entidades
+     */
+    Stream<T> stream();
+    
     /**
      * Actualiza una entidad existente
      * @param entity entidad a actualizar
@@ -0,0 +1,50 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Cambios de un repositorio desde el último punto de guardado: el estado actual de las
+ * entidades guardadas o actualizadas y los IDs de las eliminadas.
+ * @param <T> tipo de entidad del repositorio
+ */
+public class RepositoryChanges<T> {
+
+    private final Map<UUID, T> saved;
+    private final Set<UUID> deleted;
+
+    public RepositoryChanges(Map<UUID, T> saved, Set<UUID> deleted) {
+        this.saved = Collections.unmodifiableMap(saved);
+        this.deleted = Collections.unmodifiableSet(deleted);
+    }
+
+    /**
+     * @return entidades guardadas o actualizadas por ID, con su estado actual
+     */
+    public Map<UUID, T> getSaved() {
+        return saved;
+    }
+
+    /**
+     * @return IDs de las entidades eliminadas
+     */
+    public Set<UUID> getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * @return true si no hay cambios
+     */
+    public boolean isEmpty() {
+        return saved.isEmpty() && deleted.isEmpty();
+    }
+
+    /**
+     * @return número total de cambios
+     */
+    public int size() {
+        return saved.size() + deleted.size();
+    }
+}
@@ -0,0 +1,229 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.interfaces.Observable;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.interfaces.Observer;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Índice secundario mantenido por {@link BaseRepository}.
+ * Agrupa los IDs de las entidades según una clave extraída de cada entidad,
+ * evitando recorrer todo el repositorio en cada búsqueda.
+ *
+ * Los índices creados con seguimiento observan las entidades {@link Observable}: cuando
+ * notifican un cambio se reindexan sin necesidad de pasar por update().
+ * @param <T> tipo de entidad indexada
+ * @param <K> tipo de la clave del índice
+ */
+public class RepositoryIndex<T, K> {
+    private final Function<T, K> keyExtractor;
+    private final Map<K, Set<UUID>> buckets;
+    private final boolean trackChanges;
+
+    // Última clave con la que se indexó cada entidad (las entidades se modifican en sitio)
+    private final Map<UUID, K> indexedKeys = new HashMap<>();
+    // Observadores registrados en las entidades seguidas
+    private final Map<UUID, Tracked<T>> tracked = new HashMap<>();
+
+    RepositoryIndex(Function<T, K> keyExtractor, Map<K, Set<UUID>> buckets) {
+        this(keyExtractor, buckets, false);
+    }
+
+    RepositoryIndex(Function<T, K> keyExtractor, Map<K, Set<UUID>> buckets, boolean trackChanges) {
+        this.keyExtractor = keyExtractor;
+        this.buckets = buckets;
+        this.trackChanges = trackChanges;
+    }
+
+    /**
+     * Crea un índice por valores de un enum (estado, prioridad...)
+     * @param enumType clase del enum
+     * @param keyExtractor función que obtiene la clave de la entidad
+     * @return índice respaldado por un EnumMap
+     */
+    public static <T, E extends Enum<E>> RepositoryIndex<T, E> byEnum(Class<E> enumType, Function<T, E> keyExtractor) {
+        return new RepositoryIndex<>(keyExtractor, new EnumMap<>(enumType));
+    }
+
+    /**
+     * Crea un índice hash (por ejemplo, por ID de usuario o de repartidor)
+     * @param keyExtractor función que obtiene la clave de la entidad
+     * @return índice respaldado por un HashMap
+     */
+    public static <T, K> RepositoryIndex<T, K> byHash(Function<T, K> keyExtractor) {
+        return new RepositoryIndex<>(keyExtractor, new HashMap<>());
+    }
+
+    /**
+     * Crea un índice hash que se reindexa cuando las entidades notifican un cambio
+     * (por ejemplo, una clave derivada de la posición de un repartidor)
+     * @param keyExtractor función que obtiene la clave de la entidad
+     * @return índice respaldado por un HashMap
+     */
+    public static <T, K> RepositoryIndex<T, K> tracking(Function<T, K> keyExtractor) {
+        return new RepositoryIndex<>(keyExtractor, new HashMap<>(), true);
+    }
+
+    /**
+     * Crea un índice ordenado que permite búsquedas por rango (por ejemplo, fechas)
+     * @param keyExtractor función que obtiene la clave de la entidad
+     * @return índice respaldado por un TreeMap
+     */
+    public static <T, K extends Comparable<? super K>> RepositoryIndex<T, K> sorted(Function<T, K> keyExtractor) {
+        return new RepositoryIndex<>(keyExtractor, new TreeMap<>());
+    }
+
+    /**
+     * Obtiene la clave actual de una entidad
+     * @param entity entidad
+     * @return clave o null si la entidad no tiene valor para este índice
+     */
+    public K keyOf(T entity) {
+        return keyExtractor.apply(entity);
+    }
+
+    /**
+     * Indexa (o reindexa) una entidad
+     * @param id ID de la entidad
+     * @param entity entidad a indexar
+     */
+    synchronized void put(UUID id, T entity) {
+        if (trackChanges) {
+            track(id, entity);
+        }
+        K newKey = keyExtractor.apply(entity);
+        K oldKey = indexedKeys.get(id);
+        if (indexedKeys.containsKey(id) && Objects.equals(oldKey, newKey)) {
+            return;
+        }
+        removeFromBucket(id, oldKey);
+        if (newKey == null) {
+            indexedKeys.remove(id);
+            return;
+        }
+        buckets.computeIfAbsent(newKey, k -> new LinkedHashSet<>()).add(id);
+        indexedKeys.put(id, newKey);
+    }
+
+    /**
+     * Elimina una entidad del índice
+     * @param id ID de la entidad
+     */
+    synchronized void remove(UUID id) {
+        removeFromBucket(id, indexedKeys.remove(id));
+        untrack(tracked.remove(id));
+    }
+
+    /**
+     * Vacía el índice
+     */
+    synchronized void clear() {
+        buckets.clear();
+        indexedKeys.clear();
+        tracked.values().forEach(this::untrack);
+        tracked.clear();
+    }
+
+    /**
+     * Obtiene los IDs indexados bajo una clave
+     * @param key clave a buscar
+     * @return copia de los IDs asociados a la clave
+     */
+    synchronized List<UUID> get(K key) {
+        Set<UUID> ids = key != null ? buckets.get(key) : null;
+        return ids != null ? new ArrayList<>(ids) : new ArrayList<>();
+    }
+
+    /**
+     * Obtiene las claves que tienen al menos una entidad
+     * @return copia de las claves
+     */
+    synchronized List<K> keys() {
+        return new ArrayList<>(buckets.keySet());
+    }
+
+    /**
+     * Obtiene los IDs cuyas claves están en el rango [from, to], ambos inclusive.
+     * Solo disponible para índices creados con {@link #sorted(Function)}
+     * @param from clave inicial
+     * @param to clave final
+     * @return IDs en orden de clave
+     */
+    synchronized List<UUID> range(K from, K to) {
+        if (!(buckets instanceof NavigableMap<K, Set<UUID>> sortedBuckets)) {
+            throw new UnsupportedOperationException("El índice no es ordenado");
+        }
+        List<UUID> result = new ArrayList<>();
+        try {
+            sortedBuckets.subMap(from, true, to, true).values().forEach(result::addAll);
+        } catch (IllegalArgumentException e) {
+            // Rango invertido (from > to): no hay resultados
+        }
+        return result;
+    }
+
+    /**
+     * Obtiene los IDs indexados bajo una clave sin copiarlos; quien llama debe tener el candado del índice
+     * @param key clave a buscar
+     * @return IDs asociados a la clave o null si no hay ninguno
+     */
+    Set<UUID> bucket(K key) {
+        return buckets.get(key);
+    }
+
+    private void removeFromBucket(UUID id, K key) {
+        if (key == null) {
+            return;
+        }
+        Set<UUID> ids = buckets.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Observa la entidad para reindexarla cuando cambie; deja de observar la instancia
+     * anterior si el ID pasó a otra instancia
+     */
+    private void track(UUID id, T entity) {
+        Tracked<T> current = tracked.get(id);
+        if (current != null && current.entity == entity) {
+            return;
+        }
+        untrack(current);
+        if (entity instanceof Observable) {
+            Observer observer = (event, data) -> changed(id, entity);
+            ((Observable) entity).registerObserver(observer);
+            tracked.put(id, new Tracked<>(entity, observer));
+        } else {
+            tracked.remove(id);
+        }
+    }
+
+    private void untrack(Tracked<T> entry) {
+        if (entry != null) {
+            ((Observable) entry.entity).removeObserver(entry.observer);
+        }
+    }
+
+    private synchronized void changed(UUID id, T entity) {
+        Tracked<T> current = tracked.get(id);
+        if (current != null && current.entity == entity) {
+            put(id, entity);
+        }
+    }
+
+    private static final class Tracked<T> {
+        final T entity;
+        final Observer observer;
+
+        Tracked(T entity, Observer observer) {
+            this.entity = entity;
+            this.observer = observer;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository;
+
+import java.util.UUID;
+
+/**
+ * Observador de las mutaciones de un repositorio.
+ * Se notifica después de cada save, update y deleteById; la carga masiva
+ * con loadEntities no genera notificaciones.
+ * @param <T> tipo de entidad del repositorio
+ */
+public interface RepositoryListener<T> {
+    /**
+     * Se invoca cuando una entidad se guarda o se actualiza
+     * @param id ID de la entidad
+     * @param entity entidad guardada
+     */
+    void onSaved(UUID id, T entity);
+
+    /**
+     * Se invoca cuando una entidad se elimina
+     * @param id ID de la entidad eliminada
+     */
+    void onDeleted(UUID id);
+}
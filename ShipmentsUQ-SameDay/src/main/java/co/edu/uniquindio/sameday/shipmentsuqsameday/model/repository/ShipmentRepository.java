@@ -9,13 +9,43 @@ import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentPriority
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Repositorio para la gestión de envíos
  */
 public class ShipmentRepository extends BaseRepository<Shipment> {
     
+    // Índices secundarios para los buscadores más usados
+    private final RepositoryIndex<Shipment, ShipmentStatus> statusIndex =
+            RepositoryIndex.byEnum(ShipmentStatus.class, Shipment::getStatus);
+    private final RepositoryIndex<Shipment, ShipmentPriority> priorityIndex =
+            RepositoryIndex.byEnum(ShipmentPriority.class, Shipment::getPriority);
+    private final RepositoryIndex<Shipment, UUID> userIndex =
+            RepositoryIndex.byHash(s -> s.getUser() != null ? s.getUser().getId() : null);
+    private final RepositoryIndex<Shipment, UUID> delivererIndex =
+            RepositoryIndex.byHash(s -> s.getDeliverer() != null ? s.getDeliverer().getId() : null);
+    private final RepositoryIndex<Shipment, LocalDateTime> creationDateIndex =
+            RepositoryIndex.sorted(Shipment::getCreationDate);
+    
+    /**
+     * Crea el repositorio sobre el backend por defecto
+     */
+    public ShipmentRepository() {
+    }
+    
+    /**
+     * Crea el repositorio sobre un backend concreto
+     * @param backend backend que proporciona el mapa de entidades
+     */
+    public ShipmentRepository(StorageBackend backend) {
+        super(backend, ShipmentRepository.class.getSimpleName());
+    }
+    
+    @Override
+    protected List<RepositoryIndex<Shipment, ?>> secondaryIndexes() {
+        return List.of(statusIndex, priorityIndex, userIndex, delivererIndex, creationDateIndex);
+    }
+    
     @Override
     protected UUID getEntityId(Shipment shipment) {
         return shipment.getId();
@@ -32,9 +62,7 @@ public class ShipmentRepository extends BaseRepository<Shipment> {
      * @return lista de envíos en el estado especificado
      */
     public List<Shipment> findByStatus(ShipmentStatus status) {
-        return entities.values().stream()
-                .filter(e -> e.getStatus() == status)
-                .collect(Collectors.toList());
+        return findByIndex(statusIndex, status);
     }
     
     /**
@@ -43,9 +71,16 @@ public class ShipmentRepository extends BaseRepository<Shipment> {
      * @return lista de envíos del usuario
      */
     public List<Shipment> findByUser(User user) {
-        return entities.values().stream()
-                .filter(e -> e.getUser().equals(user))
-                .collect(Collectors.toList());
+        return user != null ? findByUserId(user.getId()) : List.of();
+    }
+    
+    /**
+     * Busca envíos por el ID del usuario
+     * @param userId ID del usuario
+     * @return lista de envíos del usuario
+     */
+    public List<Shipment> findByUserId(UUID userId) {
+        return findByIndex(userIndex, userId);
     }
     
     /**
@@ -54,23 +89,17 @@ public class ShipmentRepository extends BaseRepository<Shipment> {
      * @return lista de envíos asignados al repartidor
      */
     public List<Shipment> findByDeliverer(Deliverer deliverer) {
-        return entities.values().stream()
-                .filter(e -> e.getDeliverer() != null && 
-                           e.getDeliverer().getId().equals(deliverer.getId()))
-                .collect(Collectors.toList());
+        return findByIndex(delivererIndex, deliverer.getId());
     }
     
     /**
      * Busca envíos por rango de fechas
      * @param startDate fecha inicial
      * @param endDate fecha final
-     * @return lista de envíos en el rango especificado
+     * @return lista de envíos en el rango especificado, ordenada por fecha de creación
      */
     public List<Shipment> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return entities.values().stream()
-                .filter(e -> !e.getCreationDate().isBefore(startDate) &&
-                           !e.getCreationDate().isAfter(endDate))
-                .collect(Collectors.toList());
+        return findByIndexRange(creationDateIndex, startDate, endDate);
     }
     
     /**
@@ -79,8 +108,6 @@ public class ShipmentRepository extends BaseRepository<Shipment> {
      * @return lista de envíos con la prioridad especificada
      */
     public List<Shipment> findByPriority(ShipmentPriority priority) {
-        return entities.values().stream()
-                .filter(e -> e.getPriority() == priority)
-                .collect(Collectors.toList());
+        return findByIndex(priorityIndex, priority);
     }
 }
\ No newline at end of file
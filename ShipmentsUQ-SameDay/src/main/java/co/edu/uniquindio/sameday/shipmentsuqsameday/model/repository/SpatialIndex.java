@@ -0,0 +1,236 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.interfaces.Observable;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Índice espacial mantenido por {@link BaseRepository}.
+ * Reparte las entidades en una cuadrícula uniforme de celdas cuadradas según su posición,
+ * de modo que buscar las más cercanas a un punto solo recorre las celdas de alrededor
+ * en anillos crecientes en lugar de calcular la distancia a todas las entidades.
+ *
+ * Las entidades {@link Observable} se observan: cuando notifican un cambio (por ejemplo,
+ * la posición de un repartidor durante una simulación) se reubican en el índice sin
+ * necesidad de pasar por update().
+ * @param <T> tipo de entidad indexada
+ */
+public class SpatialIndex<T> extends RepositoryIndex<T, Long> {
+
+    // Celdas recorridas por entidad indexada antes de pasar a una búsqueda lineal
+    private static final int MAX_CELLS_PER_ENTRY = 4;
+
+    private final Function<T, double[]> position;
+    private final double cellSize;
+
+    // Última posición indexada de cada entidad, para no volver a leer la entidad en las búsquedas
+    private final Map<UUID, double[]> positions = new HashMap<>();
+
+    // Celdas ocupadas en algún momento desde la última limpieza; acotan la búsqueda por anillos
+    private int minCellX = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE;
+    private int minCellY = Integer.MAX_VALUE;
+    private int maxCellY = Integer.MIN_VALUE;
+
+    /**
+     * @param position función que obtiene la posición [x, y] de la entidad, o null si no tiene
+     * @param cellSize lado de cada celda, en las mismas unidades que la posición
+     */
+    public SpatialIndex(Function<T, double[]> position, double cellSize) {
+        super(entity -> cellKey(position.apply(entity), cellSize), new HashMap<>(), true);
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de celda debe ser positivo");
+        }
+        this.position = position;
+        this.cellSize = cellSize;
+    }
+
+    @Override
+    synchronized void put(UUID id, T entity) {
+        super.put(id, entity);
+        double[] point = position.apply(entity);
+        if (point == null) {
+            positions.remove(id);
+        } else {
+            positions.put(id, point);
+            int cellX = cell(point[0]);
+            int cellY = cell(point[1]);
+            minCellX = Math.min(minCellX, cellX);
+            maxCellX = Math.max(maxCellX, cellX);
+            minCellY = Math.min(minCellY, cellY);
+            maxCellY = Math.max(maxCellY, cellY);
+        }
+    }
+
+    @Override
+    synchronized void remove(UUID id) {
+        super.remove(id);
+        positions.remove(id);
+    }
+
+    @Override
+    synchronized void clear() {
+        super.clear();
+        positions.clear();
+        minCellX = Integer.MAX_VALUE;
+        maxCellX = Integer.MIN_VALUE;
+        minCellY = Integer.MAX_VALUE;
+        maxCellY = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Busca las entidades más cercanas a un punto (distancia euclidiana)
+     * @param x coordenada X del punto
+     * @param y coordenada Y del punto
+     * @param limit cantidad máxima de IDs
+     * @param maxDistance distancia máxima, inclusive
+     * @param accept condición que deben cumplir las entidades
+     * @return IDs ordenados de la entidad más cercana a la más lejana
+     */
+    synchronized List<UUID> nearest(double x, double y, int limit, double maxDistance, Predicate<UUID> accept) {
+        List<UUID> result = new ArrayList<>();
+        if (limit <= 0 || positions.isEmpty()) {
+            return result;
+        }
+        int centerX = cell(x);
+        int centerY = cell(y);
+        int lastRing = Math.max(Math.max(centerX - minCellX, maxCellX - centerX),
+                                Math.max(centerY - minCellY, maxCellY - centerY));
+        long budget = (long) positions.size() * MAX_CELLS_PER_ENTRY + 16;
+
+        PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        long visitedCells = 0;
+        for (int ring = 0; ring <= lastRing; ring++) {
+            visitedCells += enqueueRing(centerX, centerY, ring, x, y, maxDistance, queue);
+            if (visitedCells > budget) {
+                return nearestLinear(x, y, limit, maxDistance, accept);
+            }
+            // Toda entidad fuera de los anillos ya recorridos está al menos a esta distancia
+            double settled = ring * cellSize;
+            while (!queue.isEmpty() && queue.peek().distance <= settled) {
+                if (take(queue.poll(), accept, result) && result.size() >= limit) {
+                    return result;
+                }
+            }
+            if (settled > maxDistance) {
+                break;
+            }
+        }
+        while (!queue.isEmpty()) {
+            if (take(queue.poll(), accept, result) && result.size() >= limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Encola las entidades de las celdas de un anillo que estén dentro de la distancia máxima
+     * @return celdas recorridas
+     */
+    private int enqueueRing(int centerX, int centerY, int ring, double x, double y,
+                            double maxDistance, PriorityQueue<Candidate> queue) {
+        if (ring == 0) {
+            enqueueCell(centerX, centerY, x, y, maxDistance, queue);
+            return 1;
+        }
+        int visited = 0;
+        int fromX = Math.max(centerX - ring, minCellX);
+        int toX = Math.min(centerX + ring, maxCellX);
+        for (int cellX = fromX; cellX <= toX; cellX++) {
+            visited += enqueueCell(cellX, centerY - ring, x, y, maxDistance, queue);
+            visited += enqueueCell(cellX, centerY + ring, x, y, maxDistance, queue);
+        }
+        int fromY = Math.max(centerY - ring + 1, minCellY);
+        int toY = Math.min(centerY + ring - 1, maxCellY);
+        for (int cellY = fromY; cellY <= toY; cellY++) {
+            visited += enqueueCell(centerX - ring, cellY, x, y, maxDistance, queue);
+            visited += enqueueCell(centerX + ring, cellY, x, y, maxDistance, queue);
+        }
+        return visited;
+    }
+
+    private int enqueueCell(int cellX, int cellY, double x, double y, double maxDistance,
+                            PriorityQueue<Candidate> queue) {
+        if (cellY < minCellY || cellY > maxCellY || cellX < minCellX || cellX > maxCellX) {
+            return 0;
+        }
+        Set<UUID> ids = bucket(key(cellX, cellY));
+        if (ids != null) {
+            for (UUID id : ids) {
+                double distance = distance(positions.get(id), x, y);
+                if (distance <= maxDistance) {
+                    queue.add(new Candidate(id, distance));
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Búsqueda de respaldo cuando las entidades están tan dispersas que recorrer
+     * celdas vacías costaría más que calcular todas las distancias
+     */
+    private List<UUID> nearestLinear(double x, double y, int limit, double maxDistance, Predicate<UUID> accept) {
+        PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        positions.forEach((id, point) -> {
+            double distance = distance(point, x, y);
+            if (distance <= maxDistance) {
+                queue.add(new Candidate(id, distance));
+            }
+        });
+        List<UUID> result = new ArrayList<>();
+        while (!queue.isEmpty() && result.size() < limit) {
+            take(queue.poll(), accept, result);
+        }
+        return result;
+    }
+
+    private static boolean take(Candidate candidate, Predicate<UUID> accept, List<UUID> result) {
+        if (accept.test(candidate.id)) {
+            result.add(candidate.id);
+            return true;
+        }
+        return false;
+    }
+
+    private int cell(double coordinate) {
+        return cell(coordinate, cellSize);
+    }
+
+    private static int cell(double coordinate, double cellSize) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static Long cellKey(double[] point, double cellSize) {
+        return point != null ? key(cell(point[0], cellSize), cell(point[1], cellSize)) : null;
+    }
+
+    private static long key(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xffffffffL);
+    }
+
+    private static double distance(double[] point, double x, double y) {
+        double deltaX = point[0] - x;
+        double deltaY = point[1] - y;
+        return Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+    }
+
+    private static final class Candidate implements Comparable<Candidate> {
+        final UUID id;
+        final double distance;
+
+        Candidate(UUID id, double distance) {
+            this.id = id;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int byDistance = Double.compare(distance, other.distance);
+            return byDistance != 0 ? byDistance : id.compareTo(other.id);
+        }
+    }
+}
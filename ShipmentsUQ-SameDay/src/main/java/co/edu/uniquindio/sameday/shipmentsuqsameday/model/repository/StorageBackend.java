@@ -0,0 +1,37 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Almacenamiento de las entidades de los repositorios.
+ * El backend en memoria guarda todas las entidades en un mapa; uno en disco puede
+ * devolver un mapa que lee y escribe cada entidad en un almacén embebido, de modo que
+ * el tamaño de los datos no esté limitado por la memoria disponible.
+ */
+public interface StorageBackend {
+
+    /**
+     * Backend por defecto: todas las entidades en memoria
+     */
+    StorageBackend MEMORY = new StorageBackend() {
+        @Override
+        public <T> Map<UUID, T> openMap(String name) {
+            return new ConcurrentHashMap<>();
+        }
+
+        @Override
+        public String toString() {
+            return "memory";
+        }
+    };
+
+    /**
+     * Abre el mapa de entidades de un repositorio. Dos repositorios del mismo tipo
+     * abiertos sobre un backend persistente comparten los datos.
+     * @param name nombre del repositorio
+     * @return mapa de entidades por ID
+     */
+    <T> Map<UUID, T> openMap(String name);
+}
@@ -11,6 +11,20 @@ import java.util.stream.Collectors;
  */
 public class UserRepository extends BaseRepository<User> {
     
+    /**
+     * Crea el repositorio sobre el backend por defecto
+     */
+    public UserRepository() {
+    }
+    
+    /**
+     * Crea el repositorio sobre un backend concreto
+     * @param backend backend que proporciona el mapa de entidades
+     */
+    public UserRepository(StorageBackend backend) {
+        super(backend, UserRepository.class.getSimpleName());
+    }
+    
     @Override
     protected UUID getEntityId(User user) {
         return user.getId();
@@ -27,7 +41,7 @@ public class UserRepository extends BaseRepository<User> {
      * @return usuario encontrado o vacío si no existe
      */
     public Optional<User> findByEmail(String email) {
-        return entities.values().stream()
+        return entityValues().stream()
                 .filter(u -> u.getEmail().equals(email))
                 .findFirst();
     }
@@ -38,7 +52,7 @@ public class UserRepository extends BaseRepository<User> {
      * @return usuario encontrado o vacío si no existe
      */
     public Optional<User> findByPhone(String phone) {
-        return entities.values().stream()
+        return entityValues().stream()
                 .filter(u -> u.getPhone().equals(phone))
                 .findFirst();
     }
@@ -49,7 +63,7 @@ public class UserRepository extends BaseRepository<User> {
      * @return lista de usuarios en esa zona
      */
     public List<User> findByZone(String zone) {
-        return entities.values().stream()
+        return entityValues().stream()
                 .filter(u -> u.getAddresses().stream()
                         .anyMatch(a -> a.getZone().equals(zone)))
                 .collect(Collectors.toList());
@@ -0,0 +1,91 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing;
+
+/**
+ * Matriz de distancias y duraciones de viaje entre N orígenes y M destinos.
+ * Los valores se guardan por filas en arreglos primitivos: la celda (i, j) está en
+ * la posición i * columnas + j. Una celda NaN indica que no hay ruta entre ese par.
+ */
+public final class DistanceMatrix {
+
+    private final int rows;
+    private final int columns;
+    private final double[] distancesMeters;
+    private final double[] durationsSeconds;
+    private final String source;
+
+    /**
+     * @param rows cantidad de orígenes
+     * @param columns cantidad de destinos
+     * @param distancesMeters distancias en metros, por filas
+     * @param durationsSeconds duraciones en segundos, por filas
+     * @param source nombre de la estrategia que calculó la matriz
+     */
+    public DistanceMatrix(int rows, int columns, double[] distancesMeters, double[] durationsSeconds, String source) {
+        if (distancesMeters.length != rows * columns || durationsSeconds.length != rows * columns) {
+            throw new IllegalArgumentException("El tamaño de los arreglos no coincide con " + rows + "x" + columns);
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.distancesMeters = distancesMeters;
+        this.durationsSeconds = durationsSeconds;
+        this.source = source;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return distancia en metros del origen row al destino column
+     */
+    public double distanceMeters(int row, int column) {
+        return distancesMeters[index(row, column)];
+    }
+
+    /**
+     * @return duración en segundos del origen row al destino column
+     */
+    public double durationSeconds(int row, int column) {
+        return durationsSeconds[index(row, column)];
+    }
+
+    /**
+     * @return true si hay ruta entre el origen y el destino
+     */
+    public boolean isReachable(int row, int column) {
+        int index = index(row, column);
+        return Double.isFinite(distancesMeters[index]) && Double.isFinite(durationsSeconds[index]);
+    }
+
+    /**
+     * @return arreglo interno de distancias en metros, por filas (no se copia)
+     */
+    public double[] getDistancesMeters() {
+        return distancesMeters;
+    }
+
+    /**
+     * @return arreglo interno de duraciones en segundos, por filas (no se copia)
+     */
+    public double[] getDurationsSeconds() {
+        return durationsSeconds;
+    }
+
+    /**
+     * @return nombre de la estrategia que calculó la matriz ("Cache" si todo vino del cache)
+     */
+    public String getSource() {
+        return source;
+    }
+
+    private int index(int row, int column) {
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            throw new IndexOutOfBoundsException("Celda (" + row + ", " + column + ") fuera de " + rows + "x" + columns);
+        }
+        return row * columns + column;
+    }
+}
@@ -46,6 +46,12 @@ public class Route implements Serializable {
     @Builder.Default
     private List<Waypoint> waypoints = new ArrayList<>();
     
+    /**
+     * Paradas de una ruta de varias paradas, en orden de visita (vacía en rutas de un solo tramo)
+     */
+    @Builder.Default
+    private List<RouteStop> stops = new ArrayList<>();
+    
     /**
      * Estadísticas calculadas de la ruta
      */
@@ -1,5 +1,7 @@
 package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing;
 
+import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.service.EtaEstimator;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -92,6 +94,21 @@ public class RouteStatistics implements Serializable {
         return this.estimatedArrival;
     }
     
+    /**
+     * Calcula el ETA corrigiendo la duración con lo aprendido de entregas anteriores
+     * @param startTime hora de inicio del viaje
+     * @param estimator estimador entrenado con las entregas completadas
+     * @param destination coordenadas de destino
+     * @return hora estimada de llegada
+     */
+    public LocalDateTime calculateETA(LocalDateTime startTime, EtaEstimator estimator, Coordinates destination) {
+        if (startTime == null || estimatedDuration == null) {
+            return null;
+        }
+        this.estimatedArrival = startTime.plus(estimator.estimateDuration(this, destination, startTime));
+        return this.estimatedArrival;
+    }
+    
     /**
      * Genera un resumen legible de las estadísticas
      */
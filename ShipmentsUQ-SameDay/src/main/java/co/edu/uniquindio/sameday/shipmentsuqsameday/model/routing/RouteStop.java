@@ -0,0 +1,59 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Parada de una ruta de varias paradas: la recogida o la entrega de un envío
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteStop implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Tipo de parada
+     */
+    public enum StopType {
+        PICKUP,
+        DROPOFF
+    }
+
+    /**
+     * ID del envío que se recoge o entrega en la parada
+     */
+    private UUID shipmentId;
+
+    /**
+     * Recogida en el origen o entrega en el destino
+     */
+    private StopType type;
+
+    /**
+     * Coordenadas GPS de la parada
+     */
+    private Coordinates coordinates;
+
+    /**
+     * Índice del waypoint de la ruta que corresponde a la parada (-1 si aún no se ha trazado)
+     */
+    @Builder.Default
+    private int waypointIndex = -1;
+
+    /**
+     * Descripción legible de la parada
+     */
+    public String getDescription() {
+        String shipment = shipmentId != null ? shipmentId.toString().substring(0, 8) : "?";
+        return (type == StopType.PICKUP ? "Recogida envío " : "Entrega envío ") + shipment;
+    }
+}
@@ -0,0 +1,323 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Jerarquía de contracción (Contraction Hierarchies) sobre un {@link RoadGraph}.
+ * Cada nodo tiene un rango (su orden de contracción) y el grafo se amplía con atajos que
+ * resumen caminos de menor tiempo a través de nodos de menor rango. Una consulta solo sube
+ * de rango desde el origen y desde el destino, por lo que explora unos cientos de nodos
+ * en lugar de la ciudad completa.
+ *
+ * Las aristas aumentadas guardan su tiempo, sus metros y, si son atajos, las dos aristas que
+ * reemplazan para reconstruir el camino original. La jerarquía se construye con
+ * {@link ContractionHierarchyBuilder} y se guarda en disco con {@link #write}.
+ */
+public final class ContractionHierarchy {
+
+    private static final int MAGIC = 0x53434831; // "SCH1"
+    private static final int VERSION = 1;
+
+    private final RoadGraph graph;
+    private final int[] rank;
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    private final float[] edgeSeconds;
+    private final float[] edgeMeters;
+    private final int[] edgeChildA;
+    private final int[] edgeChildB;
+
+    // Aristas hacia nodos de mayor rango, agrupadas por su origen (búsqueda hacia adelante)
+    private final int[] upFirst;
+    private final int[] upEdges;
+    // Aristas que llegan desde nodos de mayor rango, agrupadas por su destino (búsqueda hacia atrás)
+    private final int[] downFirst;
+    private final int[] downEdges;
+
+    private final ThreadLocal<ContractionHierarchySearch> searches;
+
+    /**
+     * @param graph grafo original
+     * @param rank rango de cada nodo
+     * @param edgeFrom origen de cada arista aumentada
+     * @param edgeTo destino de cada arista aumentada
+     * @param edgeSeconds tiempo de cada arista en segundos
+     * @param edgeMeters longitud de cada arista en metros
+     * @param edgeChildA primera arista reemplazada por el atajo, o -1 si la arista es original
+     * @param edgeChildB segunda arista reemplazada por el atajo, o -1 si la arista es original
+     */
+    public ContractionHierarchy(RoadGraph graph, int[] rank, int[] edgeFrom, int[] edgeTo,
+                                float[] edgeSeconds, float[] edgeMeters, int[] edgeChildA, int[] edgeChildB) {
+        this.graph = graph;
+        this.rank = rank;
+        this.edgeFrom = edgeFrom;
+        this.edgeTo = edgeTo;
+        this.edgeSeconds = edgeSeconds;
+        this.edgeMeters = edgeMeters;
+        this.edgeChildA = edgeChildA;
+        this.edgeChildB = edgeChildB;
+
+        int nodes = graph.getNodeCount();
+        this.upFirst = new int[nodes + 1];
+        this.downFirst = new int[nodes + 1];
+        int upCount = 0;
+        for (int e = 0; e < edgeFrom.length; e++) {
+            if (rank[edgeFrom[e]] < rank[edgeTo[e]]) {
+                upFirst[edgeFrom[e] + 1]++;
+                upCount++;
+            } else {
+                downFirst[edgeTo[e] + 1]++;
+            }
+        }
+        for (int n = 0; n < nodes; n++) {
+            upFirst[n + 1] += upFirst[n];
+            downFirst[n + 1] += downFirst[n];
+        }
+        this.upEdges = new int[upCount];
+        this.downEdges = new int[edgeFrom.length - upCount];
+        int[] upNext = Arrays.copyOf(upFirst, nodes);
+        int[] downNext = Arrays.copyOf(downFirst, nodes);
+        for (int e = 0; e < edgeFrom.length; e++) {
+            if (rank[edgeFrom[e]] < rank[edgeTo[e]]) {
+                upEdges[upNext[edgeFrom[e]]++] = e;
+            } else {
+                downEdges[downNext[edgeTo[e]]++] = e;
+            }
+        }
+        this.searches = ThreadLocal.withInitial(() -> new ContractionHierarchySearch(this));
+    }
+
+    public RoadGraph getGraph() {
+        return graph;
+    }
+
+    public int getRank(int node) {
+        return rank[node];
+    }
+
+    /**
+     * @return cantidad de atajos agregados al grafo original
+     */
+    public int getShortcutCount() {
+        return edgeFrom.length - graph.getEdgeCount();
+    }
+
+    /**
+     * @return búsqueda reutilizable del hilo actual
+     */
+    public ContractionHierarchySearch search() {
+        return searches.get();
+    }
+
+    /**
+     * Calcula tiempos y distancias entre todos los orígenes y destinos con búsquedas en
+     * cubetas: una búsqueda hacia atrás por destino deja sus distancias en los nodos que
+     * alcanza, y una búsqueda hacia adelante por origen las combina.
+     * Los nodos -1 y los pares sin camino quedan en NaN.
+     *
+     * @param sources nodos de origen (filas)
+     * @param targets nodos de destino (columnas)
+     * @param seconds tiempos resultantes por fila y columna
+     * @param meters distancias resultantes por fila y columna
+     */
+    public void manyToMany(int[] sources, int[] targets, double[] seconds, double[] meters) {
+        int columns = targets.length;
+        ContractionHierarchySearch search = search();
+
+        // Cubetas: (nodo, columna, segundos, metros) de cada espacio de búsqueda hacia atrás
+        IntList bucketNode = new IntList();
+        IntList bucketColumn = new IntList();
+        double[] bucketSeconds = new double[256];
+        double[] bucketMeters = new double[256];
+        for (int column = 0; column < columns; column++) {
+            if (targets[column] < 0) {
+                continue;
+            }
+            int settled = search.searchUpward(targets[column], false);
+            for (int i = 0; i < settled; i++) {
+                int entry = bucketNode.size();
+                if (entry == bucketSeconds.length) {
+                    bucketSeconds = Arrays.copyOf(bucketSeconds, entry * 2);
+                    bucketMeters = Arrays.copyOf(bucketMeters, entry * 2);
+                }
+                bucketNode.add(search.settledNode(i));
+                bucketColumn.add(column);
+                bucketSeconds[entry] = search.settledSeconds(i);
+                bucketMeters[entry] = search.settledMeters(i);
+            }
+        }
+
+        // Orden por nodo para recorrer la cubeta de cada nodo en forma contigua
+        int nodes = graph.getNodeCount();
+        int[] bucketFirst = new int[nodes + 1];
+        for (int i = 0; i < bucketNode.size(); i++) {
+            bucketFirst[bucketNode.get(i) + 1]++;
+        }
+        for (int n = 0; n < nodes; n++) {
+            bucketFirst[n + 1] += bucketFirst[n];
+        }
+        int[] next = Arrays.copyOf(bucketFirst, nodes);
+        int[] order = new int[bucketNode.size()];
+        for (int i = 0; i < bucketNode.size(); i++) {
+            order[next[bucketNode.get(i)]++] = i;
+        }
+        double[] entrySeconds = bucketSeconds;
+        double[] entryMeters = bucketMeters;
+
+        Arrays.fill(seconds, 0, sources.length * columns, Double.POSITIVE_INFINITY);
+        Arrays.fill(meters, 0, sources.length * columns, Double.NaN);
+        IntStream.range(0, sources.length).parallel().forEach(row -> {
+            if (sources[row] < 0) {
+                return;
+            }
+            ContractionHierarchySearch rowSearch = search();
+            int settled = rowSearch.searchUpward(sources[row], true);
+            for (int i = 0; i < settled; i++) {
+                int node = rowSearch.settledNode(i);
+                double nodeSeconds = rowSearch.settledSeconds(i);
+                double nodeMeters = rowSearch.settledMeters(i);
+                for (int k = bucketFirst[node]; k < bucketFirst[node + 1]; k++) {
+                    int entry = order[k];
+                    int cell = row * columns + bucketColumn.get(entry);
+                    double candidate = nodeSeconds + entrySeconds[entry];
+                    if (candidate < seconds[cell]) {
+                        seconds[cell] = candidate;
+                        meters[cell] = nodeMeters + entryMeters[entry];
+                    }
+                }
+            }
+        });
+        for (int cell = 0; cell < sources.length * columns; cell++) {
+            if (seconds[cell] == Double.POSITIVE_INFINITY) {
+                seconds[cell] = Double.NaN;
+            }
+        }
+    }
+
+    // Acceso de las búsquedas a las aristas aumentadas
+
+    int upFirst(int node) {
+        return upFirst[node];
+    }
+
+    int upEnd(int node) {
+        return upFirst[node + 1];
+    }
+
+    int upEdge(int index) {
+        return upEdges[index];
+    }
+
+    int downFirst(int node) {
+        return downFirst[node];
+    }
+
+    int downEnd(int node) {
+        return downFirst[node + 1];
+    }
+
+    int downEdge(int index) {
+        return downEdges[index];
+    }
+
+    int edgeFrom(int edge) {
+        return edgeFrom[edge];
+    }
+
+    int edgeTo(int edge) {
+        return edgeTo[edge];
+    }
+
+    float edgeSeconds(int edge) {
+        return edgeSeconds[edge];
+    }
+
+    float edgeMeters(int edge) {
+        return edgeMeters[edge];
+    }
+
+    int edgeChildA(int edge) {
+        return edgeChildA[edge];
+    }
+
+    int edgeChildB(int edge) {
+        return edgeChildB[edge];
+    }
+
+    /**
+     * Guarda la jerarquía (incluido el grafo original) en un archivo binario.
+     * Se escribe primero a un archivo temporal para no dejar una jerarquía a medias.
+     *
+     * @param path ruta del archivo
+     * @throws IOException si no se puede escribir
+     */
+    public void write(Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            graph.write(out);
+            for (int value : rank) {
+                out.writeInt(value);
+            }
+            out.writeInt(edgeFrom.length);
+            for (int e = 0; e < edgeFrom.length; e++) {
+                out.writeInt(edgeFrom[e]);
+                out.writeInt(edgeTo[e]);
+                out.writeFloat(edgeSeconds[e]);
+                out.writeFloat(edgeMeters[e]);
+                out.writeInt(edgeChildA[e]);
+                out.writeInt(edgeChildB[e]);
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Lee una jerarquía guardada con {@link #write}
+     *
+     * @param path ruta del archivo
+     * @return jerarquía
+     * @throws IOException si el archivo no existe o no es una jerarquía válida
+     */
+    public static ContractionHierarchy read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path), 64 * 1024))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Archivo de jerarquía no reconocido: " + path);
+            }
+            RoadGraph graph = RoadGraph.read(in);
+            int[] rank = new int[graph.getNodeCount()];
+            for (int n = 0; n < rank.length; n++) {
+                rank[n] = in.readInt();
+            }
+            int edges = in.readInt();
+            int[] edgeFrom = new int[edges];
+            int[] edgeTo = new int[edges];
+            float[] edgeSeconds = new float[edges];
+            float[] edgeMeters = new float[edges];
+            int[] edgeChildA = new int[edges];
+            int[] edgeChildB = new int[edges];
+            for (int e = 0; e < edges; e++) {
+                edgeFrom[e] = in.readInt();
+                edgeTo[e] = in.readInt();
+                edgeSeconds[e] = in.readFloat();
+                edgeMeters[e] = in.readFloat();
+                edgeChildA[e] = in.readInt();
+                edgeChildB[e] = in.readInt();
+            }
+            return new ContractionHierarchy(graph, rank, edgeFrom, edgeTo, edgeSeconds, edgeMeters,
+                edgeChildA, edgeChildB);
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Preprocesamiento de Contraction Hierarchies: contrae los nodos de menor a mayor importancia
+ * y, por cada par vecino (u, w) de un nodo v, agrega el atajo u → w cuando el camino
+ * u → v → w es el de menor tiempo (no existe un camino testigo igual o mejor sin v).
+ *
+ * La importancia de un nodo es el doble de su diferencia de aristas (atajos que crearía menos
+ * aristas que elimina) más la cantidad de vecinos ya contraídos y su nivel en la jerarquía
+ * (uno más que el vecino contraído más alto), con actualización perezosa al sacarlo de
+ * la cola y recálculo de sus vecinos al contraerlo. Las búsquedas testigo se limitan en
+ * nodos asentados: si se cortan antes de encontrar testigo se agrega el atajo, lo que solo
+ * cuesta memoria, nunca exactitud.
+ *
+ * Se usa fuera de línea con:
+ * <pre>
+ * java -cp ... co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.ContractionHierarchyBuilder \
+ *     extracto.osm.gz [extracto.osm.gz.ch]
+ * </pre>
+ */
+public final class ContractionHierarchyBuilder {
+
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private final int nodeCount;
+    private final boolean[] contracted;
+    private final int[] contractedNeighbors;
+    private final int[] level;
+    private final double[] priority;
+    private final IntList[] outEdges;
+    private final IntList[] inEdges;
+
+    // Aristas aumentadas (originales + atajos)
+    private int edgeCount;
+    private int[] edgeFrom;
+    private int[] edgeTo;
+    private float[] edgeSeconds;
+    private float[] edgeMeters;
+    private int[] edgeChildA;
+    private int[] edgeChildB;
+
+    // Búsqueda testigo
+    private final double[] witnessSeconds;
+    private final int[] witnessStamp;
+    private final int[] witnessSettled;
+    private final NodeHeap witnessHeap = new NodeHeap();
+    private int witnessGeneration;
+
+    // Vecinos de un nodo sin repetir (la arista más rápida por vecino)
+    private final int[] neighborStamp;
+    private final int[] neighborSlot;
+    private int neighborGeneration;
+    private final IntList inNodes = new IntList(16);
+    private final IntList inEdgeIds = new IntList(16);
+    private final IntList outNodes = new IntList(16);
+    private final IntList outEdgeIds = new IntList(16);
+
+    private ContractionHierarchyBuilder(RoadGraph graph) {
+        this.nodeCount = graph.getNodeCount();
+        this.contracted = new boolean[nodeCount];
+        this.contractedNeighbors = new int[nodeCount];
+        this.level = new int[nodeCount];
+        this.priority = new double[nodeCount];
+        this.outEdges = new IntList[nodeCount];
+        this.inEdges = new IntList[nodeCount];
+        for (int n = 0; n < nodeCount; n++) {
+            outEdges[n] = new IntList(4);
+            inEdges[n] = new IntList(4);
+        }
+        int capacity = Math.max(16, graph.getEdgeCount() * 2);
+        this.edgeFrom = new int[capacity];
+        this.edgeTo = new int[capacity];
+        this.edgeSeconds = new float[capacity];
+        this.edgeMeters = new float[capacity];
+        this.edgeChildA = new int[capacity];
+        this.edgeChildB = new int[capacity];
+        for (int n = 0; n < nodeCount; n++) {
+            for (int e = graph.firstEdge(n); e < graph.endEdge(n); e++) {
+                addEdge(n, graph.edgeTarget(e), graph.edgeSeconds(e), graph.edgeMeters(e), -1, -1);
+            }
+        }
+        this.witnessSeconds = new double[nodeCount];
+        this.witnessStamp = new int[nodeCount];
+        this.witnessSettled = new int[nodeCount];
+        this.neighborStamp = new int[nodeCount];
+        this.neighborSlot = new int[nodeCount];
+    }
+
+    /**
+     * Construye la jerarquía de un grafo vial
+     * @param graph grafo original
+     * @return jerarquía con rangos y atajos
+     */
+    public static ContractionHierarchy build(RoadGraph graph) {
+        long start = System.currentTimeMillis();
+        ContractionHierarchyBuilder builder = new ContractionHierarchyBuilder(graph);
+        int[] rank = builder.contractAll();
+        ContractionHierarchy hierarchy = new ContractionHierarchy(graph, rank,
+            Arrays.copyOf(builder.edgeFrom, builder.edgeCount), Arrays.copyOf(builder.edgeTo, builder.edgeCount),
+            Arrays.copyOf(builder.edgeSeconds, builder.edgeCount), Arrays.copyOf(builder.edgeMeters, builder.edgeCount),
+            Arrays.copyOf(builder.edgeChildA, builder.edgeCount), Arrays.copyOf(builder.edgeChildB, builder.edgeCount));
+        System.out.println("[CH] Jerarquía construida: " + graph.getNodeCount() + " nodos, "
+            + hierarchy.getShortcutCount() + " atajos en " + (System.currentTimeMillis() - start) + " ms");
+        return hierarchy;
+    }
+
+    private int[] contractAll() {
+        NodeHeap queue = new NodeHeap();
+        for (int n = 0; n < nodeCount; n++) {
+            priority[n] = importance(n);
+            queue.push(n, priority[n]);
+        }
+
+        int[] rank = new int[nodeCount];
+        int nextRank = 0;
+        while (!queue.isEmpty()) {
+            double key = queue.peekKey();
+            int node = queue.pop();
+            if (contracted[node] || key != priority[node]) {
+                continue; // Entrada vieja
+            }
+            // Actualización perezosa: si su importancia subió por encima del siguiente, se reencola
+            double current = importance(node);
+            if (current > queue.peekKey()) {
+                priority[node] = current;
+                queue.push(node, current);
+                continue;
+            }
+            contract(node, true);
+            contracted[node] = true;
+            rank[node] = nextRank++;
+
+            // importance() reutiliza las listas de vecinos: se copian antes de recorrerlas
+            collectNeighbors(node);
+            int[] neighbors = new int[inNodes.size() + outNodes.size()];
+            for (int i = 0; i < inNodes.size(); i++) {
+                neighbors[i] = inNodes.get(i);
+            }
+            for (int i = 0; i < outNodes.size(); i++) {
+                neighbors[inNodes.size() + i] = outNodes.get(i);
+            }
+            Arrays.sort(neighbors);
+            for (int i = 0; i < neighbors.length; i++) {
+                if (i > 0 && neighbors[i] == neighbors[i - 1]) {
+                    continue;
+                }
+                int neighbor = neighbors[i];
+                contractedNeighbors[neighbor]++;
+                level[neighbor] = Math.max(level[neighbor], level[node] + 1);
+                compact(neighbor);
+                priority[neighbor] = importance(neighbor);
+                queue.push(neighbor, priority[neighbor]);
+            }
+        }
+        return rank;
+    }
+
+    private double importance(int node) {
+        int shortcuts = contract(node, false);
+        collectNeighbors(node);
+        return 2 * (shortcuts - (inNodes.size() + outNodes.size())) + contractedNeighbors[node] + level[node];
+    }
+
+    /**
+     * Simula o aplica la contracción de un nodo
+     * @param apply true para agregar los atajos
+     * @return cantidad de atajos necesarios
+     */
+    private int contract(int node, boolean apply) {
+        collectNeighbors(node);
+        int[] sources = inNodes.toArray();
+        int[] sourceEdges = inEdgeIds.toArray();
+        int[] targets = outNodes.toArray();
+        int[] targetEdges = outEdgeIds.toArray();
+        if (sources.length == 0 || targets.length == 0) {
+            return 0;
+        }
+        double maxOut = 0;
+        for (int edge : targetEdges) {
+            maxOut = Math.max(maxOut, edgeSeconds[edge]);
+        }
+
+        int shortcuts = 0;
+        for (int i = 0; i < sources.length; i++) {
+            int source = sources[i];
+            double toNode = edgeSeconds[sourceEdges[i]];
+            witnessSearch(source, node, toNode + maxOut);
+            for (int j = 0; j < targets.length; j++) {
+                int target = targets[j];
+                if (target == source) {
+                    continue;
+                }
+                double viaNode = toNode + edgeSeconds[targetEdges[j]];
+                double witness = witnessStamp[target] == witnessGeneration ? witnessSeconds[target] : Double.POSITIVE_INFINITY;
+                if (witness > viaNode) {
+                    shortcuts++;
+                    if (apply) {
+                        addEdge(source, target, (float) viaNode,
+                            edgeMeters[sourceEdges[i]] + edgeMeters[targetEdges[j]], sourceEdges[i], targetEdges[j]);
+                    }
+                }
+            }
+        }
+        return shortcuts;
+    }
+
+    /**
+     * Dijkstra acotado desde un nodo por el grafo restante, sin pasar por el nodo ignorado
+     */
+    private void witnessSearch(int source, int ignored, double limit) {
+        witnessGeneration++;
+        witnessHeap.clear();
+        witnessStamp[source] = witnessGeneration;
+        witnessSeconds[source] = 0;
+        witnessHeap.push(source, 0);
+        int settled = 0;
+        while (!witnessHeap.isEmpty() && witnessHeap.peekKey() <= limit && settled < WITNESS_SETTLE_LIMIT) {
+            int node = witnessHeap.pop();
+            if (witnessSettled[node] == witnessGeneration) {
+                continue;
+            }
+            witnessSettled[node] = witnessGeneration;
+            settled++;
+            IntList edges = outEdges[node];
+            for (int i = 0; i < edges.size(); i++) {
+                int edge = edges.get(i);
+                int next = edgeTo[edge];
+                if (next == ignored || contracted[next]) {
+                    continue;
+                }
+                double time = witnessSeconds[node] + edgeSeconds[edge];
+                if (witnessStamp[next] != witnessGeneration || time < witnessSeconds[next]) {
+                    witnessStamp[next] = witnessGeneration;
+                    witnessSeconds[next] = time;
+                    witnessHeap.push(next, time);
+                }
+            }
+        }
+    }
+
+    /**
+     * Llena inNodes/outNodes con los vecinos no contraídos y la arista más rápida hacia cada uno
+     */
+    private void collectNeighbors(int node) {
+        collect(inEdges[node], node, true, inNodes, inEdgeIds);
+        collect(outEdges[node], node, false, outNodes, outEdgeIds);
+    }
+
+    private void collect(IntList edges, int node, boolean incoming, IntList nodes, IntList ids) {
+        neighborGeneration++;
+        nodes.clear();
+        ids.clear();
+        for (int i = 0; i < edges.size(); i++) {
+            int edge = edges.get(i);
+            int neighbor = incoming ? edgeFrom[edge] : edgeTo[edge];
+            if (neighbor == node || contracted[neighbor]) {
+                continue;
+            }
+            if (neighborStamp[neighbor] != neighborGeneration) {
+                neighborStamp[neighbor] = neighborGeneration;
+                neighborSlot[neighbor] = nodes.size();
+                nodes.add(neighbor);
+                ids.add(edge);
+            } else if (edgeSeconds[edge] < edgeSeconds[ids.get(neighborSlot[neighbor])]) {
+                ids.set(neighborSlot[neighbor], edge);
+            }
+        }
+    }
+
+    /**
+     * Quita de las listas de un nodo las aristas hacia nodos ya contraídos
+     */
+    private void compact(int node) {
+        for (int list = 0; list < 2; list++) {
+            IntList edges = list == 0 ? outEdges[node] : inEdges[node];
+            int kept = 0;
+            for (int i = 0; i < edges.size(); i++) {
+                int edge = edges.get(i);
+                int other = list == 0 ? edgeTo[edge] : edgeFrom[edge];
+                if (!contracted[other]) {
+                    edges.set(kept++, edge);
+                }
+            }
+            edges.truncate(kept);
+        }
+    }
+
+    private void addEdge(int from, int to, float seconds, float meters, int childA, int childB) {
+        if (edgeCount == edgeFrom.length) {
+            int capacity = edgeCount * 2;
+            edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+            edgeTo = Arrays.copyOf(edgeTo, capacity);
+            edgeSeconds = Arrays.copyOf(edgeSeconds, capacity);
+            edgeMeters = Arrays.copyOf(edgeMeters, capacity);
+            edgeChildA = Arrays.copyOf(edgeChildA, capacity);
+            edgeChildB = Arrays.copyOf(edgeChildB, capacity);
+        }
+        edgeFrom[edgeCount] = from;
+        edgeTo[edgeCount] = to;
+        edgeSeconds[edgeCount] = seconds;
+        edgeMeters[edgeCount] = meters;
+        edgeChildA[edgeCount] = childA;
+        edgeChildB[edgeCount] = childB;
+        outEdges[from].add(edgeCount);
+        inEdges[to].add(edgeCount);
+        edgeCount++;
+    }
+
+    /**
+     * Preprocesa un extracto OSM y guarda la jerarquía junto a él (o en la ruta indicada)
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Uso: ContractionHierarchyBuilder extracto.osm[.gz] [salida.ch]");
+            System.exit(1);
+        }
+        Path osm = Paths.get(args[0]);
+        Path output = args.length > 1 ? Paths.get(args[1]) : osm.resolveSibling(osm.getFileName() + ".ch");
+        ContractionHierarchy hierarchy = build(new OsmGraphLoader().load(osm));
+        hierarchy.write(output);
+        System.out.println("[CH] Jerarquía guardada en " + output);
+    }
+}
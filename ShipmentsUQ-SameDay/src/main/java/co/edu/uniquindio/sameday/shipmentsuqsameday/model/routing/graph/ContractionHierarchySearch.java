@@ -0,0 +1,233 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph;
+
+/**
+ * Consulta sobre una {@link ContractionHierarchy}: Dijkstra bidireccional que solo sube de
+ * rango, desde el origen por las aristas ascendentes y desde el destino por las descendentes
+ * invertidas. Como {@link RoadGraphSearch}, reutiliza arreglos primitivos validados por
+ * generación entre consultas. Una instancia no es segura entre hilos.
+ */
+public final class ContractionHierarchySearch {
+
+    private final ContractionHierarchy hierarchy;
+
+    private final double[] forwardSeconds;
+    private final double[] forwardMeters;
+    private final int[] forwardParentEdge;
+    private final int[] forwardStamp;
+    private final int[] forwardSettled;
+    private final double[] backwardSeconds;
+    private final double[] backwardMeters;
+    private final int[] backwardParentEdge;
+    private final int[] backwardStamp;
+    private final int[] backwardSettled;
+    private final NodeHeap forwardHeap = new NodeHeap();
+    private final NodeHeap backwardHeap = new NodeHeap();
+    private int generation;
+
+    // Resultado de la última consulta punto a punto
+    private double bestSeconds;
+    private double bestMeters;
+    private int meetingNode;
+    private int lastSource;
+
+    // Nodos asentados por la última búsqueda ascendente completa
+    private final IntList settledNodes = new IntList();
+    private boolean settledForward;
+
+    ContractionHierarchySearch(ContractionHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+        int nodes = hierarchy.getGraph().getNodeCount();
+        this.forwardSeconds = new double[nodes];
+        this.forwardMeters = new double[nodes];
+        this.forwardParentEdge = new int[nodes];
+        this.forwardStamp = new int[nodes];
+        this.forwardSettled = new int[nodes];
+        this.backwardSeconds = new double[nodes];
+        this.backwardMeters = new double[nodes];
+        this.backwardParentEdge = new int[nodes];
+        this.backwardStamp = new int[nodes];
+        this.backwardSettled = new int[nodes];
+    }
+
+    /**
+     * Calcula el camino de menor tiempo entre dos nodos
+     * @param source nodo de origen
+     * @param target nodo de destino
+     * @return true si existe camino
+     */
+    public boolean route(int source, int target) {
+        generation++;
+        forwardHeap.clear();
+        backwardHeap.clear();
+        reach(true, source, 0, 0, -1);
+        reach(false, target, 0, 0, -1);
+        lastSource = source;
+        bestSeconds = Double.POSITIVE_INFINITY;
+        bestMeters = Double.NaN;
+        meetingNode = -1;
+
+        while (!forwardHeap.isEmpty() || !backwardHeap.isEmpty()) {
+            // Ningún frente puede mejorar el mejor encuentro
+            if (Math.min(forwardHeap.peekKey(), backwardHeap.peekKey()) >= bestSeconds) {
+                break;
+            }
+            boolean forward = forwardHeap.peekKey() <= backwardHeap.peekKey();
+            int node = (forward ? forwardHeap : backwardHeap).pop();
+            if (!settle(forward, node)) {
+                continue;
+            }
+            int[] otherStamp = forward ? backwardStamp : forwardStamp;
+            if (otherStamp[node] == generation) {
+                double candidate = forwardSeconds[node] + backwardSeconds[node];
+                if (candidate < bestSeconds) {
+                    bestSeconds = candidate;
+                    bestMeters = forwardMeters[node] + backwardMeters[node];
+                    meetingNode = node;
+                }
+            }
+            relax(forward, node);
+        }
+        return meetingNode >= 0;
+    }
+
+    /**
+     * @return segundos del último camino, o NaN si no hubo camino
+     */
+    public double getSeconds() {
+        return meetingNode >= 0 ? bestSeconds : Double.NaN;
+    }
+
+    /**
+     * @return metros del último camino, o NaN si no hubo camino
+     */
+    public double getMeters() {
+        return meetingNode >= 0 ? bestMeters : Double.NaN;
+    }
+
+    /**
+     * Reconstruye el último camino en nodos del grafo original, expandiendo los atajos
+     * @return nodos del camino en orden, o null si no hubo camino
+     */
+    public int[] path() {
+        if (meetingNode < 0) {
+            return null;
+        }
+        // Aristas de la mitad hacia adelante, del encuentro al origen
+        IntList upward = new IntList(32);
+        for (int node = meetingNode; forwardParentEdge[node] >= 0; node = hierarchy.edgeFrom(forwardParentEdge[node])) {
+            upward.add(forwardParentEdge[node]);
+        }
+        IntList nodes = new IntList(64);
+        nodes.add(lastSource);
+        IntList stack = new IntList(32);
+        for (int i = upward.size() - 1; i >= 0; i--) {
+            unpack(upward.get(i), nodes, stack);
+        }
+        // Mitad hacia atrás, del encuentro al destino
+        for (int node = meetingNode; backwardParentEdge[node] >= 0; node = hierarchy.edgeTo(backwardParentEdge[node])) {
+            unpack(backwardParentEdge[node], nodes, stack);
+        }
+        return nodes.toArray();
+    }
+
+    /**
+     * Explora todo el espacio ascendente de un nodo sin destino; los nodos alcanzados quedan
+     * disponibles con {@link #settledNode}, {@link #settledSeconds} y {@link #settledMeters}
+     * @param node nodo inicial
+     * @param forward true para subir por aristas salientes (origen), false por entrantes (destino)
+     * @return cantidad de nodos asentados
+     */
+    int searchUpward(int node, boolean forward) {
+        generation++;
+        NodeHeap heap = forward ? forwardHeap : backwardHeap;
+        heap.clear();
+        settledNodes.clear();
+        settledForward = forward;
+        reach(forward, node, 0, 0, -1);
+        while (!heap.isEmpty()) {
+            int current = heap.pop();
+            if (settle(forward, current)) {
+                settledNodes.add(current);
+                relax(forward, current);
+            }
+        }
+        return settledNodes.size();
+    }
+
+    int settledNode(int index) {
+        return settledNodes.get(index);
+    }
+
+    double settledSeconds(int index) {
+        int node = settledNodes.get(index);
+        return settledForward ? forwardSeconds[node] : backwardSeconds[node];
+    }
+
+    double settledMeters(int index) {
+        int node = settledNodes.get(index);
+        return settledForward ? forwardMeters[node] : backwardMeters[node];
+    }
+
+    private boolean settle(boolean forward, int node) {
+        int[] settled = forward ? forwardSettled : backwardSettled;
+        if (settled[node] == generation) {
+            return false;
+        }
+        settled[node] = generation;
+        return true;
+    }
+
+    private void relax(boolean forward, int node) {
+        double[] seconds = forward ? forwardSeconds : backwardSeconds;
+        double[] meters = forward ? forwardMeters : backwardMeters;
+        int[] stamp = forward ? forwardStamp : backwardStamp;
+        int[] settled = forward ? forwardSettled : backwardSettled;
+        int first = forward ? hierarchy.upFirst(node) : hierarchy.downFirst(node);
+        int end = forward ? hierarchy.upEnd(node) : hierarchy.downEnd(node);
+        for (int i = first; i < end; i++) {
+            int edge = forward ? hierarchy.upEdge(i) : hierarchy.downEdge(i);
+            int next = forward ? hierarchy.edgeTo(edge) : hierarchy.edgeFrom(edge);
+            if (settled[next] == generation) {
+                continue;
+            }
+            double time = seconds[node] + hierarchy.edgeSeconds(edge);
+            if (stamp[next] != generation || time < seconds[next]) {
+                reach(forward, next, time, meters[node] + hierarchy.edgeMeters(edge), edge);
+            }
+        }
+    }
+
+    private void reach(boolean forward, int node, double seconds, double meters, int parentEdge) {
+        if (forward) {
+            forwardStamp[node] = generation;
+            forwardSeconds[node] = seconds;
+            forwardMeters[node] = meters;
+            forwardParentEdge[node] = parentEdge;
+            forwardHeap.push(node, seconds);
+        } else {
+            backwardStamp[node] = generation;
+            backwardSeconds[node] = seconds;
+            backwardMeters[node] = meters;
+            backwardParentEdge[node] = parentEdge;
+            backwardHeap.push(node, seconds);
+        }
+    }
+
+    /**
+     * Agrega los nodos de una arista aumentada (sin su origen), expandiendo atajos en orden
+     */
+    private void unpack(int edge, IntList nodes, IntList stack) {
+        stack.clear();
+        stack.add(edge);
+        while (stack.size() > 0) {
+            int current = stack.get(stack.size() - 1);
+            stack.truncate(stack.size() - 1);
+            if (hierarchy.edgeChildA(current) < 0) {
+                nodes.add(hierarchy.edgeTo(current));
+            } else {
+                stack.add(hierarchy.edgeChildB(current));
+                stack.add(hierarchy.edgeChildA(current));
+            }
+        }
+    }
+}
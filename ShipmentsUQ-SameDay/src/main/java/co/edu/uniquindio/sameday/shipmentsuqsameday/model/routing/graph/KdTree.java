@@ -0,0 +1,153 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph;
+
+/**
+ * Árbol k-d de dos dimensiones para buscar el punto más cercano en tiempo logarítmico.
+ * El árbol es implícito: los puntos se reordenan una sola vez de modo que la mediana de cada
+ * rango [lo, hi) queda en su posición central y separa los dos subárboles, alternando el eje
+ * x y el eje y por nivel. No hay objetos por nodo y las búsquedas no reservan memoria, así
+ * que el árbol puede compartirse entre hilos.
+ *
+ * La búsqueda admite una escala para el eje x, con la que la distancia es
+ * (escala · Δx)² + Δy²; con coordenadas geográficas la escala es el coseno de la latitud.
+ */
+public final class KdTree {
+
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] ids;
+
+    /**
+     * Construye el árbol; los arreglos no se modifican
+     * @param x coordenada x de cada punto
+     * @param y coordenada y de cada punto
+     */
+    public KdTree(double[] x, double[] y) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("Los arreglos de coordenadas no coinciden");
+        }
+        this.xs = x.clone();
+        this.ys = y.clone();
+        this.ids = new int[x.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i;
+        }
+        build(0, ids.length, true);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Busca el punto más cercano en distancia euclidiana
+     * @return índice del punto o -1 si el árbol está vacío
+     */
+    public int nearest(double x, double y) {
+        return nearest(x, y, 1.0);
+    }
+
+    /**
+     * Busca el punto más cercano con el eje x escalado
+     * Ante empates devuelve el de menor índice.
+     * @param xScale factor por el que se multiplican las diferencias en x
+     * @return índice del punto o -1 si el árbol está vacío
+     */
+    public int nearest(double x, double y, double xScale) {
+        if (ids.length == 0) {
+            return -1;
+        }
+        return ids[search(0, ids.length, true, x, y, xScale, -1)];
+    }
+
+    private void build(int lo, int hi, boolean splitX) {
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            select(lo, hi, mid, splitX);
+            build(lo, mid, !splitX);
+            // El subárbol derecho se procesa en el mismo ciclo para limitar la recursión
+            lo = mid + 1;
+            splitX = !splitX;
+        }
+    }
+
+    /**
+     * Quickselect: deja en k el elemento que iría ahí si [lo, hi) estuviera ordenado por el eje,
+     * con los menores o iguales a la izquierda y los mayores o iguales a la derecha
+     */
+    private void select(int lo, int hi, int k, boolean splitX) {
+        double[] axis = splitX ? xs : ys;
+        int left = lo;
+        int right = hi - 1;
+        while (left < right) {
+            double pivot = axis[(left + right) >>> 1];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (axis[i] < pivot) {
+                    i++;
+                }
+                while (axis[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        double x = xs[a];
+        xs[a] = xs[b];
+        xs[b] = x;
+        double y = ys[a];
+        ys[a] = ys[b];
+        ys[b] = y;
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+    }
+
+    /**
+     * @param best posición del mejor punto hasta ahora, o -1
+     * @return posición del mejor punto tras revisar el rango
+     */
+    private int search(int lo, int hi, boolean splitX, double x, double y, double xScale, int best) {
+        if (lo >= hi) {
+            return best;
+        }
+        int mid = (lo + hi) >>> 1;
+        double distance = distance(mid, x, y, xScale);
+        double bestDistance = best < 0 ? Double.POSITIVE_INFINITY : distance(best, x, y, xScale);
+        if (distance < bestDistance || (distance == bestDistance && ids[mid] < ids[best])) {
+            best = mid;
+        }
+
+        double delta = splitX ? (x - xs[mid]) * xScale : y - ys[mid];
+        if (delta < 0) {
+            best = search(lo, mid, !splitX, x, y, xScale, best);
+            if (delta * delta <= distance(best, x, y, xScale)) {
+                best = search(mid + 1, hi, !splitX, x, y, xScale, best);
+            }
+        } else {
+            best = search(mid + 1, hi, !splitX, x, y, xScale, best);
+            if (delta * delta <= distance(best, x, y, xScale)) {
+                best = search(lo, mid, !splitX, x, y, xScale, best);
+            }
+        }
+        return best;
+    }
+
+    private double distance(int position, double x, double y, double xScale) {
+        double dx = (xs[position] - x) * xScale;
+        double dy = ys[position] - y;
+        return dx * dx + dy * dy;
+    }
+}
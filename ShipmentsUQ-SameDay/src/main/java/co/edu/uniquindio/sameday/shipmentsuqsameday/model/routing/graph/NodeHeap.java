@@ -0,0 +1,82 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph;
+
+import java.util.Arrays;
+
+/**
+ * Montículo binario mínimo de índices de nodo con prioridad double, sin objetos por entrada.
+ * No soporta disminuir la prioridad: las búsquedas vuelven a insertar el nodo y descartan
+ * las entradas viejas al sacarlas (eliminación perezosa).
+ */
+public final class NodeHeap {
+
+    private int[] nodes = new int[64];
+    private double[] keys = new double[64];
+    private int size;
+
+    public void clear() {
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return prioridad mínima, o infinito si está vacío
+     */
+    public double peekKey() {
+        return size == 0 ? Double.POSITIVE_INFINITY : keys[0];
+    }
+
+    public void push(int node, double key) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (keys[up] <= key) {
+                break;
+            }
+            nodes[i] = nodes[up];
+            keys[i] = keys[up];
+            i = up;
+        }
+        nodes[i] = node;
+        keys[i] = key;
+    }
+
+    /**
+     * Saca el nodo de menor prioridad
+     * @return índice del nodo
+     */
+    public int pop() {
+        int top = nodes[0];
+        int lastNode = nodes[--size];
+        double lastKey = keys[size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (keys[child] >= lastKey) {
+                break;
+            }
+            nodes[i] = nodes[child];
+            keys[i] = keys[child];
+            i = child;
+        }
+        nodes[i] = lastNode;
+        keys[i] = lastKey;
+        return top;
+    }
+}
@@ -0,0 +1,310 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Carga un extracto de OpenStreetMap en formato XML (.osm o .osm.gz) como {@link RoadGraph}.
+ * Solo conserva las vías con etiqueta highway aptas para vehículos y los nodos que usan;
+ * cada par de nodos consecutivos de una vía se convierte en una arista (dos si la vía es de
+ * doble sentido) con su longitud Haversine y el tiempo a la velocidad de la vía.
+ *
+ * El formato PBF no está soportado: puede convertirse con {@code osmium cat extracto.osm.pbf -o extracto.osm.gz}.
+ */
+public class OsmGraphLoader {
+
+    /** Velocidad por defecto para tipos de vía sin velocidad propia (km/h) */
+    private static final double DEFAULT_SPEED_KMH = 30.0;
+
+    private static final Map<String, Double> SPEED_BY_HIGHWAY = new HashMap<>();
+
+    static {
+        SPEED_BY_HIGHWAY.put("motorway", 80.0);
+        SPEED_BY_HIGHWAY.put("trunk", 70.0);
+        SPEED_BY_HIGHWAY.put("primary", 50.0);
+        SPEED_BY_HIGHWAY.put("secondary", 45.0);
+        SPEED_BY_HIGHWAY.put("tertiary", 40.0);
+        SPEED_BY_HIGHWAY.put("motorway_link", 40.0);
+        SPEED_BY_HIGHWAY.put("trunk_link", 40.0);
+        SPEED_BY_HIGHWAY.put("primary_link", 40.0);
+        SPEED_BY_HIGHWAY.put("secondary_link", 40.0);
+        SPEED_BY_HIGHWAY.put("tertiary_link", 40.0);
+        SPEED_BY_HIGHWAY.put("unclassified", 30.0);
+        SPEED_BY_HIGHWAY.put("residential", 25.0);
+        SPEED_BY_HIGHWAY.put("service", 15.0);
+        SPEED_BY_HIGHWAY.put("living_street", 10.0);
+    }
+
+    /**
+     * Carga el grafo desde un archivo .osm o .osm.gz
+     * @param path ruta del extracto
+     * @return grafo vial
+     * @throws IOException si el archivo no puede leerse o no es XML de OSM válido
+     */
+    public RoadGraph load(Path path) throws IOException {
+        String name = path.getFileName().toString().toLowerCase();
+        if (name.endsWith(".pbf")) {
+            throw new IOException("Formato PBF no soportado, convierta el extracto a .osm o .osm.gz");
+        }
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(path));
+             InputStream in = name.endsWith(".gz") ? new GZIPInputStream(raw) : raw) {
+            return load(in);
+        }
+    }
+
+    /**
+     * Carga el grafo desde un flujo XML de OSM
+     * @param in flujo con el documento
+     * @return grafo vial
+     * @throws IOException si el documento no es XML válido
+     */
+    public RoadGraph load(InputStream in) throws IOException {
+        try {
+            return parse(in);
+        } catch (XMLStreamException e) {
+            throw new IOException("Extracto OSM inválido: " + e.getMessage(), e);
+        }
+    }
+
+    private RoadGraph parse(InputStream in) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XMLStreamReader reader = factory.createXMLStreamReader(in);
+
+        // Todos los nodos del extracto, por id de OSM; luego se filtran a los usados por vías
+        Map<Long, Integer> osmIndex = new HashMap<>();
+        IntList allLat = new IntList();
+        IntList allLng = new IntList();
+
+        // Segmentos de las vías aptas como pares de índices en allLat/allLng
+        IntList segmentFrom = new IntList();
+        IntList segmentTo = new IntList();
+        FloatList segmentSpeed = new FloatList();
+        IntList segmentDirection = new IntList();
+
+        LongList wayNodes = new LongList();
+        String highway = null;
+        String oneway = null;
+        String junction = null;
+        String maxspeed = null;
+        boolean inWay = false;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String element = reader.getLocalName();
+                if ("node".equals(element)) {
+                    long id = Long.parseLong(reader.getAttributeValue(null, "id"));
+                    osmIndex.put(id, allLat.size());
+                    allLat.add((int) Math.round(Double.parseDouble(reader.getAttributeValue(null, "lat")) * RoadGraph.COORDINATE_SCALE));
+                    allLng.add((int) Math.round(Double.parseDouble(reader.getAttributeValue(null, "lon")) * RoadGraph.COORDINATE_SCALE));
+                } else if ("way".equals(element)) {
+                    inWay = true;
+                    wayNodes.clear();
+                    highway = oneway = junction = maxspeed = null;
+                } else if (inWay && "nd".equals(element)) {
+                    wayNodes.add(Long.parseLong(reader.getAttributeValue(null, "ref")));
+                } else if (inWay && "tag".equals(element)) {
+                    String key = reader.getAttributeValue(null, "k");
+                    String value = reader.getAttributeValue(null, "v");
+                    if ("highway".equals(key)) {
+                        highway = value;
+                    } else if ("oneway".equals(key)) {
+                        oneway = value;
+                    } else if ("junction".equals(key)) {
+                        junction = value;
+                    } else if ("maxspeed".equals(key)) {
+                        maxspeed = value;
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "way".equals(reader.getLocalName())) {
+                inWay = false;
+                Double speed = speedFor(highway, maxspeed);
+                if (speed == null) {
+                    continue;
+                }
+                int direction = direction(highway, oneway, junction);
+                for (int i = 1; i < wayNodes.size(); i++) {
+                    Integer from = osmIndex.get(wayNodes.get(i - 1));
+                    Integer to = osmIndex.get(wayNodes.get(i));
+                    // Los extractos recortados pueden referenciar nodos fuera del área
+                    if (from == null || to == null || from.equals(to)) {
+                        continue;
+                    }
+                    segmentFrom.add(from);
+                    segmentTo.add(to);
+                    segmentSpeed.add(speed.floatValue());
+                    segmentDirection.add(direction);
+                }
+            }
+        }
+        reader.close();
+
+        return build(allLat, allLng, segmentFrom, segmentTo, segmentSpeed, segmentDirection);
+    }
+
+    private RoadGraph build(IntList allLat, IntList allLng, IntList segmentFrom, IntList segmentTo,
+                            FloatList segmentSpeed, IntList segmentDirection) {
+        // Renumera solo los nodos que aparecen en algún segmento
+        int[] compact = new int[allLat.size()];
+        Arrays.fill(compact, -1);
+        IntList latitudes = new IntList();
+        IntList longitudes = new IntList();
+        int segments = segmentFrom.size();
+        for (int s = 0; s < segments; s++) {
+            for (int node : new int[]{segmentFrom.get(s), segmentTo.get(s)}) {
+                if (compact[node] == -1) {
+                    compact[node] = latitudes.size();
+                    latitudes.add(allLat.get(node));
+                    longitudes.add(allLng.get(node));
+                }
+            }
+        }
+
+        int capacity = segments * 2;
+        int[] source = new int[capacity];
+        int[] target = new int[capacity];
+        float[] meters = new float[capacity];
+        float[] seconds = new float[capacity];
+        int edges = 0;
+        for (int s = 0; s < segments; s++) {
+            int from = compact[segmentFrom.get(s)];
+            int to = compact[segmentTo.get(s)];
+            double length = RoadGraph.haversineMeters(
+                latitudes.get(from) / RoadGraph.COORDINATE_SCALE, longitudes.get(from) / RoadGraph.COORDINATE_SCALE,
+                latitudes.get(to) / RoadGraph.COORDINATE_SCALE, longitudes.get(to) / RoadGraph.COORDINATE_SCALE);
+            float time = (float) (length / (segmentSpeed.get(s) / 3.6));
+            int direction = segmentDirection.get(s);
+            if (direction >= 0) {
+                source[edges] = from;
+                target[edges] = to;
+                meters[edges] = (float) length;
+                seconds[edges] = time;
+                edges++;
+            }
+            if (direction <= 0) {
+                source[edges] = to;
+                target[edges] = from;
+                meters[edges] = (float) length;
+                seconds[edges] = time;
+                edges++;
+            }
+        }
+
+        RoadGraph graph = RoadGraph.fromEdges(latitudes.toArray(), longitudes.toArray(), edges,
+            source, target, meters, seconds);
+        System.out.println("[OsmGraphLoader] Grafo cargado: " + graph.getNodeCount() + " nodos, "
+            + graph.getEdgeCount() + " aristas");
+        return graph;
+    }
+
+    /**
+     * Velocidad de circulación de una vía, o null si la vía no es apta para vehículos
+     */
+    static Double speedFor(String highway, String maxspeed) {
+        if (highway == null) {
+            return null;
+        }
+        Double speed = SPEED_BY_HIGHWAY.get(highway);
+        if (speed == null) {
+            if (!"road".equals(highway)) {
+                // footway, cycleway, path, steps, construction, etc.
+                return null;
+            }
+            speed = DEFAULT_SPEED_KMH;
+        }
+        if (maxspeed != null) {
+            String digits = maxspeed.trim().split("\\s+")[0];
+            try {
+                double parsed = Double.parseDouble(digits);
+                if (parsed > 0) {
+                    speed = maxspeed.contains("mph") ? parsed * 1.609344 : parsed;
+                }
+            } catch (NumberFormatException e) {
+                // Valores como "CO:urban" o "walk": se conserva la velocidad por tipo de vía
+            }
+        }
+        return speed;
+    }
+
+    /**
+     * Sentido de circulación: 1 solo hacia adelante, -1 solo en reversa, 0 ambos
+     */
+    static int direction(String highway, String oneway, String junction) {
+        if (oneway != null) {
+            switch (oneway) {
+                case "yes":
+                case "true":
+                case "1":
+                    return 1;
+                case "-1":
+                case "reverse":
+                    return -1;
+                case "no":
+                case "false":
+                case "0":
+                    return 0;
+                default:
+                    break;
+            }
+        }
+        if ("roundabout".equals(junction) || "circular".equals(junction) || "motorway".equals(highway)) {
+            return 1;
+        }
+        return 0;
+    }
+
+    /** Lista creciente de flotantes primitivos */
+    private static final class FloatList {
+        private float[] values = new float[256];
+        private int size;
+
+        void add(float value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        float get(int index) {
+            return values[index];
+        }
+    }
+
+    /** Lista creciente de longs primitivos */
+    private static final class LongList {
+        private long[] values = new long[64];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
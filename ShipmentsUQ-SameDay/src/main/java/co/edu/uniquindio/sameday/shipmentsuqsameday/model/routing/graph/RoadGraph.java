@@ -0,0 +1,211 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Grafo vial compacto en formato CSR (compressed sparse row).
+ * Los nodos son intersecciones y puntos de forma de las vías; sus coordenadas se guardan
+ * en grados × 10⁷ como enteros. Las aristas salientes del nodo n ocupan las posiciones
+ * [firstEdge[n], firstEdge[n + 1]) de los arreglos de aristas, con su nodo destino,
+ * longitud en metros y tiempo de viaje en segundos. Las vías de doble sentido aportan una
+ * arista en cada dirección.
+ *
+ * El grafo es inmutable: puede compartirse entre hilos y las búsquedas llevan su propio estado.
+ */
+public final class RoadGraph {
+
+    static final double COORDINATE_SCALE = 1e7;
+    private static final double EARTH_RADIUS_METERS = 6_371_000.0;
+
+    private final int[] latitudeE7;
+    private final int[] longitudeE7;
+    private final int[] firstEdge;
+    private final int[] edgeTarget;
+    private final float[] edgeMeters;
+    private final float[] edgeSeconds;
+    private final KdTree nodeIndex;
+
+    /**
+     * @param latitudeE7 latitud de cada nodo en grados × 10⁷
+     * @param longitudeE7 longitud de cada nodo en grados × 10⁷
+     * @param firstEdge primera arista de cada nodo (nodeCount + 1 posiciones)
+     * @param edgeTarget nodo destino de cada arista
+     * @param edgeMeters longitud de cada arista en metros
+     * @param edgeSeconds tiempo de viaje de cada arista en segundos
+     */
+    public RoadGraph(int[] latitudeE7, int[] longitudeE7, int[] firstEdge,
+                     int[] edgeTarget, float[] edgeMeters, float[] edgeSeconds) {
+        if (latitudeE7.length != longitudeE7.length || firstEdge.length != latitudeE7.length + 1) {
+            throw new IllegalArgumentException("Los arreglos de nodos no coinciden");
+        }
+        int edges = firstEdge[latitudeE7.length];
+        if (edgeTarget.length != edges || edgeMeters.length != edges || edgeSeconds.length != edges) {
+            throw new IllegalArgumentException("Los arreglos de aristas no coinciden");
+        }
+        this.latitudeE7 = latitudeE7;
+        this.longitudeE7 = longitudeE7;
+        this.firstEdge = firstEdge;
+        this.edgeTarget = edgeTarget;
+        this.edgeMeters = edgeMeters;
+        this.edgeSeconds = edgeSeconds;
+        this.nodeIndex = buildNodeIndex(latitudeE7, longitudeE7);
+    }
+
+    private static KdTree buildNodeIndex(int[] latitudeE7, int[] longitudeE7) {
+        double[] x = new double[longitudeE7.length];
+        double[] y = new double[latitudeE7.length];
+        for (int n = 0; n < x.length; n++) {
+            x[n] = longitudeE7[n];
+            y[n] = latitudeE7[n];
+        }
+        return new KdTree(x, y);
+    }
+
+    /**
+     * Construye el grafo a partir de una lista de aristas en cualquier orden
+     * @param latitudeE7 latitud de cada nodo en grados × 10⁷
+     * @param longitudeE7 longitud de cada nodo en grados × 10⁷
+     * @param edgeCount cantidad de aristas usadas de los arreglos siguientes
+     * @param source nodo origen de cada arista
+     * @param target nodo destino de cada arista
+     * @param meters longitud de cada arista en metros
+     * @param seconds tiempo de viaje de cada arista en segundos
+     * @return grafo en formato CSR
+     */
+    public static RoadGraph fromEdges(int[] latitudeE7, int[] longitudeE7, int edgeCount,
+                                      int[] source, int[] target, float[] meters, float[] seconds) {
+        int nodeCount = latitudeE7.length;
+        int[] firstEdge = new int[nodeCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            firstEdge[source[e] + 1]++;
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            firstEdge[n + 1] += firstEdge[n];
+        }
+        // Ordenamiento por conteo: cada arista va a la siguiente posición libre de su origen
+        int[] next = new int[nodeCount];
+        System.arraycopy(firstEdge, 0, next, 0, nodeCount);
+        int[] edgeTarget = new int[edgeCount];
+        float[] edgeMeters = new float[edgeCount];
+        float[] edgeSeconds = new float[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            int position = next[source[e]]++;
+            edgeTarget[position] = target[e];
+            edgeMeters[position] = meters[e];
+            edgeSeconds[position] = seconds[e];
+        }
+        return new RoadGraph(latitudeE7, longitudeE7, firstEdge, edgeTarget, edgeMeters, edgeSeconds);
+    }
+
+    public int getNodeCount() {
+        return latitudeE7.length;
+    }
+
+    public int getEdgeCount() {
+        return edgeTarget.length;
+    }
+
+    public double getLatitude(int node) {
+        return latitudeE7[node] / COORDINATE_SCALE;
+    }
+
+    public double getLongitude(int node) {
+        return longitudeE7[node] / COORDINATE_SCALE;
+    }
+
+    /**
+     * @return primera arista saliente del nodo
+     */
+    public int firstEdge(int node) {
+        return firstEdge[node];
+    }
+
+    /**
+     * @return posición siguiente a la última arista saliente del nodo
+     */
+    public int endEdge(int node) {
+        return firstEdge[node + 1];
+    }
+
+    public int edgeTarget(int edge) {
+        return edgeTarget[edge];
+    }
+
+    public float edgeMeters(int edge) {
+        return edgeMeters[edge];
+    }
+
+    public float edgeSeconds(int edge) {
+        return edgeSeconds[edge];
+    }
+
+    /**
+     * Busca el nodo más cercano a unas coordenadas
+     * @param latitude latitud
+     * @param longitude longitud
+     * @return índice del nodo o -1 si el grafo está vacío
+     */
+    public int nearestNode(double latitude, double longitude) {
+        // Distancia equirectangular al cuadrado: mismo orden que Haversine a escala de ciudad
+        double cosLatitude = Math.cos(Math.toRadians(latitude));
+        return nodeIndex.nearest(longitude * COORDINATE_SCALE, latitude * COORDINATE_SCALE, cosLatitude);
+    }
+
+    /**
+     * Distancia Haversine en metros entre un nodo y unas coordenadas
+     */
+    public double distanceMeters(int node, double latitude, double longitude) {
+        return haversineMeters(getLatitude(node), getLongitude(node), latitude, longitude);
+    }
+
+    /**
+     * Escribe los arreglos del grafo en binario (los lee {@link #read})
+     */
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(latitudeE7.length);
+        out.writeInt(edgeTarget.length);
+        for (int n = 0; n < latitudeE7.length; n++) {
+            out.writeInt(latitudeE7[n]);
+            out.writeInt(longitudeE7[n]);
+            out.writeInt(firstEdge[n + 1]);
+        }
+        for (int e = 0; e < edgeTarget.length; e++) {
+            out.writeInt(edgeTarget[e]);
+            out.writeFloat(edgeMeters[e]);
+            out.writeFloat(edgeSeconds[e]);
+        }
+    }
+
+    static RoadGraph read(DataInputStream in) throws IOException {
+        int nodes = in.readInt();
+        int edges = in.readInt();
+        int[] latitudeE7 = new int[nodes];
+        int[] longitudeE7 = new int[nodes];
+        int[] firstEdge = new int[nodes + 1];
+        for (int n = 0; n < nodes; n++) {
+            latitudeE7[n] = in.readInt();
+            longitudeE7[n] = in.readInt();
+            firstEdge[n + 1] = in.readInt();
+        }
+        int[] edgeTarget = new int[edges];
+        float[] edgeMeters = new float[edges];
+        float[] edgeSeconds = new float[edges];
+        for (int e = 0; e < edges; e++) {
+            edgeTarget[e] = in.readInt();
+            edgeMeters[e] = in.readFloat();
+            edgeSeconds[e] = in.readFloat();
+        }
+        return new RoadGraph(latitudeE7, longitudeE7, firstEdge, edgeTarget, edgeMeters, edgeSeconds);
+    }
+
+    static double haversineMeters(double lat1, double lng1, double lat2, double lng2) {
+        double deltaLat = Math.toRadians(lat2 - lat1);
+        double deltaLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(deltaLng / 2) * Math.sin(deltaLng / 2);
+        return EARTH_RADIUS_METERS * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
@@ -0,0 +1,130 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph;
+
+/**
+ * Búsqueda de caminos de menor tiempo (Dijkstra) sobre un {@link RoadGraph}.
+ * Guarda su estado en arreglos primitivos del tamaño del grafo que se reutilizan entre
+ * búsquedas: cada búsqueda incrementa una generación y un nodo solo cuenta como visto si
+ * su sello coincide con la generación actual, así no hay que limpiar los arreglos.
+ * Una instancia no es segura entre hilos; se usa una por hilo.
+ */
+public final class RoadGraphSearch {
+
+    private final RoadGraph graph;
+    private final double[] seconds;
+    private final double[] meters;
+    private final int[] parent;
+    private final int[] stamp;
+    private final int[] targetStamp;
+    private final boolean[] settled;
+    private int generation;
+
+    private final NodeHeap heap = new NodeHeap();
+
+    public RoadGraphSearch(RoadGraph graph) {
+        this.graph = graph;
+        int nodes = graph.getNodeCount();
+        this.seconds = new double[nodes];
+        this.meters = new double[nodes];
+        this.parent = new int[nodes];
+        this.stamp = new int[nodes];
+        this.targetStamp = new int[nodes];
+        this.settled = new boolean[nodes];
+    }
+
+    /**
+     * Calcula el camino de menor tiempo entre dos nodos
+     * @param source nodo de origen
+     * @param target nodo de destino
+     * @return nodos del camino en orden, o null si el destino no es alcanzable
+     */
+    public int[] shortestPath(int source, int target) {
+        run(source, new int[]{target});
+        return isReached(target) ? path(target) : null;
+    }
+
+    /**
+     * Calcula los caminos de menor tiempo desde un origen hasta varios destinos,
+     * deteniéndose cuando todos están resueltos
+     * @param source nodo de origen
+     * @param targets nodos de destino
+     */
+    public void run(int source, int[] targets) {
+        generation++;
+        heap.clear();
+        int pending = 0;
+        for (int target : targets) {
+            if (targetStamp[target] != generation) {
+                targetStamp[target] = generation;
+                pending++;
+            }
+        }
+        visit(source, 0, 0, -1);
+        while (!heap.isEmpty()) {
+            int node = heap.pop();
+            if (settled[node]) {
+                continue;
+            }
+            settled[node] = true;
+            if (targetStamp[node] == generation) {
+                pending--;
+                if (pending == 0) {
+                    break;
+                }
+            }
+            for (int e = graph.firstEdge(node), end = graph.endEdge(node); e < end; e++) {
+                int next = graph.edgeTarget(e);
+                double time = seconds[node] + graph.edgeSeconds(e);
+                if (stamp[next] != generation || (!settled[next] && time < seconds[next])) {
+                    visit(next, time, meters[node] + graph.edgeMeters(e), node);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true si la última búsqueda llegó al nodo
+     */
+    public boolean isReached(int node) {
+        return stamp[node] == generation && settled[node];
+    }
+
+    /**
+     * @return segundos hasta el nodo en la última búsqueda
+     */
+    public double secondsTo(int node) {
+        return isReached(node) ? seconds[node] : Double.NaN;
+    }
+
+    /**
+     * @return metros hasta el nodo en la última búsqueda
+     */
+    public double metersTo(int node) {
+        return isReached(node) ? meters[node] : Double.NaN;
+    }
+
+    /**
+     * Reconstruye el camino de la última búsqueda hasta un nodo alcanzado
+     */
+    public int[] path(int node) {
+        int length = 0;
+        for (int n = node; n != -1; n = parent[n]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int n = node, i = length - 1; n != -1; n = parent[n], i--) {
+            path[i] = n;
+        }
+        return path;
+    }
+
+    private void visit(int node, double time, double distance, int from) {
+        if (stamp[node] != generation) {
+            stamp[node] = generation;
+            settled[node] = false;
+        }
+        seconds[node] = time;
+        meters[node] = distance;
+        parent[node] = from;
+        heap.push(node, time);
+    }
+}
@@ -0,0 +1,276 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.service;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.DistanceMatrix;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.RoutingException;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.RoutingStrategy;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Servicio que calcula matrices de distancia y duración N×M en una sola llamada.
+ * Usa las estrategias de ruteo en orden de prioridad (OSRM /table primero, línea recta
+ * como respaldo) y guarda los resultados por filas: una fila por origen, con una celda
+ * por destino, ambos identificados por sus coordenadas redondeadas a ~1 metro.
+ * Solo se consulta a la estrategia el bloque de orígenes y destinos que falta en el cache.
+ * Al superar el máximo de filas se descartan las usadas hace más tiempo (LRU), igual que
+ * en {@link RouteCache}.
+ */
+public class DistanceMatrixService {
+
+    // Resolución del redondeo de coordenadas en grados (~1.1 m)
+    private static final double SNAP_DEGREES = 1e-5;
+    private static final long CACHE_TTL_MILLIS = 3_600_000; // 1 hora
+    private static final int MAX_CACHED_ROWS = 4_096;
+
+    private static DistanceMatrixService instance;
+
+    private final List<RoutingStrategy> strategies;
+    // Filas en orden de acceso; protegido por su propio monitor
+    private final LinkedHashMap<Long, CachedRow> rows = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedRow> eldest) {
+            if (size() > MAX_CACHED_ROWS) {
+                evictedRows.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+    private final AtomicLong evictedRows = new AtomicLong();
+    private final AtomicLong cellHits = new AtomicLong();
+    private final AtomicLong cellMisses = new AtomicLong();
+    private final AtomicLong computedMatrices = new AtomicLong();
+
+    /**
+     * Fila del cache: duración y distancia desde un origen a cada destino ya calculado
+     */
+    private static final class CachedRow {
+        final long createdAt = System.currentTimeMillis();
+        // Clave del destino -> {metros, segundos}
+        final Map<Long, double[]> cells = new ConcurrentHashMap<>();
+
+        boolean isExpired(long now) {
+            return now - createdAt > CACHE_TTL_MILLIS;
+        }
+    }
+
+    /**
+     * @param strategies estrategias a usar; se intentan de mayor a menor prioridad
+     */
+    public DistanceMatrixService(List<RoutingStrategy> strategies) {
+        this.strategies = new ArrayList<>(strategies);
+        this.strategies.sort((s1, s2) -> Integer.compare(s2.getPriority(), s1.getPriority()));
+    }
+
+    /**
+     * Obtiene la instancia única del servicio, con las estrategias de {@link RouteCalculationService}
+     */
+    public static synchronized DistanceMatrixService getInstance() {
+        if (instance == null) {
+            instance = new DistanceMatrixService(RouteCalculationService.getInstance().getStrategies());
+        }
+        return instance;
+    }
+
+    /**
+     * Calcula distancias y duraciones desde cada origen hasta cada destino
+     *
+     * @param origins puntos de origen (filas)
+     * @param destinations puntos de destino (columnas)
+     * @return matriz de origins.size() × destinations.size()
+     * @throws RoutingException si faltan celdas y ninguna estrategia puede calcularlas
+     */
+    public DistanceMatrix compute(List<Coordinates> origins, List<Coordinates> destinations) throws RoutingException {
+        int rowCount = origins.size();
+        int columnCount = destinations.size();
+        long[] originKeys = new long[rowCount];
+        long[] destinationKeys = new long[columnCount];
+        for (int i = 0; i < rowCount; i++) {
+            originKeys[i] = snapKey(origins.get(i));
+        }
+        for (int j = 0; j < columnCount; j++) {
+            destinationKeys[j] = snapKey(destinations.get(j));
+        }
+
+        // Orígenes y destinos (sin repetir) que tienen al menos una celda fuera del cache
+        long now = System.currentTimeMillis();
+        Map<Long, Coordinates> missingOrigins = new LinkedHashMap<>();
+        Map<Long, Coordinates> missingDestinations = new LinkedHashMap<>();
+        // Filas leídas al inicio: si el cache se vacía mientras tanto, sus celdas siguen disponibles
+        CachedRow[] cachedRows = new CachedRow[rowCount];
+        long hits = 0;
+        synchronized (rows) {
+            for (int i = 0; i < rowCount; i++) {
+                CachedRow row = rows.get(originKeys[i]);
+                if (row != null && row.isExpired(now)) {
+                    rows.remove(originKeys[i]);
+                    row = null;
+                }
+                cachedRows[i] = row;
+            }
+        }
+        for (int i = 0; i < rowCount; i++) {
+            CachedRow row = cachedRows[i];
+            for (int j = 0; j < columnCount; j++) {
+                if (row != null && row.cells.containsKey(destinationKeys[j])) {
+                    hits++;
+                } else {
+                    missingOrigins.putIfAbsent(originKeys[i], origins.get(i));
+                    missingDestinations.putIfAbsent(destinationKeys[j], destinations.get(j));
+                }
+            }
+        }
+        cellHits.addAndGet(hits);
+        cellMisses.addAndGet((long) rowCount * columnCount - hits);
+
+        String source = "Cache";
+        DistanceMatrix computed = null;
+        Map<Long, Integer> computedRows = new HashMap<>();
+        Map<Long, Integer> computedColumns = new HashMap<>();
+        if (!missingOrigins.isEmpty()) {
+            List<Coordinates> pendingOrigins = new ArrayList<>(missingOrigins.values());
+            List<Coordinates> pendingDestinations = new ArrayList<>(missingDestinations.values());
+            computed = computeWithStrategies(pendingOrigins, pendingDestinations);
+            source = computed.getSource();
+            int r = 0;
+            for (Long key : missingOrigins.keySet()) {
+                computedRows.put(key, r++);
+            }
+            int c = 0;
+            for (Long key : missingDestinations.keySet()) {
+                computedColumns.put(key, c++);
+            }
+            store(missingOrigins.keySet(), missingDestinations.keySet(), computed, now);
+        }
+
+        double[] distances = new double[rowCount * columnCount];
+        double[] durations = new double[rowCount * columnCount];
+        DistanceMatrix fresh = computed;
+        IntStream.range(0, rowCount).parallel().forEach(i -> {
+            CachedRow row = cachedRows[i];
+            Integer freshRow = computedRows.get(originKeys[i]);
+            for (int j = 0; j < columnCount; j++) {
+                int index = i * columnCount + j;
+                Integer freshColumn = freshRow != null ? computedColumns.get(destinationKeys[j]) : null;
+                double[] cell = row != null ? row.cells.get(destinationKeys[j]) : null;
+                if (freshColumn != null) {
+                    distances[index] = fresh.distanceMeters(freshRow, freshColumn);
+                    durations[index] = fresh.durationSeconds(freshRow, freshColumn);
+                } else if (cell != null) {
+                    distances[index] = cell[0];
+                    durations[index] = cell[1];
+                } else {
+                    distances[index] = Double.NaN;
+                    durations[index] = Double.NaN;
+                }
+            }
+        });
+        return new DistanceMatrix(rowCount, columnCount, distances, durations, source);
+    }
+
+    /**
+     * Calcula la matriz con la primera estrategia disponible que tenga éxito
+     */
+    private DistanceMatrix computeWithStrategies(List<Coordinates> origins, List<Coordinates> destinations)
+            throws RoutingException {
+        List<String> failedStrategies = new ArrayList<>();
+        for (RoutingStrategy strategy : strategies) {
+            if (!strategy.isAvailable()) {
+                failedStrategies.add(strategy.getStrategyName() + " (no disponible)");
+                continue;
+            }
+            try {
+                DistanceMatrix matrix = strategy.calculateMatrix(origins, destinations);
+                computedMatrices.incrementAndGet();
+                return matrix;
+            } catch (RoutingException e) {
+                System.err.println("[DistanceMatrix] ✗ " + strategy.getStrategyName() + " falló: " + e.getMessage());
+                failedStrategies.add(strategy.getStrategyName() + " (" + e.getMessage() + ")");
+            }
+        }
+        throw new RoutingException("DistanceMatrixService",
+            "No se pudo calcular la matriz con ninguna estrategia disponible. Estrategias intentadas: "
+                + String.join(", ", failedStrategies));
+    }
+
+    /**
+     * Guarda en el cache las celdas con ruta; las celdas sin ruta se vuelven a consultar.
+     * Si el cache está lleno primero se quitan las filas vencidas y luego las menos usadas.
+     */
+    private void store(Set<Long> originKeys, Set<Long> destinationKeys, DistanceMatrix matrix, long now) {
+        CachedRow[] targetRows = new CachedRow[originKeys.size()];
+        synchronized (rows) {
+            if (rows.size() + originKeys.size() > MAX_CACHED_ROWS) {
+                rows.values().removeIf(row -> row.isExpired(now));
+            }
+            int r = 0;
+            for (Long originKey : originKeys) {
+                targetRows[r++] = rows.computeIfAbsent(originKey, key -> new CachedRow());
+            }
+        }
+        for (int r = 0; r < targetRows.length; r++) {
+            int c = 0;
+            for (Long destinationKey : destinationKeys) {
+                if (matrix.isReachable(r, c)) {
+                    targetRows[r].cells.put(destinationKey, new double[]{matrix.distanceMeters(r, c), matrix.durationSeconds(r, c)});
+                }
+                c++;
+            }
+        }
+    }
+
+    /**
+     * Clave de una coordenada redondeada a ~1 metro: latitud en los 32 bits altos
+     * y longitud en los 32 bits bajos
+     *
+     * @param coordinates coordenadas GPS
+     * @return clave de 64 bits
+     */
+    public static long snapKey(Coordinates coordinates) {
+        return snapKey(coordinates, SNAP_DEGREES);
+    }
+
+    /**
+     * Clave de una coordenada redondeada a la resolución indicada
+     *
+     * @param coordinates coordenadas GPS
+     * @param snapDegrees resolución del redondeo en grados
+     * @return clave de 64 bits
+     */
+    public static long snapKey(Coordinates coordinates, double snapDegrees) {
+        long latitude = Math.round(coordinates.getLatitude() / snapDegrees);
+        long longitude = Math.round(coordinates.getLongitude() / snapDegrees);
+        return (latitude << 32) | (longitude & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Limpia el cache de filas
+     */
+    public void clearCache() {
+        int size;
+        synchronized (rows) {
+            size = rows.size();
+            rows.clear();
+        }
+        System.out.println("[DistanceMatrix] Cache limpiado (" + size + " filas eliminadas)");
+    }
+
+    /**
+     * Obtiene estadísticas del servicio
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (rows) {
+            stats.put("cachedRows", rows.size());
+        }
+        stats.put("evictedRows", evictedRows.get());
+        stats.put("cellHits", cellHits.get());
+        stats.put("cellMisses", cellMisses.get());
+        stats.put("computedMatrices", computedMatrices.get());
+        return stats;
+    }
+}
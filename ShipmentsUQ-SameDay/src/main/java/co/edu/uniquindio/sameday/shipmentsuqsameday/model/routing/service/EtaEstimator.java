@@ -0,0 +1,255 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.service;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Address;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.ServiceZone;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.RouteStatistics;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.simulation.event.DeliveryCompletedEvent;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.simulation.event.PositionUpdateEvent;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.simulation.event.SimulationListener;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.simulation.event.WaypointReachedEvent;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.util.ZoneLocator;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimador de tiempos de llegada que aprende de las entregas completadas.
+ * Ajusta en línea, por zona de destino y hora de salida, el ritmo de viaje en minutos
+ * por kilómetro con una regresión por el origen (minutos = ritmo · km) sobre sumas
+ * ponderadas que olvidan exponencialmente las entregas antiguas.
+ *
+ * Cada celda zona-hora se contrae hacia el ritmo de su hora en todas las zonas, este
+ * hacia el ritmo global y este hacia el ritmo previo que indique quien consulta (30 km/h
+ * o el de la ruta calculada): sin entregas registradas se obtiene exactamente la
+ * estimación previa. Las consultas leen unas pocas posiciones de arreglos primitivos.
+ */
+public class EtaEstimator implements SimulationListener {
+
+    public static final double BASE_SPEED_KMH = 30.0;
+    private static final double BASE_PACE = 60.0 / BASE_SPEED_KMH; // minutos por km
+    private static final int HOURS = 24;
+    // Peso de la estimación previa en km² (lo que aporta un viaje de 2 km)
+    private static final double PRIOR_WEIGHT = 4.0;
+    // Factor de olvido por entrega: la entrega de hace n registros pesa DECAY^n
+    private static final double DECAY = 0.99;
+    // Entregas que no se usan para aprender (trayectos muy cortos o velocidades imposibles)
+    private static final double MIN_DISTANCE_KM = 0.1;
+    private static final double MIN_SPEED_KMH = 2.0;
+    private static final double MAX_SPEED_KMH = 120.0;
+
+    private static EtaEstimator instance;
+
+    private final ZoneLocator zoneLocator;
+    // Posición de cada zona en los arreglos; la última posición agrupa las zonas desconocidas
+    private final Map<String, Integer> zoneSlots = new HashMap<>();
+    private final int otherZoneSlot;
+
+    // Sumas ponderadas Σ km·min y Σ km² por celda (zona * 24 + hora), por hora y globales
+    private final double[] cellKmMinutes;
+    private final double[] cellKmSquared;
+    private final int[] cellSamples;
+    private final double[] hourKmMinutes = new double[HOURS];
+    private final double[] hourKmSquared = new double[HOURS];
+    private double globalKmMinutes;
+    private double globalKmSquared;
+    private long observations;
+    private long rejected;
+
+    /**
+     * @param zoneLocator zonas con las que se agrupan las entregas
+     */
+    public EtaEstimator(ZoneLocator zoneLocator) {
+        this.zoneLocator = zoneLocator;
+        List<ServiceZone> zones = zoneLocator.getZones();
+        for (int i = 0; i < zones.size(); i++) {
+            zoneSlots.put(zones.get(i).getId(), i);
+        }
+        this.otherZoneSlot = zones.size();
+        int cells = (zones.size() + 1) * HOURS;
+        this.cellKmMinutes = new double[cells];
+        this.cellKmSquared = new double[cells];
+        this.cellSamples = new int[cells];
+    }
+
+    /**
+     * Obtiene la instancia única del estimador, con las zonas por defecto
+     */
+    public static synchronized EtaEstimator getInstance() {
+        if (instance == null) {
+            instance = new EtaEstimator(ZoneLocator.getDefault());
+        }
+        return instance;
+    }
+
+    /**
+     * Registra la duración real de un viaje
+     *
+     * @param zoneId zona de destino
+     * @param hour hora de salida (0-23)
+     * @param distanceKm distancia recorrida
+     * @param minutes duración del viaje en minutos
+     * @return true si la observación se usó para aprender
+     */
+    public synchronized boolean record(String zoneId, int hour, double distanceKm, double minutes) {
+        double speedKmh = minutes > 0 ? distanceKm / (minutes / 60.0) : Double.POSITIVE_INFINITY;
+        if (!(distanceKm >= MIN_DISTANCE_KM) || hour < 0 || hour >= HOURS
+                || !(speedKmh >= MIN_SPEED_KMH && speedKmh <= MAX_SPEED_KMH)) {
+            rejected++;
+            return false;
+        }
+        double kmMinutes = distanceKm * minutes;
+        double kmSquared = distanceKm * distanceKm;
+
+        int cell = slot(zoneId) * HOURS + hour;
+        cellKmMinutes[cell] = cellKmMinutes[cell] * DECAY + kmMinutes;
+        cellKmSquared[cell] = cellKmSquared[cell] * DECAY + kmSquared;
+        cellSamples[cell]++;
+        hourKmMinutes[hour] = hourKmMinutes[hour] * DECAY + kmMinutes;
+        hourKmSquared[hour] = hourKmSquared[hour] * DECAY + kmSquared;
+        globalKmMinutes = globalKmMinutes * DECAY + kmMinutes;
+        globalKmSquared = globalKmSquared * DECAY + kmSquared;
+        observations++;
+        return true;
+    }
+
+    /**
+     * Aprende de cada entrega completada en el simulador
+     */
+    @Override
+    public void onDeliveryCompleted(DeliveryCompletedEvent event) {
+        Duration duration = event.getActualDuration();
+        if (duration == null || event.getActualDeliveryTime() == null) {
+            return;
+        }
+        int hour = event.getActualDeliveryTime().minus(duration).getHour();
+        double minutes = duration.toMillis() / 60_000.0;
+        record(zoneOf(event), hour, event.getTotalDistanceMeters() / 1000.0, minutes);
+    }
+
+    @Override
+    public void onPositionUpdate(PositionUpdateEvent event) {
+        // Solo se aprende de las entregas completadas
+    }
+
+    @Override
+    public void onWaypointReached(WaypointReachedEvent event) {
+        // Solo se aprende de las entregas completadas
+    }
+
+    /**
+     * Ritmo de viaje aprendido para una zona y hora
+     *
+     * @param zoneId zona de destino (null o desconocida: zonas sin catálogo)
+     * @param hour hora de salida (0-23)
+     * @param priorPace ritmo previo en minutos por km, usado cuando faltan datos
+     * @return minutos por kilómetro
+     */
+    public synchronized double paceMinutesPerKm(String zoneId, int hour, double priorPace) {
+        int h = Math.floorMod(hour, HOURS);
+        int cell = slot(zoneId) * HOURS + h;
+        double globalPace = shrink(globalKmMinutes, globalKmSquared, priorPace);
+        double hourPace = shrink(hourKmMinutes[h], hourKmSquared[h], globalPace);
+        return shrink(cellKmMinutes[cell], cellKmSquared[cell], hourPace);
+    }
+
+    /**
+     * Factor de velocidad aprendido respecto a 30 km/h (menor que 1: más lento)
+     *
+     * @param zoneId zona de destino
+     * @param hour hora de salida (0-23)
+     * @return velocidad aprendida / 30 km/h
+     */
+    public double speedFactor(String zoneId, int hour) {
+        return BASE_PACE / paceMinutesPerKm(zoneId, hour, BASE_PACE);
+    }
+
+    /**
+     * Estima la duración de un viaje a partir de 30 km/h
+     *
+     * @param distanceKm distancia del viaje
+     * @param destination coordenadas de destino
+     * @param departure hora de salida
+     * @return minutos estimados de viaje
+     */
+    public double estimateMinutes(double distanceKm, Coordinates destination, LocalDateTime departure) {
+        String zoneId = destination != null
+                ? zoneLocator.zoneId(destination.getLatitude(), destination.getLongitude(), null)
+                : null;
+        return distanceKm * paceMinutesPerKm(zoneId, departure.getHour(), BASE_PACE);
+    }
+
+    /**
+     * Estima la duración de una ruta partiendo del ritmo de la propia ruta
+     *
+     * @param statistics estadísticas de la ruta calculada
+     * @param destination coordenadas de destino
+     * @param departure hora de salida
+     * @return duración estimada; la de la ruta si no hay datos para corregirla
+     */
+    public Duration estimateDuration(RouteStatistics statistics, Coordinates destination, LocalDateTime departure) {
+        Duration routeDuration = statistics.getEstimatedDuration();
+        double distanceKm = statistics.getTotalDistanceKm();
+        if (routeDuration == null || distanceKm <= 0 || routeDuration.isZero()) {
+            return routeDuration;
+        }
+        double routePace = routeDuration.toMillis() / 60_000.0 / distanceKm;
+        String zoneId = destination != null
+                ? zoneLocator.zoneId(destination.getLatitude(), destination.getLongitude(), null)
+                : null;
+        double pace = paceMinutesPerKm(zoneId, departure.getHour(), routePace);
+        if (pace == routePace) {
+            return routeDuration;
+        }
+        return Duration.ofMillis(Math.round(routeDuration.toMillis() * (pace / routePace)));
+    }
+
+    /**
+     * Obtiene estadísticas del estimador
+     */
+    public synchronized Map<String, Object> getStatistics() {
+        int learnedCells = 0;
+        for (int samples : cellSamples) {
+            if (samples > 0) {
+                learnedCells++;
+            }
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("observations", observations);
+        stats.put("rejected", rejected);
+        stats.put("learnedCells", learnedCells);
+        stats.put("globalSpeedKmh", 60.0 / shrink(globalKmMinutes, globalKmSquared, BASE_PACE));
+        return stats;
+    }
+
+    /**
+     * Ritmo por mínimos cuadrados con la estimación previa como PRIOR_WEIGHT km² de datos
+     */
+    private static double shrink(double kmMinutes, double kmSquared, double priorPace) {
+        if (kmSquared == 0) {
+            return priorPace;
+        }
+        return (kmMinutes + PRIOR_WEIGHT * priorPace) / (kmSquared + PRIOR_WEIGHT);
+    }
+
+    private int slot(String zoneId) {
+        Integer slot = zoneId != null ? zoneSlots.get(zoneId) : null;
+        return slot != null ? slot : otherZoneSlot;
+    }
+
+    /**
+     * Zona de destino de una entrega: la que contiene el punto de entrega o, si no, la dirección de destino
+     */
+    private String zoneOf(DeliveryCompletedEvent event) {
+        Address destination = event.getShipment() != null ? event.getShipment().getDestination() : null;
+        Coordinates location = event.getDeliveryLocation();
+        if (location != null) {
+            return zoneLocator.zoneId(location.getLatitude(), location.getLongitude(),
+                    destination != null ? destination.getZone() : null);
+        }
+        return zoneLocator.zoneId(destination);
+    }
+}
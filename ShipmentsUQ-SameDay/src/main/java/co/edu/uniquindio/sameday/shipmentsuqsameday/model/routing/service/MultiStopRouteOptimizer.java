@@ -0,0 +1,595 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.service;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Address;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.Route;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.RouteStatistics;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.RouteStop;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.Waypoint;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.RoutingException;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.strategy.GridCoordinateStrategy;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Optimiza el recorrido de un repartidor con varios envíos simultáneos.
+ * Ordena todas las recogidas y entregas (cada recogida antes de su entrega) para
+ * minimizar el tiempo total y traza una sola ruta de varios tramos.
+ *
+ * Con pocas paradas (el caso normal, hasta tres envíos por repartidor) el orden
+ * óptimo se obtiene por programación dinámica sobre subconjuntos; con más paradas
+ * se construye con vecino más cercano y se mejora con 2-opt y Or-opt hasta que
+ * ningún movimiento reduce el costo. Los tiempos entre paradas se obtienen una vez
+ * por optimización de {@link DistanceMatrixService}; los dos métodos solo los consultan.
+ */
+public class MultiStopRouteOptimizer {
+
+    // Velocidad promedio asumida en km/h para el tiempo de viaje por defecto
+    private static final double AVERAGE_SPEED_KMH = 30.0;
+    // Longitud máxima de los segmentos que mueve Or-opt
+    private static final int OR_OPT_MAX_SEGMENT = 3;
+    // Máximo de paradas que se ordenan de forma exacta
+    private static final int EXACT_MAX_STOPS = 10;
+    private static final double EPSILON = 1e-9;
+    // Costo de un tramo sin ruta: solo se usa si no hay alternativa
+    private static final double UNREACHABLE_SECONDS = 1e9;
+
+    /**
+     * Tiempo de viaje estimado entre dos puntos
+     */
+    @FunctionalInterface
+    public interface TravelTime {
+        /**
+         * @param from punto de partida
+         * @param to punto de llegada
+         * @return segundos de viaje
+         */
+        double seconds(Coordinates from, Coordinates to);
+    }
+
+    /**
+     * Traza el tramo entre dos paradas consecutivas
+     */
+    @FunctionalInterface
+    public interface LegRouter {
+        /**
+         * @param from punto de partida
+         * @param to punto de llegada
+         * @return ruta del tramo
+         * @throws RoutingException si no se puede calcular el tramo
+         */
+        Route route(Coordinates from, Coordinates to) throws RoutingException;
+    }
+
+    private final DistanceMatrixService matrixService;
+    private final TravelTime travelTime;
+    private final LegRouter legRouter;
+
+    /**
+     * Crea el optimizador con los tiempos de {@link DistanceMatrixService} y los tramos
+     * trazados por {@link RouteCalculationService}
+     */
+    public MultiStopRouteOptimizer() {
+        this(DistanceMatrixService.getInstance(),
+             (from, to) -> RouteCalculationService.getInstance().calculateOptimalRoute(from, to));
+    }
+
+    /**
+     * @param matrixService servicio que calcula la matriz de tiempos entre paradas
+     * @param legRouter trazado de cada tramo de la ruta final
+     */
+    public MultiStopRouteOptimizer(DistanceMatrixService matrixService, LegRouter legRouter) {
+        this.matrixService = matrixService;
+        this.travelTime = MultiStopRouteOptimizer::haversineSeconds;
+        this.legRouter = legRouter;
+    }
+
+    /**
+     * @param travelTime tiempo de viaje usado para ordenar las paradas
+     * @param legRouter trazado de cada tramo de la ruta final
+     */
+    public MultiStopRouteOptimizer(TravelTime travelTime, LegRouter legRouter) {
+        this.matrixService = null;
+        this.travelTime = travelTime;
+        this.legRouter = legRouter;
+    }
+
+    /**
+     * Calcula la ruta de varias paradas para los envíos actuales de un repartidor
+     * @param deliverer repartidor con coordenadas GPS (o del Grid)
+     * @return ruta con todas las paradas en el orden optimizado
+     * @throws RoutingException si no se puede trazar algún tramo
+     * @throws IllegalStateException si el repartidor no tiene paradas pendientes
+     */
+    public Route optimizeRoute(Deliverer deliverer) throws RoutingException {
+        List<RouteStop> stops = stopsFor(deliverer);
+        if (stops.isEmpty()) {
+            throw new IllegalStateException("El repartidor no tiene paradas pendientes");
+        }
+        Coordinates start = positionOf(deliverer);
+        return buildRoute(start, orderStops(start, stops));
+    }
+
+    /**
+     * Calcula la ruta de varias paradas del repartidor y la corta en la entrega de un envío.
+     * Es el recorrido que hace el repartidor hasta entregar ese envío, pasando por las
+     * paradas de sus otros envíos que el orden optimizado pone antes
+     * @param deliverer repartidor con coordenadas GPS (o del Grid)
+     * @param shipmentId envío cuya entrega termina la ruta
+     * @return ruta desde la posición del repartidor hasta la entrega del envío
+     * @throws RoutingException si no se puede trazar algún tramo
+     * @throws IllegalStateException si el envío no tiene una entrega pendiente con este repartidor
+     */
+    public Route optimizeRouteTo(Deliverer deliverer, UUID shipmentId) throws RoutingException {
+        Route route = optimizeRoute(deliverer);
+        List<RouteStop> stops = route.getStops();
+        int last = -1;
+        for (int i = 0; i < stops.size(); i++) {
+            if (stops.get(i).getType() == RouteStop.StopType.DROPOFF && shipmentId.equals(stops.get(i).getShipmentId())) {
+                last = i;
+                break;
+            }
+        }
+        if (last < 0) {
+            throw new IllegalStateException("El envío no tiene una entrega pendiente con este repartidor");
+        }
+        if (last == stops.size() - 1) {
+            return route;
+        }
+
+        int endIndex = stops.get(last).getWaypointIndex();
+        Waypoint end = route.getWaypoints().get(endIndex);
+        List<Waypoint> waypoints = new ArrayList<>(route.getWaypoints().subList(0, endIndex + 1));
+        double hours = end.getTimeFromStart().toMillis() / 3_600_000.0;
+        RouteStatistics statistics = RouteStatistics.builder()
+                .totalDistanceMeters(end.getDistanceFromStart())
+                .estimatedDuration(end.getTimeFromStart())
+                .averageSpeedKmh(hours > 0 ? (end.getDistanceFromStart() / 1000.0) / hours : 0)
+                .waypointCount(waypoints.size())
+                .valid(true)
+                .calculationMethod(route.getCalculationStrategy())
+                .build();
+        return Route.builder()
+                .id(UUID.randomUUID())
+                .origin(route.getOrigin())
+                .destination(end.getCoordinates())
+                .waypoints(waypoints)
+                .stops(new ArrayList<>(stops.subList(0, last + 1)))
+                .statistics(statistics)
+                .calculatedAt(route.getCalculatedAt())
+                .calculationStrategy(route.getCalculationStrategy())
+                .valid(true)
+                .build();
+    }
+
+    /**
+     * Paradas pendientes de los envíos actuales de un repartidor: los envíos asignados
+     * se recogen y entregan; los que están en tránsito solo se entregan
+     * @param deliverer repartidor
+     * @return paradas sin ordenar
+     */
+    public List<RouteStop> stopsFor(Deliverer deliverer) {
+        List<RouteStop> stops = new ArrayList<>();
+        for (Shipment shipment : deliverer.getCurrentShipments()) {
+            if (shipment.getDestination() == null) {
+                continue;
+            }
+            if (shipment.getStatus() == ShipmentStatus.ASSIGNED && shipment.getOrigin() != null) {
+                stops.add(stop(shipment, RouteStop.StopType.PICKUP, shipment.getOrigin()));
+                stops.add(stop(shipment, RouteStop.StopType.DROPOFF, shipment.getDestination()));
+            } else if (shipment.getStatus() == ShipmentStatus.IN_TRANSIT) {
+                stops.add(stop(shipment, RouteStop.StopType.DROPOFF, shipment.getDestination()));
+            }
+        }
+        return stops;
+    }
+
+    /**
+     * Ordena las paradas para minimizar el tiempo total desde el punto de partida,
+     * visitando la recogida de cada envío antes de su entrega
+     * @param start posición inicial del repartidor
+     * @param stops paradas a visitar
+     * @return las mismas paradas en el orden de visita
+     */
+    public List<RouteStop> orderStops(Coordinates start, List<RouteStop> stops) {
+        int n = stops.size();
+        if (n <= 1) {
+            return new ArrayList<>(stops);
+        }
+
+        // Matriz de tiempos: el índice 0 es el punto de partida y la parada i es el índice i + 1
+        int size = n + 1;
+        List<Coordinates> points = new ArrayList<>(size);
+        points.add(start);
+        for (RouteStop stop : stops) {
+            points.add(stop.getCoordinates());
+        }
+        double[] matrix = travelMatrix(points);
+
+        // Recogida que debe preceder a cada entrega (-1 si no tiene)
+        int[] pickupOf = new int[size];
+        Arrays.fill(pickupOf, -1);
+        for (int i = 0; i < n; i++) {
+            RouteStop dropoff = stops.get(i);
+            if (dropoff.getType() != RouteStop.StopType.DROPOFF) {
+                continue;
+            }
+            for (int j = 0; j < n; j++) {
+                RouteStop pickup = stops.get(j);
+                if (pickup.getType() == RouteStop.StopType.PICKUP
+                        && Objects.equals(pickup.getShipmentId(), dropoff.getShipmentId())) {
+                    pickupOf[i + 1] = j + 1;
+                }
+            }
+        }
+
+        int[] order;
+        if (n <= EXACT_MAX_STOPS) {
+            order = exactOrder(matrix, size, pickupOf);
+        } else {
+            order = nearestNeighbour(matrix, size, pickupOf);
+            double cost = cost(order, matrix, size);
+            boolean improved = true;
+            while (improved) {
+                double before = cost;
+                cost = twoOpt(order, cost, matrix, size, pickupOf);
+                cost = orOpt(order, cost, matrix, size, pickupOf);
+                improved = cost < before - EPSILON;
+            }
+        }
+
+        List<RouteStop> ordered = new ArrayList<>(n);
+        for (int node : order) {
+            ordered.add(stops.get(node - 1));
+        }
+        return ordered;
+    }
+
+    /**
+     * Traza la ruta que visita las paradas en el orden dado, uniendo los tramos en una sola ruta
+     * @param start posición inicial
+     * @param orderedStops paradas en orden de visita
+     * @return ruta de varios tramos con las paradas marcadas en sus waypoints
+     * @throws RoutingException si no se puede trazar algún tramo
+     */
+    public Route buildRoute(Coordinates start, List<RouteStop> orderedStops) throws RoutingException {
+        List<Waypoint> waypoints = new ArrayList<>();
+        List<RouteStop> stops = new ArrayList<>();
+        Set<String> strategies = new LinkedHashSet<>();
+        double distanceOffset = 0;
+        Duration timeOffset = Duration.ZERO;
+        Coordinates from = start;
+
+        waypoints.add(Waypoint.builder()
+                .sequence(0)
+                .coordinates(start)
+                .distanceFromStart(0)
+                .timeFromStart(Duration.ZERO)
+                .description("Origen")
+                .build());
+
+        for (RouteStop orderedStop : orderedStops) {
+            Route leg = legRouter.route(from, orderedStop.getCoordinates());
+            if (leg == null || !leg.isValid()) {
+                throw new RoutingException("MultiStop", "No se pudo trazar el tramo hacia " + orderedStop.getDescription());
+            }
+            strategies.add(leg.getCalculationStrategy());
+
+            // El primer waypoint de cada tramo coincide con el último del tramo anterior
+            List<Waypoint> legWaypoints = leg.getWaypoints();
+            for (int i = 1; i < legWaypoints.size(); i++) {
+                Waypoint waypoint = legWaypoints.get(i);
+                Duration legTime = waypoint.getTimeFromStart() != null ? waypoint.getTimeFromStart() : Duration.ZERO;
+                waypoints.add(Waypoint.builder()
+                        .sequence(waypoints.size())
+                        .coordinates(waypoint.getCoordinates())
+                        .distanceFromStart(distanceOffset + waypoint.getDistanceFromStart())
+                        .timeFromStart(timeOffset.plus(legTime))
+                        .description(i == legWaypoints.size() - 1 ? orderedStop.getDescription() : waypoint.getDescription())
+                        .build());
+            }
+            if (legWaypoints.size() < 2) {
+                waypoints.add(Waypoint.builder()
+                        .sequence(waypoints.size())
+                        .coordinates(orderedStop.getCoordinates())
+                        .distanceFromStart(distanceOffset)
+                        .timeFromStart(timeOffset)
+                        .description(orderedStop.getDescription())
+                        .build());
+            }
+
+            RouteStop stop = RouteStop.builder()
+                    .shipmentId(orderedStop.getShipmentId())
+                    .type(orderedStop.getType())
+                    .coordinates(orderedStop.getCoordinates())
+                    .waypointIndex(waypoints.size() - 1)
+                    .build();
+            stops.add(stop);
+
+            if (leg.getStatistics() != null) {
+                distanceOffset += leg.getStatistics().getTotalDistanceMeters();
+                if (leg.getStatistics().getEstimatedDuration() != null) {
+                    timeOffset = timeOffset.plus(leg.getStatistics().getEstimatedDuration());
+                }
+            }
+            from = orderedStop.getCoordinates();
+        }
+
+        String method = "MultiStop(" + String.join("+", strategies) + ")";
+        double hours = timeOffset.toMillis() / 3_600_000.0;
+        RouteStatistics statistics = RouteStatistics.builder()
+                .totalDistanceMeters(distanceOffset)
+                .estimatedDuration(timeOffset)
+                .averageSpeedKmh(hours > 0 ? (distanceOffset / 1000.0) / hours : 0)
+                .waypointCount(waypoints.size())
+                .valid(true)
+                .calculationMethod(method)
+                .build();
+
+        return Route.builder()
+                .id(UUID.randomUUID())
+                .origin(start)
+                .destination(from)
+                .waypoints(waypoints)
+                .stops(stops)
+                .statistics(statistics)
+                .calculatedAt(LocalDateTime.now())
+                .calculationStrategy(method)
+                .valid(true)
+                .build();
+    }
+
+    /**
+     * Matriz de tiempos entre todos los puntos, por filas. Si el servicio de matrices falla
+     * se usa el tiempo de viaje en línea recta.
+     */
+    private double[] travelMatrix(List<Coordinates> points) {
+        int size = points.size();
+        if (matrixService != null) {
+            try {
+                double[] durations = matrixService.compute(points, points).getDurationsSeconds();
+                for (int i = 0; i < durations.length; i++) {
+                    if (!Double.isFinite(durations[i])) {
+                        durations[i] = UNREACHABLE_SECONDS;
+                    }
+                }
+                return durations;
+            } catch (RoutingException e) {
+                System.err.println("[MultiStop] Matriz no disponible, usando línea recta: " + e.getMessage());
+            }
+        }
+        double[] matrix = new double[size * size];
+        for (int from = 0; from < size; from++) {
+            for (int to = 0; to < size; to++) {
+                if (from != to) {
+                    matrix[from * size + to] = travelTime.seconds(points.get(from), points.get(to));
+                }
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Recorrido óptimo por programación dinámica: best[mask][last] es el menor costo de
+     * visitar las paradas de mask terminando en last; una entrega solo se agrega a un
+     * subconjunto que ya contiene su recogida
+     */
+    private static int[] exactOrder(double[] matrix, int size, int[] pickupOf) {
+        int n = size - 1;
+        int full = (1 << n) - 1;
+        double[] best = new double[(full + 1) * n];
+        int[] previous = new int[(full + 1) * n];
+        Arrays.fill(best, Double.MAX_VALUE);
+        for (int stop = 0; stop < n; stop++) {
+            if (pickupOf[stop + 1] < 0) {
+                best[(1 << stop) * n + stop] = matrix[stop + 1];
+                previous[(1 << stop) * n + stop] = -1;
+            }
+        }
+        for (int mask = 1; mask <= full; mask++) {
+            for (int last = 0; last < n; last++) {
+                double current = best[mask * n + last];
+                if (current == Double.MAX_VALUE) {
+                    continue;
+                }
+                for (int next = 0; next < n; next++) {
+                    int bit = 1 << next;
+                    if ((mask & bit) != 0) {
+                        continue;
+                    }
+                    int pickup = pickupOf[next + 1];
+                    if (pickup > 0 && (mask & (1 << (pickup - 1))) == 0) {
+                        continue;
+                    }
+                    int state = (mask | bit) * n + next;
+                    double candidate = current + matrix[(last + 1) * size + next + 1];
+                    if (candidate < best[state]) {
+                        best[state] = candidate;
+                        previous[state] = last;
+                    }
+                }
+            }
+        }
+
+        int last = 0;
+        for (int stop = 1; stop < n; stop++) {
+            if (best[full * n + stop] < best[full * n + last]) {
+                last = stop;
+            }
+        }
+        int[] order = new int[n];
+        int mask = full;
+        for (int k = n - 1; k >= 0; k--) {
+            order[k] = last + 1;
+            int before = previous[mask * n + last];
+            mask &= ~(1 << last);
+            last = before;
+        }
+        return order;
+    }
+
+    /**
+     * Recorrido inicial: desde la posición actual, la parada factible más cercana
+     */
+    private static int[] nearestNeighbour(double[] matrix, int size, int[] pickupOf) {
+        int n = size - 1;
+        int[] order = new int[n];
+        boolean[] visited = new boolean[size];
+        int current = 0;
+        for (int k = 0; k < n; k++) {
+            int best = -1;
+            for (int node = 1; node < size; node++) {
+                if (visited[node] || (pickupOf[node] > 0 && !visited[pickupOf[node]])) {
+                    continue;
+                }
+                if (best < 0 || matrix[current * size + node] < matrix[current * size + best]) {
+                    best = node;
+                }
+            }
+            order[k] = best;
+            visited[best] = true;
+            current = best;
+        }
+        return order;
+    }
+
+    /**
+     * Invierte tramos del recorrido mientras reduzca el costo y respete las precedencias
+     * @return costo del recorrido resultante
+     */
+    private static double twoOpt(int[] order, double cost, double[] matrix, int size, int[] pickupOf) {
+        int n = order.length;
+        int[] candidate = new int[n];
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 0; i < n - 1 && !improved; i++) {
+                for (int j = i + 1; j < n && !improved; j++) {
+                    System.arraycopy(order, 0, candidate, 0, n);
+                    for (int left = i, right = j; left < right; left++, right--) {
+                        int swap = candidate[left];
+                        candidate[left] = candidate[right];
+                        candidate[right] = swap;
+                    }
+                    double candidateCost = cost(candidate, matrix, size);
+                    if (candidateCost < cost - EPSILON && feasible(candidate, size, pickupOf)) {
+                        System.arraycopy(candidate, 0, order, 0, n);
+                        cost = candidateCost;
+                        improved = true;
+                    }
+                }
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Mueve segmentos cortos de paradas a otra posición mientras reduzca el costo
+     * @return costo del recorrido resultante
+     */
+    private static double orOpt(int[] order, double cost, double[] matrix, int size, int[] pickupOf) {
+        int n = order.length;
+        int[] candidate = new int[n];
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int length = 1; length <= OR_OPT_MAX_SEGMENT && !improved; length++) {
+                for (int from = 0; from + length <= n && !improved; from++) {
+                    for (int to = 0; to + length <= n && !improved; to++) {
+                        if (to == from) {
+                            continue;
+                        }
+                        moveSegment(order, candidate, from, length, to);
+                        double candidateCost = cost(candidate, matrix, size);
+                        if (candidateCost < cost - EPSILON && feasible(candidate, size, pickupOf)) {
+                            System.arraycopy(candidate, 0, order, 0, n);
+                            cost = candidateCost;
+                            improved = true;
+                        }
+                    }
+                }
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Copia el recorrido en candidate moviendo el segmento [from, from + length) para que empiece en to
+     */
+    private static void moveSegment(int[] order, int[] candidate, int from, int length, int to) {
+        int n = order.length;
+        int[] rest = new int[n - length];
+        int r = 0;
+        for (int i = 0; i < n; i++) {
+            if (i < from || i >= from + length) {
+                rest[r++] = order[i];
+            }
+        }
+        int c = 0;
+        for (int i = 0; i < to; i++) {
+            candidate[c++] = rest[i];
+        }
+        for (int i = 0; i < length; i++) {
+            candidate[c++] = order[from + i];
+        }
+        for (int i = to; i < rest.length; i++) {
+            candidate[c++] = rest[i];
+        }
+    }
+
+    private static boolean feasible(int[] order, int size, int[] pickupOf) {
+        int[] position = new int[size];
+        for (int k = 0; k < order.length; k++) {
+            position[order[k]] = k;
+        }
+        for (int node : order) {
+            if (pickupOf[node] > 0 && position[pickupOf[node]] > position[node]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double cost(int[] order, double[] matrix, int size) {
+        double total = 0;
+        int previous = 0;
+        for (int node : order) {
+            total += matrix[previous * size + node];
+            previous = node;
+        }
+        return total;
+    }
+
+    private static RouteStop stop(Shipment shipment, RouteStop.StopType type, Address address) {
+        return RouteStop.builder()
+                .shipmentId(shipment.getId())
+                .type(type)
+                .coordinates(gpsOf(address))
+                .build();
+    }
+
+    private static Coordinates positionOf(Deliverer deliverer) {
+        if (deliverer.hasRealCoordinates()) {
+            return new Coordinates(deliverer.getRealLatitude(), deliverer.getRealLongitude());
+        }
+        double[] gps = GridCoordinateStrategy.convertGridToReal(deliverer.getCurrentX(), deliverer.getCurrentY());
+        return new Coordinates(gps[0], gps[1]);
+    }
+
+    private static Coordinates gpsOf(Address address) {
+        if (address.hasGpsCoordinates()) {
+            return new Coordinates(address.getGpsLatitude(), address.getGpsLongitude());
+        }
+        double[] gps = GridCoordinateStrategy.convertGridToReal(address.getCoordX(), address.getCoordY());
+        return new Coordinates(gps[0], gps[1]);
+    }
+
+    private static double haversineSeconds(Coordinates from, Coordinates to) {
+        return from.distanceTo(to) / AVERAGE_SPEED_KMH * 3600.0;
+    }
+}
@@ -0,0 +1,195 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.service;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.Route;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache acotado de rutas punto a punto.
+ * La clave es el par origen-destino con cada coordenada redondeada a una precisión
+ * configurable (ver {@link DistanceMatrixService#snapKey(Coordinates, double)}), así que
+ * solicitudes casi idénticas comparten la misma ruta. Las entradas vencen por tiempo desde
+ * que se guardan y, al superar el máximo, se descarta la usada hace más tiempo (LRU).
+ * Un hilo de fondo elimina periódicamente las entradas vencidas aunque nadie las consulte.
+ */
+public final class RouteCache {
+
+    // Metros por grado de latitud, para convertir la precisión del redondeo
+    private static final double METERS_PER_DEGREE = 111_320.0;
+    private static final long MAX_PURGE_INTERVAL_MILLIS = 60_000;
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final double snapDegrees;
+    private final LinkedHashMap<Key, Entry> entries;
+    private final ScheduledExecutorService purger;
+
+    // Métricas (protegidas por el monitor del cache)
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    /**
+     * Par origen-destino de coordenadas redondeadas
+     */
+    private static final class Key {
+        final long origin;
+        final long destination;
+
+        Key(long origin, long destination) {
+            this.origin = origin;
+            this.destination = destination;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return origin == key.origin && destination == key.destination;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(origin * 31 + destination);
+        }
+    }
+
+    private static final class Entry {
+        final Route route;
+        final long storedAt;
+
+        Entry(Route route, long storedAt) {
+            this.route = route;
+            this.storedAt = storedAt;
+        }
+    }
+
+    /**
+     * @param maxEntries cantidad máxima de rutas guardadas
+     * @param ttlMillis tiempo de vida de cada ruta en milisegundos
+     * @param snapMeters precisión del redondeo de coordenadas en metros
+     */
+    public RouteCache(int maxEntries, long ttlMillis, double snapMeters) {
+        if (maxEntries <= 0 || ttlMillis <= 0 || snapMeters <= 0) {
+            throw new IllegalArgumentException("Parámetros del cache de rutas inválidos");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.snapDegrees = snapMeters / METERS_PER_DEGREE;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > RouteCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        long interval = Math.max(10, Math.min(ttlMillis / 2, MAX_PURGE_INTERVAL_MILLIS));
+        this.purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "route-cache-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(this::purgeExpired, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Obtiene la ruta guardada para un par de puntos
+     * @return ruta o null si no existe o ya venció
+     */
+    public synchronized Route get(Coordinates origin, Coordinates destination) {
+        Key key = key(origin, destination);
+        Entry entry = entries.get(key);
+        if (entry != null && isExpired(entry, System.currentTimeMillis())) {
+            entries.remove(key);
+            expirations++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.route;
+    }
+
+    /**
+     * Guarda una ruta; si el cache está lleno descarta la menos usada recientemente
+     */
+    public synchronized void put(Coordinates origin, Coordinates destination, Route route) {
+        entries.put(key(origin, destination), new Entry(route, System.currentTimeMillis()));
+    }
+
+    /**
+     * Elimina las entradas vencidas (lo hace también el hilo de fondo)
+     * @return cantidad de entradas eliminadas
+     */
+    public synchronized int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+            if (isExpired(it.next(), now)) {
+                it.remove();
+                removed++;
+            }
+        }
+        expirations += removed;
+        return removed;
+    }
+
+    /**
+     * Vacía el cache sin reiniciar las métricas
+     * @return cantidad de entradas eliminadas
+     */
+    public synchronized int clear() {
+        int size = entries.size();
+        entries.clear();
+        return size;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Detiene el hilo de expiración; el cache sigue funcionando con expiración al consultar
+     */
+    public void shutdown() {
+        purger.shutdownNow();
+    }
+
+    /**
+     * @return tamaño, máximo y contadores de aciertos, fallos, descartes por tamaño y vencimientos
+     */
+    public synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        stats.put("expirations", expirations);
+        return stats;
+    }
+
+    private Key key(Coordinates origin, Coordinates destination) {
+        return new Key(DistanceMatrixService.snapKey(origin, snapDegrees),
+            DistanceMatrixService.snapKey(destination, snapDegrees));
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.storedAt > ttlMillis;
+    }
+}
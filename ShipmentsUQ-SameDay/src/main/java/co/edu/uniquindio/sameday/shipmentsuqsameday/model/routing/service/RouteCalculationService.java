@@ -2,35 +2,47 @@ package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.service;
 
 import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.Route;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.ContractionHierarchyRoutingStrategy;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.DijkstraRoutingStrategy;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.OSRMRoutingStrategy;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.RoutingException;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.RoutingStrategy;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Servicio principal para cálculo de rutas
  * Maneja múltiples estrategias y sistema de cache
+ * El cache ({@link RouteCache}) se configura con las propiedades del sistema
+ * sameday.routing.cacheMaxEntries, sameday.routing.cacheTtlMs y sameday.routing.cacheSnapMeters.
  */
 public class RouteCalculationService {
     
+    private static final String CACHE_MAX_ENTRIES_PROPERTY = "sameday.routing.cacheMaxEntries";
+    private static final int DEFAULT_CACHE_MAX_ENTRIES = 10_000;
+    private static final String CACHE_TTL_PROPERTY = "sameday.routing.cacheTtlMs";
+    private static final long DEFAULT_CACHE_TTL_MS = 3_600_000; // 1 hora
+    private static final String CACHE_SNAP_PROPERTY = "sameday.routing.cacheSnapMeters";
+    private static final String DEFAULT_CACHE_SNAP_METERS = "5";
+    
     private static RouteCalculationService instance;
     
     private final List<RoutingStrategy> strategies;
-    private final Map<String, Route> cache;
-    private final long CACHE_TTL_MILLIS = 3600000; // 1 hora
+    private final RouteCache cache;
     
     /**
      * Constructor privado (Singleton)
      */
     private RouteCalculationService() {
         this.strategies = new ArrayList<>();
-        this.cache = new ConcurrentHashMap<>();
+        this.cache = new RouteCache(
+            Integer.getInteger(CACHE_MAX_ENTRIES_PROPERTY, DEFAULT_CACHE_MAX_ENTRIES),
+            Long.getLong(CACHE_TTL_PROPERTY, DEFAULT_CACHE_TTL_MS),
+            Double.parseDouble(System.getProperty(CACHE_SNAP_PROPERTY, DEFAULT_CACHE_SNAP_METERS)));
         
         // Registrar estrategias por orden de prioridad
         registerStrategy(new OSRMRoutingStrategy());
+        registerStrategy(new ContractionHierarchyRoutingStrategy());
         registerStrategy(new DijkstraRoutingStrategy());
         
         // Ordenar por prioridad descendente
@@ -63,6 +75,13 @@ public class RouteCalculationService {
         }
     }
     
+    /**
+     * Obtiene las estrategias registradas en orden de prioridad
+     */
+    public List<RoutingStrategy> getStrategies() {
+        return List.copyOf(strategies);
+    }
+    
     /**
      * Calcula la ruta óptima entre dos puntos
      * Intenta con cada estrategia en orden de prioridad hasta que una tenga éxito
@@ -74,8 +93,7 @@ public class RouteCalculationService {
      */
     public Route calculateOptimalRoute(Coordinates origin, Coordinates destination) throws RoutingException {
         // 1. Verificar cache
-        String cacheKey = generateCacheKey(origin, destination);
-        Route cachedRoute = getFromCache(cacheKey);
+        Route cachedRoute = cache.get(origin, destination);
         if (cachedRoute != null) {
             System.out.println("[RouteService] Ruta encontrada en cache");
             return cachedRoute;
@@ -99,7 +117,7 @@ public class RouteCalculationService {
                 
                 if (route != null && route.isValid()) {
                     // Guardar en cache
-                    putInCache(cacheKey, route);
+                    putInCache(origin, destination, route);
                     
                     System.out.println("[RouteService] ✓ Ruta calculada exitosamente con: " + strategy.getStrategyName());
                     return route;
@@ -148,43 +166,11 @@ public class RouteCalculationService {
                 .orElse(null);
     }
     
-    /**
-     * Genera una clave única para el cache basada en coordenadas
-     */
-    private String generateCacheKey(Coordinates origin, Coordinates destination) {
-        return String.format("route_%.6f_%.6f_to_%.6f_%.6f",
-                origin.getLatitude(), origin.getLongitude(),
-                destination.getLatitude(), destination.getLongitude());
-    }
-    
-    /**
-     * Obtiene una ruta del cache si existe y no ha expirado
-     */
-    private Route getFromCache(String key) {
-        Route route = cache.get(key);
-        
-        if (route == null) {
-            return null;
-        }
-        
-        // Verificar si ha expirado
-        long ageMillis = System.currentTimeMillis() - 
-            route.getCalculatedAt().atZone(java.time.ZoneId.systemDefault())
-                .toInstant().toEpochMilli();
-        
-        if (ageMillis > CACHE_TTL_MILLIS) {
-            cache.remove(key);
-            return null;
-        }
-        
-        return route;
-    }
-    
     /**
      * Guarda una ruta en el cache
      */
-    private void putInCache(String key, Route route) {
-        cache.put(key, route);
+    private void putInCache(Coordinates origin, Coordinates destination, Route route) {
+        cache.put(origin, destination, route);
         System.out.println("[RouteService] Ruta guardada en cache (total: " + cache.size() + ")");
     }
     
@@ -192,8 +178,7 @@ public class RouteCalculationService {
      * Limpia el cache completo
      */
     public void clearCache() {
-        int size = cache.size();
-        cache.clear();
+        int size = cache.clear();
         System.out.println("[RouteService] Cache limpiado (" + size + " rutas eliminadas)");
     }
     
@@ -203,7 +188,13 @@ public class RouteCalculationService {
     public Map<String, Object> getStatistics() {
         Map<String, Object> stats = new HashMap<>();
         stats.put("strategiesCount", strategies.size());
-        stats.put("cacheSize", cache.size());
+        Map<String, Object> cacheStats = cache.getStatistics();
+        stats.put("cacheSize", cacheStats.get("size"));
+        stats.put("cacheMaxEntries", cacheStats.get("maxEntries"));
+        stats.put("cacheHits", cacheStats.get("hits"));
+        stats.put("cacheMisses", cacheStats.get("misses"));
+        stats.put("cacheEvictions", cacheStats.get("evictions"));
+        stats.put("cacheExpirations", cacheStats.get("expirations"));
         stats.put("availableStrategies", strategies.stream()
                 .filter(RoutingStrategy::isAvailable)
                 .map(RoutingStrategy::getStrategyName)
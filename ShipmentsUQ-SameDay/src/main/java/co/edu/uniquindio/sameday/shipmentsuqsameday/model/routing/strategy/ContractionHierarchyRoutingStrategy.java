@@ -0,0 +1,137 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.ContractionHierarchy;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.ContractionHierarchyBuilder;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.ContractionHierarchySearch;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.RoadGraph;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Estrategia de ruteo sobre el grafo vial con Contraction Hierarchies
+ * Devuelve las mismas rutas que {@link RoadGraphRoutingStrategy}, pero cada consulta sube
+ * por la jerarquía en lugar de recorrer la ciudad, y las matrices usan búsquedas en cubetas.
+ *
+ * La jerarquía se guarda junto al extracto con extensión .ch y conviene generarla fuera de
+ * línea con {@link ContractionHierarchyBuilder}. Si el archivo no existe o es más viejo que
+ * el extracto, se preprocesa en un hilo de fondo y se guarda para los siguientes arranques;
+ * mientras tanto la estrategia se reporta no disponible y el servicio usa las siguientes.
+ */
+public class ContractionHierarchyRoutingStrategy extends RoadGraphRoutingStrategy {
+
+    private volatile ContractionHierarchy hierarchy;
+    private volatile boolean building;
+
+    /**
+     * Crea la estrategia con el extracto configurado en las propiedades del sistema
+     */
+    public ContractionHierarchyRoutingStrategy() {
+        super();
+    }
+
+    /**
+     * Crea la estrategia con un extracto específico
+     * @param osmPath ruta del archivo .osm o .osm.gz
+     */
+    public ContractionHierarchyRoutingStrategy(Path osmPath) {
+        super(osmPath);
+    }
+
+    /**
+     * Crea la estrategia sobre una jerarquía ya construida
+     * @param hierarchy jerarquía de contracción
+     */
+    public ContractionHierarchyRoutingStrategy(ContractionHierarchy hierarchy) {
+        super(hierarchy.getGraph());
+        this.hierarchy = hierarchy;
+    }
+
+    /**
+     * @param osmPath ruta del extracto
+     * @return ruta del archivo de la jerarquía
+     */
+    public static Path hierarchyPath(Path osmPath) {
+        return osmPath.resolveSibling(osmPath.getFileName() + ".ch");
+    }
+
+    @Override
+    protected RoadGraph loadGraph(Path osmPath) throws IOException {
+        Path chPath = hierarchyPath(osmPath);
+        boolean hasExtract = Files.isRegularFile(osmPath);
+        if (Files.isRegularFile(chPath) && (!hasExtract
+                || Files.getLastModifiedTime(chPath).compareTo(Files.getLastModifiedTime(osmPath)) >= 0)) {
+            try {
+                hierarchy = ContractionHierarchy.read(chPath);
+                System.out.println("[CH] Jerarquía cargada: " + chPath);
+                return hierarchy.getGraph();
+            } catch (IOException e) {
+                System.err.println("[CH] Jerarquía inválida, se reconstruye: " + e.getMessage());
+            }
+        }
+
+        if (!hasExtract) {
+            return null;
+        }
+        System.err.println("[CH] No hay jerarquía precalculada para " + osmPath
+            + "; se construye en segundo plano y mientras tanto se usan las demás estrategias."
+            + " Ejecute ContractionHierarchyBuilder para generarla antes del arranque.");
+        building = true;
+        Thread builder = new Thread(() -> buildInBackground(osmPath, chPath), "ch-builder");
+        builder.setDaemon(true);
+        builder.start();
+        return null;
+    }
+
+    /**
+     * Carga el extracto, preprocesa la jerarquía, la guarda y la publica al terminar
+     */
+    private void buildInBackground(Path osmPath, Path chPath) {
+        try {
+            RoadGraph graph = super.loadGraph(osmPath);
+            if (graph == null) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            ContractionHierarchy built = ContractionHierarchyBuilder.build(graph);
+            System.out.println("[CH] Jerarquía construida en " + (System.currentTimeMillis() - start) + " ms");
+            try {
+                built.write(chPath);
+                System.out.println("[CH] Jerarquía guardada en " + chPath);
+            } catch (IOException e) {
+                System.err.println("[CH] No se pudo guardar la jerarquía: " + e.getMessage());
+            }
+            // La jerarquía debe estar lista antes de que el grafo quede visible para las consultas
+            hierarchy = built;
+            useGraph(graph);
+        } catch (Exception e) {
+            System.err.println("[CH] No se pudo construir la jerarquía: " + e.getMessage());
+        } finally {
+            building = false;
+        }
+    }
+
+    /**
+     * @return true mientras la jerarquía se construye en segundo plano
+     */
+    public boolean isBuilding() {
+        return building;
+    }
+
+    @Override
+    protected int[] findPath(RoadGraph roads, int source, int target) {
+        ContractionHierarchySearch search = hierarchy.search();
+        return search.route(source, target) ? search.path() : null;
+    }
+
+    @Override
+    protected void nodeMatrix(RoadGraph roads, int[] sources, int[] targets, double[] seconds, double[] meters) {
+        hierarchy.manyToMany(sources, targets, seconds, meters);
+    }
+
+    @Override
+    public String getStrategyName() {
+        return "RoadGraph-CH";
+    }
+}
@@ -1,6 +1,7 @@
 package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy;
 
 import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.DistanceMatrix;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.Route;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.RouteStatistics;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.Waypoint;
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
 /**
  * Estrategia de ruteo usando algoritmo de Dijkstra sobre línea recta
@@ -75,6 +77,25 @@ public class DijkstraRoutingStrategy implements RoutingStrategy {
         }
     }
     
+    /**
+     * Matriz en línea recta: las mismas distancias y duraciones que {@link #calculateRoute}
+     * sin generar waypoints por celda
+     */
+    @Override
+    public DistanceMatrix calculateMatrix(List<Coordinates> origins, List<Coordinates> destinations) {
+        int columns = destinations.size();
+        double[] distances = new double[origins.size() * columns];
+        double[] durations = new double[origins.size() * columns];
+        IntStream.range(0, origins.size()).parallel().forEach(row -> {
+            for (int column = 0; column < columns; column++) {
+                double meters = calculateHaversineDistance(origins.get(row), destinations.get(column));
+                distances[row * columns + column] = meters;
+                durations[row * columns + column] = (meters / 1000.0) / AVERAGE_SPEED_KMH * 3600;
+            }
+        });
+        return new DistanceMatrix(origins.size(), columns, distances, durations, getStrategyName());
+    }
+    
     /**
      * Genera waypoints interpolados en línea recta entre origen y destino
      */
@@ -0,0 +1,20 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy;
+
+import java.io.IOException;
+
+/**
+ * Cliente HTTP mínimo usado por las estrategias que consultan servicios externos.
+ * Permite reemplazar la conexión real por una respuesta local en pruebas o sin internet.
+ */
+@FunctionalInterface
+public interface HttpGetClient {
+
+    /**
+     * Realiza una petición GET
+     *
+     * @param url URL completa de la petición
+     * @return cuerpo de la respuesta
+     * @throws IOException si falla la conexión o la respuesta no es exitosa
+     */
+    String get(String url) throws IOException;
+}
@@ -1,6 +1,7 @@
 package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy;
 
 import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.DistanceMatrix;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.Route;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.RouteStatistics;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.Waypoint;
@@ -16,9 +17,13 @@ import java.io.IOException;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Estrategia de ruteo usando OSRM (Open Source Routing Machine)
@@ -31,8 +36,10 @@ public class OSRMRoutingStrategy implements RoutingStrategy {
     private static final String OSRM_PUBLIC_URL = "http://router.project-osrm.org";
     private static final String PROFILE = "driving"; // driving, walking, cycling
     private static final int TIMEOUT_SECONDS = 10;
+    // Máximo de coordenadas por petición /table (límite por defecto del servidor OSRM)
+    private static final int MAX_TABLE_COORDINATES = 100;
     
-    private final OkHttpClient httpClient;
+    private final HttpGetClient httpClient;
     private final String baseUrl;
     
     /**
@@ -47,12 +54,40 @@ public class OSRMRoutingStrategy implements RoutingStrategy {
      * @param baseUrl URL base del servidor OSRM
      */
     public OSRMRoutingStrategy(String baseUrl) {
+        this(baseUrl, okHttpClient());
+    }
+    
+    /**
+     * Constructor con un cliente HTTP propio (por ejemplo, respuestas locales en pruebas)
+     * @param baseUrl URL base del servidor OSRM
+     * @param httpClient cliente que realiza las peticiones GET
+     */
+    public OSRMRoutingStrategy(String baseUrl, HttpGetClient httpClient) {
         this.baseUrl = baseUrl;
-        this.httpClient = new OkHttpClient.Builder()
+        this.httpClient = httpClient;
+    }
+    
+    /**
+     * Cliente HTTP real basado en OkHttp
+     */
+    private static HttpGetClient okHttpClient() {
+        OkHttpClient client = new OkHttpClient.Builder()
                 .connectTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
                 .readTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
                 .writeTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
                 .build();
+        return url -> {
+            Request request = new Request.Builder()
+                    .url(url)
+                    .get()
+                    .build();
+            try (Response response = client.newCall(request).execute()) {
+                if (!response.isSuccessful()) {
+                    throw new IOException("Error HTTP: " + response.code());
+                }
+                return response.body().string();
+            }
+        };
     }
     
     @Override
@@ -63,19 +98,7 @@ public class OSRMRoutingStrategy implements RoutingStrategy {
             System.out.println("[OSRM] Calculando ruta: " + url);
             
             // 2. Hacer request HTTP
-            Request request = new Request.Builder()
-                    .url(url)
-                    .get()
-                    .build();
-            
-            Response response = httpClient.newCall(request).execute();
-            
-            if (!response.isSuccessful()) {
-                throw new RoutingException(getStrategyName(), 
-                    "Error HTTP: " + response.code());
-            }
-            
-            String jsonResponse = response.body().string();
+            String jsonResponse = httpClient.get(url);
             
             // 3. Parsear respuesta JSON
             Route route = parseOSRMResponse(jsonResponse, origin, destination);
@@ -177,6 +200,115 @@ public class OSRMRoutingStrategy implements RoutingStrategy {
         }
     }
     
+    /**
+     * Calcula la matriz con el servicio /table de OSRM. Si hay más coordenadas de las que
+     * admite una petición, divide orígenes y destinos en bloques y los consulta en paralelo.
+     */
+    @Override
+    public DistanceMatrix calculateMatrix(List<Coordinates> origins, List<Coordinates> destinations)
+            throws RoutingException {
+        int rows = origins.size();
+        int columns = destinations.size();
+        double[] distances = new double[rows * columns];
+        double[] durations = new double[rows * columns];
+        Arrays.fill(distances, Double.NaN);
+        Arrays.fill(durations, Double.NaN);
+        if (rows == 0 || columns == 0) {
+            return new DistanceMatrix(rows, columns, distances, durations, getStrategyName());
+        }
+
+        int block = MAX_TABLE_COORDINATES / 2;
+        int rowBlocks = (rows + block - 1) / block;
+        int columnBlocks = (columns + block - 1) / block;
+        List<RoutingException> failures = IntStream.range(0, rowBlocks * columnBlocks).parallel()
+                .mapToObj(b -> {
+                    int firstRow = (b / columnBlocks) * block;
+                    int firstColumn = (b % columnBlocks) * block;
+                    try {
+                        fetchTable(origins.subList(firstRow, Math.min(rows, firstRow + block)),
+                                destinations.subList(firstColumn, Math.min(columns, firstColumn + block)),
+                                firstRow, firstColumn, columns, distances, durations);
+                        return null;
+                    } catch (RoutingException e) {
+                        return e;
+                    }
+                })
+                .filter(e -> e != null)
+                .collect(Collectors.toList());
+        if (!failures.isEmpty()) {
+            throw failures.get(0);
+        }
+
+        System.out.println("[OSRM] Matriz " + rows + "x" + columns + " calculada en "
+                + (rowBlocks * columnBlocks) + " peticiones");
+        return new DistanceMatrix(rows, columns, distances, durations, getStrategyName());
+    }
+    
+    /**
+     * Consulta un bloque de la matriz y copia sus celdas en la posición que le corresponde
+     */
+    private void fetchTable(List<Coordinates> origins, List<Coordinates> destinations, int firstRow,
+                            int firstColumn, int columns, double[] distances, double[] durations)
+            throws RoutingException {
+        String url = buildTableUrl(origins, destinations);
+        try {
+            JsonObject root = JsonParser.parseString(httpClient.get(url)).getAsJsonObject();
+            String code = root.get("code").getAsString();
+            if (!"Ok".equals(code)) {
+                throw new RoutingException(getStrategyName(), "OSRM retornó código: " + code);
+            }
+            JsonArray durationRows = root.getAsJsonArray("durations");
+            JsonArray distanceRows = root.has("distances") ? root.getAsJsonArray("distances") : null;
+            for (int i = 0; i < origins.size(); i++) {
+                JsonArray durationRow = durationRows.get(i).getAsJsonArray();
+                JsonArray distanceRow = distanceRows != null ? distanceRows.get(i).getAsJsonArray() : null;
+                for (int j = 0; j < destinations.size(); j++) {
+                    int index = (firstRow + i) * columns + firstColumn + j;
+                    durations[index] = cellValue(durationRow.get(j));
+                    distances[index] = distanceRow != null ? cellValue(distanceRow.get(j)) : Double.NaN;
+                }
+            }
+        } catch (IOException e) {
+            throw new RoutingException(getStrategyName(),
+                "Error de conexión con OSRM: " + e.getMessage(), e);
+        } catch (RoutingException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RoutingException(getStrategyName(),
+                "Error parseando matriz de OSRM: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Construye la URL /table con los orígenes primero y los destinos después
+     */
+    private String buildTableUrl(List<Coordinates> origins, List<Coordinates> destinations) {
+        StringBuilder url = new StringBuilder(baseUrl).append("/table/v1/").append(PROFILE).append('/');
+        List<Coordinates> all = new ArrayList<>(origins);
+        all.addAll(destinations);
+        for (int i = 0; i < all.size(); i++) {
+            if (i > 0) {
+                url.append(';');
+            }
+            url.append(String.format(Locale.ROOT, "%.6f,%.6f", all.get(i).getLongitude(), all.get(i).getLatitude()));
+        }
+        url.append("?sources=").append(indexList(0, origins.size()))
+           .append("&destinations=").append(indexList(origins.size(), all.size()))
+           .append("&annotations=duration,distance");
+        return url.toString();
+    }
+    
+    private static String indexList(int from, int to) {
+        return IntStream.range(from, to).mapToObj(String::valueOf).collect(Collectors.joining(";"));
+    }
+    
+    /**
+     * OSRM devuelve null en las celdas sin ruta
+     */
+    private static double cellValue(JsonElement element) {
+        return element == null || element.isJsonNull() ? Double.NaN : element.getAsDouble();
+    }
+    
     /**
      * Convierte la geometría GeoJSON de OSRM a lista de Waypoints
      */
@@ -220,16 +352,8 @@ public class OSRMRoutingStrategy implements RoutingStrategy {
         try {
             // Hacer un request simple para verificar conectividad
             String testUrl = baseUrl + "/route/v1/driving/-75.681111,4.533889;-75.670000,4.540000";
-            Request request = new Request.Builder()
-                    .url(testUrl)
-                    .get()
-                    .build();
-            
-            Response response = httpClient.newCall(request).execute();
-            boolean available = response.isSuccessful();
-            response.close();
-            
-            return available;
+            httpClient.get(testUrl);
+            return true;
             
         } catch (Exception e) {
             System.err.println("[OSRM] No disponible: " + e.getMessage());
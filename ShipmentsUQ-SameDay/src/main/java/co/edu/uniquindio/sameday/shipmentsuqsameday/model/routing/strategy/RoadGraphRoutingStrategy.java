@@ -0,0 +1,351 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.DistanceMatrix;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.Route;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.RouteStatistics;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.Waypoint;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.OsmGraphLoader;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.RoadGraph;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.RoadGraphSearch;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Estrategia de ruteo sobre el grafo vial real de un extracto local de OpenStreetMap
+ * Calcula la ruta de menor tiempo por las calles sin conexión a internet
+ *
+ * El extracto se lee de la propiedad del sistema {@value #OSM_PATH_PROPERTY}
+ * (por defecto ~/.shipmentsuq/armenia.osm.gz o armenia.osm) y se carga la primera vez
+ * que se usa. Los tramos entre cada punto y el nodo vial más cercano se recorren en
+ * línea recta; si un punto queda lejos de toda vía o no hay camino, la estrategia falla
+ * y el servicio pasa a la siguiente.
+ */
+public class RoadGraphRoutingStrategy implements RoutingStrategy {
+
+    public static final String OSM_PATH_PROPERTY = "sameday.routing.osmPath";
+
+    // Velocidad de los tramos de acceso entre el punto y la vía (km/h)
+    private static final double ACCESS_SPEED_KMH = 30.0;
+
+    // Distancia máxima para ajustar un punto a la vía (metros)
+    private static final double MAX_SNAP_METERS = 1000.0;
+
+    private final Path osmPath;
+    private volatile RoadGraph graph;
+    private volatile boolean loadAttempted;
+    private ThreadLocal<RoadGraphSearch> searches;
+
+    /**
+     * Crea la estrategia con el extracto configurado en las propiedades del sistema
+     */
+    public RoadGraphRoutingStrategy() {
+        this(resolveDefaultPath());
+    }
+
+    /**
+     * Crea la estrategia con un extracto específico
+     * @param osmPath ruta del archivo .osm o .osm.gz
+     */
+    public RoadGraphRoutingStrategy(Path osmPath) {
+        this.osmPath = osmPath;
+    }
+
+    /**
+     * Crea la estrategia sobre un grafo ya cargado
+     * @param graph grafo vial
+     */
+    public RoadGraphRoutingStrategy(RoadGraph graph) {
+        this.osmPath = null;
+        useGraph(graph);
+    }
+
+    private static Path resolveDefaultPath() {
+        String configured = System.getProperty(OSM_PATH_PROPERTY);
+        if (configured != null && !configured.isBlank()) {
+            return Paths.get(configured);
+        }
+        Path directory = Paths.get(System.getProperty("user.home"), ".shipmentsuq");
+        Path compressed = directory.resolve("armenia.osm.gz");
+        return Files.exists(compressed) ? compressed : directory.resolve("armenia.osm");
+    }
+
+    /**
+     * Obtiene el grafo, cargándolo la primera vez
+     * @return grafo o null si no hay extracto disponible
+     */
+    public RoadGraph getGraph() {
+        if (graph == null && !loadAttempted) {
+            synchronized (this) {
+                if (graph == null && !loadAttempted) {
+                    loadAttempted = true;
+                    if (osmPath != null) {
+                        try {
+                            RoadGraph loaded = loadGraph(osmPath);
+                            if (loaded != null) {
+                                useGraph(loaded);
+                            }
+                        } catch (Exception e) {
+                            System.err.println("[RoadGraph] No se pudo cargar el extracto: " + e.getMessage());
+                        }
+                    }
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Carga el grafo del extracto; las subclases pueden cargar estructuras adicionales
+     * @param osmPath ruta del extracto
+     * @return grafo, o null si el extracto no existe
+     * @throws IOException si el extracto no puede leerse
+     */
+    protected RoadGraph loadGraph(Path osmPath) throws IOException {
+        if (!Files.isRegularFile(osmPath)) {
+            return null;
+        }
+        System.out.println("[RoadGraph] Cargando extracto OSM: " + osmPath);
+        return new OsmGraphLoader().load(osmPath);
+    }
+
+    /**
+     * Publica el grafo para las consultas; las subclases que cargan en segundo plano lo
+     * llaman cuando terminan
+     * @param loaded grafo vial
+     */
+    protected final void useGraph(RoadGraph loaded) {
+        this.searches = ThreadLocal.withInitial(() -> new RoadGraphSearch(loaded));
+        this.graph = loaded;
+        this.loadAttempted = true;
+    }
+
+    @Override
+    public Route calculateRoute(Coordinates origin, Coordinates destination) throws RoutingException {
+        RoadGraph roads = requireGraph();
+        int source = snap(roads, origin);
+        int target = snap(roads, destination);
+
+        int[] path = findPath(roads, source, target);
+        if (path == null) {
+            throw new RoutingException(getStrategyName(), "No existe camino vial entre los puntos");
+        }
+
+        double startMeters = roads.distanceMeters(source, origin.getLatitude(), origin.getLongitude());
+        double endMeters = roads.distanceMeters(target, destination.getLatitude(), destination.getLongitude());
+        double startSeconds = accessSeconds(startMeters);
+
+        List<Waypoint> waypoints = new ArrayList<>(path.length + 2);
+        waypoints.add(Waypoint.builder()
+                .sequence(0)
+                .coordinates(origin)
+                .distanceFromStart(0)
+                .timeFromStart(Duration.ZERO)
+                .description("Origen")
+                .reached(false)
+                .build());
+
+        // El camino se vuelve a recorrer para acumular distancia y tiempo por nodo
+        double meters = startMeters;
+        double seconds = startSeconds;
+        for (int i = 0; i < path.length; i++) {
+            if (i > 0) {
+                int edge = edgeBetween(roads, path[i - 1], path[i]);
+                meters += roads.edgeMeters(edge);
+                seconds += roads.edgeSeconds(edge);
+            }
+            waypoints.add(Waypoint.builder()
+                    .sequence(waypoints.size())
+                    .coordinates(new Coordinates(roads.getLatitude(path[i]), roads.getLongitude(path[i])))
+                    .distanceFromStart(meters)
+                    .timeFromStart(Duration.ofMillis(Math.round(seconds * 1000)))
+                    .reached(false)
+                    .build());
+        }
+
+        double totalMeters = meters + endMeters;
+        double totalSeconds = seconds + accessSeconds(endMeters);
+        waypoints.add(Waypoint.builder()
+                .sequence(waypoints.size())
+                .coordinates(destination)
+                .distanceFromStart(totalMeters)
+                .timeFromStart(Duration.ofMillis(Math.round(totalSeconds * 1000)))
+                .description("Destino")
+                .reached(false)
+                .build());
+
+        RouteStatistics statistics = RouteStatistics.builder()
+                .totalDistanceMeters(totalMeters)
+                .estimatedDuration(Duration.ofMillis(Math.round(totalSeconds * 1000)))
+                .averageSpeedKmh(totalSeconds > 0 ? (totalMeters / 1000.0) / (totalSeconds / 3600.0) : 0)
+                .waypointCount(waypoints.size())
+                .valid(true)
+                .calculationMethod(getStrategyName())
+                .build();
+
+        return Route.builder()
+                .id(UUID.randomUUID())
+                .origin(origin)
+                .destination(destination)
+                .waypoints(waypoints)
+                .statistics(statistics)
+                .calculatedAt(LocalDateTime.now())
+                .calculationStrategy(getStrategyName())
+                .valid(true)
+                .build();
+    }
+
+    /**
+     * Matriz sobre el grafo: ajusta cada punto a su nodo y suma los tramos de acceso a los
+     * tiempos de nodo a nodo de {@link #nodeMatrix}.
+     * Las celdas sin camino o con puntos lejos de la vía quedan en NaN.
+     */
+    @Override
+    public DistanceMatrix calculateMatrix(List<Coordinates> origins, List<Coordinates> destinations)
+            throws RoutingException {
+        RoadGraph roads = requireGraph();
+        int columns = destinations.size();
+        double[] distances = new double[origins.size() * columns];
+        double[] durations = new double[origins.size() * columns];
+        Arrays.fill(distances, Double.NaN);
+        Arrays.fill(durations, Double.NaN);
+
+        int[] targets = new int[columns];
+        double[] targetAccess = new double[columns];
+        for (int column = 0; column < columns; column++) {
+            targets[column] = snapOrMissing(roads, destinations.get(column));
+            if (targets[column] >= 0) {
+                targetAccess[column] = roads.distanceMeters(targets[column],
+                    destinations.get(column).getLatitude(), destinations.get(column).getLongitude());
+            }
+        }
+        int[] sources = new int[origins.size()];
+        double[] sourceAccess = new double[origins.size()];
+        for (int row = 0; row < sources.length; row++) {
+            Coordinates origin = origins.get(row);
+            sources[row] = snapOrMissing(roads, origin);
+            if (sources[row] >= 0) {
+                sourceAccess[row] = roads.distanceMeters(sources[row], origin.getLatitude(), origin.getLongitude());
+            }
+        }
+
+        double[] nodeSeconds = new double[sources.length * columns];
+        double[] nodeMeters = new double[sources.length * columns];
+        nodeMatrix(roads, sources, targets, nodeSeconds, nodeMeters);
+        for (int row = 0; row < sources.length; row++) {
+            for (int column = 0; column < columns; column++) {
+                int cell = row * columns + column;
+                if (sources[row] < 0 || targets[column] < 0 || Double.isNaN(nodeSeconds[cell])) {
+                    continue;
+                }
+                distances[cell] = sourceAccess[row] + nodeMeters[cell] + targetAccess[column];
+                durations[cell] = accessSeconds(sourceAccess[row]) + nodeSeconds[cell] + accessSeconds(targetAccess[column]);
+            }
+        }
+        return new DistanceMatrix(origins.size(), columns, distances, durations, getStrategyName());
+    }
+
+    /**
+     * Camino de menor tiempo entre dos nodos del grafo
+     * @return nodos del camino en orden, o null si no hay camino
+     */
+    protected int[] findPath(RoadGraph roads, int source, int target) {
+        return searches.get().shortestPath(source, target);
+    }
+
+    /**
+     * Tiempos y distancias de nodo a nodo, con una búsqueda de uno a muchos por origen en
+     * paralelo. Los nodos -1 y los pares sin camino quedan en NaN.
+     */
+    protected void nodeMatrix(RoadGraph roads, int[] sources, int[] targets, double[] seconds, double[] meters) {
+        int columns = targets.length;
+        int[] searchTargets = Arrays.stream(targets).filter(target -> target >= 0).toArray();
+        Arrays.fill(seconds, Double.NaN);
+        Arrays.fill(meters, Double.NaN);
+        IntStream.range(0, sources.length).parallel().forEach(row -> {
+            if (sources[row] < 0) {
+                return;
+            }
+            RoadGraphSearch search = searches.get();
+            search.run(sources[row], searchTargets);
+            for (int column = 0; column < columns; column++) {
+                if (targets[column] >= 0 && search.isReached(targets[column])) {
+                    seconds[row * columns + column] = search.secondsTo(targets[column]);
+                    meters[row * columns + column] = search.metersTo(targets[column]);
+                }
+            }
+        });
+    }
+
+    private RoadGraph requireGraph() throws RoutingException {
+        RoadGraph roads = getGraph();
+        if (roads == null || roads.getNodeCount() == 0) {
+            throw new RoutingException(getStrategyName(), "No hay grafo vial cargado");
+        }
+        return roads;
+    }
+
+    private int snap(RoadGraph roads, Coordinates point) throws RoutingException {
+        int node = snapOrMissing(roads, point);
+        if (node < 0) {
+            throw new RoutingException(getStrategyName(),
+                "El punto " + point + " está fuera del área del grafo vial");
+        }
+        return node;
+    }
+
+    private int snapOrMissing(RoadGraph roads, Coordinates point) {
+        int node = roads.nearestNode(point.getLatitude(), point.getLongitude());
+        if (node < 0 || roads.distanceMeters(node, point.getLatitude(), point.getLongitude()) > MAX_SNAP_METERS) {
+            return -1;
+        }
+        return node;
+    }
+
+    /**
+     * Arista más rápida entre dos nodos consecutivos del camino
+     */
+    private static int edgeBetween(RoadGraph roads, int from, int to) {
+        int best = -1;
+        for (int e = roads.firstEdge(from), end = roads.endEdge(from); e < end; e++) {
+            if (roads.edgeTarget(e) == to && (best < 0 || roads.edgeSeconds(e) < roads.edgeSeconds(best))) {
+                best = e;
+            }
+        }
+        return best;
+    }
+
+    private static double accessSeconds(double meters) {
+        return meters / (ACCESS_SPEED_KMH / 3.6);
+    }
+
+    @Override
+    public String getStrategyName() {
+        return "RoadGraph";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return getGraph() != null;
+    }
+
+    @Override
+    public int getPriority() {
+        return 9; // Después de OSRM, antes del fallback en línea recta
+    }
+
+    @Override
+    public boolean requiresInternet() {
+        return false;
+    }
+}
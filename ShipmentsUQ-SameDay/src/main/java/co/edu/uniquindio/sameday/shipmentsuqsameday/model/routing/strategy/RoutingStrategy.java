@@ -1,7 +1,13 @@
 package co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy;
 
 import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.DistanceMatrix;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.Route;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.RouteStatistics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * Strategy Pattern: Interfaz para diferentes algoritmos de cálculo de rutas
@@ -19,6 +25,41 @@ public interface RoutingStrategy {
      */
     Route calculateRoute(Coordinates origin, Coordinates destination) throws RoutingException;
     
+    /**
+     * Calcula distancias y duraciones entre todos los orígenes y destinos.
+     * Por defecto calcula cada celda con {@link #calculateRoute} en paralelo por filas;
+     * las estrategias con un método más directo deben sobrescribirlo.
+     * Una celda cuya ruta no se pudo calcular queda en NaN.
+     *
+     * @param origins puntos de origen (filas)
+     * @param destinations puntos de destino (columnas)
+     * @return matriz de distancias y duraciones
+     * @throws RoutingException si no se puede calcular la matriz
+     */
+    default DistanceMatrix calculateMatrix(List<Coordinates> origins, List<Coordinates> destinations)
+            throws RoutingException {
+        int columns = destinations.size();
+        double[] distances = new double[origins.size() * columns];
+        double[] durations = new double[origins.size() * columns];
+        Arrays.fill(distances, Double.NaN);
+        Arrays.fill(durations, Double.NaN);
+        IntStream.range(0, origins.size()).parallel().forEach(row -> {
+            for (int column = 0; column < columns; column++) {
+                try {
+                    Route route = calculateRoute(origins.get(row), destinations.get(column));
+                    RouteStatistics statistics = route != null ? route.getStatistics() : null;
+                    if (route != null && route.isValid() && statistics != null && statistics.getEstimatedDuration() != null) {
+                        distances[row * columns + column] = statistics.getTotalDistanceMeters();
+                        durations[row * columns + column] = statistics.getEstimatedDuration().toMillis() / 1000.0;
+                    }
+                } catch (RoutingException e) {
+                    // La celda queda sin ruta
+                }
+            }
+        });
+        return new DistanceMatrix(origins.size(), columns, distances, durations, getStrategyName());
+    }
+    
     /**
      * Obtiene el nombre descriptivo de esta estrategia
      * 
@@ -0,0 +1,444 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.service;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Address;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.dto.DispatchMetricsDTO;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentPriority;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.DelivererRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.ShipmentRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.DistanceMatrix;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.service.DistanceMatrixService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.RoutingException;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.strategy.GridCoordinateStrategy;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.util.HungarianAssignment;
+
+import java.io.Closeable;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio que asigna en lote los envíos pendientes a los repartidores con cupo.
+ * En lugar de elegir repartidor envío por envío, arma una matriz de costos (kilómetros
+ * de viaje entre el repartidor y el origen, obtenidos en una sola llamada a
+ * {@link DistanceMatrixService}) con un cupo por columna y la resuelve como una
+ * asignación de costo mínimo, respetando el máximo de envíos simultáneos por repartidor.
+ * Las asignaciones se aplican por el mismo camino que la asignación individual
+ * y la persistencia se fuerza una sola vez al final del lote.
+ */
+public class BatchDispatchService implements Closeable {
+
+    private static final int DEFAULT_BATCH_LIMIT = 200;
+    // Repartidores más cercanos que se consideran para cada envío
+    private static final int CANDIDATES_PER_SHIPMENT = 8;
+    // Costo por cada envío que el repartidor ya lleva: reparte la carga entre repartidores a distancias parecidas
+    private static final double LOAD_PENALTY_KM = 0.5;
+    // Costo de dejar un envío para el siguiente lote, multiplicado por su prioridad
+    private static final double DEFER_COST_KM = 1_000;
+
+    private final ShipmentRepository shipmentRepository;
+    private final DelivererService delivererService;
+    private final DistanceMatrixService distanceMatrixService;
+    private final Predicate<Shipment> eligibility;
+    private final int batchLimit;
+    private volatile Runnable persistHook = () -> { };
+    // Protege el planificador por separado del lote para que close() no espere al monitor del lote
+    private final Object scheduleLock = new Object();
+    private ScheduledExecutorService executor;
+
+    // Métricas (los lotes de distintas zonas pueden terminar a la vez)
+    private final Object metricsLock = new Object();
+    private long runs;
+    private long shipmentsConsidered;
+    private long shipmentsAssigned;
+    private long totalDurationMillis;
+    private int lastBatchSize;
+    private int lastAssigned;
+    private int lastSlots;
+    private long lastDurationMillis;
+    private double lastTotalDistanceKm;
+
+    private static BatchDispatchService instance;
+
+    /**
+     * Constructor del servicio
+     * @param shipmentRepository repositorio de envíos
+     * @param delivererService servicio de repartidores
+     * @param eligibility condición adicional que debe cumplir un envío pendiente (por ejemplo, estar pagado)
+     * @param batchLimit cantidad máxima de envíos por lote
+     */
+    public BatchDispatchService(ShipmentRepository shipmentRepository, DelivererService delivererService,
+                                Predicate<Shipment> eligibility, int batchLimit) {
+        this(shipmentRepository, delivererService, DistanceMatrixService.getInstance(), eligibility, batchLimit);
+    }
+
+    /**
+     * Constructor del servicio con un servicio de matrices propio
+     * @param shipmentRepository repositorio de envíos
+     * @param delivererService servicio de repartidores
+     * @param distanceMatrixService servicio que calcula las distancias de viaje
+     * @param eligibility condición adicional que debe cumplir un envío pendiente (por ejemplo, estar pagado)
+     * @param batchLimit cantidad máxima de envíos por lote
+     */
+    public BatchDispatchService(ShipmentRepository shipmentRepository, DelivererService delivererService,
+                                DistanceMatrixService distanceMatrixService, Predicate<Shipment> eligibility,
+                                int batchLimit) {
+        if (batchLimit <= 0) {
+            throw new IllegalArgumentException("El tamaño del lote debe ser positivo");
+        }
+        this.shipmentRepository = shipmentRepository;
+        this.delivererService = delivererService;
+        this.distanceMatrixService = distanceMatrixService;
+        this.eligibility = eligibility != null ? eligibility : shipment -> true;
+        this.batchLimit = batchLimit;
+    }
+
+    /**
+     * Establece la instancia única del servicio; si había una programada se detiene
+     * @param shipmentRepository repositorio de envíos
+     * @param delivererService servicio de repartidores
+     * @param eligibility condición adicional que debe cumplir un envío pendiente
+     * @return instancia del servicio
+     */
+    public static synchronized BatchDispatchService getInstance(ShipmentRepository shipmentRepository,
+                                                                DelivererService delivererService,
+                                                                Predicate<Shipment> eligibility) {
+        if (instance != null) {
+            instance.close();
+        }
+        instance = new BatchDispatchService(shipmentRepository, delivererService, eligibility, DEFAULT_BATCH_LIMIT);
+        return instance;
+    }
+
+    /**
+     * Obtiene la instancia única del servicio
+     * @return instancia del servicio
+     * @throws IllegalStateException si no se ha inicializado con sus dependencias
+     */
+    public static synchronized BatchDispatchService getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("BatchDispatchService no ha sido inicializado con repositorios");
+        }
+        return instance;
+    }
+
+    /**
+     * Acción que persiste las mutaciones de un lote; se ejecuta una vez por lote con asignaciones
+     * @param persistHook acción de persistencia
+     */
+    public void setPersistHook(Runnable persistHook) {
+        this.persistHook = persistHook != null ? persistHook : () -> { };
+    }
+
+    /**
+     * Programa el despacho periódico en un hilo de fondo
+     * @param intervalMillis milisegundos entre lotes
+     */
+    public void start(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("El intervalo debe ser positivo");
+        }
+        synchronized (scheduleLock) {
+            if (executor != null) {
+                return;
+            }
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "batch-dispatcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleWithFixedDelay(this::runScheduled, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+        System.out.println("[DISPATCH] Despacho por lotes programado cada " + intervalMillis + " ms");
+    }
+
+    /**
+     * Detiene el despacho periódico esperando a que termine el lote en curso
+     */
+    @Override
+    public void close() {
+        synchronized (scheduleLock) {
+            if (executor == null) {
+                return;
+            }
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            executor = null;
+        }
+    }
+
+    private void runScheduled() {
+        try {
+            dispatchPending();
+        } catch (RuntimeException e) {
+            // Un lote fallido no debe cancelar las ejecuciones siguientes
+            System.err.println("[DISPATCH] Error en el despacho por lotes: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Asigna en un solo lote los envíos pendientes a los repartidores con cupo.
+     * Los envíos sin cupo cercano quedan pendientes para el siguiente lote; con más envíos
+     * que cupos se prefieren los de mayor prioridad.
+     * @return número de envíos asignados
+     */
+    public synchronized int dispatchPending() {
+        return dispatch(shipmentRepository.findByStatus(ShipmentStatus.PENDING), null);
+    }
+
+    /**
+     * Asigna en un lote los envíos dados que sigan pendientes, considerando solo los
+     * repartidores de pool. Lotes con envíos y repartidores distintos (por ejemplo, de
+     * zonas distintas) pueden ejecutarse en paralelo: los cupos se reservan en
+     * {@link DelivererService} y cada envío se confirma bajo su propio candado.
+     * @param shipments envíos a considerar
+     * @param pool repartidores entre los que elegir (null para usar todos los del repositorio)
+     * @return número de envíos asignados
+     */
+    public int dispatch(Collection<Shipment> shipments, Collection<Deliverer> pool) {
+        return dispatch(shipments, pool, deliverer -> true);
+    }
+
+    /**
+     * Asigna en un lote los envíos dados que sigan pendientes, buscando repartidores en el
+     * índice espacial del repositorio pero sin considerar los excluidos (por ejemplo, los
+     * que acaban de liberar esos envíos por un incidente)
+     * @param shipments envíos a considerar
+     * @param excludedDeliverers IDs de los repartidores que no pueden recibir envíos del lote
+     * @return número de envíos asignados
+     */
+    public int dispatchExcluding(Collection<Shipment> shipments, Set<UUID> excludedDeliverers) {
+        return dispatch(shipments, null, deliverer -> !excludedDeliverers.contains(deliverer.getId()));
+    }
+
+    private int dispatch(Collection<Shipment> shipments, Collection<Deliverer> pool, Predicate<Deliverer> accept) {
+        long start = System.nanoTime();
+        List<Shipment> batch = shipments.stream()
+                .filter(s -> s.getStatus() == ShipmentStatus.PENDING && s.getDeliverer() == null
+                        && s.getOrigin() != null && eligibility.test(s))
+                .sorted(Comparator.comparingDouble(BatchDispatchService::priorityWeight).reversed()
+                        .thenComparing(Shipment::getCreationDate, Comparator.nullsLast(Comparator.naturalOrder())))
+                .limit(batchLimit)
+                .collect(Collectors.toList());
+
+        int assigned = 0;
+        int slotCount = 0;
+        double totalDistance = 0;
+        if (!batch.isEmpty()) {
+            DelivererRepository delivererRepository = delivererService.getRepository();
+            Map<UUID, Integer> capacity = new HashMap<>();
+            Predicate<Deliverer> hasCapacity = d -> accept.test(d)
+                    && capacity.computeIfAbsent(d.getId(), id -> delivererService.getRemainingCapacity(d)) > 0;
+            List<Deliverer> available = pool != null
+                    ? pool.stream().filter(hasCapacity).collect(Collectors.toList())
+                    : null;
+
+            // Candidatos de cada envío y un cupo (columna) por envío que cada repartidor aún puede tomar
+            List<double[]> origins = new ArrayList<>(batch.size());
+            List<List<Deliverer>> candidates = new ArrayList<>(batch.size());
+            Map<UUID, Integer> firstSlot = new LinkedHashMap<>();
+            Map<UUID, Integer> delivererIndex = new HashMap<>();
+            List<Deliverer> candidateDeliverers = new ArrayList<>();
+            List<Deliverer> slotOwners = new ArrayList<>();
+            for (Shipment shipment : batch) {
+                double[] origin = gpsPosition(shipment.getOrigin());
+                List<Deliverer> nearest = available != null
+                        ? nearestInPool(available, origin, delivererRepository)
+                        : delivererRepository.findNearestByGps(origin[0], origin[1], CANDIDATES_PER_SHIPMENT, hasCapacity);
+                for (Deliverer deliverer : nearest) {
+                    if (!firstSlot.containsKey(deliverer.getId())) {
+                        firstSlot.put(deliverer.getId(), slotOwners.size());
+                        delivererIndex.put(deliverer.getId(), candidateDeliverers.size());
+                        candidateDeliverers.add(deliverer);
+                        for (int k = 0; k < capacity.get(deliverer.getId()); k++) {
+                            slotOwners.add(deliverer);
+                        }
+                    }
+                }
+                origins.add(origin);
+                candidates.add(nearest);
+            }
+            slotCount = slotOwners.size();
+            double[] distanceKm = travelDistancesKm(candidateDeliverers, origins);
+
+            // Una columna extra por envío representa dejarlo para el siguiente lote
+            double[][] cost = new double[batch.size()][slotCount + batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                Arrays.fill(cost[i], HungarianAssignment.FORBIDDEN);
+                for (Deliverer deliverer : candidates.get(i)) {
+                    double distance = distanceKm[delivererIndex.get(deliverer.getId()) * batch.size() + i];
+                    if (!Double.isFinite(distance)) {
+                        continue;
+                    }
+                    int load = deliverer.getCurrentShipments().size();
+                    int first = firstSlot.get(deliverer.getId());
+                    for (int k = 0; k < capacity.get(deliverer.getId()); k++) {
+                        cost[i][first + k] = distance + LOAD_PENALTY_KM * (load + k);
+                    }
+                }
+                cost[i][slotCount + i] = DEFER_COST_KM * priorityWeight(batch.get(i));
+            }
+
+            int[] columns = HungarianAssignment.solve(cost);
+            for (int i = 0; i < batch.size(); i++) {
+                if (columns[i] < 0 || columns[i] >= slotCount) {
+                    continue;
+                }
+                Deliverer deliverer = slotOwners.get(columns[i]);
+                if (commit(batch.get(i), deliverer)) {
+                    assigned++;
+                    totalDistance += distanceKm[delivererIndex.get(deliverer.getId()) * batch.size() + i];
+                }
+            }
+
+            if (assigned > 0) {
+                persistHook.run();
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        synchronized (metricsLock) {
+            runs++;
+            shipmentsConsidered += batch.size();
+            shipmentsAssigned += assigned;
+            totalDurationMillis += elapsedMillis;
+            lastBatchSize = batch.size();
+            lastAssigned = assigned;
+            lastSlots = slotCount;
+            lastDurationMillis = elapsedMillis;
+            lastTotalDistanceKm = totalDistance;
+        }
+        if (!batch.isEmpty()) {
+            System.out.println("[DISPATCH] Lote de " + batch.size() + " envíos: " + assigned + " asignados con "
+                    + slotCount + " cupos en " + elapsedMillis + " ms");
+        }
+        return assigned;
+    }
+
+    /**
+     * Los repartidores del grupo más cercanos (en línea recta) a un origen
+     */
+    private static List<Deliverer> nearestInPool(List<Deliverer> pool, double[] origin,
+                                                 DelivererRepository delivererRepository) {
+        return pool.stream()
+                .sorted(Comparator.comparingDouble(d -> delivererRepository.distanceByGps(d, origin[0], origin[1])))
+                .limit(CANDIDATES_PER_SHIPMENT)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Kilómetros de viaje de cada repartidor candidato (fila) al origen de cada envío (columna).
+     * Si no se puede calcular la matriz se usa la distancia en línea recta.
+     */
+    private double[] travelDistancesKm(List<Deliverer> deliverers, List<double[]> origins) {
+        double[] distanceKm = new double[deliverers.size() * origins.size()];
+        if (deliverers.isEmpty()) {
+            return distanceKm;
+        }
+        List<Coordinates> from = new ArrayList<>(deliverers.size());
+        for (Deliverer deliverer : deliverers) {
+            double[] position = gpsPosition(deliverer);
+            from.add(new Coordinates(position[0], position[1]));
+        }
+        List<Coordinates> to = new ArrayList<>(origins.size());
+        for (double[] origin : origins) {
+            to.add(new Coordinates(origin[0], origin[1]));
+        }
+        try {
+            DistanceMatrix matrix = distanceMatrixService.compute(from, to);
+            double[] meters = matrix.getDistancesMeters();
+            for (int k = 0; k < meters.length; k++) {
+                distanceKm[k] = meters[k] / 1000.0;
+            }
+        } catch (RoutingException e) {
+            System.err.println("[DISPATCH] Matriz de distancias no disponible, usando línea recta: " + e.getMessage());
+            DelivererRepository delivererRepository = delivererService.getRepository();
+            for (int d = 0; d < deliverers.size(); d++) {
+                for (int i = 0; i < origins.size(); i++) {
+                    distanceKm[d * origins.size() + i] = delivererRepository.distanceByGps(
+                            deliverers.get(d), origins.get(i)[0], origins.get(i)[1]);
+                }
+            }
+        }
+        return distanceKm;
+    }
+
+    /**
+     * Aplica una asignación del lote si el envío sigue pendiente y el repartidor aún tiene cupo
+     */
+    private boolean commit(Shipment shipment, Deliverer deliverer) {
+        synchronized (shipment) {
+            if (shipment.getStatus() != ShipmentStatus.PENDING || shipment.getDeliverer() != null) {
+                return false;
+            }
+            if (!delivererService.assignShipment(deliverer, shipment)) {
+                return false;
+            }
+            shipment.setDeliverer(deliverer);
+            shipment.setStatus(ShipmentStatus.ASSIGNED);
+            shipment.setAssignmentDate(LocalDateTime.now());
+            shipmentRepository.update(shipment);
+            return true;
+        }
+    }
+
+    /**
+     * @return métricas acumuladas y del último lote
+     */
+    public DispatchMetricsDTO getMetrics() {
+        synchronized (metricsLock) {
+            return DispatchMetricsDTO.builder()
+                    .runs(runs)
+                    .shipmentsConsidered(shipmentsConsidered)
+                    .shipmentsAssigned(shipmentsAssigned)
+                    .totalDurationMillis(totalDurationMillis)
+                    .lastBatchSize(lastBatchSize)
+                    .lastAssigned(lastAssigned)
+                    .lastLeftPending(lastBatchSize - lastAssigned)
+                    .lastSlots(lastSlots)
+                    .lastDurationMillis(lastDurationMillis)
+                    .lastTotalDistanceKm(lastTotalDistanceKm)
+                    .build();
+        }
+    }
+
+    /**
+     * Posición GPS [latitud, longitud] de una dirección; si no tiene, la estima a partir del Grid
+     */
+    private static double[] gpsPosition(Address address) {
+        if (address.hasGpsCoordinates()) {
+            return new double[]{address.getGpsLatitude(), address.getGpsLongitude()};
+        }
+        return GridCoordinateStrategy.convertGridToReal(address.getCoordX(), address.getCoordY());
+    }
+
+    /**
+     * Posición GPS [latitud, longitud] de un repartidor; si no tiene, la estima a partir del Grid
+     */
+    private static double[] gpsPosition(Deliverer deliverer) {
+        if (deliverer.hasRealCoordinates()) {
+            return new double[]{deliverer.getRealLatitude(), deliverer.getRealLongitude()};
+        }
+        return GridCoordinateStrategy.convertGridToReal(deliverer.getCurrentX(), deliverer.getCurrentY());
+    }
+
+    private static double priorityWeight(Shipment shipment) {
+        ShipmentPriority priority = shipment.getPriority();
+        return priority != null ? priority.getRateMultiplier() : ShipmentPriority.STANDARD.getRateMultiplier();
+    }
+}
@@ -0,0 +1,67 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.service;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cupo reservado en un repartidor por {@link DelivererService#reserveCapacity(Deliverer)}.
+ * La reserva ya cuenta para el máximo de envíos simultáneos del repartidor; debe
+ * confirmarse con un envío o liberarse. Usada con try-with-resources, una reserva
+ * que no se confirmó se libera al salir del bloque.
+ */
+public final class CapacityReservation implements AutoCloseable {
+
+    private final DelivererService service;
+    private final Deliverer deliverer;
+    private final AtomicBoolean settled = new AtomicBoolean(false);
+
+    CapacityReservation(DelivererService service, Deliverer deliverer) {
+        this.service = service;
+        this.deliverer = deliverer;
+    }
+
+    /**
+     * @return repartidor en el que se reservó el cupo
+     */
+    public Deliverer getDeliverer() {
+        return deliverer;
+    }
+
+    /**
+     * Confirma la reserva agregando el envío a los envíos actuales del repartidor
+     * @param shipment envío que ocupa el cupo
+     * @throws IllegalStateException si la reserva ya fue confirmada o liberada
+     */
+    public void commit(Shipment shipment) {
+        if (shipment == null) {
+            throw new IllegalArgumentException("El envío no puede ser nulo");
+        }
+        if (!settled.compareAndSet(false, true)) {
+            throw new IllegalStateException("La reserva ya fue confirmada o liberada");
+        }
+        service.commitReservation(deliverer, shipment);
+    }
+
+    /**
+     * Devuelve el cupo al repartidor si la reserva no se ha confirmado
+     */
+    public void release() {
+        if (settled.compareAndSet(false, true)) {
+            service.releaseSlot(deliverer);
+        }
+    }
+
+    /**
+     * @return true si la reserva ya se confirmó o liberó
+     */
+    public boolean isSettled() {
+        return settled.get();
+    }
+
+    @Override
+    public void close() {
+        release();
+    }
+}
@@ -3,12 +3,15 @@ package co.edu.uniquindio.sameday.shipmentsuqsameday.model.service;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.DelivererStatus;
-import co.edu.uniquindio.sameday.shipmentsuqsameday.model.interfaces.IGridCoordinate;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.DelivererRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.strategy.GridCoordinateStrategy;
 
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Servicio para la gestión de repartidores y sus asignaciones
@@ -19,6 +22,10 @@ public class DelivererService implements Service<Deliverer, DelivererRepository>
     
     private final DelivererRepository repository;
     
+    // Cupos ocupados por repartidor (envíos confirmados más reservas en curso). Se toman con
+    // compare-and-set, sin bloqueo global; se inicializan con los envíos actuales del repartidor
+    private final ConcurrentHashMap<UUID, AtomicInteger> slotsInUse = new ConcurrentHashMap<>();
+    
     // Constructor privado para Singleton con inyección de dependencias
     private DelivererService(DelivererRepository repository) {
         this.repository = repository;
@@ -161,6 +168,53 @@ public class DelivererService implements Service<Deliverer, DelivererRepository>
      * @throws IllegalArgumentException si el repartidor o el envío son nulos
      */
     public boolean assignShipment(Deliverer deliverer, Shipment shipment) {
+        if (shipment == null) {
+            throw new IllegalArgumentException("El envío no puede ser nulo");
+        }
+        
+        // Reservar el cupo y confirmarlo con el envío
+        CapacityReservation reservation = reserveCapacity(deliverer);
+        if (reservation == null) {
+            return false;
+        }
+        reservation.commit(shipment);
+        return true;
+    }
+    
+    /**
+     * Reserva un cupo en el repartidor sin bloquearlo: el contador de cupos se incrementa
+     * con compare-and-set, de modo que dos asignaciones concurrentes nunca superan el máximo.
+     * La reserva debe confirmarse con {@link CapacityReservation#commit(Shipment)} o liberarse.
+     * @param deliverer repartidor en el que reservar
+     * @return la reserva, o null si el repartidor no acepta envíos o no le quedan cupos
+     * @throws IllegalArgumentException si el repartidor es nulo
+     */
+    public CapacityReservation reserveCapacity(Deliverer deliverer) {
+        if (deliverer == null) {
+            throw new IllegalArgumentException("El repartidor no puede ser nulo");
+        }
+        if (!acceptsShipments(deliverer)) {
+            return null;
+        }
+        
+        AtomicInteger slots = slots(deliverer);
+        int used;
+        do {
+            used = slots.get();
+            if (used >= MAX_CONCURRENT_SHIPMENTS) {
+                return null;
+            }
+        } while (!slots.compareAndSet(used, used + 1));
+        return new CapacityReservation(this, deliverer);
+    }
+    
+    /**
+     * Libera el cupo de un envío que el repartidor ya no lleva (cancelado o reasignado)
+     * @param deliverer repartidor que tenía el envío
+     * @param shipment envío a quitar de sus envíos actuales
+     * @return true si el envío estaba entre los envíos actuales del repartidor
+     */
+    public boolean releaseShipment(Deliverer deliverer, Shipment shipment) {
         if (deliverer == null) {
             throw new IllegalArgumentException("El repartidor no puede ser nulo");
         }
@@ -168,28 +222,98 @@ public class DelivererService implements Service<Deliverer, DelivererRepository>
             throw new IllegalArgumentException("El envío no puede ser nulo");
         }
         
-        // Verificar si puede aceptar el envío
-        if (!canAcceptShipment(deliverer)) {
-            return false;
+        synchronized(deliverer) {
+            boolean removed = removeCurrentShipment(deliverer, shipment);
+            updateDelivererStatusBasedOnWorkload(deliverer);
+            repository.update(deliverer);
+            return removed;
+        }
+    }
+    
+    /**
+     * Libera de una vez los cupos de varios envíos del mismo repartidor; el estado del
+     * repartidor se recalcula y se guarda una sola vez
+     * @param deliverer repartidor que tenía los envíos
+     * @param shipments envíos a quitar de sus envíos actuales
+     * @return cantidad de envíos que estaban entre los envíos actuales del repartidor
+     */
+    public int releaseShipments(Deliverer deliverer, Collection<Shipment> shipments) {
+        if (deliverer == null) {
+            throw new IllegalArgumentException("El repartidor no puede ser nulo");
         }
         
-        // Asignar el envío y actualizar estado
         synchronized(deliverer) {
-            deliverer.getCurrentShipments().add(shipment);
+            int removed = 0;
+            for (Shipment shipment : shipments) {
+                if (shipment != null && removeCurrentShipment(deliverer, shipment)) {
+                    removed++;
+                }
+            }
             updateDelivererStatusBasedOnWorkload(deliverer);
             repository.update(deliverer);
+            return removed;
         }
-        
-        return true;
     }
     
+    /**
+     * Cupos que le quedan a un repartidor, descontando las reservas en curso
+     * @param deliverer repartidor a consultar
+     * @return envíos que todavía puede aceptar (0 si no está disponible)
+     */
+    public int getRemainingCapacity(Deliverer deliverer) {
+        if (deliverer == null || !acceptsShipments(deliverer)) {
+            return 0;
+        }
+        return Math.max(0, MAX_CONCURRENT_SHIPMENTS - slots(deliverer).get());
+    }
     
     /**
-     * Verifica si un repartidor puede aceptar más envíos
+     * Confirma una reserva: agrega el envío a los envíos actuales del repartidor.
+     * Solo el repartidor se bloquea, para que la lista y el estado cambien juntos.
      */
-    private boolean canAcceptShipment(Deliverer deliverer) {
-        return deliverer.getStatus() == DelivererStatus.AVAILABLE && 
-               deliverer.getCurrentShipments().size() < MAX_CONCURRENT_SHIPMENTS;
+    void commitReservation(Deliverer deliverer, Shipment shipment) {
+        synchronized(deliverer) {
+            if (deliverer.getCurrentShipments().contains(shipment)) {
+                // El envío ya ocupaba un cupo
+                releaseSlot(deliverer);
+            } else {
+                deliverer.getCurrentShipments().add(shipment);
+            }
+            updateDelivererStatusBasedOnWorkload(deliverer);
+            repository.update(deliverer);
+        }
+    }
+    
+    /**
+     * Devuelve un cupo al contador del repartidor
+     */
+    void releaseSlot(Deliverer deliverer) {
+        slots(deliverer).updateAndGet(used -> Math.max(0, used - 1));
+    }
+    
+    private AtomicInteger slots(Deliverer deliverer) {
+        return slotsInUse.computeIfAbsent(deliverer.getId(),
+                id -> new AtomicInteger(deliverer.getCurrentShipments().size()));
+    }
+    
+    /**
+     * Quita un envío de los envíos actuales y libera su cupo; se llama con el repartidor bloqueado
+     */
+    private boolean removeCurrentShipment(Deliverer deliverer, Shipment shipment) {
+        if (deliverer.getCurrentShipments().remove(shipment)) {
+            releaseSlot(deliverer);
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Verifica si el estado del repartidor le permite recibir envíos; el número de envíos
+     * lo limita el contador de cupos
+     */
+    private boolean acceptsShipments(Deliverer deliverer) {
+        return deliverer.getStatus() == DelivererStatus.AVAILABLE ||
+               deliverer.getStatus() == DelivererStatus.ACTIVE;
     }
     
     /**
@@ -200,6 +324,9 @@ public class DelivererService implements Service<Deliverer, DelivererRepository>
             deliverer.setStatus(DelivererStatus.AVAILABLE);
         } else if (deliverer.getCurrentShipments().size() >= MAX_CONCURRENT_SHIPMENTS) {
             deliverer.setStatus(DelivererStatus.IN_SERVICE);
+        } else if (deliverer.getStatus() == DelivererStatus.IN_SERVICE) {
+            // Al liberar un cupo vuelve a recibir envíos
+            deliverer.setStatus(DelivererStatus.AVAILABLE);
         }
     }
 
@@ -229,16 +356,14 @@ public class DelivererService implements Service<Deliverer, DelivererRepository>
         
         List<Deliverer> available = allDeliverers.stream()
             .filter(d -> {
-                boolean isAvailable = d.getStatus() == DelivererStatus.AVAILABLE;
-                boolean isActive = d.getStatus() == DelivererStatus.ACTIVE && 
-                                   d.getCurrentShipments().size() < MAX_CONCURRENT_SHIPMENTS;
+                boolean canAssign = getRemainingCapacity(d) > 0;
                 
                 System.out.println("  - " + d.getName() + 
                                    " | Estado: " + d.getStatus() + 
                                    " | Envíos: " + d.getCurrentShipments().size() + 
-                                   " | Disponible para asignar: " + (isAvailable || isActive));
+                                   " | Disponible para asignar: " + canAssign);
                 
-                return isAvailable || isActive;
+                return canAssign;
             })
             .sorted(Comparator.comparingDouble(Deliverer::getAverageRating).reversed())
             .toList();
@@ -259,6 +384,12 @@ public class DelivererService implements Service<Deliverer, DelivererRepository>
         Deliverer deliverer = repository.findById(delivererId)
                 .orElseThrow(() -> new IllegalArgumentException("Repartidor no encontrado"));
         
+        if (deliverer.hasRealCoordinates()) {
+            // Mantener el GPS en sincronía: el índice GPS y el despacho usan las coordenadas reales
+            double[] real = GridCoordinateStrategy.convertGridToReal(x, y);
+            deliverer.setRealLatitude(real[0]);
+            deliverer.setRealLongitude(real[1]);
+        }
         deliverer.updatePosition(x, y);
         return repository.update(deliverer);
     }
@@ -276,25 +407,69 @@ public class DelivererService implements Service<Deliverer, DelivererRepository>
             throw new IllegalArgumentException("Las coordenadas no pueden ser negativas");
         }
         
-        // Obtener repartidores disponibles según la zona
-        List<Deliverer> availableDeliverers = (zone != null && !zone.isEmpty()) 
-            ? findAvailableDeliverersInZone(zone)
-            : getAvailableDeliverers();
-            
-        if (availableDeliverers.isEmpty()) {
-            return null;
+        // Con zona se recorre solo la partición de la zona; sin zona, el índice espacial
+        if (DelivererRepository.zoneKey(zone) != null) {
+            return repository.findByZone(zone).stream()
+                .filter(this::canTakeMoreShipments)
+                .min(Comparator.comparingDouble(d -> Math.hypot(d.getCurrentX() - x, d.getCurrentY() - y)))
+                .orElse(null);
         }
         
-        // Crear punto de origen
-        IGridCoordinate originPoint = new IGridCoordinate() {
-            @Override public double getX() { return x; }
-            @Override public double getY() { return y; }
-        };
-        
-        // Encontrar el repartidor más cercano usando Stream API
-        return availableDeliverers.stream()
-            .min(Comparator.comparingDouble(deliverer -> deliverer.distanceTo(originPoint)))
-            .orElse(null);
+        List<Deliverer> nearest = repository.findNearest(x, y, 1, this::canTakeMoreShipments);
+        return nearest.isEmpty() ? null : nearest.get(0);
+    }
+    
+    /**
+     * Encuentra los repartidores disponibles más cercanos a unas coordenadas del Grid
+     * @param x coordenada X de origen
+     * @param y coordenada Y de origen
+     * @param limit cantidad máxima de repartidores
+     * @return repartidores ordenados del más cercano al más lejano
+     */
+    public List<Deliverer> findNearestAvailableDeliverers(double x, double y, int limit) {
+        return repository.findNearest(x, y, limit, this::canTakeMoreShipments);
+    }
+    
+    /**
+     * Encuentra los repartidores disponibles dentro de un radio en el Grid
+     * @param x coordenada X de origen
+     * @param y coordenada Y de origen
+     * @param radius distancia máxima en unidades del Grid
+     * @return repartidores ordenados del más cercano al más lejano
+     */
+    public List<Deliverer> findAvailableDeliverersWithinRadius(double x, double y, double radius) {
+        return repository.findWithinRadius(x, y, radius, this::canTakeMoreShipments);
+    }
+    
+    /**
+     * Encuentra el repartidor disponible más cercano a unas coordenadas GPS (distancia Haversine).
+     * Los repartidores sin coordenadas reales se ubican a partir de su posición en el Grid.
+     * @param latitude latitud de origen
+     * @param longitude longitud de origen
+     * @return el repartidor más cercano o null si no hay disponibles
+     */
+    public Deliverer findNearestAvailableDelivererByGps(double latitude, double longitude) {
+        List<Deliverer> nearest = repository.findNearestByGps(latitude, longitude, 1, this::canTakeMoreShipments);
+        return nearest.isEmpty() ? null : nearest.get(0);
+    }
+    
+    /**
+     * Encuentra los repartidores disponibles dentro de un radio en kilómetros de unas coordenadas GPS
+     * @param latitude latitud de origen
+     * @param longitude longitud de origen
+     * @param radiusKm distancia máxima en kilómetros
+     * @return repartidores ordenados del más cercano al más lejano
+     */
+    public List<Deliverer> findAvailableDeliverersWithinRadiusByGps(double latitude, double longitude, double radiusKm) {
+        return repository.findWithinRadiusByGps(latitude, longitude, radiusKm, this::canTakeMoreShipments);
+    }
+    
+    /**
+     * Verifica si un repartidor puede tomar más envíos: acepta envíos y le quedan cupos
+     * sin contar los reservados por otras asignaciones en curso
+     */
+    private boolean canTakeMoreShipments(Deliverer deliverer) {
+        return getRemainingCapacity(deliverer) > 0;
     }
     
     /**
@@ -319,7 +494,7 @@ public class DelivererService implements Service<Deliverer, DelivererRepository>
             }
             
             // Mover el envío al historial
-            deliverer.getCurrentShipments().remove(shipment);
+            removeCurrentShipment(deliverer, shipment);
             deliverer.getShipmentHistory().add(shipment);
             
             // Actualizar estado del repartidor
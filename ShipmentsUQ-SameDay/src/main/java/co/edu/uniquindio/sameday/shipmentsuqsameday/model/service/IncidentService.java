@@ -52,7 +52,7 @@ public class IncidentService implements Service<Incident, IncidentRepository> {
             if (requiresReassignment(incidentId)) {
                 // Usar lazy loading para evitar dependencia circular
                 ShipmentService shipmentService = ShipmentService.getInstance();
-                shipmentService.reassignShipment(incident.getShipment().getId(), solution);
+                shipmentService.reassignAfterIncident(incident, solution);
             }
 
             repository.update(incident);
@@ -0,0 +1,415 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.service;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Address;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.dto.RepositioningMoveDTO;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.DelivererStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.ShipmentRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.strategy.GridCoordinateStrategy;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.util.HungarianAssignment;
+
+import java.io.Closeable;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Planificador que ubica a los repartidores libres cerca de la demanda esperada.
+ * A partir del historial de envíos (hora de creación y origen) arma un mapa de calor
+ * por hora del día sobre celdas del Grid. Para una hora elige los puntos de espera que
+ * más reducen la distancia de recogida esperada (k-mediana voraz sobre las celdas con
+ * demanda, contando a los repartidores que ya tienen envíos como puntos fijos) y reparte
+ * los repartidores libres entre esos puntos con la asignación de menor recorrido total.
+ * Las posiciones se escriben con {@link DelivererService#updateDelivererPosition}.
+ * Con {@link #start(long)} el ciclo (reconstruir con las últimas semanas y reubicar) se
+ * ejecuta periódicamente en un hilo de fondo.
+ */
+public class PrepositioningPlanner implements Closeable {
+
+    private static final int HOURS = 24;
+    // El Grid va de 0 a 100 en cada eje, en celdas de 5 unidades
+    private static final double GRID_SIZE = 100.0;
+    private static final double CELL_SIZE = 5.0;
+    private static final int COLUMNS = (int) (GRID_SIZE / CELL_SIZE);
+    private static final int CELLS = COLUMNS * COLUMNS;
+    // Peso de la demanda de las horas vecinas: suaviza los picos que caen entre dos horas
+    private static final double NEIGHBOR_HOUR_WEIGHT = 0.5;
+    // Movimientos más cortos que una celda no se recomiendan
+    private static final double MIN_MOVE_DISTANCE = CELL_SIZE;
+    // Distancia de recogida cuando no hay ningún repartidor (diagonal del Grid)
+    private static final double NO_COURIER_DISTANCE = GRID_SIZE * Math.sqrt(2);
+    // Días de historial que usa cada ciclo programado
+    private static final int HISTORY_DAYS = 28;
+
+    private final ShipmentRepository shipmentRepository;
+    private final DelivererService delivererService;
+
+    // Envíos por hora y celda (hora * CELLS + celda) y suma de sus posiciones para el centroide
+    private final double[] demand = new double[HOURS * CELLS];
+    private final double[] sumX = new double[HOURS * CELLS];
+    private final double[] sumY = new double[HOURS * CELLS];
+    private int days;
+    private long shipmentsIndexed;
+
+    // Último plan
+    private double lastExpectedDistanceBefore;
+    private double lastExpectedDistanceAfter;
+    private int lastMoves;
+    private long movesApplied;
+    private long cycles;
+
+    private final Object scheduleLock = new Object();
+    private ScheduledExecutorService scheduler;
+    private volatile boolean closed;
+
+    public PrepositioningPlanner(ShipmentRepository shipmentRepository, DelivererService delivererService) {
+        this.shipmentRepository = shipmentRepository;
+        this.delivererService = delivererService;
+    }
+
+    /**
+     * Reconstruye los mapas de calor con los envíos creados en un rango de fechas
+     * @param from inicio del historial
+     * @param to fin del historial
+     * @return cantidad de envíos usados
+     */
+    public synchronized long rebuild(LocalDateTime from, LocalDateTime to) {
+        Arrays.fill(demand, 0);
+        Arrays.fill(sumX, 0);
+        Arrays.fill(sumY, 0);
+        shipmentsIndexed = 0;
+        Set<Long> seenDays = new HashSet<>();
+        for (Shipment shipment : shipmentRepository.findByDateRange(from, to)) {
+            double[] position = gridPosition(shipment.getOrigin());
+            if (position == null || shipment.getCreationDate() == null) {
+                continue;
+            }
+            int index = shipment.getCreationDate().getHour() * CELLS + cell(position[0], position[1]);
+            demand[index]++;
+            sumX[index] += position[0];
+            sumY[index] += position[1];
+            seenDays.add(shipment.getCreationDate().toLocalDate().toEpochDay());
+            shipmentsIndexed++;
+        }
+        days = seenDays.size();
+        System.out.println("[DISPATCH] Mapas de demanda reconstruidos con " + shipmentsIndexed
+                + " envíos de " + days + " días");
+        return shipmentsIndexed;
+    }
+
+    /**
+     * Mapa de calor de una hora: envíos esperados por día en cada celda, incluyendo una
+     * parte de las horas vecinas
+     * @param hour hora del día (0-23)
+     * @return demanda por celda (fila = celda Y, columna = celda X, COLUMNS x COLUMNS)
+     */
+    public synchronized double[] heatmap(int hour) {
+        double[] heat = new double[CELLS];
+        int h = Math.floorMod(hour, HOURS);
+        int previous = Math.floorMod(h - 1, HOURS) * CELLS;
+        int next = Math.floorMod(h + 1, HOURS) * CELLS;
+        double perDay = days > 0 ? 1.0 / days : 0;
+        for (int c = 0; c < CELLS; c++) {
+            heat[c] = (demand[h * CELLS + c]
+                    + NEIGHBOR_HOUR_WEIGHT * (demand[previous + c] + demand[next + c])) * perDay;
+        }
+        return heat;
+    }
+
+    /**
+     * Recomienda posiciones para los repartidores libres (disponibles y sin envíos)
+     * @param at momento para el que se planifica
+     * @return movimientos recomendados; los repartidores ya bien ubicados no se mueven
+     */
+    public synchronized List<RepositioningMoveDTO> plan(LocalDateTime at) {
+        int hour = at.getHour();
+        double[] heat = heatmap(hour);
+
+        // Celdas con demanda, ubicadas en el centroide de sus envíos
+        List<Integer> demandCells = new ArrayList<>();
+        for (int c = 0; c < CELLS; c++) {
+            if (heat[c] > 0) {
+                demandCells.add(c);
+            }
+        }
+        int count = demandCells.size();
+        double[] weight = new double[count];
+        double[] x = new double[count];
+        double[] y = new double[count];
+        for (int i = 0; i < count; i++) {
+            int c = demandCells.get(i);
+            weight[i] = heat[c];
+            double[] centroid = centroid(c, hour);
+            x[i] = centroid[0];
+            y[i] = centroid[1];
+        }
+
+        List<Deliverer> idle = new ArrayList<>();
+        List<double[]> fixed = new ArrayList<>();
+        for (Deliverer deliverer : delivererService.getRepository().findByStatus(DelivererStatus.AVAILABLE)) {
+            if (isIdle(deliverer)) {
+                idle.add(deliverer);
+            } else {
+                fixed.add(new double[]{deliverer.getCurrentX(), deliverer.getCurrentY()});
+            }
+        }
+
+        // Distancia de cada celda de demanda al repartidor con envíos más cercano
+        double[] nearest = new double[count];
+        Arrays.fill(nearest, NO_COURIER_DISTANCE);
+        for (double[] position : fixed) {
+            for (int i = 0; i < count; i++) {
+                nearest[i] = Math.min(nearest[i], Math.hypot(x[i] - position[0], y[i] - position[1]));
+            }
+        }
+        double[] current = nearest.clone();
+        for (Deliverer deliverer : idle) {
+            for (int i = 0; i < count; i++) {
+                current[i] = Math.min(current[i], Math.hypot(x[i] - deliverer.getCurrentX(), y[i] - deliverer.getCurrentY()));
+            }
+        }
+        lastExpectedDistanceBefore = weightedMean(weight, current);
+
+        // k-mediana voraz: cada punto de espera se elige por la mayor reducción de distancia esperada
+        List<Integer> sites = new ArrayList<>();
+        for (int k = 0; k < idle.size(); k++) {
+            int bestSite = -1;
+            double bestGain = 0;
+            for (int s = 0; s < count; s++) {
+                double gain = 0;
+                for (int i = 0; i < count; i++) {
+                    double distance = Math.hypot(x[i] - x[s], y[i] - y[s]);
+                    if (distance < nearest[i]) {
+                        gain += weight[i] * (nearest[i] - distance);
+                    }
+                }
+                if (gain > bestGain) {
+                    bestGain = gain;
+                    bestSite = s;
+                }
+            }
+            if (bestSite < 0) {
+                break;
+            }
+            sites.add(bestSite);
+            for (int i = 0; i < count; i++) {
+                nearest[i] = Math.min(nearest[i], Math.hypot(x[i] - x[bestSite], y[i] - y[bestSite]));
+            }
+        }
+
+        // Cada punto de espera al repartidor libre que menos tiene que moverse
+        List<RepositioningMoveDTO> moves = new ArrayList<>();
+        double[] after = nearest.clone();
+        if (!sites.isEmpty()) {
+            double[][] cost = new double[idle.size()][sites.size()];
+            for (int d = 0; d < idle.size(); d++) {
+                for (int s = 0; s < sites.size(); s++) {
+                    int site = sites.get(s);
+                    cost[d][s] = Math.hypot(idle.get(d).getCurrentX() - x[site], idle.get(d).getCurrentY() - y[site]);
+                }
+            }
+            int[] assignment = HungarianAssignment.solve(cost);
+            for (int d = 0; d < idle.size(); d++) {
+                Deliverer deliverer = idle.get(d);
+                if (assignment[d] < 0) {
+                    // Sin punto de espera: sigue cubriendo la demanda desde donde está
+                    for (int i = 0; i < count; i++) {
+                        after[i] = Math.min(after[i], Math.hypot(x[i] - deliverer.getCurrentX(), y[i] - deliverer.getCurrentY()));
+                    }
+                    continue;
+                }
+                int site = sites.get(assignment[d]);
+                if (cost[d][assignment[d]] >= MIN_MOVE_DISTANCE) {
+                    moves.add(RepositioningMoveDTO.builder()
+                            .delivererId(deliverer.getId())
+                            .delivererName(deliverer.getName())
+                            .fromX(deliverer.getCurrentX())
+                            .fromY(deliverer.getCurrentY())
+                            .toX(x[site])
+                            .toY(y[site])
+                            .expectedDemand(weight[site])
+                            .build());
+                }
+            }
+        }
+        lastExpectedDistanceAfter = weightedMean(weight, after);
+        lastMoves = moves.size();
+        return moves;
+    }
+
+    /**
+     * Planifica y mueve a los repartidores que siguen libres
+     * @param at momento para el que se planifica
+     * @return movimientos aplicados
+     */
+    public List<RepositioningMoveDTO> reposition(LocalDateTime at) {
+        List<RepositioningMoveDTO> applied = new ArrayList<>();
+        for (RepositioningMoveDTO move : plan(at)) {
+            Optional<Deliverer> deliverer = delivererService.getRepository().findById(move.getDelivererId());
+            // Entre el plan y el movimiento el repartidor pudo recibir un envío
+            if (deliverer.isPresent() && deliverer.get().getStatus() == DelivererStatus.AVAILABLE
+                    && isIdle(deliverer.get())) {
+                delivererService.updateDelivererPosition(move.getDelivererId(), move.getToX(), move.getToY());
+                applied.add(move);
+            }
+        }
+        synchronized (this) {
+            movesApplied += applied.size();
+        }
+        if (!applied.isEmpty()) {
+            System.out.println("[DISPATCH] " + applied.size() + " repartidores reubicados; distancia de recogida esperada "
+                    + String.format("%.1f → %.1f", lastExpectedDistanceBefore, lastExpectedDistanceAfter));
+        }
+        return applied;
+    }
+
+    /**
+     * Reconstruye los mapas con las últimas semanas de historial y reubica a los repartidores libres
+     * @param at momento del ciclo
+     * @return movimientos aplicados
+     */
+    public List<RepositioningMoveDTO> runCycle(LocalDateTime at) {
+        rebuild(at.minusDays(HISTORY_DAYS), at);
+        List<RepositioningMoveDTO> applied = reposition(at);
+        synchronized (this) {
+            cycles++;
+        }
+        return applied;
+    }
+
+    /**
+     * Programa el ciclo periódico de reubicación
+     * @param intervalMillis milisegundos entre ciclos
+     */
+    public void start(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("El intervalo debe ser positivo");
+        }
+        synchronized (scheduleLock) {
+            if (scheduler != null || closed) {
+                return;
+            }
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "dispatch-prepositioning");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::runScheduled, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+        System.out.println("[DISPATCH] Reubicación de repartidores programada cada " + intervalMillis + " ms");
+    }
+
+    private void runScheduled() {
+        try {
+            runCycle(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            System.err.println("[DISPATCH] Error al reubicar repartidores: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @return true si el ciclo periódico está programado
+     */
+    public boolean isScheduled() {
+        synchronized (scheduleLock) {
+            return scheduler != null;
+        }
+    }
+
+    /**
+     * Detiene el ciclo periódico, esperando el que esté en curso
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService stopping;
+        synchronized (scheduleLock) {
+            closed = true;
+            stopping = scheduler;
+            scheduler = null;
+        }
+        if (stopping == null) {
+            return;
+        }
+        stopping.shutdown();
+        try {
+            if (!stopping.awaitTermination(5, TimeUnit.SECONDS)) {
+                stopping.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            stopping.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Obtiene estadísticas del planificador
+     */
+    public synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("shipmentsIndexed", shipmentsIndexed);
+        stats.put("days", days);
+        stats.put("lastMoves", lastMoves);
+        stats.put("movesApplied", movesApplied);
+        stats.put("cycles", cycles);
+        stats.put("lastExpectedPickupDistanceBefore", lastExpectedDistanceBefore);
+        stats.put("lastExpectedPickupDistanceAfter", lastExpectedDistanceAfter);
+        return stats;
+    }
+
+    /**
+     * Centroide de los envíos de una celda en la hora y sus vecinas; el centro de la celda si no hay
+     */
+    private double[] centroid(int cell, int hour) {
+        double totalX = 0;
+        double totalY = 0;
+        double total = 0;
+        for (int delta = -1; delta <= 1; delta++) {
+            int index = Math.floorMod(hour + delta, HOURS) * CELLS + cell;
+            double factor = delta == 0 ? 1.0 : NEIGHBOR_HOUR_WEIGHT;
+            totalX += sumX[index] * factor;
+            totalY += sumY[index] * factor;
+            total += demand[index] * factor;
+        }
+        if (total == 0) {
+            return new double[]{(cell % COLUMNS + 0.5) * CELL_SIZE, (cell / COLUMNS + 0.5) * CELL_SIZE};
+        }
+        return new double[]{totalX / total, totalY / total};
+    }
+
+    private boolean isIdle(Deliverer deliverer) {
+        return deliverer.getCurrentShipments().isEmpty();
+    }
+
+    private static double weightedMean(double[] weight, double[] distance) {
+        double total = 0;
+        double sum = 0;
+        for (int i = 0; i < weight.length; i++) {
+            total += weight[i];
+            sum += weight[i] * distance[i];
+        }
+        return total > 0 ? sum / total : 0;
+    }
+
+    private static int cell(double x, double y) {
+        int column = Math.min(COLUMNS - 1, Math.max(0, (int) Math.floor(x / CELL_SIZE)));
+        int row = Math.min(COLUMNS - 1, Math.max(0, (int) Math.floor(y / CELL_SIZE)));
+        return row * COLUMNS + column;
+    }
+
+    /**
+     * Posición en el Grid de una dirección; si tiene GPS se convierte
+     */
+    private static double[] gridPosition(Address address) {
+        if (address == null) {
+            return null;
+        }
+        if (address.hasGpsCoordinates()) {
+            return GridCoordinateStrategy.convertRealToGrid(address.getGpsLatitude(), address.getGpsLongitude());
+        }
+        return new double[]{address.getCoordX(), address.getCoordY()};
+    }
+}
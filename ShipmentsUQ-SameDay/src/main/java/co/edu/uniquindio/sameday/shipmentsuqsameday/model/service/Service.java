@@ -1,10 +1,13 @@
 package co.edu.uniquindio.sameday.shipmentsuqsameday.model.service;
 
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.dto.PaginatedDataDTO;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.Repository;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Interfaz genérica para servicios
@@ -61,6 +64,43 @@ public interface Service<T, R extends Repository<T>> {
         return getRepository().findAll();
     }
     
+    /**
+     * Obtiene una página de entidades
+     * @param offset posición de la primera entidad
+     * @param limit tamaño de la página
+     * @param sort orden de las entidades, o null para ordenarlas por ID
+     * @return página de entidades
+     */
+    default PaginatedDataDTO<T> findPage(int offset, int limit, Comparator<? super T> sort) {
+        return getRepository().findPage(offset, limit, sort);
+    }
+    
+    /**
+     * Obtiene las entidades que siguen a un cursor en orden de ID
+     * @param cursor ID de la última entidad de la página anterior, o null para empezar
+     * @param limit tamaño de la página
+     * @return página de entidades con el cursor de la siguiente
+     */
+    default PaginatedDataDTO<T> findAfter(UUID cursor, int limit) {
+        return getRepository().findAfter(cursor, limit);
+    }
+    
+    /**
+     * Recorre las entidades sin copiarlas a una lista
+     * @return flujo de entidades
+     */
+    default Stream<T> stream() {
+        return getRepository().stream();
+    }
+    
+    /**
+     * Cuenta las entidades
+     * @return número de entidades
+     */
+    default long count() {
+        return getRepository().count();
+    }
+    
     /**
      * Verifica si existe una entidad con el ID dado
      * @param id ID a verificar
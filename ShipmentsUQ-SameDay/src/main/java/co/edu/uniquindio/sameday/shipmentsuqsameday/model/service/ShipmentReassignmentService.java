@@ -1,18 +1,183 @@
 package co.edu.uniquindio.sameday.shipmentsuqsameday.model.service;
 
-import java.util.UUID;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Incident;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.IncidentType;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.ShipmentRepository;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Servicio encargado de manejar las reasignaciones de envíos
- * cuando ocurren incidentes que lo requieren
+ * cuando ocurren incidentes que lo requieren.
+ *
+ * Cuando llegan muchos incidentes a la vez (por ejemplo, un cierre vial en una zona)
+ * los envíos afectados se reasignan en bloque: se liberan los cupos de cada repartidor
+ * una sola vez y todos los envíos pasan por un único lote de {@link BatchDispatchService}
+ * en lugar de buscar repartidor envío por envío. Los incidentes que se reportan uno a uno
+ * con {@link #submitIncident(UUID, String)} se agrupan durante una ventana corta y se
+ * reasignan juntos al cerrarse.
  */
-public class ShipmentReassignmentService {
+public class ShipmentReassignmentService implements Closeable {
+    // Ventana en la que se agrupan los incidentes que llegan seguidos
+    public static final long DEFAULT_COALESCE_WINDOW_MS = 500;
+
     private final ShipmentService shipmentService;
     private final IncidentService incidentService;
+    private final DelivererService delivererService;
+    private final BatchDispatchService batchDispatchService;
+    private final long coalesceWindowMillis;
+
+    // Reasignaciones a la espera de que se cierre la ventana, agrupadas por motivo
+    private final Object pendingLock = new Object();
+    private final Map<String, PendingReassignments> pending = new LinkedHashMap<>();
+    private ScheduledExecutorService flusher;
+    private boolean closed;
+
+    /**
+     * Incidentes y envíos que se reasignan juntos con un mismo motivo
+     */
+    private static final class PendingReassignments {
+        final Set<UUID> incidentIds = new LinkedHashSet<>();
+        final List<Shipment> shipments = new ArrayList<>();
+    }
 
     public ShipmentReassignmentService(ShipmentService shipmentService, IncidentService incidentService) {
+        this(shipmentService, incidentService, DelivererService.getInstance(), null);
+    }
+
+    /**
+     * Constructor con el despacho por lotes usado en las reasignaciones en bloque
+     * @param shipmentService servicio de envíos
+     * @param incidentService servicio de incidentes
+     * @param delivererService servicio de repartidores
+     * @param batchDispatchService despacho por lotes (null para usar la instancia única)
+     */
+    public ShipmentReassignmentService(ShipmentService shipmentService, IncidentService incidentService,
+                                       DelivererService delivererService, BatchDispatchService batchDispatchService) {
+        this(shipmentService, incidentService, delivererService, batchDispatchService, DEFAULT_COALESCE_WINDOW_MS);
+    }
+
+    /**
+     * Constructor con la ventana en la que se agrupan los incidentes
+     * @param shipmentService servicio de envíos
+     * @param incidentService servicio de incidentes
+     * @param delivererService servicio de repartidores
+     * @param batchDispatchService despacho por lotes (null para usar la instancia única)
+     * @param coalesceWindowMillis milisegundos que se esperan antes de reasignar (0 reasigna al momento)
+     */
+    public ShipmentReassignmentService(ShipmentService shipmentService, IncidentService incidentService,
+                                       DelivererService delivererService, BatchDispatchService batchDispatchService,
+                                       long coalesceWindowMillis) {
+        if (coalesceWindowMillis < 0) {
+            throw new IllegalArgumentException("La ventana no puede ser negativa");
+        }
         this.shipmentService = shipmentService;
         this.incidentService = incidentService;
+        this.delivererService = delivererService;
+        this.batchDispatchService = batchDispatchService;
+        this.coalesceWindowMillis = coalesceWindowMillis;
+    }
+
+    /**
+     * Agrega un incidente a la reasignación en bloque de la ventana en curso
+     * @param incidentId ID del incidente que requiere reasignación
+     * @param reason Motivo de la reasignación
+     */
+    public void submitIncident(UUID incidentId, String reason) {
+        enqueue(reason, batch -> batch.incidentIds.add(incidentId));
+    }
+
+    /**
+     * Agrega un envío a la reasignación en bloque de la ventana en curso
+     * @param shipment envío a reasignar
+     * @param reason Motivo de la reasignación
+     */
+    public void submitShipment(Shipment shipment, String reason) {
+        enqueue(reason, batch -> batch.shipments.add(shipment));
+    }
+
+    private void enqueue(String reason, Consumer<PendingReassignments> add) {
+        synchronized (pendingLock) {
+            boolean schedule = pending.isEmpty();
+            add.accept(pending.computeIfAbsent(reason, r -> new PendingReassignments()));
+            if (!closed && coalesceWindowMillis > 0) {
+                if (schedule) {
+                    scheduleFlush();
+                }
+                return;
+            }
+        }
+        // Sin ventana, o con el servicio cerrado, se reasigna en el hilo que reporta
+        flush();
+    }
+
+    private void scheduleFlush() {
+        if (flusher == null) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "reassignment-coalescer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        try {
+            flusher.schedule(this::flushSafely, coalesceWindowMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Servicio cerrado: close() reasigna lo pendiente
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.err.println("[DISPATCH] Error en la reasignación en bloque: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reasigna ya lo agrupado en la ventana en curso, un lote por motivo
+     * @return número de envíos reasignados
+     */
+    public int flush() {
+        Map<String, PendingReassignments> batches;
+        synchronized (pendingLock) {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            batches = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+        int reassigned = 0;
+        for (Map.Entry<String, PendingReassignments> entry : batches.entrySet()) {
+            PendingReassignments batch = entry.getValue();
+            reassigned += handleReassignments(batch.incidentIds, batch.shipments, entry.getKey());
+        }
+        return reassigned;
+    }
+
+    /**
+     * Detiene la ventana de agrupación y reasigna lo que estaba pendiente
+     */
+    @Override
+    public void close() {
+        synchronized (pendingLock) {
+            closed = true;
+            if (flusher != null) {
+                flusher.shutdownNow();
+                flusher = null;
+            }
+        }
+        flush();
     }
 
     /**
@@ -27,4 +192,118 @@ public class ShipmentReassignmentService {
             }
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Maneja en bloque la reasignación de los envíos de varios incidentes.
+     * Los repartidores de los incidentes DELIVERER_UNAVAILABLE no reciben envíos del lote.
+     * @param incidentIds IDs de los incidentes que requieren reasignación
+     * @param reason Motivo de la reasignación
+     * @return número de envíos reasignados; los demás esperan en la cola de despacho de su zona
+     */
+    public int handleReassignments(Collection<UUID> incidentIds, String reason) {
+        return handleReassignments(incidentIds, List.of(), reason);
+    }
+
+    private int handleReassignments(Collection<UUID> incidentIds, Collection<Shipment> shipments, String reason) {
+        List<Shipment> affected = new ArrayList<>(shipments);
+        Set<UUID> excludedDeliverers = new HashSet<>();
+        for (UUID incidentId : incidentIds) {
+            Optional<Incident> found = incidentService.getRepository().findById(incidentId);
+            if (found.isEmpty() || found.get().isResolved() || found.get().getShipment() == null) {
+                continue;
+            }
+            Incident incident = found.get();
+            Shipment shipment = incident.getShipment();
+            affected.add(shipment);
+            if (incident.getType() == IncidentType.DELIVERER_UNAVAILABLE && shipment.getDeliverer() != null) {
+                excludedDeliverers.add(shipment.getDeliverer().getId());
+            }
+        }
+        return reassignAll(affected, reason, excludedDeliverers);
+    }
+
+    /**
+     * Reasigna en bloque los envíos de los repartidores que están en una zona afectada
+     * (por ejemplo, por un cierre vial); los repartidores de la zona no reciben envíos del lote
+     * @param zone ID o nombre de la zona afectada
+     * @param reason Motivo de la reasignación
+     * @return número de envíos reasignados; los demás esperan en la cola de despacho de su zona
+     */
+    public int handleZoneIncident(String zone, String reason) {
+        List<Shipment> affected = new ArrayList<>();
+        Set<UUID> excludedDeliverers = new HashSet<>();
+        for (Deliverer deliverer : delivererService.getRepository().findByZone(zone)) {
+            excludedDeliverers.add(deliverer.getId());
+            synchronized (deliverer) {
+                affected.addAll(deliverer.getCurrentShipments());
+            }
+        }
+        return reassignAll(affected, reason, excludedDeliverers);
+    }
+
+    /**
+     * Reasigna en bloque un conjunto de envíos: libera los cupos de sus repartidores
+     * (una vez por repartidor), los devuelve a pendientes y los asigna en un solo lote
+     * @param shipments envíos afectados
+     * @param reason Motivo de la reasignación
+     * @param excludedDeliverers IDs de los repartidores que no pueden recibir envíos del lote
+     * @return número de envíos reasignados; los demás esperan en la cola de despacho de su zona
+     */
+    public int reassignAll(Collection<Shipment> shipments, String reason, Set<UUID> excludedDeliverers) {
+        // Quitar repetidos y envíos que ya no se pueden reasignar
+        Map<UUID, Shipment> affected = new LinkedHashMap<>();
+        for (Shipment shipment : shipments) {
+            if (shipment != null && shipmentService.canBeReassigned(shipment)) {
+                affected.putIfAbsent(shipment.getId(), shipment);
+            }
+        }
+        if (affected.isEmpty()) {
+            return 0;
+        }
+
+        // Liberar los cupos agrupando por repartidor
+        Map<Deliverer, List<Shipment>> byDeliverer = new IdentityHashMap<>();
+        for (Shipment shipment : affected.values()) {
+            Deliverer deliverer = shipment.getDeliverer();
+            if (deliverer != null) {
+                byDeliverer.computeIfAbsent(deliverer, d -> new ArrayList<>()).add(shipment);
+            }
+        }
+        byDeliverer.forEach(delivererService::releaseShipments);
+
+        // Devolver los envíos a pendientes para que entren al lote
+        ShipmentRepository repository = shipmentService.getRepository();
+        for (Shipment shipment : affected.values()) {
+            synchronized (shipment) {
+                shipment.setDeliverer(null);
+                shipment.setStatus(ShipmentStatus.PENDING);
+                shipment.setAssignmentDate(null);
+                shipment.setSpecialInstructions((shipment.getSpecialInstructions() != null
+                        ? shipment.getSpecialInstructions() + "\n"
+                        : "") + "Reasignado: " + reason);
+                repository.update(shipment);
+            }
+        }
+
+        // Un lote tiene un tamaño máximo: se repite mientras siga asignando
+        BatchDispatchService dispatcher = batchDispatchService != null
+                ? batchDispatchService
+                : BatchDispatchService.getInstance();
+        Set<UUID> excluded = excludedDeliverers != null ? excludedDeliverers : Set.of();
+        List<Shipment> pending = new ArrayList<>(affected.values());
+        int reassigned = 0;
+        int assigned;
+        do {
+            assigned = dispatcher.dispatchExcluding(pending, excluded);
+            reassigned += assigned;
+            pending.removeIf(s -> s.getStatus() != ShipmentStatus.PENDING);
+        } while (assigned > 0 && !pending.isEmpty());
+
+        // Los que no se asignaron esperan en la cola de su zona a que se libere un cupo
+        pending.forEach(shipmentService::requestDispatch);
+
+        System.out.println("[DISPATCH] Reasignación en bloque: " + reassigned + " de " + affected.size()
+                + " envíos reasignados, " + byDeliverer.size() + " repartidores liberados");
+        return reassigned;
+    }
+}
@@ -1,6 +1,5 @@
 package co.edu.uniquindio.sameday.shipmentsuqsameday.model.service;
 
-import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.MapCoordinateIntegrationService;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Address;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
@@ -14,16 +13,19 @@ import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.DelivererStatus;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.IncidentType;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentPriority;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.interfaces.Command;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.interfaces.IDistanceCalculator;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.interfaces.IGridCoordinate;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.DelivererRepository;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.ShipmentRepository;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.util.EuclideanDistanceCalculator;
 
 import java.time.LocalDateTime;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Servicio para la gestión de envíos
@@ -34,8 +36,18 @@ public class ShipmentService implements Service<Shipment, ShipmentRepository> {
     private final IDistanceCalculator distanceCalculator;
     private final IncidentService incidentService;
     private final MapCoordinateIntegrationService integrationService;
+    // Recibe los envíos que quedan pendientes de repartidor (el despacho por zonas)
+    private volatile Consumer<Shipment> dispatchHook = shipment -> { };
+    // Reasigna en bloque los envíos afectados por incidentes; sin él se reasignan uno a uno
+    private volatile ShipmentReassignmentService reassignmentService;
     
     private static ShipmentService instance;
+    
+    // Repartidores que se intentan cuando otra asignación concurrente toma el último cupo
+    private static final int MAX_ASSIGNMENT_ATTEMPTS = 3;
+    
+    // Motivo común de las reasignaciones por incidentes, para que una ráfaga forme un solo lote
+    private static final String INCIDENT_REASSIGNMENT_REASON = "Incidente reportado";
 
     public ShipmentService(
             ShipmentRepository repository,
@@ -89,6 +101,33 @@ public class ShipmentService implements Service<Shipment, ShipmentRepository> {
         return repository;
     }
     
+    /**
+     * Acción que recibe cada envío que queda pendiente de repartidor, para despacharlo
+     * sin esperar al ciclo periódico
+     * @param dispatchHook acción de despacho
+     */
+    public void setDispatchHook(Consumer<Shipment> dispatchHook) {
+        this.dispatchHook = dispatchHook != null ? dispatchHook : shipment -> { };
+    }
+    
+    /**
+     * Servicio que reasigna en bloque los envíos afectados por incidentes y cierres de zona
+     * @param reassignmentService servicio de reasignación (null para reasignar uno a uno)
+     */
+    public void setReassignmentService(ShipmentReassignmentService reassignmentService) {
+        this.reassignmentService = reassignmentService;
+    }
+
+    /**
+     * Entrega al despacho un envío que quedó pendiente y sin repartidor
+     * @param shipment envío a despachar
+     */
+    public void requestDispatch(Shipment shipment) {
+        if (shipment != null && shipment.getStatus() == ShipmentStatus.PENDING && shipment.getDeliverer() == null) {
+            dispatchHook.accept(shipment);
+        }
+    }
+    
     /**
      * Calcula la tarifa de envío basada en distancia, peso y prioridad
      * @param origin dirección de origen
@@ -171,13 +210,6 @@ public class ShipmentService implements Service<Shipment, ShipmentRepository> {
         }
         
         try {
-            List<Deliverer> availableDeliverers = delivererService.findAvailableDeliverers();
-            
-            if (availableDeliverers.isEmpty()) {
-                System.err.println("No hay repartidores disponibles");
-                return;
-            }
-            
             IGridCoordinate originCoord = shipment.getOrigin();
             
             if (originCoord == null) {
@@ -185,31 +217,27 @@ public class ShipmentService implements Service<Shipment, ShipmentRepository> {
                 return;
             }
             
-            Optional<Deliverer> nearestDeliverer = availableDeliverers.stream()
-                    .min(Comparator.comparingDouble(deliverer -> 
-                        deliverer.distanceTo(originCoord)));
+            // Consulta el índice espacial de repartidores en lugar de recorrerlos todos; si otra
+            // asignación concurrente toma el último cupo de uno se intenta con el siguiente
+            List<Deliverer> nearest = delivererService.findNearestAvailableDeliverers(
+                    originCoord.getX(), originCoord.getY(), MAX_ASSIGNMENT_ATTEMPTS);
             
-            if (nearestDeliverer.isPresent()) {
-                Deliverer deliverer = nearestDeliverer.get();
-                
-                deliverer.getCurrentShipments().add(shipment);
-                
-                if (deliverer.getCurrentShipments().size() >= 3) {
-                    deliverer.setStatus(DelivererStatus.BUSY);
-                } else {
-                    deliverer.setStatus(DelivererStatus.ACTIVE);
+            for (Deliverer deliverer : nearest) {
+                try (CapacityReservation reservation = delivererService.reserveCapacity(deliverer)) {
+                    if (reservation == null) {
+                        continue;
+                    }
+                    shipment.setDeliverer(deliverer);
+                    shipment.setStatus(ShipmentStatus.ASSIGNED);
+                    shipment.setAssignmentDate(LocalDateTime.now());
+                    reservation.commit(shipment);
+                    repository.update(shipment);
+                    
+                    System.out.println("[SUCCESS] Envío asignado a " + deliverer.getName());
+                    return;
                 }
-                
-                delivererService.update(deliverer);
-                
-                shipment.setDeliverer(deliverer);
-                shipment.setStatus(ShipmentStatus.ASSIGNED);
-                shipment.setAssignmentDate(LocalDateTime.now());
-                
-                System.out.println("[SUCCESS] Envío asignado a " + deliverer.getName());
-            } else {
-                System.err.println("Error al calcular el repartidor más cercano");
             }
+            System.err.println("No hay repartidores disponibles");
         } catch (Exception e) {
             System.err.println("Error al asignar repartidor: " + e.getMessage());
             e.printStackTrace();
@@ -236,18 +264,36 @@ public class ShipmentService implements Service<Shipment, ShipmentRepository> {
             throw new IllegalStateException("El envío no puede ser reasignado en su estado actual");
         }
 
+        // Con el servicio de reasignación el envío pasa por un lote como los de las ráfagas
+        ShipmentReassignmentService reassignments = reassignmentService;
+        if (reassignments != null) {
+            if (reassignments.reassignAll(List.of(shipment), reason, Set.of()) == 0) {
+                throw new IllegalStateException("No hay repartidores disponibles para reasignar el envío");
+            }
+            return shipment;
+        }
+
         // Obtener el repartidor actual
         Deliverer currentDeliverer = shipment.getDeliverer();
         if (currentDeliverer != null) {
-            // Liberar al repartidor actual
-            delivererService.updateDelivererStatus(currentDeliverer.getId(), DelivererStatus.AVAILABLE);
+            // Liberar el cupo del envío en el repartidor actual
+            delivererService.releaseShipment(currentDeliverer, shipment);
         }
 
-        // Buscar un nuevo repartidor disponible
-        Deliverer newDeliverer = findAvailableDeliverer(shipment);
-        if (newDeliverer == null) {
+        // Buscar un nuevo repartidor disponible y reservarle el cupo
+        CapacityReservation reservation = reserveAvailableDeliverer(shipment);
+        if (reservation == null) {
+            // El cupo anterior ya se liberó: el envío vuelve a pendientes y lo toma el despacho
+            synchronized (shipment) {
+                shipment.setDeliverer(null);
+                shipment.setStatus(ShipmentStatus.PENDING);
+                shipment.setAssignmentDate(null);
+                repository.update(shipment);
+            }
+            requestDispatch(shipment);
             throw new IllegalStateException("No hay repartidores disponibles para reasignar el envío");
         }
+        Deliverer newDeliverer = reservation.getDeliverer();
 
         // Actualizar el envío
         shipment.setDeliverer(newDeliverer);
@@ -260,20 +306,41 @@ public class ShipmentService implements Service<Shipment, ShipmentRepository> {
                 : "") + "Reasignado: " + reason;
         shipment.setSpecialInstructions(updatedInstructions);
 
-        // Actualizar el estado del nuevo repartidor
-        delivererService.updateDelivererStatus(newDeliverer.getId(), DelivererStatus.IN_SERVICE);
+        // Confirmar el cupo: el estado del nuevo repartidor se actualiza según su carga
+        reservation.commit(shipment);
 
         // Guardar los cambios
         return repository.save(shipment);
     }
 
+    /**
+     * Busca un repartidor disponible y le reserva un cupo. Si otra asignación concurrente
+     * toma el último cupo del repartidor elegido, se busca de nuevo.
+     * @param shipment envío que necesita repartidor
+     * @return la reserva, o null si no hay repartidores con cupo
+     */
+    private CapacityReservation reserveAvailableDeliverer(Shipment shipment) {
+        for (int attempt = 0; attempt < MAX_ASSIGNMENT_ATTEMPTS; attempt++) {
+            Deliverer deliverer = findAvailableDeliverer(shipment);
+            if (deliverer == null) {
+                return null;
+            }
+            CapacityReservation reservation = delivererService.reserveCapacity(deliverer);
+            if (reservation != null) {
+                return reservation;
+            }
+            System.out.println("[INFO] El repartidor " + deliverer.getName() + " se quedó sin cupo, buscando otro...");
+        }
+        return null;
+    }
+
     /**
      * Verifica si un envío puede ser reasignado
      * 
      * @param shipment envío a verificar
      * @return true si el envío puede ser reasignado
      */
-    private boolean canBeReassigned(Shipment shipment) {
+    boolean canBeReassigned(Shipment shipment) {
         return shipment.getStatus() != ShipmentStatus.DELIVERED &&
                 shipment.getStatus() != ShipmentStatus.CANCELLED;
     }
@@ -297,38 +364,13 @@ public class ShipmentService implements Service<Shipment, ShipmentRepository> {
             System.out.println("[INFO] Usando coordenadas GPS para asignación de repartidor");
             System.out.println("   Origen GPS: (" + origin.getGpsLatitude() + ", " + origin.getGpsLongitude() + ")");
             
-            Coordinates originGPS = new Coordinates(
+            // El índice GPS ubica a los repartidores sin coordenadas reales a partir de su Grid
+            Deliverer deliverer = delivererService.findNearestAvailableDelivererByGps(
                 origin.getGpsLatitude(), 
                 origin.getGpsLongitude()
             );
             
-            // Obtener repartidores disponibles
-            List<Deliverer> availableDeliverers = delivererService.findAvailableDeliverers();
-            
-            if (availableDeliverers.isEmpty()) {
-                System.err.println("[ERROR] No hay repartidores disponibles");
-                return null;
-            }
-            
-            // Sincronizar coordenadas GPS de todos los repartidores antes de calcular distancias
-            System.out.println("[INFO] Sincronizando coordenadas de " + availableDeliverers.size() + " repartidores...");
-            for (Deliverer d : availableDeliverers) {
-                if (!d.hasRealCoordinates()) {
-                    d.syncCoordinates();
-                    System.out.println("  - " + d.getName() + ": Grid (" + d.getCurrentX() + "," + d.getCurrentY() + 
-                                     ") → GPS (" + d.getRealLatitude() + "," + d.getRealLongitude() + ")");
-                }
-            }
-            
-            // Usar MapCoordinateIntegrationService (Facade Pattern) para encontrar el más cercano
-            Optional<Deliverer> nearest = integrationService.findNearestDeliverer(
-                availableDeliverers, 
-                originGPS,  // Coordenadas GPS del origen
-                0, 0        // Grid no usado en este caso
-            );
-            
-            if (nearest.isPresent()) {
-                Deliverer deliverer = nearest.get();
+            if (deliverer != null) {
                 String location = integrationService.getDelivererLocation(deliverer);
                 System.out.println("[SUCCESS] Repartidor asignado (GPS): " + deliverer.getName() + " en " + location);
                 System.out.println("  - Coordenadas Grid: (" + deliverer.getCurrentX() + "," + deliverer.getCurrentY() + ")");
@@ -341,7 +383,8 @@ public class ShipmentService implements Service<Shipment, ShipmentRepository> {
         }
         
         // NOTE: FALLBACK - Traditional Grid system (backward compatible)
-        String originZone = origin.getZone();
+        // La zona sale de la posición del origen; la zona escrita solo cuenta si está fuera de todas
+        String originZone = delivererService.getRepository().zoneOf(origin);
         double originX = origin.getCoordX();
         double originY = origin.getCoordY();
         
@@ -434,8 +477,7 @@ public class ShipmentService implements Service<Shipment, ShipmentRepository> {
         // Guardar el envío para asegurar que tenga un ID
         shipment = repository.save(shipment);
         
-        // Guardar el estado para persistencia
-        co.edu.uniquindio.sameday.shipmentsuqsameday.model.util.DataManager.getInstance().saveState();
+        // La persistencia la programa el DataManager en segundo plano al detectar el guardado
         
         // NOTE: DO NOT auto-assign deliverer
         // Assignment should happen ONLY after successful payment
@@ -501,12 +543,16 @@ public class ShipmentService implements Service<Shipment, ShipmentRepository> {
     public Shipment reportIncident(Incident incident) {
         Shipment shipment = incident.getShipment();
 
-        // Registrar la incidencia
+        // Registrar la incidencia y enlazarla al envío
         incidentService.create(incident);
+        if (!shipment.getIncidents().contains(incident)) {
+            shipment.getIncidents().add(incident);
+        }
 
         // Verificar si la incidencia requiere reasignación basado en su tipo
-        if (incident.getType() == IncidentType.INACCESSIBLE_ZONE ||
-                incident.getType() == IncidentType.DELIVERER_UNAVAILABLE) {
+        boolean reassign = incident.getType() == IncidentType.INACCESSIBLE_ZONE ||
+                incident.getType() == IncidentType.DELIVERER_UNAVAILABLE;
+        if (reassign) {
             shipment.setStatus(ShipmentStatus.PENDING_REASSIGNMENT);
             // Notificar al repartidor actual
             if (shipment.getDeliverer() != null) {
@@ -517,18 +563,57 @@ public class ShipmentService implements Service<Shipment, ShipmentRepository> {
             }
         }
 
-        return repository.update(shipment);
+        Shipment updated = repository.update(shipment);
+        ShipmentReassignmentService reassignments = reassignmentService;
+        if (reassign && reassignments != null) {
+            // Los incidentes que llegan seguidos se reasignan juntos al cerrarse la ventana
+            reassignments.submitIncident(incident.getId(), INCIDENT_REASSIGNMENT_REASON);
+        }
+        return updated;
     }
 
     /**
-     * Obtiene los envíos pendientes de una zona
+     * Solicita la reasignación del envío de un incidente ya resuelto; se agrupa con las
+     * demás reasignaciones de la ventana en curso
+     * @param incident incidente resuelto
+     * @param reason motivo de la reasignación
+     */
+    void reassignAfterIncident(Incident incident, String reason) {
+        ShipmentReassignmentService reassignments = reassignmentService;
+        if (reassignments != null) {
+            reassignments.submitShipment(incident.getShipment(), reason);
+        } else {
+            reassignShipment(incident.getShipment().getId(), reason);
+        }
+    }
+
+    /**
+     * Reporta el cierre de una zona: los envíos de sus repartidores se reasignan en un solo
+     * lote a repartidores de otras zonas
+     * @param zone ID o nombre de la zona cerrada
+     * @param reason motivo del cierre
+     * @return número de envíos reasignados; los demás esperan en la cola de despacho de su zona
+     * @throws IllegalStateException si no hay servicio de reasignación configurado
+     */
+    public int reportZoneClosure(String zone, String reason) {
+        ShipmentReassignmentService reassignments = reassignmentService;
+        if (reassignments == null) {
+            throw new IllegalStateException("No hay servicio de reasignación configurado");
+        }
+        return reassignments.handleZoneIncident(zone, reason);
+    }
+
+    /**
+     * Obtiene los envíos pendientes cuyo destino está en una zona
      * 
-     * @param zone zona a buscar
+     * @param zone ID o nombre de la zona
      * @return lista de envíos pendientes
      */
     public List<Shipment> getPendingShipmentsByZone(String zone) {
+        String zoneId = DelivererRepository.zoneKey(zone);
+        DelivererRepository deliverers = delivererService.getRepository();
         return repository.findByStatus(ShipmentStatus.PENDING).stream()
-                .filter(s -> s.getDestination().getZone().equals(zone))
+                .filter(s -> zoneId != null && zoneId.equals(deliverers.zoneOf(s.getDestination())))
                 .sorted((s1, s2) -> s2.getPriority().compareTo(s1.getPriority()))
                 .toList();
     }
@@ -543,11 +628,7 @@ public class ShipmentService implements Service<Shipment, ShipmentRepository> {
             throw new IllegalArgumentException("El ID del usuario no puede ser nulo");
         }
         
-        // Filtrar todos los envíos para encontrar los del usuario especificado
-        return repository.findAll().stream()
-                .filter(shipment -> shipment.getUser() != null && 
-                         shipment.getUser().getId().equals(userId))
-                .toList();
+        return repository.findByUserId(userId);
     }
     
     /**
@@ -572,47 +653,52 @@ public class ShipmentService implements Service<Shipment, ShipmentRepository> {
         System.out.println("Estado actual del envío: " + shipment.getStatus());
         System.out.println("Repartidor actual: " + (shipment.getDeliverer() != null ? shipment.getDeliverer().getName() : "ninguno"));
         
-        // Verificar si el envío está en un estado que permite asignación
-        if (shipment.getStatus() != ShipmentStatus.PENDING && 
-            shipment.getStatus() != ShipmentStatus.ASSIGNED) {
-            System.err.println("ERROR: El envío está en estado " + shipment.getStatus() + ", no se puede asignar");
-            return false;
-        }
-        
-        // Si ya tiene repartidor asignado, no reasignar
-        if (shipment.getDeliverer() != null && shipment.getStatus() == ShipmentStatus.ASSIGNED) {
-            System.out.println("El envío ya tiene repartidor asignado: " + shipment.getDeliverer().getName());
-            return true;
-        }
-        
-        try {
-            if (delivererService == null) {
-                System.err.println("ERROR: delivererService no inicializado");
+        // El envío se bloquea para que dos pagos del mismo envío no lo asignen dos veces
+        synchronized (shipment) {
+            // Verificar si el envío está en un estado que permite asignación
+            if (shipment.getStatus() != ShipmentStatus.PENDING && 
+                shipment.getStatus() != ShipmentStatus.ASSIGNED) {
+                System.err.println("ERROR: El envío está en estado " + shipment.getStatus() + ", no se puede asignar");
                 return false;
             }
+        
+            // Si ya tiene repartidor asignado, no reasignar
+            if (shipment.getDeliverer() != null && shipment.getStatus() == ShipmentStatus.ASSIGNED) {
+                System.out.println("El envío ya tiene repartidor asignado: " + shipment.getDeliverer().getName());
+                return true;
+            }
+        
+            try {
+                if (delivererService == null) {
+                    System.err.println("ERROR: delivererService no inicializado");
+                    return false;
+                }
             
-            Deliverer availableDeliverer = findAvailableDeliverer(shipment);
-            
-            if (availableDeliverer != null) {
-                shipment.setDeliverer(availableDeliverer);
-                shipment.setStatus(ShipmentStatus.ASSIGNED);
-                shipment.setAssignmentDate(LocalDateTime.now());
+                try (CapacityReservation reservation = reserveAvailableDeliverer(shipment)) {
+                    if (reservation == null) {
+                        System.err.println("No se encontró un repartidor disponible para el envío");
+                        // El despacho por zonas lo asigna cuando se libere un cupo
+                        requestDispatch(shipment);
+                        return false;
+                    }
+                    Deliverer availableDeliverer = reservation.getDeliverer();
                 
-                delivererService.assignShipment(availableDeliverer, shipment);
-                repository.update(shipment);
+                    shipment.setDeliverer(availableDeliverer);
+                    shipment.setStatus(ShipmentStatus.ASSIGNED);
+                    shipment.setAssignmentDate(LocalDateTime.now());
                 
-                co.edu.uniquindio.sameday.shipmentsuqsameday.model.util.DataManager.getInstance().saveState();
+                    reservation.commit(shipment);
+                    repository.update(shipment);
                 
-                System.out.println("[SUCCESS] Envío asignado exitosamente al repartidor " + availableDeliverer.getName());
-                return true;
-            } else {
-                System.err.println("No se encontró un repartidor disponible para el envío");
+                    System.out.println("[SUCCESS] Envío asignado exitosamente al repartidor " + availableDeliverer.getName());
+                    return true;
+                }
+            } catch (Exception e) {
+                System.err.println("Error al intentar asignar repartidor: " + e.getMessage());
+                e.printStackTrace();
+                requestDispatch(shipment);
                 return false;
             }
-        } catch (Exception e) {
-            System.err.println("Error al intentar asignar repartidor: " + e.getMessage());
-            e.printStackTrace();
-            return false;
         }
     }
 
@@ -640,18 +726,9 @@ public class ShipmentService implements Service<Shipment, ShipmentRepository> {
             }
             
             Deliverer deliverer = shipment.getDeliverer();
-            if (deliverer != null) {
-                deliverer.getCurrentShipments().remove(shipment);
-                
-                if (deliverer.getCurrentShipments().isEmpty()) {
-                    deliverer.setStatus(DelivererStatus.AVAILABLE);
-                } else {
-                    deliverer.setStatus(DelivererStatus.ACTIVE);
-                }
-                
-                if (delivererService != null) {
-                    delivererService.update(deliverer);
-                }
+            if (deliverer != null && delivererService != null) {
+                // Libera el cupo del envío y actualiza el estado del repartidor según su carga
+                delivererService.releaseShipment(deliverer, shipment);
             }
             
             CancelShipmentCommand cancelCommand = new CancelShipmentCommand(shipment);
@@ -674,14 +751,14 @@ public class ShipmentService implements Service<Shipment, ShipmentRepository> {
     public boolean undoLastOperation() {
         try {
             System.out.println("[ShipmentService] Iniciando undo de última operación");
+            Command command = CommandManager.getInstance().peekUndoCommand();
             boolean result = CommandManager.getInstance().undoLastCommand();
             
             if (result) {
-                System.out.println("[ShipmentService] Undo exitoso, buscando shipment para persistir");
-                // Después de deshacer, necesitamos persistir el cambio
-                // El comando ya modificó el estado del shipment, ahora lo guardamos
-                // Nota: Esto asume que el comando modifica directamente la entidad
-                System.out.println("[ShipmentService] Cambios persistidos automáticamente por el comando");
+                // El comando modifica la entidad en memoria: se guarda para actualizar los
+                // índices del repositorio y registrar el cambio para la persistencia
+                persistCommandShipment(command);
+                System.out.println("[ShipmentService] Undo exitoso, envío actualizado en el repositorio");
             } else {
                 System.out.println("[ShipmentService] Undo falló");
             }
@@ -701,9 +778,11 @@ public class ShipmentService implements Service<Shipment, ShipmentRepository> {
     public boolean redoLastOperation() {
         try {
             System.out.println("[ShipmentService] Iniciando redo de última operación");
+            Command command = CommandManager.getInstance().peekRedoCommand();
             boolean result = CommandManager.getInstance().redoLastCommand();
             
             if (result) {
+                persistCommandShipment(command);
                 System.out.println("[ShipmentService] Redo exitoso");
             } else {
                 System.out.println("[ShipmentService] Redo falló");
@@ -716,4 +795,20 @@ public class ShipmentService implements Service<Shipment, ShipmentRepository> {
             return false;
         }
     }
+    
+    /**
+     * Guarda en el repositorio el envío que modificó un comando de envíos
+     * @param command comando deshecho o rehecho
+     */
+    private void persistCommandShipment(Command command) {
+        Shipment shipment = null;
+        if (command instanceof CancelShipmentCommand) {
+            shipment = ((CancelShipmentCommand) command).getShipment();
+        } else if (command instanceof AssignDelivererCommand) {
+            shipment = ((AssignDelivererCommand) command).getShipment();
+        }
+        if (shipment != null && repository.existsById(shipment.getId())) {
+            repository.update(shipment);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,311 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.service;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.DelivererStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.ShipmentRepository;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Despacho particionado por zonas. Cada zona tiene su cola de envíos pendientes y su
+ * propio hilo de despacho, y asigna con {@link BatchDispatchService} usando solo los
+ * repartidores de la zona, de modo que las zonas se despachan en paralelo.
+ * Si una zona no tiene repartidores en turno, sus envíos se despachan contra los
+ * repartidores de todas las zonas; una zona con todos sus repartidores ocupados espera
+ * a que se liberen cupos. La zona de un envío es la que contiene su dirección de origen
+ * y la de un repartidor la que contiene su posición, según el índice de zonas del
+ * repositorio de repartidores.
+ * Los envíos entran a su zona con {@link #submit(Shipment)} en cuanto quedan pendientes
+ * (al fallar la asignación tras el pago o al liberarse en una reasignación); el ciclo
+ * periódico de {@link #start(long)} solo recoge los que se hayan quedado sin encolar.
+ */
+public class ZoneDispatchService implements Closeable {
+
+    // Partición de los envíos cuyo origen no tiene zona
+    private static final String NO_ZONE = "";
+
+    private final BatchDispatchService batchDispatcher;
+    private final ShipmentRepository shipmentRepository;
+    private final DelivererService delivererService;
+    private final Map<String, ZonePartition> partitions = new ConcurrentHashMap<>();
+    private final AtomicLong crossZoneAssignments = new AtomicLong();
+    private final Object scheduleLock = new Object();
+    private ScheduledExecutorService scheduler;
+    private volatile boolean closed;
+
+    /**
+     * Cola y hilo de despacho de una zona
+     */
+    private final class ZonePartition {
+        final String zone;
+        final Queue<Shipment> pending = new ConcurrentLinkedQueue<>();
+        // IDs en la cola, para no encolar dos veces el mismo envío
+        final Set<UUID> queued = ConcurrentHashMap.newKeySet();
+        final AtomicBoolean drainScheduled = new AtomicBoolean();
+        final AtomicLong assigned = new AtomicLong();
+        final ExecutorService worker;
+
+        ZonePartition(String zone) {
+            this.zone = zone;
+            String name = "dispatch-zone-" + (zone.isEmpty() ? "none" : zone);
+            this.worker = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        void enqueue(Shipment shipment) {
+            if (queued.add(shipment.getId())) {
+                pending.add(shipment);
+            }
+        }
+
+        /**
+         * Programa un vaciado de la cola; varias llamadas seguidas se agrupan en uno
+         */
+        void wake() {
+            if (drainScheduled.compareAndSet(false, true)) {
+                try {
+                    worker.execute(this::drainSafely);
+                } catch (RejectedExecutionException e) {
+                    drainScheduled.set(false);
+                }
+            }
+        }
+
+        private void drainSafely() {
+            try {
+                drain();
+            } catch (RuntimeException e) {
+                // Un lote fallido no debe detener el hilo de la zona
+                System.err.println("[DISPATCH] Error en el despacho de la zona " + zone + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+
+        /**
+         * Despacha los envíos encolados; los que no se asignan esperan al siguiente ciclo
+         * @return número de envíos asignados
+         */
+        int drain() {
+            drainScheduled.set(false);
+            List<Shipment> batch = new ArrayList<>();
+            Shipment shipment;
+            while ((shipment = pending.poll()) != null) {
+                queued.remove(shipment.getId());
+                batch.add(shipment);
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            List<Deliverer> zoneDeliverers = zone.isEmpty()
+                    ? List.of()
+                    : delivererService.getRepository().findByZone(zone);
+            int count = zoneDeliverers.isEmpty() ? 0 : batchDispatcher.dispatch(batch, zoneDeliverers);
+
+            List<Shipment> left = batch.stream()
+                    .filter(ZoneDispatchService::isUnassigned)
+                    .collect(Collectors.toList());
+            boolean zoneEmpty = zoneDeliverers.stream().noneMatch(ZoneDispatchService::isOnDuty);
+            if (!left.isEmpty() && zoneEmpty) {
+                int cross = batchDispatcher.dispatch(left, null);
+                if (cross > 0) {
+                    crossZoneAssignments.addAndGet(cross);
+                    System.out.println("[DISPATCH] Zona " + (zone.isEmpty() ? "(sin zona)" : zone) + " sin repartidores: "
+                            + cross + " envíos asignados a repartidores de otras zonas");
+                }
+                count += cross;
+            }
+            assigned.addAndGet(count);
+            return count;
+        }
+    }
+
+    /**
+     * Constructor del servicio
+     * @param batchDispatcher despacho por lotes que asigna cada zona
+     * @param shipmentRepository repositorio de envíos
+     * @param delivererService servicio de repartidores
+     */
+    public ZoneDispatchService(BatchDispatchService batchDispatcher, ShipmentRepository shipmentRepository,
+                               DelivererService delivererService) {
+        this.batchDispatcher = batchDispatcher;
+        this.shipmentRepository = shipmentRepository;
+        this.delivererService = delivererService;
+    }
+
+    /**
+     * Encola un envío pendiente en la zona de su origen y despierta el hilo de esa zona
+     * @param shipment envío pendiente
+     */
+    public void submit(Shipment shipment) {
+        if (closed || !isUnassigned(shipment) || shipment.getOrigin() == null) {
+            return;
+        }
+        ZonePartition partition = partition(zoneOf(shipment));
+        partition.enqueue(shipment);
+        partition.wake();
+    }
+
+    /**
+     * Encola todos los envíos pendientes y despierta los hilos de todas las zonas
+     */
+    public void dispatchPending() {
+        for (ZonePartition partition : enqueuePending()) {
+            partition.wake();
+        }
+    }
+
+    /**
+     * Encola todos los envíos pendientes y espera a que cada zona los despache
+     * @return número de envíos asignados
+     */
+    public int dispatchPendingAndWait() {
+        List<Future<Integer>> results = new ArrayList<>();
+        for (ZonePartition partition : enqueuePending()) {
+            try {
+                results.add(partition.worker.submit(partition::drain));
+            } catch (RejectedExecutionException e) {
+                // Servicio cerrado
+            }
+        }
+        int assigned = 0;
+        for (Future<Integer> result : results) {
+            try {
+                assigned += result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                System.err.println("[DISPATCH] Error en el despacho por zonas: " + e.getCause().getMessage());
+            }
+        }
+        return assigned;
+    }
+
+    /**
+     * Programa el barrido periódico de todas las zonas, que encola los envíos pendientes
+     * que no llegaron por {@link #submit(Shipment)}
+     * @param intervalMillis milisegundos entre ciclos
+     */
+    public void start(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("El intervalo debe ser positivo");
+        }
+        synchronized (scheduleLock) {
+            if (scheduler != null || closed) {
+                return;
+            }
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "dispatch-zones");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::runScheduled, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+        System.out.println("[DISPATCH] Despacho por zonas programado cada " + intervalMillis + " ms");
+    }
+
+    private void runScheduled() {
+        try {
+            dispatchPending();
+        } catch (RuntimeException e) {
+            System.err.println("[DISPATCH] Error al encolar envíos pendientes: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Detiene el despacho periódico y los hilos de las zonas, esperando el lote en curso
+     */
+    @Override
+    public void close() {
+        synchronized (scheduleLock) {
+            closed = true;
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+                scheduler = null;
+            }
+        }
+        for (ZonePartition partition : partitions.values()) {
+            partition.worker.shutdown();
+        }
+        for (ZonePartition partition : partitions.values()) {
+            try {
+                if (!partition.worker.awaitTermination(5, TimeUnit.SECONDS)) {
+                    partition.worker.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                partition.worker.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Obtiene estadísticas del despacho por zonas
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        Map<String, Long> assignedByZone = new TreeMap<>();
+        Map<String, Integer> queuedByZone = new TreeMap<>();
+        for (ZonePartition partition : partitions.values()) {
+            assignedByZone.put(partition.zone, partition.assigned.get());
+            queuedByZone.put(partition.zone, partition.queued.size());
+        }
+        stats.put("zones", partitions.size());
+        stats.put("assignedByZone", assignedByZone);
+        stats.put("queuedByZone", queuedByZone);
+        stats.put("crossZoneAssignments", crossZoneAssignments.get());
+        return stats;
+    }
+
+    /**
+     * Encola los envíos pendientes en sus zonas
+     * @return particiones de las zonas con repartidores o con envíos encolados
+     */
+    private Collection<ZonePartition> enqueuePending() {
+        if (closed) {
+            return List.of();
+        }
+        for (String zone : delivererService.getRepository().findZones()) {
+            partition(zone);
+        }
+        for (Shipment shipment : shipmentRepository.findByStatus(ShipmentStatus.PENDING)) {
+            if (isUnassigned(shipment) && shipment.getOrigin() != null) {
+                partition(zoneOf(shipment)).enqueue(shipment);
+            }
+        }
+        return new ArrayList<>(partitions.values());
+    }
+
+    private ZonePartition partition(String zone) {
+        return partitions.computeIfAbsent(zone, ZonePartition::new);
+    }
+
+    /**
+     * Zona de un envío: la que contiene su origen, o la escrita en la dirección si está fuera de todas
+     */
+    private String zoneOf(Shipment shipment) {
+        String key = delivererService.getRepository().zoneOf(shipment.getOrigin());
+        return key != null ? key : NO_ZONE;
+    }
+
+    private static boolean isOnDuty(Deliverer deliverer) {
+        DelivererStatus status = deliverer.getStatus();
+        return status != null && status != DelivererStatus.OFF_DUTY && status != DelivererStatus.ON_BREAK;
+    }
+
+    private static boolean isUnassigned(Shipment shipment) {
+        return shipment.getStatus() == ShipmentStatus.PENDING && shipment.getDeliverer() == null;
+    }
+}
@@ -8,9 +8,13 @@ import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.NotificationType
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.notification.NotificationService;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.Route;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.RouteStop;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.Waypoint;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.service.EtaEstimator;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.service.MultiStopRouteOptimizer;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.service.RouteCalculationService;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.RoutingException;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.DelivererService;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.ShipmentService;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.simulation.event.*;
 
@@ -43,7 +47,9 @@ public class DeliverySimulator {
     
     // Servicios necesarios
     private final RouteCalculationService routeService;
+    private final MultiStopRouteOptimizer multiStopOptimizer;
     private final ShipmentService shipmentService;
+    private final DelivererService delivererService;
     private final NotificationService notificationService;
     
     /**
@@ -59,9 +65,14 @@ public class DeliverySimulator {
         });
         this.simulationTasks = new ConcurrentHashMap<>();
         this.routeService = RouteCalculationService.getInstance();
+        this.multiStopOptimizer = new MultiStopRouteOptimizer();
         this.shipmentService = ShipmentService.getInstance();
+        this.delivererService = DelivererService.getInstance();
         this.notificationService = NotificationService.getInstance();
         
+        // El estimador de ETA aprende de cada entrega completada
+        this.listeners.add(EtaEstimator.getInstance());
+        
         System.out.println("[DeliverySimulator] Inicializado");
     }
     
@@ -175,7 +186,7 @@ public class DeliverySimulator {
                          destination.getLatitude() + ", " + destination.getLongitude() +
                          " (Grid: " + shipment.getDestination().getCoordX() + "," + shipment.getDestination().getCoordY() + ")");
         
-        Route route = routeService.calculateOptimalRoute(origin, destination);
+        Route route = calculateRoute(deliverer, shipment, origin, destination);
         
         if (!route.isValid()) {
             throw new RoutingException("DeliverySimulator", "La ruta calculada no es válida");
@@ -185,6 +196,8 @@ public class DeliverySimulator {
         
         // 2. Crear simulación
         LocalDateTime now = LocalDateTime.now();
+        LocalDateTime estimatedArrival = route.getStatistics()
+                .calculateETA(now, EtaEstimator.getInstance(), destination);
         
         DeliverySimulation simulation = DeliverySimulation.builder()
                 .id(UUID.randomUUID())
@@ -199,7 +212,7 @@ public class DeliverySimulator {
                 .simulationStartTime(now)
                 .virtualStartTime(now)
                 .lastUpdateTime(now)
-                .estimatedArrival(route.getStatistics().calculateETA(now))
+                .estimatedArrival(estimatedArrival)
                 .progressPercentage(0.0)
                 .build();
         
@@ -222,7 +235,7 @@ public class DeliverySimulator {
                 .type(NotificationType.DELIVERY_STARTED)
                 .title("¡Tu entrega está en camino! 🚀")
                 .message("El repartidor " + deliverer.getName() + " ha comenzado el trayecto hacia tu dirección. " +
-                        "Tiempo estimado: " + (route.getStatistics().getEstimatedMinutes()) + " minutos.")
+                        "Tiempo estimado: " + Duration.between(now, estimatedArrival).toMinutes() + " minutos.")
                 .priority(NotificationPriority.HIGH)
                 .shipmentId(shipment.getId())
                 .send();
@@ -233,6 +246,31 @@ public class DeliverySimulator {
         return simulation;
     }
     
+    /**
+     * Calcula la ruta de la simulación. Si el repartidor lleva otros envíos, la ruta es su
+     * recorrido optimizado de varias paradas hasta la entrega de este envío; si no, o si
+     * ese recorrido no se puede trazar, es la ruta directa hasta el destino
+     */
+    private Route calculateRoute(Deliverer deliverer, Shipment shipment, Coordinates origin, Coordinates destination)
+            throws RoutingException {
+        long pendingShipments = multiStopOptimizer.stopsFor(deliverer).stream()
+                .map(RouteStop::getShipmentId)
+                .distinct()
+                .count();
+        if (pendingShipments > 1) {
+            try {
+                Route route = multiStopOptimizer.optimizeRouteTo(deliverer, shipment.getId());
+                System.out.println("[DeliverySimulator] Ruta de varias paradas (" + pendingShipments + " envíos, "
+                        + route.getStops().size() + " paradas hasta esta entrega)");
+                return route;
+            } catch (RoutingException | IllegalStateException e) {
+                System.err.println("[DeliverySimulator] No se pudo optimizar la ruta de varias paradas, se usa la directa: "
+                        + e.getMessage());
+            }
+        }
+        return routeService.calculateOptimalRoute(origin, destination);
+    }
+    
     /**
      * Inicia el loop de actualización de una simulación
      */
@@ -288,9 +326,13 @@ public class DeliverySimulator {
             simulation.setDistanceTraveled(distanceFromOrigin);
             simulation.updateProgress();
             
-            // Actualizar coordenadas del repartidor en el modelo
+            // Actualizar coordenadas del repartidor en el modelo; se guarda en el repositorio
+            // para que la posición llegue a los índices y a la persistencia
             Deliverer deliverer = simulation.getDeliverer();
             deliverer.updateRealPosition(newPosition.getLatitude(), newPosition.getLongitude());
+            if (delivererService.exists(deliverer.getId())) {
+                delivererService.update(deliverer);
+            }
             
             // Verificar si alcanzamos un nuevo waypoint
             if (targetWaypoint.getSequence() > simulation.getCurrentWaypointIndex()) {
@@ -438,9 +480,9 @@ public class DeliverySimulator {
             System.out.println("[DeliverySimulator] Envío actualizado a DELIVERED");
         }
         
-        // Calcular estadísticas de la entrega
-        LocalDateTime actualDeliveryTime = LocalDateTime.now();
-        Duration actualDuration = Duration.between(simulation.getVirtualStartTime(), actualDeliveryTime);
+        // Calcular estadísticas de la entrega en tiempo virtual (el ETA también es virtual)
+        Duration actualDuration = simulation.getVirtualElapsedTime();
+        LocalDateTime actualDeliveryTime = simulation.getVirtualStartTime().plus(actualDuration);
         double totalDistance = simulation.getRoute().getStatistics().getTotalDistanceMeters();
         
         LocalDateTime eta = simulation.getEstimatedArrival();
@@ -1,6 +1,11 @@
 package co.edu.uniquindio.sameday.shipmentsuqsameday.model.strategy;
 
+import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.ServiceZone;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.interfaces.ICoordinateStrategy;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.util.ZoneLocator;
+
+import java.util.List;
 
 /**
  * Implementación de Strategy para sistema de coordenadas de cuadrícula (GridMap)
@@ -20,6 +25,13 @@ public class GridCoordinateStrategy implements ICoordinateStrategy {
     // Centro del área de servicio en el grid (Armenia en coordenadas de grid)
     private static final double CENTER_X = 50.0;
     private static final double CENTER_Y = 50.0;
+    // Celdas del Grid por grado en la conversión con coordenadas reales
+    private static final double CELLS_PER_DEGREE = 20.0;
+    
+    // Área de servicio precalculada: el círculo del Grid expresado en grados, con celdas de 0.01°
+    private static final ZoneLocator SERVICE_AREA = new ZoneLocator(List.of(ServiceZone.ellipse(
+        "Área de servicio (Grid)", new Coordinates(4.533889, -75.681111),
+        SERVICE_AREA_RADIUS / CELLS_PER_DEGREE, SERVICE_AREA_RADIUS / CELLS_PER_DEGREE, 256)), 0.01);
     
     @Override
     public double calculateDistance(double x1, double y1, double x2, double y2) {
@@ -49,10 +61,7 @@ public class GridCoordinateStrategy implements ICoordinateStrategy {
     
     @Override
     public boolean isInServiceArea(double x, double y) {
-        double distance = Math.sqrt(
-            Math.pow(x - CENTER_X, 2) + Math.pow(y - CENTER_Y, 2)
-        );
-        return distance <= SERVICE_AREA_RADIUS;
+        return SERVICE_AREA.resolveGrid(x, y) != null;
     }
     
     /**
@@ -66,8 +75,8 @@ public class GridCoordinateStrategy implements ICoordinateStrategy {
     public static double[] convertRealToGrid(double latitude, double longitude) {
         // Armenia centro: 4.533889, -75.681111
         // Mapeo simple: 1 grado ≈ 20 celdas
-        double gridX = CENTER_X + ((longitude + 75.681111) * 20);
-        double gridY = CENTER_Y + ((latitude - 4.533889) * 20);
+        double gridX = CENTER_X + ((longitude + 75.681111) * CELLS_PER_DEGREE);
+        double gridY = CENTER_Y + ((latitude - 4.533889) * CELLS_PER_DEGREE);
         
         return new double[]{gridX, gridY};
     }
@@ -80,8 +89,8 @@ public class GridCoordinateStrategy implements ICoordinateStrategy {
      * @return array [latitude, longitude]
      */
     public static double[] convertGridToReal(double gridX, double gridY) {
-        double longitude = -75.681111 + ((gridX - CENTER_X) / 20.0);
-        double latitude = 4.533889 + ((gridY - CENTER_Y) / 20.0);
+        double longitude = -75.681111 + ((gridX - CENTER_X) / CELLS_PER_DEGREE);
+        double latitude = 4.533889 + ((gridY - CENTER_Y) / CELLS_PER_DEGREE);
         
         return new double[]{latitude, longitude};
     }
@@ -1,7 +1,11 @@
 package co.edu.uniquindio.sameday.shipmentsuqsameday.model.strategy;
 
 import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.ServiceZone;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.interfaces.ICoordinateStrategy;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.util.ZoneLocator;
+
+import java.util.List;
 
 /**
  * Implementación de Strategy para sistema de coordenadas reales (GPS/OpenStreetMap)
@@ -26,6 +30,11 @@ public class RealCoordinateStrategy implements ICoordinateStrategy {
     // Radio de la Tierra en kilómetros
     private static final double EARTH_RADIUS_KM = 6371.0;
     
+    // Área de servicio precalculada: polígono de 256 lados que circunscribe el radio de servicio
+    // (se aparta del círculo menos de 2 m)
+    private static final ZoneLocator SERVICE_AREA = new ZoneLocator(List.of(ServiceZone.circle(
+        "Área de servicio", new Coordinates(ARMENIA_LAT, ARMENIA_LNG), SERVICE_AREA_RADIUS_KM, 256)));
+    
     @Override
     public double calculateDistance(double lat1, double lng1, double lat2, double lng2) {
         // Fórmula de Haversine para distancia entre dos puntos en una esfera
@@ -67,8 +76,7 @@ public class RealCoordinateStrategy implements ICoordinateStrategy {
     
     @Override
     public boolean isInServiceArea(double lat, double lng) {
-        double distance = calculateDistance(ARMENIA_LAT, ARMENIA_LNG, lat, lng);
-        return distance <= SERVICE_AREA_RADIUS_KM;
+        return SERVICE_AREA.contains(lat, lng);
     }
     
     /**
@@ -92,6 +100,6 @@ public class RealCoordinateStrategy implements ICoordinateStrategy {
      * @return true si está dentro del área de servicio
      */
     public boolean isInServiceArea(Coordinates coordinates) {
-        return coordinates.isInServiceArea();
+        return isInServiceArea(coordinates.getLatitude(), coordinates.getLongitude());
     }
 }
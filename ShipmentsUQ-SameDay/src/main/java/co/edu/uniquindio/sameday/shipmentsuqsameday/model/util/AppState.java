@@ -32,6 +32,9 @@ public class AppState implements Serializable {
     private List<Incident> incidents;
     private List<UserPaymentMethod> paymentMethods;
     
+    /** Generación del snapshot; el journal solo se reproduce sobre su misma generación */
+    private long journalGeneration;
+    
     /**
      * Constructor que inicializa las listas vacías.
      */
@@ -112,5 +115,13 @@ public class AppState implements Serializable {
         this.paymentMethods = paymentMethods;
     }
 
+    public long getJournalGeneration() {
+        return journalGeneration;
+    }
+
+    public void setJournalGeneration(long journalGeneration) {
+        this.journalGeneration = journalGeneration;
+    }
+
     //Debimos usar Spring Boot estoy al 98% de que esto seria mas facil con JPA y demas pero bueh
 }
\ No newline at end of file
@@ -1,13 +1,32 @@
 package co.edu.uniquindio.sameday.shipmentsuqsameday.model.util;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import javafx.application.Platform;
 
 import co.edu.uniquindio.sameday.shipmentsuqsameday.internalController.AppUtils;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.ShipmentReferenceList;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.User;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.UserPaymentMethod;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.PaymentStatus;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.mapping.DataInitializer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.DeltaSnapshot;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.EntityReference;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.EntityRelinker;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.MVStoreBackend;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.MappedSnapshot;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.PersistenceScheduler;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.WriteAheadJournal;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.*;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.*;
 
@@ -19,6 +38,35 @@ public class DataManager {
     
     private static final String APP_STATE_FILE = "app_state";
     
+    // Journal de mutaciones entre snapshots
+    private static final String JOURNAL_FILE = "data/app_state.journal";
+    private static final long JOURNAL_COMPACTION_BYTES = 4L * 1024 * 1024;
+    private static final long JOURNAL_COMPACTION_RECORDS = 10_000;
+    // Los deltas se fusionan en un snapshot base nuevo al superar este número
+    // o cuando suman más de una fracción (1/ratio) del tamaño del base
+    private static final int DELTA_MERGE_COUNT = 8;
+    private static final long DELTA_MERGE_RATIO = 4;
+    private static final String ADDRESSES = MappedSnapshot.ADDRESSES;
+    private static final String RATES = MappedSnapshot.RATES;
+    
+    // Ventana en la que se agrupan las mutaciones antes de escribirlas en disco
+    private static final String FLUSH_WINDOW_PROPERTY = "sameday.persistence.flushWindowMs";
+    private static final long DEFAULT_FLUSH_WINDOW_MS = 500;
+    
+    // Backend de almacenamiento: "memory" (snapshot + journal) o "mvstore" (almacén en disco)
+    private static final String STORAGE_PROPERTY = "sameday.storage";
+    private static final String STORAGE_MVSTORE = "mvstore";
+    private static final String STORE_FILE = "data/app_state.mv.db";
+    
+    // Intervalo del barrido de envíos pagados pendientes que no se encolaron al quedar
+    // pendientes; 0 lo desactiva
+    private static final String DISPATCH_INTERVAL_PROPERTY = "sameday.dispatch.intervalMs";
+    private static final long DEFAULT_DISPATCH_INTERVAL_MS = 30_000;
+    
+    // Intervalo de la reubicación de repartidores libres según la demanda esperada; 0 la desactiva
+    private static final String PREPOSITIONING_INTERVAL_PROPERTY = "sameday.prepositioning.intervalMs";
+    private static final long DEFAULT_PREPOSITIONING_INTERVAL_MS = 900_000;
+    
     // Instancia única (Singleton)
     private static DataManager instance;
     private AppState appState;
@@ -31,6 +79,32 @@ public class DataManager {
     private PaymentRepository paymentRepository;
     private RateRepository rateRepository;
     private IncidentRepository incidentRepository;
+    
+    // Repositorios por nombre, usados por el journal
+    private final Map<String, BaseRepository<?>> repositoriesByName = new LinkedHashMap<>();
+    private final WriteAheadJournal journal = new WriteAheadJournal(Paths.get(JOURNAL_FILE));
+    private final PersistenceScheduler persistenceScheduler = new PersistenceScheduler(
+        Long.getLong(FLUSH_WINDOW_PROPERTY, DEFAULT_FLUSH_WINDOW_MS), this::flushDirty);
+    
+    // Almacén en disco de los repositorios; null si las entidades están en memoria
+    private MVStoreBackend storageBackend;
+    
+    // Snapshot mapeado del que los repositorios materializan entidades bajo demanda;
+    // se reemplaza bajo snapshotLock, que nunca se toma esperando otro candado
+    private MappedSnapshot snapshot;
+    private final Object snapshotLock = new Object();
+    
+    // Cadena de deltas sobre el snapshot base; sin un base en formato indexado se guarda completo
+    private volatile boolean baseSnapshotCurrent = false;
+    private long baseGeneration;
+    private int deltaCount;
+    private long deltaBytes;
+
+    // Despacho, por zonas, de los envíos pagados que quedaron pendientes
+    private BatchDispatchService batchDispatchService;
+    private ZoneDispatchService zoneDispatchService;
+    private ShipmentReassignmentService reassignmentService;
+    private PrepositioningPlanner prepositioningPlanner;
 
     private boolean isInitialized = false;
     
@@ -48,6 +122,7 @@ public class DataManager {
             
             synchronized (DataManager.class) {
                 if (!isInitialized) {
+                    openStorageBackend();
                     initRepositoriesAndServices();
                     System.out.println("Repositorios inicializados");
                     
@@ -55,8 +130,27 @@ public class DataManager {
                     loadOrCreateState();
                     System.out.println("Estado cargado");
                     
-                    // Registrar hook para guardar al cerrar
-                    Runtime.getRuntime().addShutdownHook(new Thread(this::saveState));
+                    if (storageBackend != null) {
+                        // El almacén persiste cada mutación por sí mismo
+                        importSnapshotIntoStore();
+                    } else {
+                        // A partir de aquí cada mutación se anexa al journal
+                        startJournal();
+                        scheduleMergeIfNeeded();
+                    }
+                    
+                    long dispatchInterval = Long.getLong(DISPATCH_INTERVAL_PROPERTY, DEFAULT_DISPATCH_INTERVAL_MS);
+                    if (zoneDispatchService != null && dispatchInterval > 0) {
+                        zoneDispatchService.start(dispatchInterval);
+                    }
+                    long prepositioningInterval = Long.getLong(PREPOSITIONING_INTERVAL_PROPERTY,
+                        DEFAULT_PREPOSITIONING_INTERVAL_MS);
+                    if (prepositioningPlanner != null && prepositioningInterval > 0) {
+                        prepositioningPlanner.start(prepositioningInterval);
+                    }
+                    
+                    // Registrar hook para escribir lo pendiente y guardar al cerrar
+                    Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
                     
                     isInitialized = true;
                     System.out.println("DataManager inicializado correctamente");
@@ -110,25 +204,65 @@ public class DataManager {
         return instance;
     }
     
+    /**
+     * Abre el almacén en disco si la configuración lo pide (-Dsameday.storage=mvstore).
+     * Los repositorios del DataManager lo reciben en su constructor; también pasa a ser el
+     * backend por defecto de los que se creen después sin indicar uno (por ejemplo, los de la
+     * aplicación web), salvo que ya existan repositorios sobre el de memoria.
+     * Si no se puede abrir, se sigue con los repositorios en memoria.
+     */
+    private void openStorageBackend() {
+        if (!STORAGE_MVSTORE.equalsIgnoreCase(System.getProperty(STORAGE_PROPERTY, "memory"))) {
+            return;
+        }
+        try {
+            int commitDelay = (int) Long.getLong(FLUSH_WINDOW_PROPERTY, DEFAULT_FLUSH_WINDOW_MS).longValue();
+            storageBackend = MVStoreBackend.open(Paths.get(STORE_FILE), commitDelay, this::resolveReference);
+        } catch (IOException e) {
+            System.err.println("[STORAGE] " + e.getMessage() + "; se usarán los repositorios en memoria");
+            return;
+        }
+        try {
+            BaseRepository.useStorageBackend(storageBackend);
+        } catch (IllegalStateException e) {
+            System.err.println("[STORAGE] " + e.getMessage() + "; solo los repositorios del DataManager usarán el almacén");
+        }
+    }
+    
     /**
      * Inicializa los repositorios y servicios.
      */
     private void initRepositoriesAndServices() {
-        // Inicializar repositorios
-        userRepository = new UserRepository();
-        delivererRepository = new DelivererRepository();
-        shipmentRepository = new ShipmentRepository();
-        addressRepository = new AddressRepository();
-        paymentRepository = new PaymentRepository();
-        rateRepository = new RateRepository();
-        incidentRepository = new IncidentRepository();
+        // Inicializar repositorios. Se registran a medida que se crean porque con el
+        // almacén en disco los índices de un repositorio ya resuelven referencias a los anteriores
+        StorageBackend backend = storageBackend != null ? storageBackend : StorageBackend.MEMORY;
+        userRepository = register(EntityReference.USERS, new UserRepository(backend));
+        delivererRepository = register(EntityReference.DELIVERERS, new DelivererRepository(backend));
+        shipmentRepository = register(EntityReference.SHIPMENTS, new ShipmentRepository(backend));
+        addressRepository = register(ADDRESSES, new AddressRepository(backend));
+        paymentRepository = register(EntityReference.PAYMENTS, new PaymentRepository(backend));
+        rateRepository = register(RATES, new RateRepository(backend));
+        incidentRepository = register(EntityReference.INCIDENTS, new IncidentRepository(backend));
+        // Las listas de envíos de usuarios y repartidores guardan IDs que se resuelven aquí
+        ShipmentReferenceList.setDefaultResolver(id -> shipmentRepository.findById(id).orElse(null));
         
         // Inicializar servicios con los repositorios correctos
         try {
             UserService.getInstance(userRepository);
             DelivererService delivererService = DelivererService.getInstance(delivererRepository);
             IncidentService incidentService = IncidentService.getInstance();
-            ShipmentService.getInstance(shipmentRepository, delivererService, incidentService);
+            ShipmentService shipmentService = ShipmentService.getInstance(shipmentRepository, delivererService, incidentService);
+            // El despacho por lotes solo toma envíos con un pago completado
+            batchDispatchService = BatchDispatchService.getInstance(shipmentRepository, delivererService, this::isPaid);
+            batchDispatchService.setPersistHook(this::flushAndWait);
+            zoneDispatchService = new ZoneDispatchService(batchDispatchService, shipmentRepository, delivererService);
+            // Los envíos que quedan pendientes se encolan en su zona al momento
+            shipmentService.setDispatchHook(zoneDispatchService::submit);
+            // Las ráfagas de incidentes y los cierres de zona se reasignan en bloque
+            reassignmentService = new ShipmentReassignmentService(shipmentService, incidentService,
+                delivererService, batchDispatchService);
+            shipmentService.setReassignmentService(reassignmentService);
+            prepositioningPlanner = new PrepositioningPlanner(shipmentRepository, delivererService);
             PaymentService.getInstance(paymentRepository, 
                 new PaymentProcessingService(paymentRepository, new MockPaymentGateway()),
                 new PaymentAnalyticsService(paymentRepository));
@@ -139,6 +273,16 @@ public class DataManager {
         }
     }
     
+    private boolean isPaid(Shipment shipment) {
+        return paymentRepository.findByShipmentId(shipment.getId()).stream()
+            .anyMatch(payment -> payment.getStatus() == PaymentStatus.COMPLETED);
+    }
+    
+    private <R extends BaseRepository<?>> R register(String name, R repository) {
+        repositoriesByName.put(name, repository);
+        return repository;
+    }
+    
     /**
      * Carga el estado guardado o crea uno nuevo si no existe.
      */
@@ -146,21 +290,36 @@ public class DataManager {
     
     private void loadOrCreateState() {
         try {
-            if (userRepository.findAll().size() > 0) {
+            if (userRepository.count() > 0) {
                 System.out.println("Ya existen datos en los repositorios. Omitiendo inicialización.");
                 return;
             }
             
-            if (Serializer.existeArchivo(APP_STATE_FILE)) {
+            boolean compact = Serializer.existeArchivoCompacto(APP_STATE_FILE);
+            if (compact && loadMappedState()) {
+                dataInitialized = true;
+                return;
+            }
+            
+            if (compact || Serializer.existeArchivo(APP_STATE_FILE)) {
                 try {
-                    appState = (AppState) Serializer.cargarEstado(APP_STATE_FILE);
+                    // Formatos anteriores (compacto secuencial o serialización de Java):
+                    // se cargan completos y se reescriben en el formato indexado
+                    if (compact) {
+                        appState = Serializer.cargarEstadoCompacto(APP_STATE_FILE);
+                    } else {
+                        appState = (AppState) Serializer.cargarEstado(APP_STATE_FILE);
+                    }
                     System.out.println("Estado de la aplicación cargado exitosamente.");
                     
 
                     if (appState.getUsers() != null && !appState.getUsers().isEmpty()) {
                         System.out.println("Usuarios encontrados en el estado cargado: " + appState.getUsers().size());
                         loadRepositories();
+                        replayJournal();
                         dataInitialized = true;
+                        System.out.println("[MIGRATION] Convirtiendo " + APP_STATE_FILE + " al formato indexado...");
+                        saveState();
                         return;
                     }
                 } catch (Exception e) {
@@ -181,6 +340,111 @@ public class DataManager {
         }
     }
     
+    /**
+     * Mapea el snapshot indexado sin materializar entidades: los repositorios quedan
+     * disponibles de inmediato y cada entidad se lee del archivo en su primer acceso.
+     * No se aplica la migración de coordenadas porque el formato indexado solo lo
+     * escriben versiones que ya la aplicaron.
+     * @return true si el snapshot se pudo mapear y contiene usuarios
+     */
+    private boolean loadMappedState() {
+        MappedSnapshot mapped;
+        try {
+            mapped = Serializer.mapearEstadoCompacto(APP_STATE_FILE);
+        } catch (IOException e) {
+            System.out.println("[SNAPSHOT] No se pudo mapear el estado (" + e.getMessage() + "), se cargará completo");
+            return false;
+        }
+        if (mapped.count(EntityReference.USERS) == 0) {
+            mapped.close();
+            return false;
+        }
+        
+        mapped.setResolver(this::resolveReference);
+        mapped.setDamageHandler(cause -> fallBackToPreviousSnapshot(mapped));
+        snapshot = mapped;
+        appState = new AppState();
+        appState.setJournalGeneration(mapped.getJournalGeneration());
+        baseGeneration = mapped.getJournalGeneration();
+        baseSnapshotCurrent = true;
+        repositoriesByName.forEach(this::attachSnapshot);
+        System.out.println("[SNAPSHOT] Estado mapeado con carga diferida: " + 
+                         mapped.count(EntityReference.USERS) + " usuarios, " +
+                         mapped.count(EntityReference.DELIVERERS) + " repartidores, " +
+                         mapped.count(EntityReference.SHIPMENTS) + " envíos");
+        
+        applyDeltas();
+        replayJournal();
+        return true;
+    }
+    
+    private <T> void attachSnapshot(String name, BaseRepository<T> repository) {
+        repository.loadLazily(snapshot.source(name));
+    }
+    
+    /**
+     * Un registro del snapshot mapeado resultó dañado: las entidades que todavía no se
+     * materializaron se leen desde la generación anterior del archivo, y el siguiente
+     * guardado escribe un snapshot base completo sin rotar el archivo dañado sobre ella.
+     * Las entidades ya materializadas (verificadas) y las cambiadas por los deltas y el
+     * journal se conservan. Se ejecuta en el hilo que leía el registro.
+     */
+    private void fallBackToPreviousSnapshot(MappedSnapshot damaged) {
+        synchronized (snapshotLock) {
+            if (snapshot != damaged) {
+                return;
+            }
+            Serializer.marcarDanado(damaged);
+            baseSnapshotCurrent = false;
+            MappedSnapshot previous;
+            try {
+                previous = Serializer.mapearGeneracionAnterior(APP_STATE_FILE);
+            } catch (IOException e) {
+                System.err.println("[SNAPSHOT] No hay una generación anterior utilizable (" + e.getMessage() + 
+                                 "); las entidades dañadas no se podrán leer");
+                return;
+            }
+            if (previous.getFile().equals(damaged.getFile())) {
+                // El archivo dañado ya era la generación anterior
+                previous.close();
+                System.err.println("[SNAPSHOT] La generación anterior también está dañada");
+                return;
+            }
+            previous.setResolver(this::resolveReference);
+            previous.setDamageHandler(cause -> fallBackToPreviousSnapshot(previous));
+            snapshot = previous;
+            repositoriesByName.forEach((name, repository) -> replaceSource(name, repository, previous));
+            damaged.discard();
+            System.err.println("[SNAPSHOT] Las entidades pendientes se leerán de " + previous.getFile().getFileName());
+        }
+    }
+    
+    private <T> void replaceSource(String name, BaseRepository<T> repository, MappedSnapshot previous) {
+        repository.replaceSource(previous.source(name));
+    }
+    
+    /**
+     * Primer arranque con el almacén en disco sobre un snapshot existente: se materializan
+     * los repositorios, lo que escribe cada entidad en el almacén, y se suelta el snapshot.
+     * El snapshot y el journal quedan en disco pero ya no se actualizan.
+     */
+    private void importSnapshotIntoStore() {
+        if (snapshot == null) {
+            return;
+        }
+        System.out.println("[STORAGE] Importando el snapshot al almacén...");
+        repositoriesByName.values().forEach(BaseRepository::count);
+        storageBackend.commit();
+        MappedSnapshot imported;
+        synchronized (snapshotLock) {
+            imported = snapshot;
+            snapshot = null;
+        }
+        imported.close();
+        System.out.println("[STORAGE] Snapshot importado: " + userRepository.count() + " usuarios, " +
+                         shipmentRepository.count() + " envíos");
+    }
+    
     /**
      * Carga los datos desde AppState a los repositorios.
      */
@@ -209,6 +473,209 @@ public class DataManager {
         System.out.println("Después de cargar - Usuarios en repositorio: " + userRepository.findAll().size());
     }
     
+    /**
+     * Aplica en orden los deltas escritos sobre el snapshot base. La cadena se corta en el
+     * primer delta dañado o que no continúa la generación anterior; los deltas de otro
+     * snapshot base se ignoran y se borran en la siguiente fusión.
+     * Los cambios aplicados ya están en disco, así que no cuentan como pendientes.
+     */
+    private void applyDeltas() {
+        int applied = 0;
+        for (Path file : Serializer.listarDeltas(APP_STATE_FILE)) {
+            try {
+                DeltaSnapshot delta = DeltaSnapshot.read(file);
+                if (delta.getBaseGeneration() != baseGeneration || delta.getGeneration() <= appState.getJournalGeneration()) {
+                    continue;
+                }
+                if (delta.getGeneration() != appState.getJournalGeneration() + 1) {
+                    System.err.println("[SNAPSHOT] Falta el delta de la generación " + (appState.getJournalGeneration() + 1) + 
+                                     ", se descartan los siguientes");
+                    break;
+                }
+                applied += delta.apply(repositoryReplayHandler(), this::resolveReference);
+                appState.setJournalGeneration(delta.getGeneration());
+                deltaCount++;
+                deltaBytes += Files.size(file);
+            } catch (IOException e) {
+                System.err.println("[SNAPSHOT] Delta inválido " + file.getFileName() + ", se descartan los siguientes: " + e.getMessage());
+                break;
+            }
+        }
+        
+        if (applied > 0) {
+            relinkLoadedEntities();
+        }
+        repositoriesByName.values().forEach(BaseRepository::clearChanges);
+        System.out.println("[SNAPSHOT] Deltas aplicados: " + deltaCount + " (" + applied + " cambios)");
+    }
+    
+    /**
+     * Reproduce sobre los repositorios las mutaciones registradas después del último snapshot.
+     */
+    private void replayJournal() {
+        try {
+            int applied = journal.replay(appState.getJournalGeneration(), repositoryReplayHandler(), this::resolveReference);
+            
+            if (applied > 0) {
+                relinkLoadedEntities();
+            }
+            System.out.println("[JOURNAL] Registros reproducidos: " + applied);
+        } catch (IOException e) {
+            System.err.println("[JOURNAL] Error al reproducir el journal: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Receptor que aplica sobre los repositorios los cambios leídos del journal o de un delta
+     */
+    private WriteAheadJournal.ReplayHandler repositoryReplayHandler() {
+        return new WriteAheadJournal.ReplayHandler() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public void onPut(String repository, UUID id, Object entity) {
+                BaseRepository<Object> target = (BaseRepository<Object>) repositoriesByName.get(repository);
+                if (target != null && entity != null) {
+                    target.save(entity);
+                }
+            }
+
+            @Override
+            public void onDelete(String repository, UUID id) {
+                BaseRepository<?> target = repositoriesByName.get(repository);
+                if (target != null) {
+                    target.deleteById(id);
+                }
+            }
+        };
+    }
+    
+    /**
+     * Solo las entidades ya materializadas pueden apuntar a copias antiguas;
+     * las pendientes del snapshot se resolverán contra los repositorios
+     */
+    private void relinkLoadedEntities() {
+        new EntityRelinker(this::resolveReference).relink(
+            userRepository.getLoadedEntities(),
+            delivererRepository.getLoadedEntities(),
+            shipmentRepository.getLoadedEntities(),
+            paymentRepository.getLoadedEntities(),
+            incidentRepository.getLoadedEntities()
+        );
+    }
+    
+    /**
+     * Obtiene la instancia actual de una entidad referenciada
+     */
+    private Object resolveReference(EntityReference reference) {
+        BaseRepository<?> repository = repositoriesByName.get(reference.getKind());
+        return repository != null ? repository.findById(reference.getId()).orElse(null) : null;
+    }
+    
+    /**
+     * Abre el journal y registra un observador en cada repositorio para anexar sus mutaciones.
+     */
+    private void startJournal() {
+        try {
+            journal.open(appState.getJournalGeneration());
+            repositoriesByName.forEach(this::attachJournal);
+            System.out.println("[JOURNAL] Journal abierto (generación " + journal.getGeneration() + 
+                             ", " + journal.getRecordCount() + " registros)");
+        } catch (IOException e) {
+            System.err.println("[JOURNAL] No se pudo abrir el journal, solo se guardarán snapshots: " + e.getMessage());
+        }
+    }
+    
+    private <T> void attachJournal(String name, BaseRepository<T> repository) {
+        repository.addListener(new RepositoryListener<T>() {
+            @Override
+            public void onSaved(UUID id, T entity) {
+                try {
+                    journal.appendPut(name, id, entity);
+                    persistenceScheduler.markDirty(name);
+                } catch (IOException e) {
+                    System.err.println("[JOURNAL] Error al registrar " + name + "/" + id + ": " + e.getMessage());
+                }
+            }
+
+            @Override
+            public void onDeleted(UUID id) {
+                try {
+                    journal.appendDelete(name, id);
+                    persistenceScheduler.markDirty(name);
+                } catch (IOException e) {
+                    System.err.println("[JOURNAL] Error al registrar eliminación " + name + "/" + id + ": " + e.getMessage());
+                }
+            }
+        });
+    }
+    
+    /**
+     * Asegura en disco las mutaciones registradas en el journal. Se ejecuta en el hilo
+     * del planificador, una vez por ventana, con los repositorios modificados en ella.
+     * Cuando el journal supera el umbral de compactación se escribe un snapshot completo.
+     */
+    private void flushDirty(Set<String> dirtyRepositories) throws IOException {
+        journal.flush();
+        System.out.println("[PERSISTENCE] Journal asegurado en disco (" + dirtyRepositories + ")");
+        if (journal.size() > JOURNAL_COMPACTION_BYTES || journal.getRecordCount() > JOURNAL_COMPACTION_RECORDS) {
+            System.out.println("[JOURNAL] Umbral alcanzado, compactando en un snapshot...");
+            saveState();
+        }
+    }
+    
+    /**
+     * Escribe de inmediato las mutaciones pendientes y espera a que terminen.
+     * Los flujos de negocio no necesitan llamarlo: cada mutación se programa sola.
+     */
+    public void flushAndWait() {
+        if (storageBackend != null) {
+            storageBackend.commit();
+            return;
+        }
+        try {
+            persistenceScheduler.flushAndWait();
+        } catch (IOException e) {
+            System.err.println("[PERSISTENCE] Error al escribir las mutaciones pendientes: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Obtiene las métricas de la persistencia en segundo plano, incluidos los flush fallidos
+     * (totales y seguidos) mientras el disco no acepta escrituras
+     */
+    public Map<String, Object> getPersistenceStatistics() {
+        return persistenceScheduler.getStatistics();
+    }
+    
+    /**
+     * Detiene el planificador escribiendo lo pendiente y guarda el estado final. Basta con
+     * un delta: los servicios guardan con update() cada entidad que modifican en memoria.
+     */
+    private void shutdown() {
+        if (reassignmentService != null) {
+            // Reasigna lo agrupado antes de detener los despachos
+            reassignmentService.close();
+        }
+        if (prepositioningPlanner != null) {
+            prepositioningPlanner.close();
+        }
+        if (zoneDispatchService != null) {
+            zoneDispatchService.close();
+        }
+        if (batchDispatchService != null) {
+            batchDispatchService.close();
+        }
+        try {
+            persistenceScheduler.close();
+        } catch (IOException e) {
+            System.err.println("[PERSISTENCE] Error al cerrar el planificador: " + e.getMessage());
+        }
+        saveState();
+        if (storageBackend != null) {
+            storageBackend.close();
+        }
+    }
+    
     /**
      * Migra las coordenadas antiguas: convierte Grid↔GPS automáticamente
      */
@@ -287,10 +754,105 @@ public class DataManager {
     }
     
     /**
-     * Guarda el estado actual de la aplicación.
+     * Guarda el estado actual de la aplicación y compacta el journal. Sobre un snapshot base
+     * indexado solo se escribe un delta con las entidades modificadas desde el último guardado;
+     * los deltas se fusionan en un base nuevo en segundo plano. Con el almacén en disco
+     * solo se confirman sus cambios.
+     * Se bloquea el journal durante la escritura para que ninguna mutación quede
+     * fuera tanto del snapshot como del journal reiniciado.
      */
     public void saveState() {
+        if (storageBackend != null) {
+            storageBackend.commit();
+            System.out.println("[STORAGE] Cambios confirmados en " + storageBackend.getFile());
+            return;
+        }
+        synchronized (journal) {
+            if (baseSnapshotCurrent) {
+                saveDelta();
+            } else {
+                saveSnapshot();
+            }
+        }
+    }
+    
+    /**
+     * Escribe un delta con los cambios pendientes de cada repositorio
+     */
+    private void saveDelta() {
+        Map<String, RepositoryChanges<?>> changes = new LinkedHashMap<>();
+        repositoriesByName.forEach((name, repository) -> {
+            RepositoryChanges<?> repositoryChanges = repository.drainChanges();
+            if (!repositoryChanges.isEmpty()) {
+                changes.put(name, repositoryChanges);
+            }
+        });
+        if (changes.isEmpty()) {
+            System.out.println("[SNAPSHOT] Sin cambios desde el último guardado");
+            return;
+        }
+        
+        long nextGeneration = appState.getJournalGeneration() + 1;
+        try {
+            long bytes = DeltaSnapshot.write(Serializer.rutaDelta(APP_STATE_FILE, nextGeneration), 
+                                             baseGeneration, nextGeneration, changes);
+            appState.setJournalGeneration(nextGeneration);
+            deltaCount++;
+            deltaBytes += bytes;
+            System.out.println("[SNAPSHOT] Delta " + nextGeneration + " guardado: " + changes.keySet() + " (" + bytes + " bytes)");
+        } catch (IOException e) {
+            // Los cambios siguen en el journal; se reintentan en el siguiente guardado
+            changes.forEach((name, repositoryChanges) -> restoreChanges(repositoriesByName.get(name), repositoryChanges));
+            System.err.println("[SNAPSHOT] Error al guardar el delta: " + e.getMessage());
+            return;
+        }
+        
         try {
+            if (journal.isOpen()) {
+                journal.reset(nextGeneration);
+            }
+        } catch (IOException e) {
+            // El journal anterior queda huérfano: su generación ya no coincide y no se reproducirá
+            System.err.println("[JOURNAL] Error al reiniciar el journal: " + e.getMessage());
+        }
+        scheduleMergeIfNeeded();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <T> void restoreChanges(BaseRepository<T> repository, RepositoryChanges<?> changes) {
+        repository.restoreChanges((RepositoryChanges<T>) changes);
+    }
+    
+    /**
+     * Programa la fusión de los deltas en un snapshot base nuevo si la cadena creció demasiado
+     */
+    private void scheduleMergeIfNeeded() {
+        if (deltaCount >= DELTA_MERGE_COUNT || 
+            deltaBytes * DELTA_MERGE_RATIO > Serializer.tamanoArchivoCompacto(APP_STATE_FILE)) {
+            persistenceScheduler.execute(this::mergeDeltas);
+        }
+    }
+    
+    /**
+     * Fusiona el snapshot base y sus deltas en un snapshot base nuevo
+     */
+    private void mergeDeltas() {
+        synchronized (journal) {
+            if (deltaCount > 0) {
+                System.out.println("[SNAPSHOT] Fusionando " + deltaCount + " deltas en el snapshot base...");
+                saveSnapshot();
+            }
+        }
+    }
+    
+    private void saveSnapshot() {
+        try {
+            // Lo que se escriba aquí deja de estar pendiente; se descarta antes de leer
+            // los repositorios para que una mutación concurrente siga marcada, y
+            // hasta que el base nuevo esté escrito, el siguiente guardado vuelve a ser completo
+            repositoriesByName.values().forEach(BaseRepository::clearChanges);
+            baseSnapshotCurrent = false;
+            
             // Actualizar el estado con los datos actuales de los repositorios
             updateState();
             
@@ -300,16 +862,44 @@ public class DataManager {
                 return;
             }
             
-            Serializer.guardarEstado(appState, APP_STATE_FILE);
+            // updateState() ya materializó todos los repositorios: el archivo mapeado
+            // puede liberarse antes de reemplazarlo
+            MappedSnapshot mapped;
+            synchronized (snapshotLock) {
+                mapped = snapshot;
+                snapshot = null;
+            }
+            if (mapped != null) {
+                mapped.close();
+            }
+            
+            long nextGeneration = appState.getJournalGeneration() + 1;
+            appState.setJournalGeneration(nextGeneration);
+            Serializer.guardarEstadoCompacto(appState, APP_STATE_FILE);
             System.out.println("Estado de la aplicación guardado exitosamente.");
             
-            if (Serializer.existeArchivo(APP_STATE_FILE)) {
+            // El nuevo base contiene todos los deltas anteriores
+            baseSnapshotCurrent = true;
+            baseGeneration = nextGeneration;
+            deltaCount = 0;
+            deltaBytes = 0;
+            Serializer.eliminarDeltas(APP_STATE_FILE);
+            
+            // El snapshot ya contiene todo lo registrado: el journal empieza de nuevo
+            if (journal.isOpen()) {
+                journal.reset(nextGeneration);
+            }
+            
+            if (Serializer.existeArchivoCompacto(APP_STATE_FILE)) {
                 System.out.println("Archivo de estado verificado: existe en disco.");
             } else {
                 System.err.println("ERROR: El archivo de estado no se guardó correctamente.");
             }
         } catch (IOException e) {
-            AppUtils.showError("Error al guardar", "No se pudo guardar el estado de la aplicación: " + e.getMessage());
+            // La compactación también corre en el hilo del planificador, donde no hay diálogos
+            if (Platform.isFxApplicationThread()) {
+                AppUtils.showError("Error al guardar", "No se pudo guardar el estado de la aplicación: " + e.getMessage());
+            }
             System.err.println("Error al guardar el estado de la aplicación: " + e.getMessage());
             e.printStackTrace();
         }
@@ -0,0 +1,132 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.util;
+
+import java.util.Arrays;
+
+/**
+ * Resuelve el problema de asignación de costo mínimo (algoritmo húngaro con potenciales).
+ * Cada fila se asigna a lo sumo a una columna y cada columna a lo sumo a una fila,
+ * minimizando la suma de los costos elegidos. La matriz puede ser rectangular:
+ * si hay más filas que columnas algunas filas quedan sin asignar.
+ *
+ * Complejidad O(n² · m) con n = min(filas, columnas) y m = max(filas, columnas).
+ */
+public final class HungarianAssignment {
+
+    /**
+     * Costo de las parejas no permitidas; nunca se eligen si existe otra alternativa
+     * y, si se eligen, se descartan del resultado
+     */
+    public static final double FORBIDDEN = 1e9;
+
+    private HungarianAssignment() {
+    }
+
+    /**
+     * Calcula la asignación de costo mínimo
+     * @param cost matriz de costos [fila][columna]; usar {@link #FORBIDDEN} (o un valor mayor,
+     *             incluido infinito) para las parejas no permitidas
+     * @return columna asignada a cada fila, o -1 si la fila queda sin asignar
+     */
+    public static int[] solve(double[][] cost) {
+        int rows = cost.length;
+        int columns = rows == 0 ? 0 : cost[0].length;
+        int[] result = new int[rows];
+        Arrays.fill(result, -1);
+        if (rows == 0 || columns == 0) {
+            return result;
+        }
+
+        // El algoritmo recorre filas y necesita al menos tantas columnas como filas
+        boolean transposed = rows > columns;
+        int n = transposed ? columns : rows;
+        int m = transposed ? rows : columns;
+        double[][] matrix = new double[n][m];
+        for (int i = 0; i < rows; i++) {
+            if (cost[i].length != columns) {
+                throw new IllegalArgumentException("La matriz de costos debe ser rectangular");
+            }
+            for (int j = 0; j < columns; j++) {
+                double value = Math.min(cost[i][j], FORBIDDEN);
+                if (Double.isNaN(value)) {
+                    throw new IllegalArgumentException("La matriz de costos contiene NaN");
+                }
+                if (transposed) {
+                    matrix[j][i] = value;
+                } else {
+                    matrix[i][j] = value;
+                }
+            }
+        }
+
+        int[] rowOfColumn = assign(matrix, n, m);
+        for (int j = 1; j <= m; j++) {
+            int i = rowOfColumn[j];
+            if (i == 0 || matrix[i - 1][j - 1] >= FORBIDDEN) {
+                continue;
+            }
+            if (transposed) {
+                result[j - 1] = i - 1;
+            } else {
+                result[i - 1] = j - 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Algoritmo húngaro para n ≤ m con índices desde 1
+     * @return fila (desde 1, 0 si ninguna) asignada a cada columna (desde 1)
+     */
+    private static int[] assign(double[][] matrix, int n, int m) {
+        double[] rowPotential = new double[n + 1];
+        double[] columnPotential = new double[m + 1];
+        int[] rowOfColumn = new int[m + 1];
+        int[] previousColumn = new int[m + 1];
+        double[] minSlack = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            rowOfColumn[0] = i;
+            int column = 0;
+            Arrays.fill(minSlack, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[column] = true;
+                int row = rowOfColumn[column];
+                double delta = Double.POSITIVE_INFINITY;
+                int nextColumn = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) {
+                        continue;
+                    }
+                    double slack = matrix[row - 1][j - 1] - rowPotential[row] - columnPotential[j];
+                    if (slack < minSlack[j]) {
+                        minSlack[j] = slack;
+                        previousColumn[j] = column;
+                    }
+                    if (minSlack[j] < delta) {
+                        delta = minSlack[j];
+                        nextColumn = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        rowPotential[rowOfColumn[j]] += delta;
+                        columnPotential[j] -= delta;
+                    } else {
+                        minSlack[j] -= delta;
+                    }
+                }
+                column = nextColumn;
+            } while (rowOfColumn[column] != 0);
+
+            // Invertir el camino aumentante
+            do {
+                int previous = previousColumn[column];
+                rowOfColumn[column] = rowOfColumn[previous];
+                column = previous;
+            } while (column != 0);
+        }
+        return rowOfColumn;
+    }
+}
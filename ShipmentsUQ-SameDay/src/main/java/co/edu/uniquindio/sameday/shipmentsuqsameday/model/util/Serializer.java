@@ -1,15 +1,24 @@
 package co.edu.uniquindio.sameday.shipmentsuqsameday.model.util;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.AppStateCodec;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.MappedSnapshot;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.SnapshotFile;
 
 /**
  * Clase utilitaria para serializar y deserializar objetos.
  * Permite guardar el estado de la aplicación en un archivo y recuperarlo posteriormente.
+ * Los archivos se escriben de forma atómica con {@link SnapshotFile}: al cargar se valida
+ * su checksum y, si el archivo vigente está dañado, se usa la generación anterior.
  */
 public class Serializer {
 
@@ -18,6 +27,12 @@ public class Serializer {
     
     /** Extensión de archivo para archivos de datos serializados */
     private static final String DATA_EXTENSION = ".dat";
+    
+    /** Extensión de archivo para el estado en formato binario compacto */
+    private static final String COMPACT_EXTENSION = ".bin";
+    
+    /** Extensión de los snapshots incrementales (deltas) sobre el estado compacto */
+    private static final String DELTA_EXTENSION = ".delta";
 
     /**
      * Guarda el estado de un objeto en un archivo.
@@ -44,17 +59,19 @@ public class Serializer {
         File archivo = new File(dataDir, nombreArchivo + DATA_EXTENSION);
         System.out.println("Guardando el archivo en: " + archivo.getAbsolutePath());
         
-        // Serializar el objeto
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(archivo))) {
+        // Serializar el objeto en un temporal que reemplaza al archivo solo si se escribió completo
+        SnapshotFile.write(archivo.toPath(), out -> {
+            ObjectOutputStream oos = new ObjectOutputStream(out);
             oos.writeObject(objeto);
-            System.out.println("Objeto serializado correctamente: " + objeto.getClass().getName());
-            
-            // Verificar que el archivo se creó y tiene tamaño
-            if (archivo.exists() && archivo.length() > 0) {
-                System.out.println("Archivo creado exitosamente con tamaño: " + archivo.length() + " bytes");
-            } else {
-                throw new IOException("El archivo no se creó correctamente");
-            }
+            oos.flush();
+        });
+        System.out.println("Objeto serializado correctamente: " + objeto.getClass().getName());
+        
+        // Verificar que el archivo se creó y tiene tamaño
+        if (archivo.exists() && archivo.length() > 0) {
+            System.out.println("Archivo creado exitosamente con tamaño: " + archivo.length() + " bytes");
+        } else {
+            throw new IOException("El archivo no se creó correctamente");
         }
     }
 
@@ -72,20 +89,17 @@ public class Serializer {
         System.out.println("Cargando el archivo desde: " + archivo.getAbsolutePath());
         
         // Verificar si el archivo existe
-        if (!archivo.exists()) {
+        if (!SnapshotFile.exists(archivo.toPath())) {
             throw new IOException("El archivo no existe: " + archivo.getAbsolutePath());
         }
         
-        // Verificar que el archivo tiene tamaño
-        if (archivo.length() == 0) {
-            throw new IOException("El archivo está vacío: " + archivo.getAbsolutePath());
-        }
-        
-        System.out.println("Tamaño del archivo a cargar: " + archivo.length() + " bytes");
+        // Validar el checksum; si el archivo está dañado se usa la generación anterior
+        SnapshotFile validado = SnapshotFile.open(archivo.toPath());
+        System.out.println("Tamaño del archivo a cargar: " + validado.getContentLength() + " bytes");
         
         // Deserializar el objeto
         Object objeto = null;
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(archivo))) {
+        try (ObjectInputStream ois = new ObjectInputStream(validado.newInputStream())) {
             objeto = ois.readObject();
             System.out.println("Objeto deserializado correctamente: " + 
                 (objeto != null ? objeto.getClass().getName() : "null"));
@@ -97,6 +111,170 @@ public class Serializer {
         }
     }
     
+    /**
+     * Guarda el estado de la aplicación con el códec binario compacto.
+     * 
+     * @param estado El estado a guardar.
+     * @param nombreArchivo El nombre del archivo (sin extensión).
+     * @throws IOException Si ocurre un error durante la escritura del archivo.
+     */
+    public static void guardarEstadoCompacto(AppState estado, String nombreArchivo) throws IOException {
+        if (estado == null) {
+            throw new IllegalArgumentException("No se puede guardar un estado nulo");
+        }
+        
+        File dataDir = new File(DATA_DIR);
+        if (!dataDir.exists() && !dataDir.mkdir()) {
+            throw new IOException("No se pudo crear el directorio de datos: " + dataDir.getAbsolutePath());
+        }
+        
+        File archivo = new File(dataDir, nombreArchivo + COMPACT_EXTENSION);
+        SnapshotFile.write(archivo.toPath(), out -> AppStateCodec.write(estado, out));
+        System.out.println("Estado compacto guardado en " + archivo.getAbsolutePath() + " (" + archivo.length() + " bytes)");
+    }
+    
+    /**
+     * Carga el estado de la aplicación escrito con el códec binario compacto.
+     * 
+     * @param nombreArchivo El nombre del archivo (sin extensión).
+     * @return El estado reconstruido.
+     * @throws IOException Si el archivo no existe o su formato es inválido.
+     */
+    public static AppState cargarEstadoCompacto(String nombreArchivo) throws IOException {
+        File archivo = new File(DATA_DIR, nombreArchivo + COMPACT_EXTENSION);
+        if (!SnapshotFile.exists(archivo.toPath())) {
+            throw new IOException("El archivo no existe o está vacío: " + archivo.getAbsolutePath());
+        }
+        
+        try (InputStream in = SnapshotFile.open(archivo.toPath()).newInputStream()) {
+            return AppStateCodec.read(in);
+        }
+    }
+    
+    /**
+     * Mapea en memoria el estado guardado con el códec compacto sin materializar entidades.
+     * Solo se revisa el pie del archivo: cada registro se verifica con su propio checksum al
+     * materializarlo, así que el arranque no depende del tamaño del archivo.
+     * 
+     * @param nombreArchivo El nombre del archivo (sin extensión).
+     * @return El snapshot mapeado; debe cerrarse antes de sobrescribir el archivo.
+     * @throws IOException Si no hay una generación válida o usa el formato secuencial anterior.
+     */
+    public static MappedSnapshot mapearEstadoCompacto(String nombreArchivo) throws IOException {
+        File archivo = new File(DATA_DIR, nombreArchivo + COMPACT_EXTENSION);
+        SnapshotFile vigente = SnapshotFile.openUnverified(archivo.toPath());
+        return MappedSnapshot.open(vigente.getPath(), vigente.getContentLength());
+    }
+    
+    /**
+     * Mapea la generación anterior del estado compacto, por ejemplo cuando un registro del
+     * archivo vigente resulta dañado después de mapearlo.
+     * 
+     * @param nombreArchivo El nombre del archivo (sin extensión).
+     * @return El snapshot mapeado de la generación anterior.
+     * @throws IOException Si no hay generación anterior o no se puede mapear.
+     */
+    public static MappedSnapshot mapearGeneracionAnterior(String nombreArchivo) throws IOException {
+        File archivo = new File(DATA_DIR, nombreArchivo + COMPACT_EXTENSION);
+        SnapshotFile anterior = SnapshotFile.openPrevious(archivo.toPath());
+        return MappedSnapshot.open(anterior.getPath(), anterior.getContentLength());
+    }
+    
+    /**
+     * Marca como dañado el archivo de un snapshot mapeado: no se conservará como generación
+     * anterior al guardar el siguiente estado.
+     * 
+     * @param snapshot Snapshot con registros dañados.
+     */
+    public static void marcarDanado(MappedSnapshot snapshot) {
+        if (snapshot.getFile() != null) {
+            SnapshotFile.markDamaged(snapshot.getFile());
+        }
+    }
+    
+    /**
+     * Verifica si existe un archivo de estado en formato compacto.
+     * 
+     * @param nombreArchivo El nombre del archivo a verificar (sin extensión).
+     * @return true si el archivo existe, false en caso contrario.
+     */
+    public static boolean existeArchivoCompacto(String nombreArchivo) {
+        return SnapshotFile.exists(new File(DATA_DIR, nombreArchivo + COMPACT_EXTENSION).toPath());
+    }
+    
+    /**
+     * Obtiene el tamaño del archivo de estado compacto.
+     * 
+     * @param nombreArchivo El nombre del archivo (sin extensión).
+     * @return Tamaño en bytes, o 0 si no existe.
+     */
+    public static long tamanoArchivoCompacto(String nombreArchivo) {
+        return new File(DATA_DIR, nombreArchivo + COMPACT_EXTENSION).length();
+    }
+    
+    /**
+     * Obtiene la ruta del delta que produce una generación del estado.
+     * 
+     * @param nombreArchivo El nombre del archivo de estado (sin extensión).
+     * @param generacion La generación que produce el delta.
+     * @return Ruta del delta, por ejemplo data/app_state.42.delta.
+     */
+    public static Path rutaDelta(String nombreArchivo, long generacion) {
+        return new File(DATA_DIR, nombreArchivo + "." + generacion + DELTA_EXTENSION).toPath();
+    }
+    
+    /**
+     * Lista los deltas existentes de un archivo de estado, ordenados por generación.
+     * 
+     * @param nombreArchivo El nombre del archivo de estado (sin extensión).
+     * @return Rutas de los deltas; vacía si no hay ninguno.
+     */
+    public static List<Path> listarDeltas(String nombreArchivo) {
+        List<Path> deltas = new ArrayList<>();
+        File[] archivos = new File(DATA_DIR).listFiles();
+        if (archivos == null) {
+            return deltas;
+        }
+        for (File archivo : archivos) {
+            if (generacionDelta(nombreArchivo, archivo.getName()) >= 0) {
+                deltas.add(archivo.toPath());
+            }
+        }
+        deltas.sort(Comparator.comparingLong(ruta -> generacionDelta(nombreArchivo, ruta.getFileName().toString())));
+        return deltas;
+    }
+    
+    /**
+     * Elimina los deltas de un archivo de estado.
+     * 
+     * @param nombreArchivo El nombre del archivo de estado (sin extensión).
+     * @return Número de deltas eliminados.
+     */
+    public static int eliminarDeltas(String nombreArchivo) {
+        int eliminados = 0;
+        for (Path delta : listarDeltas(nombreArchivo)) {
+            if (delta.toFile().delete()) {
+                eliminados++;
+            }
+        }
+        return eliminados;
+    }
+    
+    /**
+     * @return generación codificada en el nombre de un delta, o -1 si el nombre no corresponde
+     */
+    private static long generacionDelta(String nombreArchivo, String nombre) {
+        String prefijo = nombreArchivo + ".";
+        if (!nombre.startsWith(prefijo) || !nombre.endsWith(DELTA_EXTENSION)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(nombre.substring(prefijo.length(), nombre.length() - DELTA_EXTENSION.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
     /**
      * Verifica si existe un archivo de datos para un nombre determinado.
      * 
@@ -105,20 +283,21 @@ public class Serializer {
      */
     public static boolean existeArchivo(String nombreArchivo) {
         File archivo = new File(DATA_DIR, nombreArchivo + DATA_EXTENSION);
-        return archivo.exists();
+        return SnapshotFile.exists(archivo.toPath());
     }
     
     /**
-     * Elimina un archivo de datos si existe.
+     * Elimina un archivo de datos y su generación anterior si existen.
      * 
      * @param nombreArchivo El nombre del archivo a eliminar (sin extensión).
      * @return true si el archivo fue eliminado exitosamente, false en caso contrario.
      */
     public static boolean eliminarArchivo(String nombreArchivo) {
         File archivo = new File(DATA_DIR, nombreArchivo + DATA_EXTENSION);
-        if (archivo.exists()) {
-            return archivo.delete();
+        try {
+            return SnapshotFile.delete(archivo.toPath());
+        } catch (IOException e) {
+            return false;
         }
-        return false;
     }
 }
\ No newline at end of file
@@ -0,0 +1,382 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.model.util;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Address;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.ServiceZone;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.strategy.GridCoordinateStrategy;
+
+import java.util.*;
+
+/**
+ * Índice precalculado de zonas de servicio sobre una cuadrícula de celdas en grados.
+ * Al construirlo se clasifica cada celda: cubierta por completo por una zona, fuera de
+ * todas, o atravesada por el borde de alguna. Resolver un punto solo lee su celda; el
+ * polígono exacto se prueba únicamente en las celdas de borde y contra las pocas zonas
+ * que las atraviesan. Si dos zonas se solapan, gana la primera de la lista.
+ */
+public final class ZoneLocator {
+
+    // Lado de las celdas por defecto en grados (~220 m)
+    private static final double DEFAULT_CELL_DEGREES = 0.002;
+    private static final int MAX_CELLS = 4_000_000;
+    // Zonas por defecto de Armenia: un centro cuadrado y cuatro sectores hasta el borde exterior
+    private static final double CENTER_HALF_SIDE = 0.015;
+    private static final double OUTER_HALF_SIDE = 0.2;
+
+    private final List<ServiceZone> zones;
+    private final Map<String, ServiceZone> zonesById = new HashMap<>();
+    private final double minLatitude;
+    private final double minLongitude;
+    private final double cellDegrees;
+    private final int rows;
+    private final int columns;
+    // Por celda: índice + 1 de la zona que la cubre, 0 si está fuera de todas,
+    // o -(k + 1) si es la celda de borde k de boundaryCandidates
+    private final int[] cells;
+    // Zonas candidatas (en orden de la lista) de cada celda de borde
+    private final int[][] boundaryCandidates;
+
+    private static final class DefaultHolder {
+        static final ZoneLocator INSTANCE = new ZoneLocator(armeniaZones());
+    }
+
+    /**
+     * @param zones zonas a indexar, en orden de preferencia
+     */
+    public ZoneLocator(List<ServiceZone> zones) {
+        this(zones, DEFAULT_CELL_DEGREES);
+    }
+
+    /**
+     * @param zones zonas a indexar, en orden de preferencia
+     * @param cellDegrees lado de cada celda en grados
+     */
+    public ZoneLocator(List<ServiceZone> zones, double cellDegrees) {
+        if (cellDegrees <= 0) {
+            throw new IllegalArgumentException("El tamaño de celda debe ser positivo");
+        }
+        this.zones = List.copyOf(zones);
+        this.cellDegrees = cellDegrees;
+
+        double minLat = Double.POSITIVE_INFINITY;
+        double minLng = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double maxLng = Double.NEGATIVE_INFINITY;
+        for (ServiceZone zone : this.zones) {
+            if (zone.getId() == null || zone.getBoundary() == null || zone.getBoundary().size() < 3) {
+                throw new IllegalArgumentException("Cada zona necesita un ID y al menos 3 vértices");
+            }
+            if (zonesById.putIfAbsent(zone.getId(), zone) != null) {
+                throw new IllegalArgumentException("Zona repetida: " + zone.getId());
+            }
+            for (Coordinates vertex : zone.getBoundary()) {
+                minLat = Math.min(minLat, vertex.getLatitude());
+                minLng = Math.min(minLng, vertex.getLongitude());
+                maxLat = Math.max(maxLat, vertex.getLatitude());
+                maxLng = Math.max(maxLng, vertex.getLongitude());
+            }
+        }
+        if (this.zones.isEmpty()) {
+            minLatitude = 0;
+            minLongitude = 0;
+            rows = 0;
+            columns = 0;
+            cells = new int[0];
+            boundaryCandidates = new int[0][];
+            return;
+        }
+
+        // Una celda de margen alrededor de todas las zonas
+        minLatitude = minLat - cellDegrees;
+        minLongitude = minLng - cellDegrees;
+        rows = (int) Math.ceil((maxLat - minLatitude) / cellDegrees) + 1;
+        columns = (int) Math.ceil((maxLng - minLongitude) / cellDegrees) + 1;
+        if ((long) rows * columns > MAX_CELLS) {
+            throw new IllegalArgumentException("Demasiadas celdas (" + rows + "x" + columns
+                    + "); use celdas más grandes");
+        }
+        cells = new int[rows * columns];
+
+        Map<Integer, List<Integer>> candidates = new HashMap<>();
+        BitSet border = new BitSet(rows * columns);
+        for (int z = 0; z < this.zones.size(); z++) {
+            ServiceZone zone = this.zones.get(z);
+            markBorder(zone, border);
+            for (int cell = border.nextSetBit(0); cell >= 0; cell = border.nextSetBit(cell + 1)) {
+                candidates.computeIfAbsent(cell, key -> new ArrayList<>()).add(z);
+            }
+            fillInterior(zone, z, border, candidates);
+            border.clear();
+        }
+
+        boundaryCandidates = new int[candidates.size()][];
+        int k = 0;
+        for (Map.Entry<Integer, List<Integer>> entry : candidates.entrySet()) {
+            int cell = entry.getKey();
+            Set<Integer> zoneIndexes = new TreeSet<>(entry.getValue());
+            if (cells[cell] > 0) {
+                zoneIndexes.add(cells[cell] - 1);
+            }
+            boundaryCandidates[k] = zoneIndexes.stream().mapToInt(Integer::intValue).toArray();
+            cells[cell] = -(k + 1);
+            k++;
+        }
+    }
+
+    /**
+     * Obtiene el índice con las zonas por defecto de Armenia
+     */
+    public static ZoneLocator getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Zonas por defecto de Armenia: Centro alrededor de la plaza de Bolívar y los
+     * sectores Norte, Sur, Oriente y Occidente, que juntos cubren el área de servicio
+     * @return zonas en orden de preferencia
+     */
+    public static List<ServiceZone> armeniaZones() {
+        double lat = Coordinates.ARMENIA_CENTER.getLatitude();
+        double lng = Coordinates.ARMENIA_CENTER.getLongitude();
+        double c = CENTER_HALF_SIDE;
+        double o = OUTER_HALF_SIDE;
+        return List.of(
+            ServiceZone.of("Centro", List.of(
+                new Coordinates(lat - c, lng - c), new Coordinates(lat - c, lng + c),
+                new Coordinates(lat + c, lng + c), new Coordinates(lat + c, lng - c))),
+            ServiceZone.of("Norte", List.of(
+                new Coordinates(lat + c, lng - c), new Coordinates(lat + c, lng + c),
+                new Coordinates(lat + o, lng + o), new Coordinates(lat + o, lng - o))),
+            ServiceZone.of("Sur", List.of(
+                new Coordinates(lat - c, lng - c), new Coordinates(lat - o, lng - o),
+                new Coordinates(lat - o, lng + o), new Coordinates(lat - c, lng + c))),
+            ServiceZone.of("Oriente", List.of(
+                new Coordinates(lat - c, lng + c), new Coordinates(lat - o, lng + o),
+                new Coordinates(lat + o, lng + o), new Coordinates(lat + c, lng + c))),
+            ServiceZone.of("Occidente", List.of(
+                new Coordinates(lat - c, lng - c), new Coordinates(lat + c, lng - c),
+                new Coordinates(lat + o, lng - o), new Coordinates(lat - o, lng - o))));
+    }
+
+    /**
+     * Busca la zona que contiene unas coordenadas GPS
+     * @param latitude latitud
+     * @param longitude longitud
+     * @return zona o null si el punto está fuera de todas
+     */
+    public ServiceZone resolve(double latitude, double longitude) {
+        if (Double.isNaN(latitude) || Double.isNaN(longitude)) {
+            return null;
+        }
+        double row = Math.floor((latitude - minLatitude) / cellDegrees);
+        double column = Math.floor((longitude - minLongitude) / cellDegrees);
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            return null;
+        }
+        int cell = cells[(int) row * columns + (int) column];
+        if (cell > 0) {
+            return zones.get(cell - 1);
+        }
+        if (cell < 0) {
+            for (int z : boundaryCandidates[-cell - 1]) {
+                if (zones.get(z).contains(latitude, longitude)) {
+                    return zones.get(z);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Busca la zona que contiene un punto del Grid
+     * @param x coordenada X del Grid
+     * @param y coordenada Y del Grid
+     * @return zona o null si el punto está fuera de todas
+     */
+    public ServiceZone resolveGrid(double x, double y) {
+        double[] gps = GridCoordinateStrategy.convertGridToReal(x, y);
+        return resolve(gps[0], gps[1]);
+    }
+
+    /**
+     * Verifica si unas coordenadas GPS están dentro de alguna zona
+     */
+    public boolean contains(double latitude, double longitude) {
+        return resolve(latitude, longitude) != null;
+    }
+
+    /**
+     * ID de la zona de un punto; si está fuera de todas, la zona declarada normalizada
+     * @param latitude latitud
+     * @param longitude longitud
+     * @param declaredZone zona escrita en la dirección o asignada al repartidor
+     * @return ID de zona o null si no hay ninguna
+     */
+    public String zoneId(double latitude, double longitude, String declaredZone) {
+        ServiceZone zone = resolve(latitude, longitude);
+        return zone != null ? zone.getId() : ServiceZone.normalizeId(declaredZone);
+    }
+
+    /**
+     * ID de la zona de una dirección, por sus coordenadas GPS o, si no tiene, por su posición en el Grid
+     * @param address dirección
+     * @return ID de zona o null si no hay ninguna
+     */
+    public String zoneId(Address address) {
+        if (address == null) {
+            return null;
+        }
+        double[] position = address.hasGpsCoordinates()
+                ? new double[]{address.getGpsLatitude(), address.getGpsLongitude()}
+                : GridCoordinateStrategy.convertGridToReal(address.getCoordX(), address.getCoordY());
+        return zoneId(position[0], position[1], address.getZone());
+    }
+
+    /**
+     * ID de la zona en la que está un repartidor, por sus coordenadas GPS o, si no tiene, por el Grid
+     * @param deliverer repartidor
+     * @return ID de zona o null si no hay ninguna
+     */
+    public String zoneId(Deliverer deliverer) {
+        double[] position = deliverer.hasRealCoordinates()
+                ? new double[]{deliverer.getRealLatitude(), deliverer.getRealLongitude()}
+                : GridCoordinateStrategy.convertGridToReal(deliverer.getCurrentX(), deliverer.getCurrentY());
+        return zoneId(position[0], position[1], deliverer.getZone());
+    }
+
+    /**
+     * Obtiene las zonas indexadas
+     */
+    public List<ServiceZone> getZones() {
+        return zones;
+    }
+
+    /**
+     * Busca una zona por su ID o nombre
+     * @param zone ID o nombre de la zona
+     * @return zona encontrada o empty si no existe
+     */
+    public Optional<ServiceZone> findZone(String zone) {
+        String id = ServiceZone.normalizeId(zone);
+        return id != null ? Optional.ofNullable(zonesById.get(id)) : Optional.empty();
+    }
+
+    /**
+     * Número de celdas atravesadas por algún borde
+     */
+    public int getBoundaryCellCount() {
+        return boundaryCandidates.length;
+    }
+
+    /**
+     * Marca las celdas que toca algún lado del polígono
+     */
+    private void markBorder(ServiceZone zone, BitSet border) {
+        List<Coordinates> boundary = zone.getBoundary();
+        for (int i = 0, j = boundary.size() - 1; i < boundary.size(); j = i++) {
+            Coordinates a = boundary.get(j);
+            Coordinates b = boundary.get(i);
+            int fromRow = row(Math.min(a.getLatitude(), b.getLatitude()));
+            int toRow = row(Math.max(a.getLatitude(), b.getLatitude()));
+            int fromColumn = column(Math.min(a.getLongitude(), b.getLongitude()));
+            int toColumn = column(Math.max(a.getLongitude(), b.getLongitude()));
+            for (int row = fromRow; row <= toRow; row++) {
+                for (int column = fromColumn; column <= toColumn; column++) {
+                    if (segmentTouchesCell(a, b, row, column)) {
+                        border.set(row * columns + column);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Recorre las filas del polígono y marca como cubiertas las celdas sin borde cuyo
+     * centro está dentro (sin bordes, toda la celda queda del mismo lado)
+     */
+    private void fillInterior(ServiceZone zone, int zoneIndex, BitSet border, Map<Integer, List<Integer>> candidates) {
+        List<Coordinates> boundary = zone.getBoundary();
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        for (Coordinates vertex : boundary) {
+            minLat = Math.min(minLat, vertex.getLatitude());
+            maxLat = Math.max(maxLat, vertex.getLatitude());
+        }
+        double[] crossings = new double[boundary.size()];
+        for (int row = row(minLat); row <= row(maxLat); row++) {
+            double latitude = minLatitude + (row + 0.5) * cellDegrees;
+            int count = 0;
+            for (int i = 0, j = boundary.size() - 1; i < boundary.size(); j = i++) {
+                Coordinates a = boundary.get(i);
+                Coordinates b = boundary.get(j);
+                // Misma regla que ServiceZone.contains para los vértices sobre la línea
+                if ((a.getLatitude() > latitude) != (b.getLatitude() > latitude)) {
+                    crossings[count++] = a.getLongitude() + (latitude - a.getLatitude())
+                            * (b.getLongitude() - a.getLongitude()) / (b.getLatitude() - a.getLatitude());
+                }
+            }
+            Arrays.sort(crossings, 0, count);
+            for (int k = 0; k + 1 < count; k += 2) {
+                int fromColumn = Math.max(0, (int) Math.ceil((crossings[k] - minLongitude) / cellDegrees - 0.5));
+                int toColumn = Math.min(columns - 1,
+                        (int) Math.floor((crossings[k + 1] - minLongitude) / cellDegrees - 0.5));
+                for (int column = fromColumn; column <= toColumn; column++) {
+                    int cell = row * columns + column;
+                    if (border.get(cell)) {
+                        continue;
+                    }
+                    if (cells[cell] == 0 && !candidates.containsKey(cell)) {
+                        cells[cell] = zoneIndex + 1;
+                    } else {
+                        // Celda ya cubierta o en el borde de otra zona: se resuelve con el polígono exacto
+                        candidates.computeIfAbsent(cell, key -> new ArrayList<>()).add(zoneIndex);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Verifica si un segmento toca el rectángulo cerrado de una celda (recorte de Liang-Barsky)
+     */
+    private boolean segmentTouchesCell(Coordinates a, Coordinates b, int row, int column) {
+        // Margen para que los errores de redondeo no dejen fuera una celda que el borde roza
+        double epsilon = cellDegrees * 1e-9;
+        double minX = minLongitude + column * cellDegrees - epsilon;
+        double maxX = minLongitude + (column + 1) * cellDegrees + epsilon;
+        double minY = minLatitude + row * cellDegrees - epsilon;
+        double maxY = minLatitude + (row + 1) * cellDegrees + epsilon;
+        double x0 = a.getLongitude();
+        double y0 = a.getLatitude();
+        double dx = b.getLongitude() - x0;
+        double dy = b.getLatitude() - y0;
+        double[] p = {-dx, dx, -dy, dy};
+        double[] q = {x0 - minX, maxX - x0, y0 - minY, maxY - y0};
+        double enter = 0.0;
+        double exit = 1.0;
+        for (int i = 0; i < 4; i++) {
+            if (p[i] == 0) {
+                if (q[i] < 0) {
+                    return false;
+                }
+            } else {
+                double t = q[i] / p[i];
+                if (p[i] < 0) {
+                    enter = Math.max(enter, t);
+                } else {
+                    exit = Math.min(exit, t);
+                }
+            }
+        }
+        return enter <= exit;
+    }
+
+    private int row(double latitude) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor((latitude - minLatitude) / cellDegrees)));
+    }
+
+    private int column(double longitude) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor((longitude - minLongitude) / cellDegrees)));
+    }
+}
@@ -1,10 +1,17 @@
 package co.edu.uniquindio.sameday.shipmentsuqsameday.util;
 
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.KdTree;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.NodeHeap;
+
 import java.util.*;
 
 /**
  * Implementación del algoritmo de Dijkstra para calcular la ruta más corta.
  * Utiliza un grafo ponderado representando calles y coordenadas.
+ * Además de Dijkstra ofrece A* y Dijkstra bidireccional. Las búsquedas trabajan sobre una
+ * copia compacta del grafo en arreglos primitivos y reutilizan su estado entre consultas,
+ * sin reservar memoria proporcional al tamaño del grafo en cada una. El nodo más cercano a unas
+ * coordenadas se busca en un árbol k-d que se construye junto con esa copia.
  * 
  * Patrón Strategy: implementación de algoritmo de búsqueda de caminos.
  * 
@@ -78,67 +85,111 @@ public class DijkstraRoutePlanner {
         public boolean isValid() { return path != null && !path.isEmpty(); }
     }
     
+    /**
+     * Algoritmo de búsqueda de caminos
+     */
+    public enum Algorithm {
+        /** Dijkstra desde el origen hasta asentar el destino */
+        DIJKSTRA,
+        /** A* con la distancia euclidiana al destino como heurística */
+        A_STAR,
+        /** Dijkstra simultáneo desde el origen y desde el destino */
+        BIDIRECTIONAL
+    }
+    
     private final Map<Node, List<Edge>> adjacencyList;
+    private final Map<Node, Integer> indexByNode;
+    private final List<Node> nodes;
+    
+    // Copia compacta del grafo (CSR) que usan las búsquedas; se rehace al cambiar el grafo
+    private boolean compiled;
+    private int[] firstEdge;
+    private int[] edgeTarget;
+    private double[] edgeWeight;
+    private double[] nodeX;
+    private double[] nodeY;
+    private double heuristicScale;
+    private KdTree nodeIndex;
+    
+    // Estado de búsqueda reutilizable: un nodo solo es válido si su sello es la generación actual
+    private int generation;
+    private int[] forwardStamp = new int[0];
+    private int[] forwardSettled = new int[0];
+    private double[] forwardDistance = new double[0];
+    private int[] forwardParent = new int[0];
+    private int[] backwardStamp = new int[0];
+    private int[] backwardSettled = new int[0];
+    private double[] backwardDistance = new double[0];
+    private int[] backwardParent = new int[0];
+    private final NodeHeap forwardHeap = new NodeHeap();
+    private final NodeHeap backwardHeap = new NodeHeap();
+    private int lastSettledCount;
     
     public DijkstraRoutePlanner() {
         this.adjacencyList = new HashMap<>();
+        this.indexByNode = new HashMap<>();
+        this.nodes = new ArrayList<>();
     }
     
     /**
      * Añade un nodo al grafo
      */
     public void addNode(Node node) {
-        adjacencyList.putIfAbsent(node, new ArrayList<>());
+        if (adjacencyList.putIfAbsent(node, new ArrayList<>()) == null) {
+            indexByNode.put(node, nodes.size());
+            nodes.add(node);
+            compiled = false;
+        }
     }
     
     /**
      * Añade una arista bidireccional entre dos nodos
      */
     public void addEdge(Node source, Node destination, double weight) {
-        adjacencyList.putIfAbsent(source, new ArrayList<>());
-        adjacencyList.putIfAbsent(destination, new ArrayList<>());
+        addNode(source);
+        addNode(destination);
         
         adjacencyList.get(source).add(new Edge(destination, weight));
         adjacencyList.get(destination).add(new Edge(source, weight)); // Bidireccional
+        compiled = false;
     }
     
     /**
-     * Calcula la distancia euclidiana entre dos nodos
+     * Encuentra el nodo más cercano a unas coordenadas
+     * Ante empates devuelve el que se agregó primero; null si el grafo está vacío
      */
-    private double calculateDistance(Node a, Node b) {
-        double dx = a.getX() - b.getX();
-        double dy = a.getY() - b.getY();
-        return Math.sqrt(dx * dx + dy * dy);
+    public synchronized Node findNearestNode(double x, double y) {
+        compile();
+        int nearest = nodeIndex.nearest(x, y);
+        return nearest < 0 ? null : nodes.get(nearest);
     }
     
     /**
-     * Encuentra el nodo más cercano a unas coordenadas dadas
+     * Calcula la ruta más corta usando el algoritmo de Dijkstra
+     * 
+     * @param startX coordenada X de inicio
+     * @param startY coordenada Y de inicio
+     * @param endX coordenada X de destino
+     * @param endY coordenada Y de destino
+     * @return resultado con la ruta y distancia total
      */
-    public Node findNearestNode(double x, double y) {
-        Node nearest = null;
-        double minDistance = Double.MAX_VALUE;
-        
-        for (Node node : adjacencyList.keySet()) {
-            double distance = calculateDistance(node, new Node(-1, x, y));
-            if (distance < minDistance) {
-                minDistance = distance;
-                nearest = node;
-            }
-        }
-        
-        return nearest;
+    public RouteResult calculateShortestPath(double startX, double startY, double endX, double endY) {
+        return calculateShortestPath(startX, startY, endX, endY, Algorithm.DIJKSTRA);
     }
     
     /**
-     * Calcula la ruta más corta usando el algoritmo de Dijkstra
+     * Calcula la ruta más corta con el algoritmo indicado
+     * Los tres algoritmos devuelven la misma distancia; A* y el bidireccional exploran menos nodos
      * 
      * @param startX coordenada X de inicio
      * @param startY coordenada Y de inicio
      * @param endX coordenada X de destino
      * @param endY coordenada Y de destino
+     * @param algorithm algoritmo de búsqueda
      * @return resultado con la ruta y distancia total
      */
-    public RouteResult calculateShortestPath(double startX, double startY, double endX, double endY) {
+    public RouteResult calculateShortestPath(double startX, double startY, double endX, double endY,
+                                             Algorithm algorithm) {
         Node start = findNearestNode(startX, startY);
         Node end = findNearestNode(endX, endY);
         
@@ -146,109 +197,222 @@ public class DijkstraRoutePlanner {
             return new RouteResult(Collections.emptyList(), Double.MAX_VALUE);
         }
         
-        return dijkstra(start, end);
+        return shortestPath(start, end, algorithm);
     }
     
     /**
-     * Implementación del algoritmo de Dijkstra
+     * Calcula la ruta más corta entre dos nodos del grafo
+     * 
+     * @param start nodo de inicio
+     * @param end nodo de destino
+     * @param algorithm algoritmo de búsqueda
+     * @return resultado con la ruta y distancia total; ruta vacía si no hay camino
      */
-    private RouteResult dijkstra(Node start, Node end) {
-        // Mapa de distancias mínimas desde el nodo de inicio
-        Map<Node, Double> distances = new HashMap<>();
-        // Mapa para reconstruir el camino
-        Map<Node, Node> previous = new HashMap<>();
-        // Cola de prioridad para procesar nodos por distancia
-        PriorityQueue<NodeDistance> pq = new PriorityQueue<>(Comparator.comparingDouble(nd -> nd.distance));
-        // Conjunto de nodos visitados
-        Set<Node> visited = new HashSet<>();
-        
-        // Inicializar distancias
-        for (Node node : adjacencyList.keySet()) {
-            distances.put(node, Double.MAX_VALUE);
+    public synchronized RouteResult shortestPath(Node start, Node end, Algorithm algorithm) {
+        Integer source = indexByNode.get(start);
+        Integer target = indexByNode.get(end);
+        if (source == null || target == null) {
+            return new RouteResult(Collections.emptyList(), Double.MAX_VALUE);
         }
-        distances.put(start, 0.0);
+        compile();
+        generation++;
+        lastSettledCount = 0;
         
-        pq.offer(new NodeDistance(start, 0.0));
+        switch (algorithm) {
+            case A_STAR:
+                return forwardSearch(source, target, true);
+            case BIDIRECTIONAL:
+                return bidirectionalSearch(source, target);
+            default:
+                return forwardSearch(source, target, false);
+        }
+    }
+    
+    /**
+     * @return nodos asentados por la última búsqueda (útil para comparar algoritmos)
+     */
+    public synchronized int getLastSettledCount() {
+        return lastSettledCount;
+    }
+    
+    /**
+     * Dijkstra desde el origen; con heurística se convierte en A*
+     */
+    private RouteResult forwardSearch(int source, int target, boolean useHeuristic) {
+        NodeHeap heap = forwardHeap;
+        heap.clear();
+        reach(forwardStamp, forwardDistance, forwardParent, source, 0.0, -1);
+        heap.push(source, useHeuristic ? heuristic(source, target) : 0.0);
         
-        while (!pq.isEmpty()) {
-            NodeDistance current = pq.poll();
-            Node currentNode = current.node;
-            
-            if (visited.contains(currentNode)) {
+        while (!heap.isEmpty()) {
+            int current = heap.pop();
+            if (forwardSettled[current] == generation) {
                 continue;
             }
-            
-            visited.add(currentNode);
+            forwardSettled[current] = generation;
+            lastSettledCount++;
             
             // Si llegamos al destino, terminamos
-            if (currentNode.equals(end)) {
+            if (current == target) {
                 break;
             }
             
-            // Explorar vecinos
-            List<Edge> edges = adjacencyList.get(currentNode);
-            if (edges == null) continue;
-            
-            for (Edge edge : edges) {
-                Node neighbor = edge.getDestination();
-                
-                if (visited.contains(neighbor)) {
+            for (int e = firstEdge[current]; e < firstEdge[current + 1]; e++) {
+                int neighbor = edgeTarget[e];
+                if (forwardSettled[neighbor] == generation) {
                     continue;
                 }
-                
-                double newDistance = distances.get(currentNode) + edge.getWeight();
-                
-                if (newDistance < distances.get(neighbor)) {
-                    distances.put(neighbor, newDistance);
-                    previous.put(neighbor, currentNode);
-                    pq.offer(new NodeDistance(neighbor, newDistance));
+                double newDistance = forwardDistance[current] + edgeWeight[e];
+                if (forwardStamp[neighbor] != generation || newDistance < forwardDistance[neighbor]) {
+                    reach(forwardStamp, forwardDistance, forwardParent, neighbor, newDistance, current);
+                    heap.push(neighbor, useHeuristic ? newDistance + heuristic(neighbor, target) : newDistance);
                 }
             }
         }
         
-        // Reconstruir el camino
-        List<Node> path = reconstructPath(previous, start, end);
-        double totalDistance = distances.get(end);
-        
-        return new RouteResult(path, totalDistance);
+        if (forwardSettled[target] != generation) {
+            return new RouteResult(Collections.emptyList(), Double.MAX_VALUE);
+        }
+        List<Node> path = new ArrayList<>();
+        for (int node = target; node != -1; node = forwardParent[node]) {
+            path.add(nodes.get(node));
+        }
+        Collections.reverse(path);
+        return new RouteResult(path, forwardDistance[target]);
     }
     
     /**
-     * Reconstruye el camino desde el mapa de predecesores
+     * Dijkstra bidireccional: avanza siempre el frente con menor distancia y se detiene cuando
+     * la suma de ambos frentes ya no puede mejorar el mejor encuentro. Como las aristas son
+     * bidireccionales, el frente del destino recorre el mismo grafo.
      */
-    private List<Node> reconstructPath(Map<Node, Node> previous, Node start, Node end) {
-        List<Node> path = new ArrayList<>();
-        Node current = end;
+    private RouteResult bidirectionalSearch(int source, int target) {
+        forwardHeap.clear();
+        backwardHeap.clear();
+        reach(forwardStamp, forwardDistance, forwardParent, source, 0.0, -1);
+        reach(backwardStamp, backwardDistance, backwardParent, target, 0.0, -1);
+        forwardHeap.push(source, 0.0);
+        backwardHeap.push(target, 0.0);
         
-        while (current != null) {
-            path.add(0, current);
-            current = previous.get(current);
+        double best = source == target ? 0.0 : Double.POSITIVE_INFINITY;
+        int meeting = source == target ? source : -1;
+        
+        while (!forwardHeap.isEmpty() || !backwardHeap.isEmpty()) {
+            if (forwardHeap.peekKey() + backwardHeap.peekKey() >= best) {
+                break;
+            }
+            boolean forward = forwardHeap.peekKey() <= backwardHeap.peekKey();
+            NodeHeap heap = forward ? forwardHeap : backwardHeap;
+            int[] stamp = forward ? forwardStamp : backwardStamp;
+            int[] settled = forward ? forwardSettled : backwardSettled;
+            double[] distance = forward ? forwardDistance : backwardDistance;
+            int[] parent = forward ? forwardParent : backwardParent;
+            int[] otherStamp = forward ? backwardStamp : forwardStamp;
+            double[] otherDistance = forward ? backwardDistance : forwardDistance;
+            
+            int current = heap.pop();
+            if (settled[current] == generation) {
+                continue;
+            }
+            settled[current] = generation;
+            lastSettledCount++;
             
-            // Evitar bucles infinitos
-            if (path.size() > adjacencyList.size()) {
-                return Collections.emptyList();
+            for (int e = firstEdge[current]; e < firstEdge[current + 1]; e++) {
+                int neighbor = edgeTarget[e];
+                double newDistance = distance[current] + edgeWeight[e];
+                if (stamp[neighbor] != generation || newDistance < distance[neighbor]) {
+                    reach(stamp, distance, parent, neighbor, newDistance, current);
+                    heap.push(neighbor, newDistance);
+                }
+                // Encuentro con el otro frente
+                if (otherStamp[neighbor] == generation && distance[neighbor] + otherDistance[neighbor] < best) {
+                    best = distance[neighbor] + otherDistance[neighbor];
+                    meeting = neighbor;
+                }
             }
         }
         
-        // Verificar que el camino comienza en start
-        if (path.isEmpty() || !path.get(0).equals(start)) {
-            return Collections.emptyList();
+        if (meeting == -1) {
+            return new RouteResult(Collections.emptyList(), Double.MAX_VALUE);
         }
-        
-        return path;
+        List<Node> path = new ArrayList<>();
+        for (int node = meeting; node != -1; node = forwardParent[node]) {
+            path.add(nodes.get(node));
+        }
+        Collections.reverse(path);
+        for (int node = backwardParent[meeting]; node != -1; node = backwardParent[node]) {
+            path.add(nodes.get(node));
+        }
+        return new RouteResult(path, best);
+    }
+    
+    private void reach(int[] stamp, double[] distance, int[] parent, int node, double value, int from) {
+        stamp[node] = generation;
+        distance[node] = value;
+        parent[node] = from;
     }
     
     /**
-     * Clase auxiliar para la cola de prioridad
+     * Cota inferior de la distancia restante: euclidiana escalada para que ninguna arista
+     * pese menos que su longitud en línea recta (así la heurística es admisible y consistente)
      */
-    private static class NodeDistance {
-        Node node;
-        double distance;
+    private double heuristic(int node, int target) {
+        double dx = nodeX[node] - nodeX[target];
+        double dy = nodeY[node] - nodeY[target];
+        return heuristicScale * Math.sqrt(dx * dx + dy * dy);
+    }
+    
+    /**
+     * Construye la copia CSR del grafo y su índice espacial, y ajusta el estado de búsqueda a su tamaño
+     */
+    private void compile() {
+        if (compiled) {
+            return;
+        }
+        int count = nodes.size();
+        firstEdge = new int[count + 1];
+        nodeX = new double[count];
+        nodeY = new double[count];
+        int edges = 0;
+        for (int i = 0; i < count; i++) {
+            Node node = nodes.get(i);
+            nodeX[i] = node.getX();
+            nodeY[i] = node.getY();
+            firstEdge[i] = edges;
+            edges += adjacencyList.get(node).size();
+        }
+        firstEdge[count] = edges;
+        nodeIndex = new KdTree(nodeX, nodeY);
+        
+        edgeTarget = new int[edges];
+        edgeWeight = new double[edges];
+        heuristicScale = 1.0;
+        int e = 0;
+        for (int i = 0; i < count; i++) {
+            for (Edge edge : adjacencyList.get(nodes.get(i))) {
+                int target = indexByNode.get(edge.getDestination());
+                edgeTarget[e] = target;
+                edgeWeight[e] = edge.getWeight();
+                double straight = Math.hypot(nodeX[i] - nodeX[target], nodeY[i] - nodeY[target]);
+                if (straight > 0) {
+                    heuristicScale = Math.max(0.0, Math.min(heuristicScale, edge.getWeight() / straight));
+                }
+                e++;
+            }
+        }
         
-        NodeDistance(Node node, double distance) {
-            this.node = node;
-            this.distance = distance;
+        if (forwardStamp.length != count) {
+            forwardStamp = new int[count];
+            forwardSettled = new int[count];
+            forwardDistance = new double[count];
+            forwardParent = new int[count];
+            backwardStamp = new int[count];
+            backwardSettled = new int[count];
+            backwardDistance = new double[count];
+            backwardParent = new int[count];
+            generation = 0;
         }
+        compiled = true;
     }
     
     /**
@@ -1,6 +1,7 @@
 package co.edu.uniquindio.sameday.shipmentsuqsameday.viewController;
 
 import co.edu.uniquindio.sameday.shipmentsuqsameday.controller.AdminMetricsController;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.dto.DispatchMetricsDTO;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -64,6 +65,22 @@ public class AdminMetricsViewController implements Initializable {
     @FXML
     private Label lbl_lastUpdate;
 
+    // Etiquetas para el despacho por lotes
+    @FXML
+    private Label lbl_dispatchRuns;
+    
+    @FXML
+    private Label lbl_dispatchAssigned;
+    
+    @FXML
+    private Label lbl_dispatchThroughput;
+    
+    @FXML
+    private Label lbl_dispatchLastBatch;
+    
+    @FXML
+    private Label lbl_dispatchLastDistance;
+
     // Gráficos
     @FXML
     private PieChart chart_shipmentStatus;
@@ -164,6 +181,7 @@ public class AdminMetricsViewController implements Initializable {
             
             // Obtener detalles de estado
             Map<ShipmentStatus, Integer> statusData = metricsController.getShipmentsByStatus();
+            DispatchMetricsDTO dispatch = metricsController.getDispatchMetrics();
             
             // Actualizar etiquetas en el hilo de JavaFX
             Platform.runLater(() -> {
@@ -192,6 +210,14 @@ public class AdminMetricsViewController implements Initializable {
                 lbl_deliveredShipments.setText(String.valueOf(statusData.getOrDefault(ShipmentStatus.DELIVERED, 0)));
                 lbl_cancelledShipments.setText(String.valueOf(statusData.getOrDefault(ShipmentStatus.CANCELLED, 0)));
                 
+                // Actualizar despacho por lotes
+                lbl_dispatchRuns.setText(String.valueOf(dispatch.getRuns()));
+                lbl_dispatchAssigned.setText(dispatch.getShipmentsAssigned() + " de " + dispatch.getShipmentsConsidered());
+                lbl_dispatchThroughput.setText(decimalFormat.format(dispatch.getAssignmentsPerSecond()) + " /s");
+                lbl_dispatchLastBatch.setText(dispatch.getLastAssigned() + " de " + dispatch.getLastBatchSize()
+                        + " (" + dispatch.getLastLeftPending() + " pendientes, " + dispatch.getLastDurationMillis() + " ms)");
+                lbl_dispatchLastDistance.setText(decimalFormat.format(dispatch.getLastAverageDistanceKm()) + " km");
+                
                 // Actualizar timestamp
                 lbl_lastUpdate.setText(LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
             });
@@ -42,6 +42,11 @@ public class AdminShipmentsViewController implements Initializable, AdminShipmen
     @FXML private TableColumn<Shipment, String> col_destination;
     @FXML private TableColumn<Shipment, String> col_state;
     @FXML private TableColumn<Shipment, String> col_date;
+    
+    // Paginación de la tabla
+    @FXML private Button btn_prevPage;
+    @FXML private Button btn_nextPage;
+    @FXML private Label lbl_pageInfo;
 
     // Referencias a los botones de acciones
     @FXML private Button btn_assignCourier;
@@ -208,6 +213,10 @@ public class AdminShipmentsViewController implements Initializable, AdminShipmen
             dtp_dateFilter.setValue(null);
             controller.loadAllShipments();
         });
+        
+        // Configurar botones de navegación entre páginas
+        btn_prevPage.setOnAction(e -> controller.previousPage());
+        btn_nextPage.setOnAction(e -> controller.nextPage());
     }
 
     /**
@@ -371,12 +380,25 @@ public class AdminShipmentsViewController implements Initializable, AdminShipmen
         clearShipmentDetails();
         selectedShipment = null;
         updateButtonsState();
+    }
+
+    /**
+     * Actualiza los controles de paginación
+     * @param currentPage página actual, desde 0
+     * @param totalPages cantidad de páginas
+     * @param totalItems cantidad de envíos que cumplen los filtros
+     */
+    @Override
+    public void updatePagination(int currentPage, int totalPages, long totalItems) {
+        btn_prevPage.setDisable(currentPage == 0);
+        btn_nextPage.setDisable(currentPage + 1 >= totalPages);
+        lbl_pageInfo.setText(String.format("Página %d de %d", currentPage + 1, totalPages));
         
         // Mostrar mensaje según la cantidad de envíos
-        if (shipments.isEmpty()) {
+        if (totalItems == 0) {
             showStatusMessage("No se encontraron envíos", "info");
         } else {
-            showStatusMessage("Se encontraron " + shipments.size() + " envíos", "success");
+            showStatusMessage("Se encontraron " + totalItems + " envíos", "success");
         }
     }
 
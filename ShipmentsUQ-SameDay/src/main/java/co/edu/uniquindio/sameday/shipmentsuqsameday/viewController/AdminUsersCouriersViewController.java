@@ -1,15 +1,14 @@
 package co.edu.uniquindio.sameday.shipmentsuqsameday.viewController;
 
 import co.edu.uniquindio.sameday.shipmentsuqsameday.controller.AdminUsersCouriersController;
-import co.edu.uniquindio.sameday.shipmentsuqsameday.controller.DataLoadManager;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.RealMapService;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.User;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.dto.PaginatedDataDTO;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.DelivererStatus;
 import javafx.beans.binding.Bindings;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -17,8 +16,8 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
 
 import java.net.URL;
-import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controlador de vista para la gestión de usuarios y repartidores
@@ -141,37 +140,29 @@ public class AdminUsersCouriersViewController implements Initializable, AdminUse
         
         // Comenzar en modo usuarios y cargar datos iniciales
         controller.setMode("users");
-        loadTableData(controller.getUsersList());
     }
     
     /**
-     * Actualiza los datos de la tabla con paginación
+     * Carga la página actual desde el repositorio y actualiza la paginación
+     * @return tarea que termina cuando la página está en la tabla
      */
-    @SuppressWarnings("unchecked")
-    private void refreshTableData() {
+    private CompletableFuture<Void> refreshTableData() {
         try {
             if (controller == null) {
                 System.err.println("Controller es null en refreshTableData");
-                return;
-            }
-            
-            List<Object> currentData = (List<Object>)controller.getCurrentData();
-            if (currentData == null) {
-                System.err.println("getCurrentData() retornó null");
-                showStatusMessage("No hay datos para mostrar", "warning");
-                return;
+                return CompletableFuture.completedFuture(null);
             }
             
-            DataLoadManager.<Object>loadDataAsync(
-                tbl_data,
-                currentData,
-                currentPage,
-                pageSize
-            );
-            updatePaginationControls();
+            return controller.loadPage(tbl_data, currentPage, pageSize)
+                .thenAccept(this::updatePaginationControls)
+                .exceptionally(error -> {
+                    showStatusMessage("Error al actualizar los datos: " + error.getMessage(), "error");
+                    return null;
+                });
         } catch (Exception e) {
             e.printStackTrace();
             showStatusMessage("Error al actualizar los datos: " + e.getMessage(), "error");
+            return CompletableFuture.completedFuture(null);
         }
     }
     
@@ -219,12 +210,10 @@ public class AdminUsersCouriersViewController implements Initializable, AdminUse
     private void setupModeButtons() {
         btn_usersMode.setOnAction(e -> {
             controller.setMode("users");
-            loadTableData(controller.getUsersList());
             clearForm();
         });
         btn_couriersMode.setOnAction(e -> {
             controller.setMode("couriers");
-            loadTableData(controller.getDeliverersList());
             clearForm();
         });
     }
@@ -239,7 +228,6 @@ public class AdminUsersCouriersViewController implements Initializable, AdminUse
                 pageSize = Integer.parseInt(newVal);
                 currentPage = 0;
                 refreshTableData();
-                updatePaginationControls();
             }
         });
         
@@ -248,7 +236,6 @@ public class AdminUsersCouriersViewController implements Initializable, AdminUse
             if (currentPage > 0) {
                 currentPage--;
                 refreshTableData();
-                updatePaginationControls();
             }
         });
         
@@ -256,7 +243,6 @@ public class AdminUsersCouriersViewController implements Initializable, AdminUse
             if ((currentPage + 1) * pageSize < totalItems) {
                 currentPage++;
                 refreshTableData();
-                updatePaginationControls();
             }
         });
         
@@ -421,11 +407,7 @@ public class AdminUsersCouriersViewController implements Initializable, AdminUse
             showStatusMessage("Elemento agregado correctamente", "success");
             clearForm();
             // Recargar datos
-            if ("users".equals(controller.getMode())) {
-                loadTableData(controller.getUsersList());
-            } else {
-                loadTableData(controller.getDeliverersList());
-            }
+            loadTableData();
         } else {
             showStatusMessage("Error al agregar elemento", "error");
         }
@@ -486,16 +468,9 @@ public class AdminUsersCouriersViewController implements Initializable, AdminUse
         
         if (success) {
             showStatusMessage("Elemento actualizado correctamente", "success");
-            // Recargar datos SIN perder la selección
-            if ("users".equals(controller.getMode())) {
-                loadTableData(controller.getUsersList());
-                // Reseleccionar el elemento editado
-                tbl_data.getSelectionModel().select(selectedItem);
-            } else {
-                loadTableData(controller.getDeliverersList());
-                // Reseleccionar el elemento editado
-                tbl_data.getSelectionModel().select(selectedItem);
-            }
+            // Recargar la página actual SIN perder la selección
+            Object editedItem = selectedItem;
+            refreshTableData().thenRun(() -> tbl_data.getSelectionModel().select(editedItem));
         } else {
             showStatusMessage("Error al actualizar elemento", "error");
         }
@@ -517,11 +492,7 @@ public class AdminUsersCouriersViewController implements Initializable, AdminUse
             showStatusMessage("Elemento eliminado correctamente", "success");
             clearForm();
             // Recargar datos
-            if ("users".equals(controller.getMode())) {
-                loadTableData(controller.getUsersList());
-            } else {
-                loadTableData(controller.getDeliverersList());
-            }
+            loadTableData();
         } else {
             showStatusMessage("Error al eliminar elemento", "error");
         }
@@ -627,20 +598,11 @@ public class AdminUsersCouriersViewController implements Initializable, AdminUse
     }
 
     /**
-     * Carga datos en la tabla
-     * @param data colección de datos a cargar
+     * Carga en la tabla la primera página del modo actual
      */
     @Override
-    public void loadTableData(ObservableList<?> data) {
+    public void loadTableData() {
         try {
-            if (data == null) {
-                System.err.println("[ERROR] loadTableData recibió data null");
-                showStatusMessage("No hay datos disponibles", "warning");
-                return;
-            }
-            
-            System.out.println("[INFO] Cargando " + data.size() + " elementos en la tabla");
-            
             // Resetear la paginación y selección
             currentPage = 0;
             if (tbl_data != null) {
@@ -651,16 +613,17 @@ public class AdminUsersCouriersViewController implements Initializable, AdminUse
             clearForm();
             updateButtonStates(false);
             
-            // Usar DataLoadManager para cargar los datos de forma asíncrona
-            DataLoadManager.loadDataAsync(tbl_data, data, currentPage, pageSize);
-            
-            // Actualizar los controles de paginación después de cargar los datos
-            updatePaginationControls();
-            
-            // Mostrar mensaje de éxito
-            String mode = controller.getMode();
-            String entityType = "users".equals(mode) ? "usuarios" : "repartidores";
-            showStatusMessage(data.size() + " " + entityType + " cargados correctamente", "success");
+            // Leer la primera página de forma asíncrona; los totales vienen con la página
+            String entityType = "users".equals(controller.getMode()) ? "usuarios" : "repartidores";
+            controller.loadPage(tbl_data, currentPage, pageSize)
+                .thenAccept(page -> {
+                    updatePaginationControls(page);
+                    showStatusMessage(page.getTotalItems() + " " + entityType + " cargados correctamente", "success");
+                })
+                .exceptionally(error -> {
+                    showStatusMessage("Error al cargar los datos: " + error.getMessage(), "error");
+                    return null;
+                });
         } catch (Exception e) {
             e.printStackTrace();
             showStatusMessage("Error al cargar los datos: " + e.getMessage(), "error");
@@ -898,29 +861,16 @@ public class AdminUsersCouriersViewController implements Initializable, AdminUse
     }
     
     /**
-     * Actualiza los controles de paginación
+     * Actualiza los controles de paginación con los totales de la página cargada
+     * @param page página cargada
      */
-    private void updatePaginationControls() {
-        try {
-            DataLoadManager.searchData("", 
-                controller.getUsersList(), 
-                controller.getDeliverersList(),
-                currentPage,
-                pageSize)
-            .thenAccept(result -> {
-                totalItems = (int) result.getTotalItems();
-                javafx.application.Platform.runLater(() -> {
-                    btn_prev.setDisable(currentPage == 0);
-                    btn_next.setDisable((currentPage + 1) * pageSize >= totalItems);
-                    lbl_pageInfo.setText(String.format("Página %d de %d", 
-                        currentPage + 1, 
-                        result.getTotalPages()));
-                });
-            });
-        } catch (Exception e) {
-            e.printStackTrace();
-            showStatusMessage("Error al actualizar la paginación: " + e.getMessage(), "error");
-        }
+    private void updatePaginationControls(PaginatedDataDTO<?> page) {
+        totalItems = (int) page.getTotalItems();
+        btn_prev.setDisable(currentPage == 0);
+        btn_next.setDisable((currentPage + 1) * pageSize >= totalItems);
+        lbl_pageInfo.setText(String.format("Página %d de %d", 
+            currentPage + 1, 
+            Math.max(1, page.getTotalPages())));
     }
 
     /**
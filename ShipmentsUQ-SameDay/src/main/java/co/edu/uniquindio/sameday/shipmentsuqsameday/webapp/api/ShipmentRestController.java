@@ -1,6 +1,7 @@
 package co.edu.uniquindio.sameday.shipmentsuqsameday.webapp.api;
 
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.dto.PaginatedDataDTO;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.ShipmentService;
 import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
 import org.springframework.http.HttpStatus;
@@ -49,6 +50,40 @@ public class ShipmentRestController {
         }
     }
     
+    /**
+     * Listar envíos por páginas sin cargar la colección completa
+     * GET /api/shipments?page=0&size=20 (por posición) o GET /api/shipments?after={id}&size=20 (por cursor)
+     */
+    @GetMapping
+    public ResponseEntity<?> listShipments(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String after) {
+        try {
+            if (page < 0 || size <= 0 || size > 200) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(Map.of("error", "Parámetros de paginación inválidos"));
+            }
+            PaginatedDataDTO<Shipment> result = after != null
+                    ? shipmentService.findAfter(UUID.fromString(after), size)
+                    : shipmentService.findPage(page * size, size, null);
+            
+            return ResponseEntity.ok(new PaginatedDataDTO<>(
+                    result.getItems().stream().map(this::convertShipmentToMap).collect(Collectors.toList()),
+                    result.getTotalPages(),
+                    result.getTotalItems(),
+                    result.getCurrentPage(),
+                    result.getNextCursor()));
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Cursor inválido"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Error al obtener envíos: " + e.getMessage()));
+        }
+    }
+    
     /**
      * Obtener un envío por ID
      * GET /api/shipments/{id}
@@ -108,7 +143,7 @@ public class ShipmentRestController {
             UUID delivererUUID = UUID.fromString(delivererId);
             
             // Filtrar envíos por deliverer ID
-            List<Shipment> shipments = shipmentService.getRepository().findAll().stream()
+            List<Shipment> shipments = shipmentService.stream()
                     .filter(s -> s.getDeliverer() != null && s.getDeliverer().getId().equals(delivererUUID))
                     .collect(Collectors.toList());
             
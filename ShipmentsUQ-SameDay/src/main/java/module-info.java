@@ -18,6 +18,7 @@ module co.edu.uniquindio.sameday.shipmentsuqsameday {
     requires javafx.base;
     requires java.desktop;
     requires jdk.httpserver; 
+    requires java.xml;
     
     // Spring Boot y dependencias web
     requires spring.boot;
@@ -31,6 +32,7 @@ module co.edu.uniquindio.sameday.shipmentsuqsameday {
   
     requires okhttp3;
     requires com.google.gson;
+    requires com.h2database.mvstore;
     
     // Librerías para Adapter pattern (generación de reportes)
     requires org.apache.pdfbox;
@@ -61,6 +63,7 @@ module co.edu.uniquindio.sameday.shipmentsuqsameday {
     exports co.edu.uniquindio.sameday.shipmentsuqsameday.model.mapping;
     exports co.edu.uniquindio.sameday.shipmentsuqsameday.model.service;
     exports co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository;
+    exports co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence;
     exports co.edu.uniquindio.sameday.shipmentsuqsameday.model.strategy; 
     exports co.edu.uniquindio.sameday.shipmentsuqsameday.mapping; 
     
@@ -85,6 +88,7 @@ module co.edu.uniquindio.sameday.shipmentsuqsameday {
     exports co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing;
     exports co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy;
     exports co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.service;
+    exports co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph;
     exports co.edu.uniquindio.sameday.shipmentsuqsameday.model.simulation;
     exports co.edu.uniquindio.sameday.shipmentsuqsameday.model.simulation.event;
     opens co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing to javafx.base;
@@ -0,0 +1,208 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.*;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.*;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.AppStateCodec;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.EntityReference;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.MappedSnapshot;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.util.AppState;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Benchmark manual: compara tamaño de archivo y tiempos de escritura/lectura entre la
+ * serialización de Java y AppStateCodec para 10k, 100k y 1M envíos, y mide el arranque
+ * con MappedSnapshot (apertura y primera entidad materializada).
+ * No es una prueba de JUnit; se ejecuta con:
+ * <pre>
+ * mvn test-compile
+ * java -Xmx4g -Xss16m -cp "target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *     co.edu.uniquindio.sameday.shipmentsuqsameday.test.AppStateCodecBenchmark [tamaños...]
+ * </pre>
+ */
+public class AppStateCodecBenchmark {
+
+    private static final int[] DEFAULT_SIZES = {10_000, 100_000, 1_000_000};
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        Path dir = Files.createTempDirectory("appstate-bench");
+        System.out.printf("%-10s %-8s %12s %10s %10s%n", "envíos", "formato", "bytes", "escr. ms", "lect. ms");
+
+        // Calentamiento del JIT con un estado pequeño
+        AppState warmup = generate(2_000);
+        measureJava(warmup, dir.resolve("warmup.dat"));
+        measureCodec(warmup, dir.resolve("warmup.bin"));
+
+        for (int size : sizes) {
+            AppState state = generate(size);
+            print(size, "java", measureJava(state, dir.resolve("state-" + size + ".dat")));
+            Path compact = dir.resolve("state-" + size + ".bin");
+            print(size, "codec", measureCodec(state, compact));
+            measureMapped(compact, state.getShipments().get(size / 2).getId());
+            System.gc();
+        }
+    }
+
+    private static void print(int size, String format, long[] result) {
+        if (result == null) {
+            System.out.printf("%-10d %-8s %12s %10s %10s%n", size, format, "falló", "-", "-");
+        } else {
+            System.out.printf("%-10d %-8s %,12d %10d %10d%n", size, format, result[0], result[1], result[2]);
+        }
+    }
+
+    /** @return [bytes, ms escritura, ms lectura] o null si la serialización falla */
+    private static long[] measureJava(AppState state, Path file) {
+        try {
+            long start = System.nanoTime();
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                out.writeObject(state);
+            }
+            long write = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                in.readObject();
+            }
+            long read = System.nanoTime() - start;
+            return new long[] {Files.size(file), write / 1_000_000, read / 1_000_000};
+        } catch (StackOverflowError | Exception e) {
+            // Con grafos grandes la serialización de Java recursiva puede desbordar la pila
+            System.out.println("  serialización de Java falló: " + e);
+            return null;
+        }
+    }
+
+    private static long[] measureCodec(AppState state, Path file) throws IOException {
+        long start = System.nanoTime();
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024)) {
+            AppStateCodec.write(state, out);
+        }
+        long write = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024)) {
+            AppStateCodec.read(in);
+        }
+        long read = System.nanoTime() - start;
+        return new long[] {Files.size(file), write / 1_000_000, read / 1_000_000};
+    }
+
+    private static void measureMapped(Path file, UUID shipmentId) throws IOException {
+        long start = System.nanoTime();
+        MappedSnapshot snapshot = MappedSnapshot.open(file);
+        long open = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        Shipment shipment = snapshot.<Shipment>source(EntityReference.SHIPMENTS).load(shipmentId);
+        long first = System.nanoTime() - start;
+        snapshot.close();
+
+        System.out.printf("           mapeado: apertura %d µs, primer envío %d µs (%s)%n",
+                open / 1_000, first / 1_000, shipment != null ? "encontrado" : "no encontrado");
+    }
+
+    /**
+     * Genera un estado sintético con un usuario cada 20 envíos y un repartidor cada 200
+     */
+    private static AppState generate(int shipmentCount) {
+        Random random = new Random(42);
+        String[] zones = {"Centro", "Norte", "Sur", "Oriente", "Occidente"};
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        List<User> users = new ArrayList<>();
+        List<Address> addresses = new ArrayList<>();
+        for (int i = 0; i < Math.max(10, shipmentCount / 20); i++) {
+            Address address = Address.builder()
+                .id(UUID.randomUUID())
+                .alias("Casa")
+                .street("Calle " + i)
+                .zone(zones[i % zones.length])
+                .city("Armenia")
+                .coordX(random.nextDouble() * 100)
+                .coordY(random.nextDouble() * 100)
+                .build();
+            address.syncCoordinates();
+            addresses.add(address);
+            users.add(User.builder()
+                .id(UUID.randomUUID())
+                .name("Usuario " + i)
+                .email("usuario" + i + "@uq.edu.co")
+                .phone("300" + i)
+                .password("secret")
+                .role(UserRole.CLIENT)
+                .addresses(new ArrayList<>(List.of(address)))
+                .build());
+        }
+
+        List<Deliverer> deliverers = new ArrayList<>();
+        for (int i = 0; i < Math.max(5, shipmentCount / 200); i++) {
+            deliverers.add(Deliverer.builder()
+                .id(UUID.randomUUID())
+                .name("Repartidor " + i)
+                .document("DOC" + i)
+                .phone("310" + i)
+                .status(DelivererStatus.AVAILABLE)
+                .zone(zones[i % zones.length])
+                .averageRating(4.5)
+                .build());
+        }
+
+        List<Shipment> shipments = new ArrayList<>(shipmentCount);
+        List<Payment> payments = new ArrayList<>(shipmentCount);
+        for (int i = 0; i < shipmentCount; i++) {
+            User user = users.get(random.nextInt(users.size()));
+            Deliverer deliverer = deliverers.get(random.nextInt(deliverers.size()));
+            Shipment shipment = Shipment.builder()
+                .id(UUID.randomUUID())
+                .user(user)
+                .deliverer(deliverer)
+                .origin(user.getAddresses().get(0))
+                .destination(addresses.get(random.nextInt(addresses.size())))
+                .weight(random.nextDouble() * 10)
+                .cost(5000 + random.nextInt(20000))
+                .status(ShipmentStatus.DELIVERED)
+                .priority(ShipmentPriority.STANDARD)
+                .creationDate(base.plusMinutes(i))
+                .deliveryDate(base.plusMinutes(i + 45))
+                .build();
+            user.getShipmentHistory().add(shipment);
+            deliverer.getShipmentHistory().add(shipment);
+            shipments.add(shipment);
+
+            payments.add(Payment.builder()
+                .id(UUID.randomUUID())
+                .shipment(shipment)
+                .user(user)
+                .amount(shipment.getCost())
+                .paymentMethod(PaymentMethod.NEQUI)
+                .status(PaymentStatus.COMPLETED)
+                .creationDate(shipment.getCreationDate())
+                .paymentReference("REF-" + i)
+                .build());
+        }
+
+        AppState state = new AppState();
+        state.setUsers(users);
+        state.setAddresses(addresses);
+        state.setDeliverers(deliverers);
+        state.setShipments(shipments);
+        state.setPayments(payments);
+        return state;
+    }
+}
@@ -0,0 +1,170 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.*;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.*;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.AppStateCodec;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.AppStateConverter;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.SnapshotFile;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.util.AppState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para AppStateCodec
+ * Valida que el formato compacto conserve los datos y las referencias entre entidades
+ */
+public class AppStateCodecTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AppState state;
+    private User user;
+    private Address home;
+    private Deliverer deliverer;
+    private Shipment shipment;
+
+    @BeforeEach
+    public void setUp() {
+        home = Address.builder()
+            .id(UUID.randomUUID())
+            .alias("Casa")
+            .street("Calle 10 # 5-20")
+            .zone("Centro")
+            .city("Armenia")
+            .coordX(12.5)
+            .coordY(7.25)
+            .gpsLatitude(4.5339)
+            .gpsLongitude(-75.6811)
+            .build();
+
+        user = User.builder()
+            .id(UUID.randomUUID())
+            .name("Ana")
+            .email("ana@uq.edu.co")
+            .role(UserRole.CLIENT)
+            .addresses(new ArrayList<>(List.of(home)))
+            .build();
+
+        deliverer = Deliverer.builder()
+            .id(UUID.randomUUID())
+            .name("Luis")
+            .document("1094")
+            .status(DelivererStatus.ACTIVE)
+            .zone("Centro")
+            .currentX(3)
+            .currentY(4)
+            .build();
+
+        shipment = Shipment.builder()
+            .id(UUID.randomUUID())
+            .user(user)
+            .deliverer(deliverer)
+            .origin(home)
+            .destination(home)
+            .weight(2.5)
+            .cost(12000)
+            .status(ShipmentStatus.ASSIGNED)
+            .priority(ShipmentPriority.URGENT)
+            .creationDate(LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_000_000))
+            .isFragile(true)
+            .build();
+
+        user.getShipmentHistory().add(shipment);
+        deliverer.getCurrentShipments().add(shipment);
+
+        state = new AppState();
+        state.setUsers(new ArrayList<>(List.of(user)));
+        state.setDeliverers(new ArrayList<>(List.of(deliverer)));
+        state.setShipments(new ArrayList<>(List.of(shipment)));
+        state.setAddresses(new ArrayList<>(List.of(home)));
+        state.setJournalGeneration(7);
+    }
+
+    private AppState roundTrip(AppState original) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AppStateCodec.write(original, bytes);
+        return AppStateCodec.read(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    @Test
+    public void testRoundTripPreservesFields() throws IOException {
+        AppState restored = roundTrip(state);
+
+        assertEquals(7, restored.getJournalGeneration());
+        Shipment restoredShipment = restored.getShipments().get(0);
+        assertEquals(shipment.getId(), restoredShipment.getId());
+        assertEquals(ShipmentStatus.ASSIGNED, restoredShipment.getStatus());
+        assertEquals(ShipmentPriority.URGENT, restoredShipment.getPriority());
+        assertEquals(shipment.getCreationDate(), restoredShipment.getCreationDate());
+        assertTrue(restoredShipment.isFragile());
+        assertEquals(4.5339, restoredShipment.getOrigin().getGpsLatitude(), 1e-9);
+        assertEquals("Centro", restored.getDeliverers().get(0).getZone());
+    }
+
+    @Test
+    public void testRoundTripPreservesSharedInstances() throws IOException {
+        AppState restored = roundTrip(state);
+
+        User restoredUser = restored.getUsers().get(0);
+        Deliverer restoredDeliverer = restored.getDeliverers().get(0);
+        Shipment restoredShipment = restored.getShipments().get(0);
+
+        assertSame(restoredUser, restoredShipment.getUser());
+        assertSame(restoredDeliverer, restoredShipment.getDeliverer());
+        assertSame(restoredShipment, restoredUser.getShipmentHistory().get(0));
+        assertSame(restoredShipment, restoredDeliverer.getCurrentShipments().get(0));
+        assertSame(restoredShipment.getOrigin(), restoredShipment.getDestination(),
+            "Una dirección compartida debe seguir siendo la misma instancia");
+        assertSame(restored.getAddresses().get(0), restoredUser.getAddresses().get(0));
+    }
+
+    @Test
+    public void testEntitiesOnlyReachableByReferenceAreKept() throws IOException {
+        state.setShipments(new ArrayList<>());
+
+        AppState restored = roundTrip(state);
+
+        assertTrue(restored.getShipments().isEmpty(), "La lista del estado no debe crecer");
+        assertEquals(shipment.getId(), restored.getUsers().get(0).getShipmentHistory().get(0).getId());
+    }
+
+    @Test
+    public void testRejectsUnknownFormat() {
+        byte[] garbage = {1, 2, 3, 4, 5, 6, 7, 8};
+        assertThrows(IOException.class, () -> AppStateCodec.read(new ByteArrayInputStream(garbage)));
+    }
+
+    @Test
+    public void testConverterWritesValidatedSnapshotFile() throws IOException {
+        Path legacy = tempDir.resolve("app_state.dat");
+        Path compact = tempDir.resolve("app_state.bin");
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(legacy))) {
+            out.writeObject(state);
+        }
+
+        AppStateConverter.convert(legacy.toFile(), compact.toFile());
+
+        // El pie de SnapshotFile queda fuera del contenido validado
+        SnapshotFile opened = SnapshotFile.open(compact);
+        assertTrue(opened.getContentLength() < Files.size(compact), "El archivo convertido debe llevar el pie con el CRC32C");
+        try (InputStream in = opened.newInputStream()) {
+            assertEquals(shipment.getId(), AppStateCodec.read(in).getShipments().get(0).getId());
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Address;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.DelivererStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentPriority;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.DelivererRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.ShipmentRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.service.DistanceMatrixService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.DijkstraRoutingStrategy;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.BatchDispatchService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.DelivererService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.strategy.RealCoordinateStrategy;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.util.HungarianAssignment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para el despacho por lotes
+ * Valida la asignación de costo mínimo contra una búsqueda exhaustiva, el respeto
+ * del máximo de envíos por repartidor y la preferencia por prioridad cuando faltan cupos
+ */
+public class BatchDispatchServiceTest {
+
+    private static final RealCoordinateStrategy HAVERSINE = new RealCoordinateStrategy();
+
+    private final DistanceMatrixService offlineMatrix = new DistanceMatrixService(List.of(new DijkstraRoutingStrategy()));
+
+    private ShipmentRepository shipmentRepository;
+    private DelivererRepository delivererRepository;
+    private DelivererService delivererService;
+
+    @BeforeEach
+    public void setUp() {
+        shipmentRepository = new ShipmentRepository();
+        delivererRepository = new DelivererRepository();
+        delivererService = DelivererService.getInstance(delivererRepository);
+    }
+
+    @Test
+    public void testHungarianMatchesExhaustiveSearch() {
+        Random random = new Random(11);
+        for (int round = 0; round < 40; round++) {
+            int rows = 1 + random.nextInt(6);
+            int columns = 1 + random.nextInt(6);
+            double[][] cost = new double[rows][columns];
+            for (double[] row : cost) {
+                for (int j = 0; j < columns; j++) {
+                    row[j] = random.nextInt(10) == 0 ? HungarianAssignment.FORBIDDEN : random.nextInt(100);
+                }
+            }
+
+            int[] assignment = HungarianAssignment.solve(cost);
+            Set<Integer> usedColumns = new HashSet<>();
+            int pairs = 0;
+            double total = 0;
+            for (int i = 0; i < rows; i++) {
+                if (assignment[i] >= 0) {
+                    assertTrue(usedColumns.add(assignment[i]), "Cada columna se asigna una sola vez");
+                    assertTrue(cost[i][assignment[i]] < HungarianAssignment.FORBIDDEN);
+                    pairs++;
+                    total += cost[i][assignment[i]];
+                }
+            }
+            double[] best = bestAssignment(cost, 0, new boolean[columns], 0, 0, new double[]{-1, Double.MAX_VALUE});
+            assertEquals(best[0], pairs, "Se asigna la mayor cantidad de parejas permitidas");
+            assertEquals(best[1], total, 1e-9, "La asignación tiene costo mínimo");
+        }
+    }
+
+    @Test
+    public void testBatchRespectsCapacityAndPersistsOnce() {
+        Random random = new Random(3);
+        List<Deliverer> deliverers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            deliverers.add(delivererRepository.save(deliverer(4.50 + random.nextDouble() * 0.08,
+                -75.72 + random.nextDouble() * 0.08)));
+        }
+        deliverers.get(0).getCurrentShipments().add(pendingShipment(4.5, -75.7, ShipmentPriority.STANDARD));
+        List<Shipment> batch = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            batch.add(shipmentRepository.save(pendingShipment(4.50 + random.nextDouble() * 0.08,
+                -75.72 + random.nextDouble() * 0.08, ShipmentPriority.STANDARD)));
+        }
+
+        AtomicInteger persisted = new AtomicInteger();
+        BatchDispatchService dispatcher = new BatchDispatchService(shipmentRepository, delivererService, offlineMatrix,
+            s -> true, 200);
+        dispatcher.setPersistHook(persisted::incrementAndGet);
+
+        assertEquals(29, dispatcher.dispatchPending(), "Se llenan todos los cupos libres");
+        assertEquals(1, persisted.get(), "El lote se persiste una sola vez");
+        for (Deliverer deliverer : deliverers) {
+            assertTrue(deliverer.getCurrentShipments().size() <= 3);
+            assertEquals(DelivererStatus.IN_SERVICE, deliverer.getStatus());
+        }
+        assertEquals(11, shipmentRepository.findByStatus(ShipmentStatus.PENDING).size());
+        for (Shipment shipment : shipmentRepository.findByStatus(ShipmentStatus.ASSIGNED)) {
+            assertTrue(shipment.getDeliverer().getCurrentShipments().contains(shipment));
+            assertNotNull(shipment.getAssignmentDate());
+        }
+
+        assertEquals(0, dispatcher.dispatchPending(), "Sin cupos los envíos siguen pendientes");
+        assertEquals(1, persisted.get());
+        assertEquals(2, dispatcher.getMetrics().getRuns());
+        assertEquals(29, dispatcher.getMetrics().getShipmentsAssigned());
+        assertEquals(11, dispatcher.getMetrics().getLastLeftPending());
+    }
+
+    @Test
+    public void testScarceCapacityPrefersPriorityAndShortDistance() {
+        Deliverer near = delivererRepository.save(deliverer(4.53, -75.68));
+        Deliverer far = delivererRepository.save(deliverer(4.56, -75.65));
+        near.getCurrentShipments().add(pendingShipment(4.53, -75.68, ShipmentPriority.STANDARD));
+        near.getCurrentShipments().add(pendingShipment(4.53, -75.68, ShipmentPriority.STANDARD));
+        far.setStatus(DelivererStatus.OFF_DUTY);
+
+        Shipment standard = shipmentRepository.save(pendingShipment(4.531, -75.681, ShipmentPriority.STANDARD));
+        Shipment urgent = shipmentRepository.save(pendingShipment(4.545, -75.67, ShipmentPriority.URGENT));
+        Shipment unpaid = shipmentRepository.save(pendingShipment(4.53, -75.68, ShipmentPriority.URGENT));
+
+        BatchDispatchService dispatcher = new BatchDispatchService(shipmentRepository, delivererService, offlineMatrix,
+            s -> !s.getId().equals(unpaid.getId()), 200);
+        assertEquals(1, dispatcher.dispatchPending());
+        assertEquals(ShipmentStatus.ASSIGNED, urgent.getStatus(), "Con un solo cupo gana la prioridad");
+        assertSame(near, urgent.getDeliverer());
+        assertEquals(ShipmentStatus.PENDING, standard.getStatus());
+        assertEquals(ShipmentStatus.PENDING, unpaid.getStatus(), "Los envíos no elegibles no se despachan");
+
+        // Con cupo en ambos, cada envío va al repartidor que minimiza la distancia total
+        far.setStatus(DelivererStatus.AVAILABLE);
+        for (Shipment current : new ArrayList<>(near.getCurrentShipments())) {
+            delivererService.releaseShipment(near, current);
+        }
+        Shipment nearFar = shipmentRepository.save(pendingShipment(4.559, -75.651, ShipmentPriority.STANDARD));
+        assertEquals(2, dispatcher.dispatchPending());
+        assertSame(near, standard.getDeliverer());
+        assertSame(far, nearFar.getDeliverer());
+        double expected = HAVERSINE.calculateDistance(4.53, -75.68, 4.531, -75.681)
+            + HAVERSINE.calculateDistance(4.56, -75.65, 4.559, -75.651);
+        assertEquals(expected, dispatcher.getMetrics().getLastTotalDistanceKm(), 1e-6);
+    }
+
+    /**
+     * Búsqueda exhaustiva: maximiza las parejas permitidas y, entre ellas, minimiza el costo
+     */
+    private static double[] bestAssignment(double[][] cost, int row, boolean[] used, int pairs, double total,
+                                           double[] best) {
+        if (row == cost.length) {
+            if (pairs > best[0] || (pairs == best[0] && total < best[1])) {
+                best[0] = pairs;
+                best[1] = total;
+            }
+            return best;
+        }
+        bestAssignment(cost, row + 1, used, pairs, total, best);
+        for (int j = 0; j < used.length; j++) {
+            if (!used[j] && cost[row][j] < HungarianAssignment.FORBIDDEN) {
+                used[j] = true;
+                bestAssignment(cost, row + 1, used, pairs + 1, total + cost[row][j], best);
+                used[j] = false;
+            }
+        }
+        return best;
+    }
+
+    private static Deliverer deliverer(double latitude, double longitude) {
+        Deliverer deliverer = Deliverer.builder()
+            .id(UUID.randomUUID())
+            .name("Repartidor")
+            .status(DelivererStatus.AVAILABLE)
+            .build();
+        deliverer.updateRealPosition(latitude, longitude);
+        return deliverer;
+    }
+
+    private static Shipment pendingShipment(double latitude, double longitude, ShipmentPriority priority) {
+        Address origin = Address.builder().id(UUID.randomUUID()).build();
+        origin.setGpsCoordinates(latitude, longitude);
+        return Shipment.builder()
+            .id(UUID.randomUUID())
+            .origin(origin)
+            .priority(priority)
+            .status(ShipmentStatus.PENDING)
+            .creationDate(LocalDateTime.now())
+            .build();
+    }
+}
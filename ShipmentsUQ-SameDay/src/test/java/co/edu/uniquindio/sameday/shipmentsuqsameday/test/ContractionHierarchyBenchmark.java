@@ -0,0 +1,142 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.ContractionHierarchy;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.ContractionHierarchyBuilder;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.ContractionHierarchySearch;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.RoadGraph;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.RoadGraphSearch;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Benchmark manual: compara Dijkstra sobre el grafo vial con Contraction Hierarchies en una
+ * ciudad sintética de 100k nodos (por defecto): tiempo de preprocesamiento, de lectura del
+ * archivo .ch, consultas punto a punto y una matriz de 100×100.
+ * No es una prueba de JUnit; se ejecuta con:
+ * <pre>
+ * mvn test-compile
+ * java -Xmx2g -cp "target/classes:target/test-classes" \
+ *     co.edu.uniquindio.sameday.shipmentsuqsameday.test.ContractionHierarchyBenchmark [nodos] [consultas]
+ * </pre>
+ */
+public class ContractionHierarchyBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        Random random = new Random(42);
+        RoadGraph graph = city((int) Math.ceil(Math.sqrt(nodeCount)), random);
+        System.out.printf("%,d nodos, %,d aristas%n", graph.getNodeCount(), graph.getEdgeCount());
+
+        long start = System.nanoTime();
+        ContractionHierarchy built = ContractionHierarchyBuilder.build(graph);
+        System.out.printf("preprocesamiento: %d ms, %,d atajos%n", (System.nanoTime() - start) / 1_000_000,
+                built.getShortcutCount());
+        Path file = Files.createTempFile("city", ".ch");
+        built.write(file);
+        start = System.nanoTime();
+        ContractionHierarchy hierarchy = ContractionHierarchy.read(file);
+        System.out.printf("lectura .ch: %d ms (%,d bytes)%n", (System.nanoTime() - start) / 1_000_000, Files.size(file));
+
+        int[] sources = new int[queries];
+        int[] targets = new int[queries];
+        for (int q = 0; q < queries; q++) {
+            sources[q] = random.nextInt(graph.getNodeCount());
+            targets[q] = random.nextInt(graph.getNodeCount());
+        }
+
+        RoadGraphSearch dijkstra = new RoadGraphSearch(graph);
+        ContractionHierarchySearch search = hierarchy.search();
+        for (int round = 0; round < 2; round++) {
+            // La primera vuelta calienta el JIT
+            double dijkstraChecksum = 0;
+            start = System.nanoTime();
+            for (int q = 0; q < queries; q++) {
+                dijkstra.shortestPath(sources[q], targets[q]);
+                dijkstraChecksum += dijkstra.secondsTo(targets[q]);
+            }
+            long dijkstraTime = System.nanoTime() - start;
+
+            double chChecksum = 0;
+            start = System.nanoTime();
+            for (int q = 0; q < queries; q++) {
+                search.route(sources[q], targets[q]);
+                chChecksum += search.getSeconds();
+            }
+            long chTime = System.nanoTime() - start;
+            if (round == 1) {
+                System.out.printf("punto a punto: Dijkstra %.1f µs, CH %.1f µs (checksums %.1f / %.1f)%n",
+                        dijkstraTime / 1_000.0 / queries, chTime / 1_000.0 / queries, dijkstraChecksum, chChecksum);
+            }
+        }
+
+        int side = 100;
+        int[] rows = new int[side];
+        int[] columns = new int[side];
+        for (int i = 0; i < side; i++) {
+            rows[i] = sources[i];
+            columns[i] = targets[i];
+        }
+        double[] seconds = new double[side * side];
+        double[] meters = new double[side * side];
+        for (int round = 0; round < 2; round++) {
+            start = System.nanoTime();
+            for (int row = 0; row < side; row++) {
+                dijkstra.run(rows[row], columns);
+            }
+            long dijkstraTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            hierarchy.manyToMany(rows, columns, seconds, meters);
+            long chTime = System.nanoTime() - start;
+            if (round == 1) {
+                System.out.printf("matriz %dx%d: Dijkstra uno a muchos %d ms, CH en cubetas %d ms%n",
+                        side, side, dijkstraTime / 1_000_000, chTime / 1_000_000);
+            }
+        }
+        Files.delete(file);
+    }
+
+    /**
+     * Cuadrícula perturbada con arterias rápidas cada 8 calles y algunas calles de un sentido
+     */
+    private static RoadGraph city(int side, Random random) {
+        int nodes = side * side;
+        int[] latitudes = new int[nodes];
+        int[] longitudes = new int[nodes];
+        for (int n = 0; n < nodes; n++) {
+            latitudes[n] = (int) Math.round((4.40 + (n / side) * 0.001 + random.nextDouble() * 0.0003) * 1e7);
+            longitudes[n] = (int) Math.round((-75.80 + (n % side) * 0.001 + random.nextDouble() * 0.0003) * 1e7);
+        }
+        int[] source = new int[nodes * 4];
+        int[] target = new int[nodes * 4];
+        float[] meters = new float[nodes * 4];
+        float[] seconds = new float[nodes * 4];
+        int edges = 0;
+        for (int n = 0; n < nodes; n++) {
+            int[] neighbors = {n % side < side - 1 ? n + 1 : -1, n + side < nodes ? n + side : -1};
+            for (int neighbor : neighbors) {
+                if (neighbor < 0) {
+                    continue;
+                }
+                double length = 111_000 * Math.hypot((latitudes[n] - latitudes[neighbor]) / 1e7,
+                        (longitudes[n] - longitudes[neighbor]) / 1e7);
+                boolean arterial = (n / side) % 8 == 0 || (n % side) % 8 == 0;
+                float time = (float) (length / ((arterial ? 50 : 20 + random.nextInt(15)) / 3.6));
+                boolean oneway = random.nextInt(10) == 0;
+                source[edges] = n;
+                target[edges] = neighbor;
+                meters[edges] = (float) length;
+                seconds[edges++] = time;
+                if (!oneway) {
+                    source[edges] = neighbor;
+                    target[edges] = n;
+                    meters[edges] = (float) length;
+                    seconds[edges++] = time;
+                }
+            }
+        }
+        return RoadGraph.fromEdges(latitudes, longitudes, edges, source, target, meters, seconds);
+    }
+}
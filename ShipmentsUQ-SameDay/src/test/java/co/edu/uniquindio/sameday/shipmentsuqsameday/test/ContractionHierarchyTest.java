@@ -0,0 +1,214 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.DistanceMatrix;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.Route;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.ContractionHierarchy;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.ContractionHierarchyBuilder;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.ContractionHierarchySearch;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.RoadGraph;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.RoadGraphSearch;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.ContractionHierarchyRoutingStrategy;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.RoadGraphRoutingStrategy;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.RoutingException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para Contraction Hierarchies
+ * Valida que las consultas sobre la jerarquía den los mismos tiempos que Dijkstra sobre el
+ * grafo original, que los caminos expandidos recorran aristas reales, que la matriz en
+ * cubetas coincida con las consultas punto a punto y que la jerarquía se guarde y se
+ * vuelva a leer de disco, construyéndose en segundo plano cuando no existe
+ */
+public class ContractionHierarchyTest {
+
+    private static final int SIDE = 40;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testQueriesMatchDijkstra() {
+        RoadGraph graph = randomCity(new Random(23));
+        ContractionHierarchy hierarchy = ContractionHierarchyBuilder.build(graph);
+        RoadGraphSearch dijkstra = new RoadGraphSearch(graph);
+        ContractionHierarchySearch search = hierarchy.search();
+
+        Random random = new Random(5);
+        int deadEnd = graph.getNodeCount() - 1;
+        int unreachable = 0;
+        for (int query = 0; query < 300; query++) {
+            int source = query % 50 == 0 ? deadEnd : random.nextInt(graph.getNodeCount());
+            int target = query % 50 == 1 ? deadEnd : random.nextInt(graph.getNodeCount());
+            int[] expected = dijkstra.shortestPath(source, target);
+            boolean found = search.route(source, target);
+            assertEquals(expected != null, found, "Alcanzabilidad de " + source + " a " + target);
+            if (!found) {
+                unreachable++;
+                continue;
+            }
+            assertEquals(dijkstra.secondsTo(target), search.getSeconds(), 1e-2);
+            assertEquals(dijkstra.metersTo(target), search.getMeters(), 1.0);
+
+            int[] path = search.path();
+            assertEquals(source, path[0]);
+            assertEquals(target, path[path.length - 1]);
+            double seconds = 0;
+            for (int i = 1; i < path.length; i++) {
+                seconds += fastestEdge(graph, path[i - 1], path[i]);
+            }
+            assertEquals(search.getSeconds(), seconds, 1e-2, "El camino expandido usa aristas originales");
+        }
+        assertEquals(6, unreachable, "Al nodo de salida de un sentido no se llega desde ningún otro");
+    }
+
+    @Test
+    public void testManyToManyAndPersistence() throws Exception {
+        RoadGraph graph = randomCity(new Random(7));
+        ContractionHierarchy built = ContractionHierarchyBuilder.build(graph);
+        Path file = directory.resolve("ciudad.ch");
+        built.write(file);
+        ContractionHierarchy hierarchy = ContractionHierarchy.read(file);
+        assertEquals(built.getShortcutCount(), hierarchy.getShortcutCount());
+        assertEquals(graph.getNodeCount(), hierarchy.getGraph().getNodeCount());
+
+        Random random = new Random(11);
+        int[] sources = new int[12];
+        int[] targets = new int[9];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = random.nextInt(graph.getNodeCount());
+        }
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = random.nextInt(graph.getNodeCount());
+        }
+        sources[3] = -1;
+        targets[4] = sources[5];
+        double[] seconds = new double[sources.length * targets.length];
+        double[] meters = new double[sources.length * targets.length];
+        hierarchy.manyToMany(sources, targets, seconds, meters);
+
+        RoadGraphSearch dijkstra = new RoadGraphSearch(graph);
+        for (int row = 0; row < sources.length; row++) {
+            for (int column = 0; column < targets.length; column++) {
+                int cell = row * targets.length + column;
+                if (sources[row] < 0 || dijkstra.shortestPath(sources[row], targets[column]) == null) {
+                    assertTrue(Double.isNaN(seconds[cell]), "Celda " + row + "," + column);
+                    continue;
+                }
+                assertEquals(dijkstra.secondsTo(targets[column]), seconds[cell], 1e-2);
+                assertEquals(dijkstra.metersTo(targets[column]), meters[cell], 1.0);
+            }
+        }
+        assertEquals(0.0, seconds[5 * targets.length + 4], 1e-9);
+    }
+
+    @Test
+    public void testStrategyPreprocessesOnceAndMatchesRoadGraph() throws Exception {
+        Path osm = directory.resolve("extracto.osm");
+        Files.write(osm, RoadGraphRoutingTest.EXTRACT.strip().getBytes(StandardCharsets.UTF_8));
+        Coordinates origin = new Coordinates(4.5302, -75.6801);
+        Coordinates destination = new Coordinates(4.5399, -75.6802);
+
+        // Sin jerarquía precalculada se construye en segundo plano; hasta entonces no está disponible
+        ContractionHierarchyRoutingStrategy strategy = new ContractionHierarchyRoutingStrategy(osm);
+        strategy.isAvailable();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (strategy.isBuilding() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(strategy.isBuilding());
+        assertTrue(strategy.isAvailable());
+        Path chFile = ContractionHierarchyRoutingStrategy.hierarchyPath(osm);
+        assertTrue(Files.isRegularFile(chFile), "La jerarquía se guarda junto al extracto");
+
+        // Un segundo arranque lee la jerarquía aunque el extracto ya no esté
+        Files.delete(osm);
+        ContractionHierarchyRoutingStrategy reloaded = new ContractionHierarchyRoutingStrategy(osm);
+        assertTrue(reloaded.isAvailable());
+        assertFalse(reloaded.isBuilding());
+
+        Route expected = new RoadGraphRoutingStrategy(strategy.getGraph()).calculateRoute(origin, destination);
+        Route route = reloaded.calculateRoute(origin, destination);
+        assertEquals("RoadGraph-CH", route.getCalculationStrategy());
+        assertEquals(expected.getStatistics().getTotalDistanceMeters(), route.getStatistics().getTotalDistanceMeters(), 1e-3);
+        assertEquals(expected.getWaypoints().size(), route.getWaypoints().size());
+
+        DistanceMatrix matrix = reloaded.calculateMatrix(List.of(origin, destination), List.of(destination, origin));
+        assertEquals(expected.getStatistics().getTotalDistanceMeters(), matrix.distanceMeters(0, 0), 1e-3);
+        assertFalse(matrix.isReachable(1, 1), "Las calles de un sentido impiden el regreso");
+        assertThrows(RoutingException.class, () -> reloaded.calculateRoute(origin, new Coordinates(5.0, -75.0)));
+    }
+
+    /**
+     * Cuadrícula perturbada con velocidades variadas, algunas calles de un sentido y
+     * arterias rápidas cada 8 calles
+     */
+    private static RoadGraph randomCity(Random random) {
+        int nodes = SIDE * SIDE;
+        // Un nodo extra sale hacia la esquina 0 por una calle de un sentido y no se puede volver
+        int[] latitudes = new int[nodes + 1];
+        int[] longitudes = new int[nodes + 1];
+        latitudes[nodes] = 44_990_000;
+        longitudes[nodes] = -757_010_000;
+        for (int n = 0; n < nodes; n++) {
+            latitudes[n] = (int) Math.round((4.50 + (n / SIDE) * 0.001 + random.nextDouble() * 0.0003) * 1e7);
+            longitudes[n] = (int) Math.round((-75.70 + (n % SIDE) * 0.001 + random.nextDouble() * 0.0003) * 1e7);
+        }
+        int capacity = nodes * 4 + 1;
+        int[] source = new int[capacity];
+        int[] target = new int[capacity];
+        float[] meters = new float[capacity];
+        float[] seconds = new float[capacity];
+        int edges = 0;
+        for (int n = 0; n < nodes; n++) {
+            int[] neighbors = {n % SIDE < SIDE - 1 ? n + 1 : -1, n + SIDE < nodes ? n + SIDE : -1};
+            for (int neighbor : neighbors) {
+                if (neighbor < 0) {
+                    continue;
+                }
+                double length = 111_000 * Math.hypot((latitudes[n] - latitudes[neighbor]) / 1e7,
+                    (longitudes[n] - longitudes[neighbor]) / 1e7);
+                boolean arterial = (n / SIDE) % 8 == 0 || (n % SIDE) % 8 == 0;
+                double speed = arterial ? 50 : 20 + random.nextInt(15);
+                int direction = random.nextInt(10) == 0 ? 1 + random.nextInt(2) : 0;
+                if (direction != 2) {
+                    source[edges] = n;
+                    target[edges] = neighbor;
+                    meters[edges] = (float) length;
+                    seconds[edges++] = (float) (length / (speed / 3.6));
+                }
+                if (direction != 1) {
+                    source[edges] = neighbor;
+                    target[edges] = n;
+                    meters[edges] = (float) length;
+                    seconds[edges++] = (float) (length / (speed / 3.6));
+                }
+            }
+        }
+        source[edges] = nodes;
+        target[edges] = 0;
+        meters[edges] = 150;
+        seconds[edges++] = 20;
+        return RoadGraph.fromEdges(latitudes, longitudes, edges, source, target, meters, seconds);
+    }
+
+    private static double fastestEdge(RoadGraph graph, int from, int to) {
+        double best = Double.NaN;
+        for (int e = graph.firstEdge(from); e < graph.endEdge(from); e++) {
+            if (graph.edgeTarget(e) == to && !(graph.edgeSeconds(e) >= best)) {
+                best = graph.edgeSeconds(e);
+            }
+        }
+        assertFalse(Double.isNaN(best), "Tramo sin arista: " + from + " -> " + to);
+        return best;
+    }
+}
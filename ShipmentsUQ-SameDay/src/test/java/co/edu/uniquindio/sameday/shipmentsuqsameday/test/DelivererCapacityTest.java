@@ -0,0 +1,136 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.DelivererStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.DelivererRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.CapacityReservation;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.DelivererService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para la reserva de cupos de los repartidores
+ * Valida que asignaciones concurrentes nunca superen el máximo de envíos simultáneos
+ * y que los cupos reservados, liberados y completados se devuelvan al contador
+ */
+public class DelivererCapacityTest {
+
+    private DelivererRepository repository;
+    private DelivererService service;
+
+    @BeforeEach
+    public void setUp() {
+        repository = new DelivererRepository();
+        service = DelivererService.getInstance(repository);
+    }
+
+    @Test
+    public void testConcurrentAssignmentsNeverOversubscribe() throws Exception {
+        List<Deliverer> deliverers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            deliverers.add(repository.save(deliverer()));
+        }
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger assigned = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 50; i++) {
+                    for (Deliverer deliverer : deliverers) {
+                        if (service.assignShipment(deliverer, shipment())) {
+                            assigned.incrementAndGet();
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(15, assigned.get(), "Solo se asignan los cupos existentes");
+        for (Deliverer deliverer : deliverers) {
+            assertEquals(3, deliverer.getCurrentShipments().size());
+            assertEquals(DelivererStatus.IN_SERVICE, deliverer.getStatus());
+            assertEquals(0, service.getRemainingCapacity(deliverer));
+        }
+    }
+
+    @Test
+    public void testReservationIsReleasedUnlessCommitted() {
+        Deliverer deliverer = repository.save(deliverer());
+
+        try (CapacityReservation first = service.reserveCapacity(deliverer);
+             CapacityReservation second = service.reserveCapacity(deliverer)) {
+            assertNotNull(first);
+            assertNotNull(second);
+            assertEquals(1, service.getRemainingCapacity(deliverer), "Las reservas en curso ocupan cupo");
+            first.commit(shipment());
+            assertThrows(IllegalStateException.class, () -> first.commit(shipment()));
+        }
+
+        assertEquals(1, deliverer.getCurrentShipments().size());
+        assertEquals(2, service.getRemainingCapacity(deliverer), "La reserva sin confirmar se liberó al cerrar");
+
+        CapacityReservation released = service.reserveCapacity(deliverer);
+        released.release();
+        released.release();
+        assertEquals(2, service.getRemainingCapacity(deliverer), "Liberar dos veces no devuelve dos cupos");
+    }
+
+    @Test
+    public void testCompletingOrReleasingFreesCapacity() {
+        Deliverer deliverer = repository.save(deliverer());
+        Shipment first = shipment();
+        Shipment second = shipment();
+        Shipment third = shipment();
+        assertTrue(service.assignShipment(deliverer, first));
+        assertTrue(service.assignShipment(deliverer, second));
+        assertTrue(service.assignShipment(deliverer, third));
+        assertFalse(service.assignShipment(deliverer, shipment()));
+        assertNull(service.reserveCapacity(deliverer));
+
+        service.completeShipment(deliverer, first);
+        assertEquals(DelivererStatus.AVAILABLE, deliverer.getStatus(), "Al liberar un cupo vuelve a recibir envíos");
+        assertEquals(1, service.getRemainingCapacity(deliverer));
+
+        assertTrue(service.releaseShipment(deliverer, second));
+        assertFalse(service.releaseShipment(deliverer, second));
+        assertEquals(2, service.getRemainingCapacity(deliverer));
+        assertEquals(List.of(third), deliverer.getCurrentShipments());
+
+        deliverer.setStatus(DelivererStatus.OFF_DUTY);
+        assertNull(service.reserveCapacity(deliverer), "Un repartidor fuera de turno no recibe envíos");
+        assertEquals(0, service.getRemainingCapacity(deliverer));
+    }
+
+    private static Deliverer deliverer() {
+        return Deliverer.builder()
+            .id(UUID.randomUUID())
+            .name("Repartidor")
+            .status(DelivererStatus.AVAILABLE)
+            .build();
+    }
+
+    private static Shipment shipment() {
+        return Shipment.builder()
+            .id(UUID.randomUUID())
+            .status(ShipmentStatus.PENDING)
+            .build();
+    }
+}
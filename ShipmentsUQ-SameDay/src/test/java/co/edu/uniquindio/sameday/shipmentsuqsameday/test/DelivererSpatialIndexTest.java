@@ -0,0 +1,124 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.DelivererStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.DelivererRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.strategy.RealCoordinateStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para el índice espacial de repartidores
+ * Valida las búsquedas por cercanía y por radio en Grid y GPS contra un recorrido completo,
+ * y la actualización del índice cuando un repartidor cambia de posición
+ */
+public class DelivererSpatialIndexTest {
+
+    private DelivererRepository repository;
+    private List<Deliverer> deliverers;
+
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(42);
+        repository = new DelivererRepository();
+        deliverers = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Deliverer deliverer = Deliverer.builder()
+                .id(UUID.randomUUID())
+                .name("Repartidor " + i)
+                .status(i % 3 == 0 ? DelivererStatus.OFF_DUTY : DelivererStatus.AVAILABLE)
+                .currentX(random.nextDouble() * 100)
+                .currentY(random.nextDouble() * 100)
+                .build();
+            if (i % 2 == 0) {
+                deliverer.updateRealPosition(4.45 + random.nextDouble() * 0.15, -75.75 + random.nextDouble() * 0.15);
+            }
+            deliverers.add(deliverer);
+        }
+        repository.loadEntities(deliverers);
+    }
+
+    @Test
+    public void testGridQueriesMatchFullScan() {
+        Random random = new Random(7);
+        for (int i = 0; i < 50; i++) {
+            double x = random.nextDouble() * 120 - 10;
+            double y = random.nextDouble() * 120 - 10;
+
+            List<UUID> expected = deliverers.stream()
+                .filter(DelivererSpatialIndexTest::available)
+                .sorted(Comparator.comparingDouble((Deliverer d) -> Math.hypot(d.getCurrentX() - x, d.getCurrentY() - y))
+                    .thenComparing(Deliverer::getId))
+                .map(Deliverer::getId)
+                .collect(Collectors.toList());
+
+            assertEquals(expected.subList(0, 5), ids(repository.findNearest(x, y, 5, DelivererSpatialIndexTest::available)));
+
+            List<UUID> withinRadius = ids(repository.findWithinRadius(x, y, 12, DelivererSpatialIndexTest::available));
+            List<UUID> expectedWithin = expected.stream()
+                .filter(id -> {
+                    Deliverer d = repository.findById(id).orElseThrow();
+                    return Math.hypot(d.getCurrentX() - x, d.getCurrentY() - y) <= 12;
+                })
+                .collect(Collectors.toList());
+            assertEquals(expectedWithin, withinRadius);
+        }
+    }
+
+    @Test
+    public void testGpsNearestMatchesHaversine() {
+        RealCoordinateStrategy haversine = new RealCoordinateStrategy();
+        double latitude = 4.52;
+        double longitude = -75.69;
+
+        Deliverer expected = null;
+        double best = Double.MAX_VALUE;
+        for (Deliverer deliverer : deliverers) {
+            if (!available(deliverer) || !deliverer.hasRealCoordinates()) {
+                continue;
+            }
+            double distance = haversine.calculateDistance(deliverer.getRealLatitude(), deliverer.getRealLongitude(),
+                latitude, longitude);
+            if (distance < best) {
+                best = distance;
+                expected = deliverer;
+            }
+        }
+
+        List<Deliverer> nearest = repository.findNearestByGps(latitude, longitude, 1,
+            d -> available(d) && d.hasRealCoordinates());
+        assertEquals(List.of(expected), nearest);
+    }
+
+    @Test
+    public void testIndexFollowsPositionUpdatesWithoutRepositoryUpdate() {
+        Deliverer mover = deliverers.get(1);
+        assertTrue(available(mover));
+
+        mover.updatePosition(500, 500);
+        assertEquals(List.of(mover), repository.findNearest(499, 499, 1, DelivererSpatialIndexTest::available));
+
+        mover.updateRealPosition(5.2, -74.9);
+        assertEquals(List.of(mover), repository.findWithinRadiusByGps(5.2, -74.9, 1.0, d -> true));
+        assertTrue(repository.findWithinRadius(499, 499, 5, d -> true).isEmpty(),
+            "La posición anterior ya no está en el índice");
+
+        repository.deleteById(mover.getId());
+        mover.updatePosition(1000, 1000);
+        assertTrue(repository.findWithinRadius(1000, 1000, 1, d -> true).isEmpty(),
+            "Un repartidor eliminado deja de actualizar el índice");
+    }
+
+    private static boolean available(Deliverer deliverer) {
+        return deliverer.getStatus() == DelivererStatus.AVAILABLE;
+    }
+
+    private static List<UUID> ids(List<Deliverer> deliverers) {
+        return deliverers.stream().map(Deliverer::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,203 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Address;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Incident;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.User;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.DelivererStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.IncidentType;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentPriority;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.UserRole;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.DeltaSnapshot;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.EntityReference;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.EntityRelinker;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.WriteAheadJournal;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.BaseRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.DelivererRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.IncidentRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.RepositoryChanges;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.ShipmentRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.UserRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.DelivererService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.IncidentService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.ShipmentService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para los snapshots incrementales
+ * Valida el seguimiento de cambios de BaseRepository, que los servicios registren las
+ * entidades que modifican en memoria y la aplicación de un DeltaSnapshot
+ */
+public class DeltaSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testRepositoryTracksOnlyChangesSinceLastDrain() {
+        UserRepository repository = new UserRepository();
+        User kept = user("Ana");
+        User removed = user("Luis");
+        repository.loadEntities(List.of(kept, removed));
+        assertFalse(repository.hasChanges(), "La carga masiva no es un cambio");
+
+        User added = repository.save(user("Eva"));
+        kept.setName("Ana María");
+        repository.update(kept);
+        repository.deleteById(removed.getId());
+
+        RepositoryChanges<User> changes = repository.drainChanges();
+        assertEquals(Set.of(added.getId(), kept.getId()), changes.getSaved().keySet());
+        assertEquals(Set.of(removed.getId()), changes.getDeleted());
+        assertFalse(repository.hasChanges());
+        assertTrue(repository.drainChanges().isEmpty());
+
+        repository.restoreChanges(changes);
+        assertEquals(3, repository.drainChanges().size());
+    }
+
+    @Test
+    public void testServiceMutationsAreTracked() {
+        ShipmentRepository shipments = new ShipmentRepository();
+        DelivererRepository deliverers = new DelivererRepository();
+        IncidentRepository incidents = new IncidentRepository();
+        ShipmentService shipmentService = new ShipmentService(shipments,
+            DelivererService.getInstance(deliverers), new IncidentService(incidents));
+
+        Deliverer deliverer = Deliverer.builder()
+            .id(UUID.randomUUID())
+            .name("Repartidor")
+            .status(DelivererStatus.AVAILABLE)
+            .build();
+        deliverer.updateRealPosition(4.533889, -75.681111);
+        Address origin = Address.builder().id(UUID.randomUUID()).build();
+        origin.setGpsCoordinates(4.534, -75.681);
+        Shipment shipment = Shipment.builder()
+            .id(UUID.randomUUID())
+            .origin(origin)
+            .priority(ShipmentPriority.STANDARD)
+            .status(ShipmentStatus.PENDING)
+            .build();
+        deliverers.loadEntities(List.of(deliverer));
+        shipments.loadEntities(List.of(shipment));
+
+        // La asignación modifica en memoria el envío y el repartidor
+        assertTrue(shipmentService.tryAssignDeliverer(shipment.getId()));
+        assertEquals(Set.of(shipment.getId()), shipments.drainChanges().getSaved().keySet());
+        assertEquals(Set.of(deliverer.getId()), deliverers.drainChanges().getSaved().keySet());
+
+        // La incidencia queda en su repositorio y enlazada al envío
+        Incident incident = Incident.builder()
+            .id(UUID.randomUUID())
+            .shipment(shipment)
+            .type(IncidentType.OTHER)
+            .build();
+        shipmentService.reportIncident(incident);
+        assertEquals(Set.of(incident.getId()), incidents.drainChanges().getSaved().keySet());
+        assertEquals(List.of(incident), shipments.drainChanges().getSaved().get(shipment.getId()).getIncidents());
+    }
+
+    @Test
+    public void testDeltaAppliesNewEntitiesThatReferenceEachOther() throws IOException {
+        User existing = user("Ana");
+        User deleted = user("Luis");
+        UserRepository users = new UserRepository();
+        ShipmentRepository shipments = new ShipmentRepository();
+        users.loadEntities(List.of(existing, deleted));
+
+        // Usuario y envío nuevos que se referencian mutuamente
+        User created = user("Eva");
+        Shipment shipment = Shipment.builder()
+            .id(UUID.randomUUID())
+            .user(created)
+            .status(ShipmentStatus.PENDING)
+            .build();
+        created.getShipmentHistory().add(shipment);
+        users.save(created);
+        shipments.save(shipment);
+        existing.setName("Ana María");
+        users.update(existing);
+        users.deleteById(deleted.getId());
+
+        Map<String, RepositoryChanges<?>> changes = new LinkedHashMap<>();
+        changes.put(EntityReference.USERS, users.drainChanges());
+        changes.put(EntityReference.SHIPMENTS, shipments.drainChanges());
+        Path file = tempDir.resolve("app_state.5.delta");
+        DeltaSnapshot.write(file, 4, 5, changes);
+
+        // Estado restaurado a partir del snapshot base (generación 4)
+        UserRepository restoredUsers = new UserRepository();
+        ShipmentRepository restoredShipments = new ShipmentRepository();
+        restoredUsers.loadEntities(List.of(copy(existing, "Ana"), copy(deleted, "Luis")));
+        Map<String, BaseRepository<?>> repositories = Map.of(
+            EntityReference.USERS, restoredUsers,
+            EntityReference.SHIPMENTS, restoredShipments);
+
+        DeltaSnapshot delta = DeltaSnapshot.read(file);
+        assertEquals(4, delta.getBaseGeneration());
+        assertEquals(5, delta.getGeneration());
+        assertEquals(4, delta.apply(new WriteAheadJournal.ReplayHandler() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public void onPut(String repository, UUID id, Object entity) {
+                ((BaseRepository<Object>) repositories.get(repository)).save(entity);
+            }
+
+            @Override
+            public void onDelete(String repository, UUID id) {
+                repositories.get(repository).deleteById(id);
+            }
+        }, reference -> repositories.get(reference.getKind()).findById(reference.getId()).orElse(null)));
+        new EntityRelinker(reference -> repositories.get(reference.getKind()).findById(reference.getId()).orElse(null))
+            .relink(restoredUsers.findAll(), List.of(), restoredShipments.findAll(), List.of(), List.of());
+
+        User restoredCreated = restoredUsers.findById(created.getId()).orElseThrow();
+        Shipment restoredShipment = restoredShipments.findById(shipment.getId()).orElseThrow();
+        assertSame(restoredCreated, restoredShipment.getUser());
+        assertEquals(1, restoredCreated.getShipmentHistory().size());
+        assertSame(restoredShipment, restoredCreated.getShipmentHistory().get(0));
+        assertEquals("Ana María", restoredUsers.findById(existing.getId()).orElseThrow().getName());
+        assertFalse(restoredUsers.existsById(deleted.getId()));
+    }
+
+    @Test
+    public void testTruncatedDeltaIsRejected() throws IOException {
+        UserRepository users = new UserRepository();
+        users.save(user("Ana"));
+        Path file = tempDir.resolve("app_state.2.delta");
+        DeltaSnapshot.write(file, 1, 2, Map.of(EntityReference.USERS, users.drainChanges()));
+
+        byte[] content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length - 3));
+
+        assertThrows(IOException.class, () -> DeltaSnapshot.read(file));
+    }
+
+    private static User user(String name) {
+        return User.builder()
+            .id(UUID.randomUUID())
+            .name(name)
+            .email(name.toLowerCase() + "@uq.edu.co")
+            .role(UserRole.CLIENT)
+            .build();
+    }
+
+    private static User copy(User user, String name) {
+        return User.builder()
+            .id(user.getId())
+            .name(name)
+            .email(user.getEmail())
+            .role(user.getRole())
+            .build();
+    }
+}
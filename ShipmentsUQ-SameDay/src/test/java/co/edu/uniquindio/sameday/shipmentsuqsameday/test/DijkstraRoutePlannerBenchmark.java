@@ -0,0 +1,94 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.util.DijkstraRoutePlanner;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.util.DijkstraRoutePlanner.Algorithm;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.util.DijkstraRoutePlanner.Node;
+
+import java.util.Random;
+
+/**
+ * Benchmark manual: compara Dijkstra, A* y Dijkstra bidireccional sobre una cuadrícula
+ * perturbada de 100k nodos (por defecto), con el tiempo medio por consulta y los nodos
+ * asentados en promedio. Todas las consultas usan los mismos pares origen-destino. También
+ * mide la búsqueda del nodo más cercano, que hace cada consulta por coordenadas.
+ * No es una prueba de JUnit; se ejecuta con:
+ * <pre>
+ * mvn test-compile
+ * java -Xmx2g -cp "target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *     co.edu.uniquindio.sameday.shipmentsuqsameday.test.DijkstraRoutePlannerBenchmark [nodos] [consultas]
+ * </pre>
+ */
+public class DijkstraRoutePlannerBenchmark {
+
+    public static void main(String[] args) {
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        int side = (int) Math.ceil(Math.sqrt(nodeCount));
+        Random random = new Random(42);
+        Node[] nodes = new Node[side * side];
+        DijkstraRoutePlanner planner = new DijkstraRoutePlanner();
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new Node(i, (i % side) * 10 + random.nextDouble() * 4, (i / side) * 10 + random.nextDouble() * 4);
+            planner.addNode(nodes[i]);
+        }
+        for (int i = 0; i < nodes.length; i++) {
+            if (i % side < side - 1) {
+                connect(planner, random, nodes[i], nodes[i + 1]);
+            }
+            if (i + side < nodes.length) {
+                connect(planner, random, nodes[i], nodes[i + side]);
+            }
+        }
+
+        int[] sources = new int[queries];
+        int[] targets = new int[queries];
+        for (int q = 0; q < queries; q++) {
+            sources[q] = random.nextInt(nodes.length);
+            targets[q] = random.nextInt(nodes.length);
+        }
+
+        System.out.printf("%,d nodos, %,d consultas%n", nodes.length, queries);
+        System.out.printf("%-14s %12s %16s %14s%n", "algoritmo", "µs/consulta", "nodos asentados", "checksum");
+
+        // Calentamiento del JIT con todas las variantes
+        for (Algorithm algorithm : Algorithm.values()) {
+            run(planner, nodes, sources, targets, Math.min(queries, 100), algorithm);
+        }
+        for (Algorithm algorithm : Algorithm.values()) {
+            run(planner, nodes, sources, targets, queries, algorithm);
+        }
+
+        int snaps = 100_000;
+        double checksum = 0;
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for (int q = 0; q < snaps; q++) {
+                checksum += planner.findNearestNode(random.nextDouble() * side * 10, random.nextDouble() * side * 10).getId();
+            }
+            if (round == 1) {
+                System.out.printf("nodo más cercano: %.2f µs/consulta (checksum %.0f)%n",
+                        (System.nanoTime() - start) / 1_000.0 / snaps, checksum);
+            }
+        }
+    }
+
+    private static void run(DijkstraRoutePlanner planner, Node[] nodes, int[] sources, int[] targets,
+                            int queries, Algorithm algorithm) {
+        long settled = 0;
+        double checksum = 0;
+        long start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            checksum += planner.shortestPath(nodes[sources[q]], nodes[targets[q]], algorithm).getTotalDistance();
+            settled += planner.getLastSettledCount();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-14s %12.1f %16d %14.1f%n", algorithm, elapsed / 1_000.0 / queries,
+                settled / queries, checksum);
+    }
+
+    private static void connect(DijkstraRoutePlanner planner, Random random, Node a, Node b) {
+        double straight = Math.hypot(a.getX() - b.getX(), a.getY() - b.getY());
+        planner.addEdge(a, b, straight * (1 + random.nextDouble() * 0.5));
+    }
+}
@@ -0,0 +1,172 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.KdTree;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.util.DijkstraRoutePlanner;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.util.DijkstraRoutePlanner.Algorithm;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.util.DijkstraRoutePlanner.Node;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.util.DijkstraRoutePlanner.RouteResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para el planificador de rutas sobre el grafo de calles
+ * Valida que Dijkstra, A* y Dijkstra bidireccional encuentren caminos válidos de la misma
+ * distancia, que A* y el bidireccional exploren menos nodos, los casos sin camino y que el
+ * árbol k-d encuentre el mismo nodo más cercano que una búsqueda lineal
+ */
+public class DijkstraRoutePlannerTest {
+
+    private static final int SIDE = 60;
+
+    private final Map<Long, Double> weights = new HashMap<>();
+
+    @Test
+    public void testAlgorithmsAgreeOnRandomGraph() {
+        Random random = new Random(22);
+        Node[] nodes = new Node[SIDE * SIDE];
+        DijkstraRoutePlanner planner = randomGrid(random, nodes);
+
+        long dijkstraSettled = 0;
+        long aStarSettled = 0;
+        long bidirectionalSettled = 0;
+        for (int query = 0; query < 200; query++) {
+            Node start = nodes[random.nextInt(nodes.length)];
+            Node end = nodes[random.nextInt(nodes.length)];
+
+            RouteResult dijkstra = planner.shortestPath(start, end, Algorithm.DIJKSTRA);
+            dijkstraSettled += planner.getLastSettledCount();
+            RouteResult aStar = planner.shortestPath(start, end, Algorithm.A_STAR);
+            aStarSettled += planner.getLastSettledCount();
+            RouteResult bidirectional = planner.shortestPath(start, end, Algorithm.BIDIRECTIONAL);
+            bidirectionalSettled += planner.getLastSettledCount();
+
+            for (RouteResult result : List.of(dijkstra, aStar, bidirectional)) {
+                assertTrue(result.isValid());
+                assertEquals(dijkstra.getTotalDistance(), result.getTotalDistance(), 1e-9);
+                assertSame(start, result.getPath().get(0));
+                assertSame(end, result.getPath().get(result.getPath().size() - 1));
+                assertEquals(result.getTotalDistance(), pathWeight(result.getPath()), 1e-9,
+                    "El camino recorre aristas reales con la distancia informada");
+            }
+        }
+        assertTrue(aStarSettled < dijkstraSettled / 2, "A* explora " + aStarSettled + " de " + dijkstraSettled);
+        assertTrue(bidirectionalSettled < dijkstraSettled, "Bidireccional explora " + bidirectionalSettled);
+    }
+
+    @Test
+    public void testDefaultGridAndUnreachableNodes() {
+        DijkstraRoutePlanner grid = DijkstraRoutePlanner.createDefaultGrid();
+        for (Algorithm algorithm : Algorithm.values()) {
+            RouteResult result = grid.calculateShortestPath(1, 2, 88, 91, algorithm);
+            assertEquals(9 * 14.14, result.getTotalDistance(), 1e-9, algorithm + " usa las diagonales");
+            assertEquals(10, result.getPath().size());
+            assertEquals(0.0, grid.calculateShortestPath(50, 50, 49, 51, algorithm).getTotalDistance(), 1e-9);
+        }
+
+        Node island = new Node(500, 200, 200);
+        grid.addNode(island);
+        Node origin = grid.findNearestNode(0, 0);
+        for (Algorithm algorithm : Algorithm.values()) {
+            RouteResult result = grid.shortestPath(origin, island, algorithm);
+            assertFalse(result.isValid(), algorithm + " sin camino");
+            assertEquals(Double.MAX_VALUE, result.getTotalDistance());
+        }
+
+        // Al agregar una arista el grafo se recompila y el nodo pasa a ser alcanzable
+        grid.addEdge(grid.findNearestNode(90, 90), island, 5);
+        assertEquals(9 * 14.14 + 5, grid.shortestPath(origin, island, Algorithm.BIDIRECTIONAL).getTotalDistance(), 1e-9);
+        assertFalse(grid.shortestPath(origin, new Node(999, 0, 0), Algorithm.A_STAR).isValid(),
+            "Nodos que no están en el grafo");
+    }
+
+    @Test
+    public void testNearestNodeMatchesLinearScan() {
+        Random random = new Random(24);
+        Node[] nodes = new Node[SIDE * SIDE];
+        DijkstraRoutePlanner planner = randomGrid(random, nodes);
+        for (int query = 0; query < 500; query++) {
+            double x = random.nextDouble() * 700 - 50;
+            double y = random.nextDouble() * 700 - 50;
+            Node expected = nodes[0];
+            for (Node node : nodes) {
+                if (Math.hypot(node.getX() - x, node.getY() - y) < Math.hypot(expected.getX() - x, expected.getY() - y)) {
+                    expected = node;
+                }
+            }
+            assertSame(expected, planner.findNearestNode(x, y));
+        }
+        assertNull(new DijkstraRoutePlanner().findNearestNode(0, 0));
+
+        // Puntos repetidos y eje x escalado, como usa el grafo vial con el coseno de la latitud
+        double[] xs = new double[2_000];
+        double[] ys = new double[2_000];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = random.nextInt(40);
+            ys[i] = random.nextInt(40);
+        }
+        KdTree tree = new KdTree(xs, ys);
+        for (int query = 0; query < 500; query++) {
+            double x = random.nextInt(80) / 2.0;
+            double y = random.nextInt(80) / 2.0;
+            double scale = 0.3 + random.nextDouble();
+            int expected = 0;
+            double best = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < xs.length; i++) {
+                double dx = (xs[i] - x) * scale;
+                double distance = dx * dx + (ys[i] - y) * (ys[i] - y);
+                if (distance < best) {
+                    best = distance;
+                    expected = i;
+                }
+            }
+            assertEquals(expected, tree.nearest(x, y, scale), "Ante empates gana el menor índice");
+        }
+    }
+
+    /**
+     * Cuadrícula con posiciones perturbadas y pesos entre 1 y 1.5 veces la longitud recta
+     */
+    private DijkstraRoutePlanner randomGrid(Random random, Node[] nodes) {
+        int side = (int) Math.sqrt(nodes.length);
+        DijkstraRoutePlanner planner = new DijkstraRoutePlanner();
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new Node(i, (i % side) * 10 + random.nextDouble() * 4, (i / side) * 10 + random.nextDouble() * 4);
+            planner.addNode(nodes[i]);
+        }
+        for (int i = 0; i < nodes.length; i++) {
+            if (i % side < side - 1) {
+                connect(planner, random, nodes[i], nodes[i + 1]);
+            }
+            if (i + side < nodes.length) {
+                connect(planner, random, nodes[i], nodes[i + side]);
+            }
+        }
+        return planner;
+    }
+
+    private void connect(DijkstraRoutePlanner planner, Random random, Node a, Node b) {
+        double weight = Math.hypot(a.getX() - b.getX(), a.getY() - b.getY()) * (1 + random.nextDouble() * 0.5);
+        weights.put(key(a, b), weight);
+        planner.addEdge(a, b, weight);
+    }
+
+    private double pathWeight(List<Node> path) {
+        double total = 0;
+        for (int i = 1; i < path.size(); i++) {
+            Double weight = weights.get(key(path.get(i - 1), path.get(i)));
+            assertNotNull(weight, "Tramo sin arista");
+            total += weight;
+        }
+        return total;
+    }
+
+    private static long key(Node a, Node b) {
+        return (long) Math.min(a.getId(), b.getId()) * Integer.MAX_VALUE + Math.max(a.getId(), b.getId());
+    }
+}
@@ -0,0 +1,195 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.DistanceMatrix;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.service.DistanceMatrixService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.DijkstraRoutingStrategy;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.HttpGetClient;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.OSRMRoutingStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para el servicio de matrices de distancia
+ * Valida la consulta por bloques al servicio /table de OSRM con un cliente HTTP local,
+ * que solo se pidan las celdas que faltan en el cache, el descarte LRU de filas al superar
+ * el máximo y el respaldo en línea recta
+ */
+public class DistanceMatrixServiceTest {
+
+    private static final String BASE_URL = "http://osrm.local";
+
+    /**
+     * Servidor OSRM simulado: responde /table con la distancia en línea recta
+     * (metros) y una duración de un segundo por cada 10 metros
+     */
+    private static final class FakeOsrm implements HttpGetClient {
+        final List<String> tableRequests = new CopyOnWriteArrayList<>();
+        boolean failing;
+
+        @Override
+        public String get(String url) throws IOException {
+            if (failing) {
+                throw new IOException("sin conexión");
+            }
+            if (!url.contains("/table/")) {
+                return "{\"code\":\"Ok\"}";
+            }
+            tableRequests.add(url);
+            String path = url.substring(url.indexOf("/driving/") + "/driving/".length(), url.indexOf('?'));
+            List<Coordinates> points = new ArrayList<>();
+            for (String pair : path.split(";")) {
+                String[] lngLat = pair.split(",");
+                points.add(new Coordinates(Double.parseDouble(lngLat[1]), Double.parseDouble(lngLat[0])));
+            }
+            int[] sources = indexes(url, "sources=");
+            int[] destinations = indexes(url, "destinations=");
+            StringBuilder durations = new StringBuilder("[");
+            StringBuilder distances = new StringBuilder("[");
+            for (int i = 0; i < sources.length; i++) {
+                durations.append(i > 0 ? ",[" : "[");
+                distances.append(i > 0 ? ",[" : "[");
+                for (int j = 0; j < destinations.length; j++) {
+                    double meters = points.get(sources[i]).distanceTo(points.get(destinations[j])) * 1000.0;
+                    durations.append(j > 0 ? "," : "").append(meters > 5_000 ? "null" : String.valueOf(meters / 10.0));
+                    distances.append(j > 0 ? "," : "").append(meters > 5_000 ? "null" : String.valueOf(meters));
+                }
+                durations.append(']');
+                distances.append(']');
+            }
+            return "{\"code\":\"Ok\",\"durations\":" + durations + "],\"distances\":" + distances + "]}";
+        }
+
+        private static int[] indexes(String url, String parameter) {
+            int start = url.indexOf(parameter) + parameter.length();
+            int end = url.indexOf('&', start);
+            return Arrays.stream(url.substring(start, end < 0 ? url.length() : end).split(";"))
+                .mapToInt(Integer::parseInt).toArray();
+        }
+    }
+
+    @Test
+    public void testOsrmTableIsSplitIntoBlocksAndParsed() throws Exception {
+        FakeOsrm osrm = new FakeOsrm();
+        DistanceMatrixService service = new DistanceMatrixService(
+            List.of(new OSRMRoutingStrategy(BASE_URL, osrm), new DijkstraRoutingStrategy()));
+        List<Coordinates> origins = points(new Random(5), 60);
+        List<Coordinates> destinations = points(new Random(6), 70);
+        destinations.set(0, new Coordinates(4.70, -75.50)); // a más de 5 km: sin ruta
+
+        DistanceMatrix matrix = service.compute(origins, destinations);
+        assertEquals("OSRM", matrix.getSource());
+        assertEquals(4, osrm.tableRequests.size(), "60x70 se divide en bloques de 50x50");
+        for (String url : osrm.tableRequests) {
+            assertTrue(url.startsWith(BASE_URL + "/table/v1/driving/"));
+            assertTrue(url.split("/driving/")[1].split("\\?")[0].split(";").length <= 100);
+        }
+        for (int i = 0; i < origins.size(); i++) {
+            assertFalse(matrix.isReachable(i, 0));
+            for (int j = 1; j < destinations.size(); j++) {
+                double meters = origins.get(i).distanceTo(destinations.get(j)) * 1000.0;
+                assertEquals(meters, matrix.distanceMeters(i, j), 0.5);
+                assertEquals(meters / 10.0, matrix.durationSeconds(i, j), 0.05);
+            }
+        }
+    }
+
+    @Test
+    public void testOnlyMissingCellsAreRequested() throws Exception {
+        FakeOsrm osrm = new FakeOsrm();
+        DistanceMatrixService service = new DistanceMatrixService(List.of(new OSRMRoutingStrategy(BASE_URL, osrm)));
+        List<Coordinates> origins = points(new Random(8), 5);
+        List<Coordinates> destinations = points(new Random(9), 5);
+
+        DistanceMatrix first = service.compute(origins, destinations);
+        assertEquals(1, osrm.tableRequests.size());
+
+        // Las mismas coordenadas con una diferencia menor a un metro salen del cache
+        List<Coordinates> nudged = new ArrayList<>();
+        for (Coordinates origin : origins) {
+            nudged.add(new Coordinates(origin.getLatitude() + 1e-7, origin.getLongitude()));
+        }
+        DistanceMatrix cached = service.compute(nudged, destinations);
+        assertEquals(1, osrm.tableRequests.size());
+        assertEquals("Cache", cached.getSource());
+        assertArrayEquals(first.getDurationsSeconds(), cached.getDurationsSeconds(), 1e-9);
+
+        // Un destino nuevo solo pide esa columna
+        List<Coordinates> extended = new ArrayList<>(destinations);
+        extended.add(new Coordinates(4.545, -75.665));
+        DistanceMatrix grown = service.compute(origins, extended);
+        assertEquals(2, osrm.tableRequests.size());
+        String last = osrm.tableRequests.get(1);
+        assertTrue(last.contains("destinations=5&"), "Solo se consulta el destino nuevo: " + last);
+        for (int i = 0; i < origins.size(); i++) {
+            for (int j = 0; j < destinations.size(); j++) {
+                assertEquals(first.durationSeconds(i, j), grown.durationSeconds(i, j), 1e-9);
+            }
+        }
+        assertEquals(2L, service.getStatistics().get("computedMatrices"));
+    }
+
+    @Test
+    public void testFullCacheEvictsLeastRecentlyUsedRows() throws Exception {
+        DistanceMatrixService service = new DistanceMatrixService(List.of(new DijkstraRoutingStrategy()));
+        List<Coordinates> destination = List.of(new Coordinates(4.5339, -75.6811));
+        Coordinates hot = new Coordinates(4.5000, -75.7000);
+        service.compute(List.of(hot), destination);
+        service.compute(grid(0, 4_095), destination);
+        assertEquals(2L, service.getStatistics().get("computedMatrices"));
+
+        // La fila consultada de nuevo pasa a ser la más reciente y sobrevive al descarte
+        service.compute(List.of(hot), destination);
+        service.compute(grid(4_095, 10), destination);
+        Map<String, Object> stats = service.getStatistics();
+        assertEquals(4_096, stats.get("cachedRows"));
+        assertEquals(10L, stats.get("evictedRows"));
+
+        assertEquals("Cache", service.compute(List.of(hot), destination).getSource());
+        assertEquals(3L, service.getStatistics().get("computedMatrices"));
+    }
+
+    @Test
+    public void testFallsBackToStraightLineWhenOsrmFails() throws Exception {
+        FakeOsrm osrm = new FakeOsrm();
+        osrm.failing = true;
+        DistanceMatrixService service = new DistanceMatrixService(
+            List.of(new DijkstraRoutingStrategy(), new OSRMRoutingStrategy(BASE_URL, osrm)));
+        List<Coordinates> points = points(new Random(10), 4);
+
+        DistanceMatrix matrix = service.compute(points, points);
+        assertEquals("Dijkstra-Fallback", matrix.getSource());
+        for (int i = 0; i < points.size(); i++) {
+            assertEquals(0.0, matrix.distanceMeters(i, i), 1e-9);
+            for (int j = 0; j < points.size(); j++) {
+                double meters = points.get(i).distanceTo(points.get(j)) * 1000.0;
+                assertEquals(meters, matrix.distanceMeters(i, j), 1e-6);
+                assertEquals(meters / 1000.0 / 30.0 * 3600.0, matrix.durationSeconds(i, j), 1e-6);
+            }
+        }
+    }
+
+    /**
+     * Puntos distintos separados ~11 metros, a partir de la posición indicada de la cuadrícula
+     */
+    private static List<Coordinates> grid(int first, int count) {
+        List<Coordinates> points = new ArrayList<>();
+        for (int i = first; i < first + count; i++) {
+            points.add(new Coordinates(4.52 + (i / 100) * 1e-4, -75.69 + (i % 100) * 1e-4));
+        }
+        return points;
+    }
+
+    private static List<Coordinates> points(Random random, int count) {
+        List<Coordinates> points = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            points.add(new Coordinates(4.52 + random.nextDouble() * 0.03, -75.69 + random.nextDouble() * 0.03));
+        }
+        return points;
+    }
+}
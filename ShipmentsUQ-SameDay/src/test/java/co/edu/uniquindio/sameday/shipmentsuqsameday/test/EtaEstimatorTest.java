@@ -0,0 +1,98 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.RouteStatistics;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.service.EtaEstimator;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.simulation.event.DeliveryCompletedEvent;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.util.ZoneLocator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para el estimador de tiempos de llegada
+ * Valida que sin datos se conserve la estimación previa, que aprenda factores de
+ * velocidad por zona y hora (con contracción hacia la hora para zonas sin datos y
+ * adaptación a cambios), y que aprenda de los eventos del simulador descartando atípicos
+ */
+public class EtaEstimatorTest {
+
+    private static final Coordinates CENTER = new Coordinates(4.533889, -75.681111);
+    private static final Coordinates NORTH = new Coordinates(4.633889, -75.631111);
+
+    @Test
+    public void testWithoutDataKeepsPrior() {
+        EtaEstimator estimator = new EtaEstimator(ZoneLocator.getDefault());
+        LocalDateTime departure = LocalDateTime.of(2024, 5, 10, 8, 0);
+
+        assertEquals(1.0, estimator.speedFactor("centro", 8));
+        assertEquals(20.0, estimator.estimateMinutes(10.0, CENTER, departure), 1e-9);
+
+        RouteStatistics statistics = RouteStatistics.builder()
+            .totalDistanceMeters(12_000)
+            .estimatedDuration(Duration.ofMinutes(17))
+            .build();
+        assertEquals(Duration.ofMinutes(17), estimator.estimateDuration(statistics, CENTER, departure));
+        assertEquals(departure.plusMinutes(17), statistics.calculateETA(departure, estimator, CENTER));
+    }
+
+    @Test
+    public void testLearnsZoneAndHourFactors() {
+        EtaEstimator estimator = new EtaEstimator(ZoneLocator.getDefault());
+        Random random = new Random(18);
+        for (int i = 0; i < 400; i++) {
+            double km = 1 + random.nextDouble() * 6;
+            double noise = 1 + (random.nextDouble() - 0.5) * 0.1;
+            // Centro en hora pico a 15 km/h, norte a las 10 a 40 km/h
+            assertTrue(estimator.record("centro", 8, km, km / 15.0 * 60 * noise));
+            assertTrue(estimator.record("norte", 10, km, km / 40.0 * 60 * noise));
+        }
+
+        assertEquals(0.5, estimator.speedFactor("centro", 8), 0.03);
+        assertEquals(40.0 / 30.0, estimator.speedFactor("norte", 10), 0.05);
+        LocalDateTime rushHour = LocalDateTime.of(2024, 5, 10, 8, 30);
+        assertEquals(40.0, estimator.estimateMinutes(10.0, CENTER, rushHour), 2.0);
+
+        // Una zona sin datos a las 8 toma el ritmo de esa hora en las demás zonas
+        assertEquals(0.5, estimator.speedFactor("sur", 8), 0.05);
+
+        // Las entregas recientes pesan más: el centro se descongestiona
+        for (int i = 0; i < 400; i++) {
+            estimator.record("centro", 8, 4.0, 4.0 / 30.0 * 60);
+        }
+        assertEquals(1.0, estimator.speedFactor("centro", 8), 0.03);
+        assertEquals(2, estimator.getStatistics().get("learnedCells"));
+    }
+
+    @Test
+    public void testLearnsFromDeliveryEventsAndRejectsOutliers() {
+        EtaEstimator estimator = new EtaEstimator(ZoneLocator.getDefault());
+        LocalDateTime delivered = LocalDateTime.of(2024, 5, 10, 18, 20);
+        for (int i = 0; i < 200; i++) {
+            // 5 km en 20 minutos (15 km/h) saliendo a las 18:00 hacia el norte
+            estimator.onDeliveryCompleted(new DeliveryCompletedEvent(
+                null, null, NORTH, delivered, Duration.ofMinutes(20), 5_000, true, 0));
+        }
+        assertEquals(0.5, estimator.speedFactor("norte", 18), 0.02);
+        assertEquals(0.5, estimator.speedFactor("norte", 6), 0.05, "Una hora sin datos toma el ritmo global");
+
+        RouteStatistics statistics = RouteStatistics.builder()
+            .totalDistanceMeters(6_000)
+            .estimatedDuration(Duration.ofMinutes(10))
+            .build();
+        Duration learned = estimator.estimateDuration(statistics, NORTH, LocalDateTime.of(2024, 5, 11, 18, 5));
+        assertEquals(24.0, learned.toMillis() / 60_000.0, 1.0);
+
+        assertFalse(estimator.record("norte", 18, 5.0, 0.5), "600 km/h");
+        assertFalse(estimator.record("norte", 18, 5.0, 600), "0.5 km/h");
+        assertFalse(estimator.record("norte", 18, 0.01, 1), "Trayecto demasiado corto");
+        assertFalse(estimator.record("norte", 24, 5.0, 20), "Hora fuera de rango");
+        assertEquals(200L, estimator.getStatistics().get("observations"));
+        assertEquals(4L, estimator.getStatistics().get("rejected"));
+        assertEquals(0.5, estimator.speedFactor("norte", 18), 0.02);
+    }
+}
@@ -0,0 +1,139 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.User;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.dto.PaginatedDataDTO;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.UserRole;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.EntityReference;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.MVStoreBackend;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.BaseRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.ShipmentRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.StorageBackend;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para el backend de almacenamiento en disco
+ * Valida la persistencia entre aperturas, la identidad de las entidades y la paginación
+ */
+public class MVStoreBackendTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final Map<String, BaseRepository<?>> repositories = new HashMap<>();
+
+    @Test
+    public void testEntitiesSurviveReopeningWithReferencesResolved() throws IOException {
+        Path file = tempDir.resolve("app_state.mv.db");
+        User user = user("Ana");
+        Shipment shipment = Shipment.builder()
+            .id(UUID.randomUUID())
+            .user(user)
+            .status(ShipmentStatus.PENDING)
+            .build();
+        user.getShipmentHistory().add(shipment);
+
+        try (MVStoreBackend backend = open(file)) {
+            UserRepository users = register(EntityReference.USERS, new UserRepository(backend));
+            ShipmentRepository shipments = register(EntityReference.SHIPMENTS, new ShipmentRepository(backend));
+            users.save(user);
+            shipments.save(shipment);
+        }
+
+        repositories.clear();
+        try (MVStoreBackend backend = open(file)) {
+            UserRepository users = register(EntityReference.USERS, new UserRepository(backend));
+            ShipmentRepository shipments = register(EntityReference.SHIPMENTS, new ShipmentRepository(backend));
+
+            Shipment restored = shipments.findById(shipment.getId()).orElseThrow();
+            User restoredUser = users.findById(user.getId()).orElseThrow();
+            assertSame(restoredUser, restored.getUser(), "La referencia se resuelve a la instancia del repositorio");
+            assertSame(restored, shipments.findById(shipment.getId()).orElseThrow());
+            assertSame(restored, restoredUser.getShipmentHistory().get(0));
+            assertEquals(List.of(restored), shipments.findByStatus(ShipmentStatus.PENDING));
+            assertEquals(List.of(restored), shipments.findByUserId(user.getId()));
+
+            restored.setStatus(ShipmentStatus.DELIVERED);
+            shipments.update(restored);
+            shipments.deleteById(restored.getId());
+            assertFalse(shipments.existsById(restored.getId()));
+            assertEquals(0, shipments.count());
+            assertEquals(1, users.count());
+        }
+    }
+
+    @Test
+    public void testPagingMatchesMemoryBackend() throws IOException {
+        List<User> created = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            created.add(user("Usuario" + i));
+        }
+
+        UserRepository memory = new UserRepository();
+        created.forEach(memory::save);
+
+        try (MVStoreBackend backend = open(tempDir.resolve("paged.mv.db"))) {
+            UserRepository stored = register(EntityReference.USERS, new UserRepository(backend));
+            created.forEach(stored::save);
+
+            List<UUID> expected = created.stream().map(User::getId).sorted().collect(Collectors.toList());
+            for (UserRepository repository : List.of(memory, stored)) {
+                List<UUID> paged = new ArrayList<>();
+                for (int offset = 0; offset < 30; offset += 10) {
+                    List<User> page = repository.findAll(offset, 10);
+                    assertTrue(page.size() <= 10);
+                    page.forEach(u -> paged.add(u.getId()));
+                }
+                assertEquals(expected, paged, "Las páginas recorren todas las entidades en orden de ID");
+                assertTrue(repository.findAll(25, 10).isEmpty());
+
+                List<UUID> byCursor = new ArrayList<>();
+                String cursor = null;
+                do {
+                    PaginatedDataDTO<User> page = repository.findAfter(cursor != null ? UUID.fromString(cursor) : null, 10);
+                    page.getItems().forEach(u -> byCursor.add(u.getId()));
+                    cursor = page.getNextCursor();
+                } while (cursor != null);
+                assertEquals(expected, byCursor);
+            }
+        }
+    }
+
+    @Test
+    public void testDefaultBackendCannotChangeOnceUsed() throws IOException {
+        new UserRepository();
+        try (MVStoreBackend backend = open(tempDir.resolve("late.mv.db"))) {
+            assertThrows(IllegalStateException.class, () -> BaseRepository.useStorageBackend(backend));
+            assertSame(StorageBackend.MEMORY, BaseRepository.getStorageBackend());
+        }
+    }
+
+    private MVStoreBackend open(Path file) throws IOException {
+        return MVStoreBackend.open(file, 100,
+            reference -> repositories.get(reference.getKind()).findById(reference.getId()).orElse(null));
+    }
+
+    private <R extends BaseRepository<?>> R register(String name, R repository) {
+        repositories.put(name, repository);
+        return repository;
+    }
+
+    private static User user(String name) {
+        return User.builder()
+            .id(UUID.randomUUID())
+            .name(name)
+            .email(name.toLowerCase() + "@uq.edu.co")
+            .role(UserRole.CLIENT)
+            .build();
+    }
+}
@@ -0,0 +1,219 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.*;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.*;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.AppStateCodec;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.EntityReference;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.MappedSnapshot;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.BaseRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.DelivererRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.ShipmentRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.UserRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.util.AppState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para MappedSnapshot
+ * Valida la carga diferida de los repositorios desde un snapshot mapeado en memoria
+ */
+public class MappedSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MappedSnapshot snapshot;
+    private UserRepository userRepository;
+    private DelivererRepository delivererRepository;
+    private ShipmentRepository shipmentRepository;
+
+    private User user;
+    private Deliverer deliverer;
+    private List<Shipment> shipments;
+    private AppState state;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        Address home = Address.builder().id(UUID.randomUUID()).street("Calle 10").city("Armenia").build();
+        user = User.builder()
+            .id(UUID.randomUUID())
+            .name("Ana")
+            .email("ana@uq.edu.co")
+            .role(UserRole.CLIENT)
+            .addresses(new ArrayList<>(List.of(home)))
+            .build();
+        deliverer = Deliverer.builder().id(UUID.randomUUID()).name("Luis").status(DelivererStatus.AVAILABLE).build();
+
+        shipments = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Shipment shipment = Shipment.builder()
+                .id(UUID.randomUUID())
+                .user(user)
+                .deliverer(deliverer)
+                .origin(home)
+                .destination(home)
+                .status(i % 2 == 0 ? ShipmentStatus.PENDING : ShipmentStatus.DELIVERED)
+                .build();
+            user.getShipmentHistory().add(shipment);
+            deliverer.getShipmentHistory().add(shipment);
+            shipments.add(shipment);
+        }
+
+        state = new AppState();
+        state.setUsers(new ArrayList<>(List.of(user)));
+        state.setDeliverers(new ArrayList<>(List.of(deliverer)));
+        state.setShipments(new ArrayList<>(shipments));
+        state.setAddresses(new ArrayList<>(List.of(home)));
+        state.setJournalGeneration(3);
+
+        Path file = write("app_state.bin");
+
+        userRepository = new UserRepository();
+        delivererRepository = new DelivererRepository();
+        shipmentRepository = new ShipmentRepository();
+        Map<String, BaseRepository<?>> repositories = Map.of(
+            EntityReference.USERS, userRepository,
+            EntityReference.DELIVERERS, delivererRepository,
+            EntityReference.SHIPMENTS, shipmentRepository);
+
+        snapshot = MappedSnapshot.open(file);
+        snapshot.setResolver(reference -> {
+            BaseRepository<?> repository = repositories.get(reference.getKind());
+            return repository != null ? repository.findById(reference.getId()).orElse(null) : null;
+        });
+        userRepository.loadLazily(snapshot.source(EntityReference.USERS));
+        delivererRepository.loadLazily(snapshot.source(EntityReference.DELIVERERS));
+        shipmentRepository.loadLazily(snapshot.source(EntityReference.SHIPMENTS));
+    }
+
+    private Path write(String name) throws IOException {
+        Path file = tempDir.resolve(name);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            AppStateCodec.write(state, out);
+        }
+        return file;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        snapshot.close();
+    }
+
+    @Test
+    public void testFindByIdMaterializesOnlyRequestedEntities() {
+        assertEquals(3, snapshot.getJournalGeneration());
+        assertEquals(5, snapshot.count(EntityReference.SHIPMENTS));
+
+        Shipment shipment = shipmentRepository.findById(shipments.get(2).getId()).orElseThrow();
+
+        assertEquals(1, shipmentRepository.getLoadedEntities().size(), "Solo debe materializarse el envío pedido");
+        assertSame(userRepository.findById(user.getId()).orElseThrow(), shipment.getUser());
+        assertSame(delivererRepository.findById(deliverer.getId()).orElseThrow(), shipment.getDeliverer());
+        assertEquals(1, userRepository.getLoadedEntities().size());
+    }
+
+    @Test
+    public void testHistoryResolvesToRepositoryInstances() {
+        User restored = userRepository.findById(user.getId()).orElseThrow();
+
+        List<Shipment> history = restored.getShipmentHistory();
+        assertEquals(5, history.size());
+        for (Shipment shipment : history) {
+            assertSame(shipmentRepository.findById(shipment.getId()).orElseThrow(), shipment);
+            assertSame(restored, shipment.getUser());
+        }
+    }
+
+    @Test
+    public void testIndexQueriesMaterializeOnlyMatches() {
+        assertTrue(shipmentRepository.existsById(shipments.get(0).getId()));
+        assertTrue(shipmentRepository.getLoadedEntities().isEmpty());
+
+        // Los índices se construyen con el registro de claves del snapshot
+        assertEquals(3, shipmentRepository.findByStatus(ShipmentStatus.PENDING).size());
+        assertEquals(3, shipmentRepository.getLoadedEntities().size());
+
+        assertEquals(5, shipmentRepository.count());
+    }
+
+    @Test
+    public void testIndexQueriesSeeChangesToUnloadedEntities() {
+        UUID deleted = shipments.get(0).getId();
+        shipmentRepository.deleteById(deleted);
+        Shipment changed = shipmentRepository.findById(shipments.get(1).getId()).orElseThrow();
+        changed.setStatus(ShipmentStatus.PENDING);
+        shipmentRepository.update(changed);
+
+        List<Shipment> pending = shipmentRepository.findByStatus(ShipmentStatus.PENDING);
+        assertEquals(3, pending.size());
+        assertTrue(pending.stream().noneMatch(s -> s.getId().equals(deleted)));
+        assertTrue(pending.contains(changed));
+        assertEquals(1, shipmentRepository.findByStatus(ShipmentStatus.DELIVERED).size());
+    }
+
+    @Test
+    public void testDeletedEntityIsNotReloadedFromSnapshot() {
+        UUID id = shipments.get(1).getId();
+
+        shipmentRepository.deleteById(id);
+
+        assertFalse(shipmentRepository.findById(id).isPresent());
+        assertFalse(shipmentRepository.existsById(id));
+        assertEquals(4, shipmentRepository.findAll().size());
+    }
+
+    @Test
+    public void testDamagedRecordIsDetectedWhenMaterialized() throws IOException {
+        Shipment damagedShipment = shipments.get(2);
+        damagedShipment.setSpecialInstructions("registro-a-corromper");
+        Path file = write("danado.bin");
+        byte[] content = Files.readAllBytes(file);
+        byte[] marker = "registro-a-corromper".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        int offset = indexOf(content, marker);
+        assertTrue(offset > 0);
+        content[offset] ^= 0x20;
+        Files.write(file, content);
+
+        // Abrir no lee los registros: el daño aparece al materializar el envío
+        ShipmentRepository repository = new ShipmentRepository();
+        List<IOException> damages = new ArrayList<>();
+        try (MappedSnapshot damaged = MappedSnapshot.open(file)) {
+            damaged.setResolver(reference -> EntityReference.USERS.equals(reference.getKind())
+                ? userRepository.findById(reference.getId()).orElse(null)
+                : delivererRepository.findById(reference.getId()).orElse(null));
+            damaged.setDamageHandler(cause -> {
+                damages.add(cause);
+                // Como DataManager: las entidades pendientes pasan a leerse de la otra generación
+                repository.replaceSource(snapshot.source(EntityReference.SHIPMENTS));
+            });
+            repository.loadLazily(damaged.source(EntityReference.SHIPMENTS));
+
+            assertTrue(repository.findById(shipments.get(0).getId()).isPresent());
+            assertTrue(damages.isEmpty());
+
+            Shipment restored = repository.findById(damagedShipment.getId()).orElseThrow();
+            assertEquals(1, damages.size(), "El registro dañado debe informarse una vez");
+            assertNull(restored.getSpecialInstructions(), "El envío debe leerse de la otra generación");
+            assertEquals(5, repository.count());
+        }
+    }
+
+    private static int indexOf(byte[] content, byte[] marker) {
+        for (int i = 0; i + marker.length <= content.length; i++) {
+            if (Arrays.equals(content, i, i + marker.length, marker, 0, marker.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,226 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Address;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.DelivererStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.Route;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.RouteStop;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.service.MultiStopRouteOptimizer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.DijkstraRoutingStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para el optimizador de rutas de varias paradas
+ * Valida que cada recogida preceda a su entrega, que el orden encontrado sea óptimo
+ * en instancias pequeñas, que los tramos se unan en una sola ruta coherente y que esa
+ * ruta se pueda cortar en la entrega de un envío
+ */
+public class MultiStopRouteOptimizerTest {
+
+    private static final MultiStopRouteOptimizer.TravelTime HAVERSINE =
+        (from, to) -> from.distanceTo(to) / 30.0 * 3600.0;
+
+    private final MultiStopRouteOptimizer optimizer =
+        new MultiStopRouteOptimizer(HAVERSINE, new DijkstraRoutingStrategy()::calculateRoute);
+
+    @Test
+    public void testOrderMatchesExhaustiveSearchAndKeepsPrecedence() {
+        Random random = new Random(7);
+        for (int round = 0; round < 25; round++) {
+            Coordinates start = randomPoint(random);
+            List<RouteStop> stops = new ArrayList<>();
+            int shipments = 1 + random.nextInt(3);
+            for (int i = 0; i < shipments; i++) {
+                UUID id = UUID.randomUUID();
+                stops.add(stop(id, RouteStop.StopType.PICKUP, randomPoint(random)));
+                stops.add(stop(id, RouteStop.StopType.DROPOFF, randomPoint(random)));
+            }
+            stops.add(stop(UUID.randomUUID(), RouteStop.StopType.DROPOFF, randomPoint(random)));
+            Collections.shuffle(stops, random);
+
+            List<RouteStop> ordered = optimizer.orderStops(start, stops);
+            assertEquals(stops.size(), ordered.size());
+            assertTrue(ordered.containsAll(stops));
+            assertTrue(respectsPrecedence(ordered), "Cada recogida va antes de su entrega");
+
+            double best = bestCost(start, stops, new ArrayList<>(), new boolean[stops.size()], Double.MAX_VALUE);
+            assertEquals(best, cost(start, ordered), 1e-6, "El orden es el de menor tiempo total");
+        }
+    }
+
+    @Test
+    public void testLargeInstancesImproveOnNearestNeighbour() {
+        Random random = new Random(19);
+        for (int round = 0; round < 10; round++) {
+            Coordinates start = randomPoint(random);
+            List<RouteStop> stops = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                UUID id = UUID.randomUUID();
+                stops.add(stop(id, RouteStop.StopType.PICKUP, randomPoint(random)));
+                stops.add(stop(id, RouteStop.StopType.DROPOFF, randomPoint(random)));
+            }
+
+            List<RouteStop> ordered = optimizer.orderStops(start, stops);
+            assertEquals(stops.size(), new HashSet<>(ordered).size());
+            assertTrue(respectsPrecedence(ordered));
+            assertTrue(cost(start, ordered) <= cost(start, nearestNeighbour(start, stops)) + 1e-6,
+                "La búsqueda local nunca empeora el recorrido inicial");
+        }
+    }
+
+    @Test
+    public void testStopsForDelivererAndStitchedRoute() throws Exception {
+        Deliverer deliverer = Deliverer.builder()
+            .id(UUID.randomUUID())
+            .name("Repartidor")
+            .status(DelivererStatus.IN_SERVICE)
+            .build();
+        deliverer.updateRealPosition(4.530, -75.680);
+
+        Shipment assigned = shipment(ShipmentStatus.ASSIGNED, 4.535, -75.675, 4.550, -75.660);
+        Shipment inTransit = shipment(ShipmentStatus.IN_TRANSIT, 4.520, -75.690, 4.532, -75.678);
+        Shipment delivered = shipment(ShipmentStatus.DELIVERED, 4.520, -75.690, 4.540, -75.670);
+        deliverer.getCurrentShipments().add(assigned);
+        deliverer.getCurrentShipments().add(inTransit);
+        deliverer.getCurrentShipments().add(delivered);
+
+        List<RouteStop> stops = optimizer.stopsFor(deliverer);
+        assertEquals(3, stops.size(), "Asignado: recogida y entrega; en tránsito: solo entrega");
+
+        Route route = optimizer.optimizeRoute(deliverer);
+        assertTrue(route.isValid());
+        assertEquals(3, route.getStops().size());
+        assertTrue(respectsPrecedence(route.getStops()));
+        assertEquals(inTransit.getId(), route.getStops().get(0).getShipmentId(), "La entrega cercana va primero");
+
+        // Distancia y secuencia acumuladas a lo largo de todos los tramos
+        double expected = 0;
+        Coordinates previous = new Coordinates(4.530, -75.680);
+        for (RouteStop stop : route.getStops()) {
+            expected += previous.distanceTo(stop.getCoordinates()) * 1000.0;
+            previous = stop.getCoordinates();
+            assertEquals(stop.getCoordinates(), route.getWaypoints().get(stop.getWaypointIndex()).getCoordinates());
+        }
+        assertEquals(expected, route.getStatistics().getTotalDistanceMeters(), 1.0);
+        assertEquals(route.getWaypoints().size(), route.getStatistics().getWaypointCount());
+        for (int i = 0; i < route.getWaypoints().size(); i++) {
+            assertEquals(i, route.getWaypoints().get(i).getSequence());
+            if (i > 0) {
+                assertTrue(route.getWaypoints().get(i).getDistanceFromStart()
+                    >= route.getWaypoints().get(i - 1).getDistanceFromStart());
+            }
+        }
+        assertEquals(previous, route.getDestination());
+
+        // La ruta hasta una entrega es el mismo recorrido cortado en esa parada
+        Route toFirst = optimizer.optimizeRouteTo(deliverer, inTransit.getId());
+        RouteStop first = route.getStops().get(0);
+        assertEquals(1, toFirst.getStops().size());
+        assertEquals(first.getCoordinates(), toFirst.getDestination());
+        assertEquals(first.getWaypointIndex() + 1, toFirst.getWaypoints().size());
+        assertEquals(route.getWaypoints().get(first.getWaypointIndex()).getDistanceFromStart(),
+            toFirst.getStatistics().getTotalDistanceMeters(), 1e-9);
+        assertEquals(route.getStatistics().getTotalDistanceMeters(),
+            optimizer.optimizeRouteTo(deliverer, assigned.getId()).getStatistics().getTotalDistanceMeters(), 1.0);
+        assertThrows(IllegalStateException.class, () -> optimizer.optimizeRouteTo(deliverer, delivered.getId()));
+    }
+
+    private static boolean respectsPrecedence(List<RouteStop> ordered) {
+        Set<UUID> pickedUp = new HashSet<>();
+        Set<UUID> pickups = new HashSet<>();
+        for (RouteStop stop : ordered) {
+            if (stop.getType() == RouteStop.StopType.PICKUP) {
+                pickups.add(stop.getShipmentId());
+            }
+        }
+        for (RouteStop stop : ordered) {
+            if (stop.getType() == RouteStop.StopType.PICKUP) {
+                pickedUp.add(stop.getShipmentId());
+            } else if (pickups.contains(stop.getShipmentId()) && !pickedUp.contains(stop.getShipmentId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<RouteStop> nearestNeighbour(Coordinates start, List<RouteStop> stops) {
+        List<RouteStop> remaining = new ArrayList<>(stops);
+        List<RouteStop> ordered = new ArrayList<>();
+        Coordinates current = start;
+        while (!remaining.isEmpty()) {
+            RouteStop best = null;
+            for (RouteStop stop : remaining) {
+                boolean pickupPending = stop.getType() == RouteStop.StopType.DROPOFF && remaining.stream()
+                    .anyMatch(other -> other.getType() == RouteStop.StopType.PICKUP
+                        && other.getShipmentId().equals(stop.getShipmentId()));
+                if (!pickupPending && (best == null
+                        || HAVERSINE.seconds(current, stop.getCoordinates()) < HAVERSINE.seconds(current, best.getCoordinates()))) {
+                    best = stop;
+                }
+            }
+            remaining.remove(best);
+            ordered.add(best);
+            current = best.getCoordinates();
+        }
+        return ordered;
+    }
+
+    /**
+     * Búsqueda exhaustiva del recorrido factible de menor costo
+     */
+    private static double bestCost(Coordinates start, List<RouteStop> stops, List<RouteStop> prefix,
+                                   boolean[] used, double best) {
+        if (prefix.size() == stops.size()) {
+            return respectsPrecedence(prefix) ? Math.min(best, cost(start, prefix)) : best;
+        }
+        for (int i = 0; i < stops.size(); i++) {
+            if (!used[i]) {
+                used[i] = true;
+                prefix.add(stops.get(i));
+                best = bestCost(start, stops, prefix, used, best);
+                prefix.remove(prefix.size() - 1);
+                used[i] = false;
+            }
+        }
+        return best;
+    }
+
+    private static double cost(Coordinates start, List<RouteStop> ordered) {
+        double total = 0;
+        Coordinates previous = start;
+        for (RouteStop stop : ordered) {
+            total += HAVERSINE.seconds(previous, stop.getCoordinates());
+            previous = stop.getCoordinates();
+        }
+        return total;
+    }
+
+    private static RouteStop stop(UUID shipmentId, RouteStop.StopType type, Coordinates coordinates) {
+        return RouteStop.builder().shipmentId(shipmentId).type(type).coordinates(coordinates).build();
+    }
+
+    private static Coordinates randomPoint(Random random) {
+        return new Coordinates(4.50 + random.nextDouble() * 0.08, -75.72 + random.nextDouble() * 0.08);
+    }
+
+    private static Shipment shipment(ShipmentStatus status, double originLat, double originLng,
+                                     double destinationLat, double destinationLng) {
+        Address origin = Address.builder().id(UUID.randomUUID()).build();
+        origin.setGpsCoordinates(originLat, originLng);
+        Address destination = Address.builder().id(UUID.randomUUID()).build();
+        destination.setGpsCoordinates(destinationLat, destinationLng);
+        return Shipment.builder()
+            .id(UUID.randomUUID())
+            .origin(origin)
+            .destination(destination)
+            .status(status)
+            .build();
+    }
+}
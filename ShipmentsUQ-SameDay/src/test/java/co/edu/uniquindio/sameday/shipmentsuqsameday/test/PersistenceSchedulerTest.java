@@ -0,0 +1,99 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.PersistenceScheduler;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para PersistenceScheduler
+ * Valida la agrupación de mutaciones y el flush explícito
+ */
+public class PersistenceSchedulerTest {
+
+    @Test
+    public void testBurstOfMutationsIsFlushedOnce() throws Exception {
+        List<Set<String>> batches = new CopyOnWriteArrayList<>();
+        CountDownLatch flushed = new CountDownLatch(1);
+        try (PersistenceScheduler scheduler = new PersistenceScheduler(200, dirty -> {
+            batches.add(dirty);
+            flushed.countDown();
+        })) {
+            for (int i = 0; i < 100; i++) {
+                scheduler.markDirty(i % 2 == 0 ? "shipments" : "deliverers");
+            }
+
+            assertTrue(flushed.await(5, TimeUnit.SECONDS));
+            assertEquals(1, batches.size(), "La ráfaga debe escribirse en un solo flush");
+            assertEquals(new TreeSet<>(List.of("deliverers", "shipments")), batches.get(0));
+            assertEquals(100, scheduler.getMutationCount());
+            assertTrue(scheduler.getDirtyRepositories().isEmpty());
+        }
+    }
+
+    @Test
+    public void testFlushAndWaitWritesImmediately() throws Exception {
+        List<Set<String>> batches = new CopyOnWriteArrayList<>();
+        try (PersistenceScheduler scheduler = new PersistenceScheduler(60_000, batches::add)) {
+            scheduler.markDirty("users");
+
+            scheduler.flushAndWait();
+
+            assertEquals(List.of(Set.of("users")), batches);
+            assertEquals(1, scheduler.getFlushCount());
+        }
+    }
+
+    @Test
+    public void testFailedFlushKeepsRepositoriesDirty() throws Exception {
+        boolean[] fail = {true};
+        try (PersistenceScheduler scheduler = new PersistenceScheduler(60_000, dirty -> {
+            if (fail[0]) {
+                throw new IOException("disco lleno");
+            }
+        })) {
+            scheduler.markDirty("payments");
+
+            assertThrows(IOException.class, scheduler::flushAndWait);
+            assertEquals(Set.of("payments"), scheduler.getDirtyRepositories());
+            assertEquals(1, scheduler.getFailureCount());
+
+            fail[0] = false;
+            scheduler.flushAndWait();
+            assertTrue(scheduler.getDirtyRepositories().isEmpty());
+            assertEquals(0, scheduler.getConsecutiveFailureCount());
+        }
+    }
+
+    @Test
+    public void testFailedFlushRetriesWithBackoff() throws Exception {
+        List<Long> attempts = new CopyOnWriteArrayList<>();
+        try (PersistenceScheduler scheduler = new PersistenceScheduler(0, dirty -> {
+            attempts.add(System.nanoTime());
+            if (attempts.size() < 4) {
+                throw new IOException("disco lleno");
+            }
+        })) {
+            scheduler.markDirty("shipments");
+
+            // Reintentos a 100, 200 y 400 ms: el cuarto intento funciona
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (scheduler.getFlushCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(4, attempts.size());
+            assertTrue(scheduler.getDirtyRepositories().isEmpty());
+            assertEquals(3, scheduler.getFailureCount());
+            assertEquals(0, scheduler.getConsecutiveFailureCount());
+            long firstGap = attempts.get(2) - attempts.get(1);
+            long secondGap = attempts.get(3) - attempts.get(2);
+            assertTrue(secondGap > firstGap * 3 / 2, "La espera crece con cada fallo seguido");
+        }
+    }
+}
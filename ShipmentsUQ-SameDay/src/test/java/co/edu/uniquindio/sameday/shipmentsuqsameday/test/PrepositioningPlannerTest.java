@@ -0,0 +1,176 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Address;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.dto.RepositioningMoveDTO;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.DelivererStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentPriority;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.DelivererRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.ShipmentRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.DelivererService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.PrepositioningPlanner;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.strategy.GridCoordinateStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para el planificador de ubicación de repartidores
+ * Valida los mapas de demanda por hora y celda del Grid, que los repartidores libres se
+ * repartan entre los focos de demanda reduciendo la distancia de recogida esperada, y que
+ * los repartidores con envíos no se muevan pero cuenten como cobertura, y el ciclo periódico
+ */
+public class PrepositioningPlannerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    private ShipmentRepository shipmentRepository;
+    private DelivererRepository delivererRepository;
+    private DelivererService delivererService;
+    private PrepositioningPlanner planner;
+
+    @BeforeEach
+    public void setUp() {
+        shipmentRepository = new ShipmentRepository();
+        delivererRepository = new DelivererRepository();
+        delivererService = DelivererService.getInstance(delivererRepository);
+        planner = new PrepositioningPlanner(shipmentRepository, delivererService);
+
+        // 10 días: a las 8 dos focos (30, 70) y (70, 60); a las 18 uno en (70, 30)
+        Random random = new Random(20);
+        for (int day = 0; day < 10; day++) {
+            LocalDateTime date = START.plusDays(day);
+            for (int i = 0; i < 6; i++) {
+                history(date.withHour(8).withMinute(random.nextInt(60)), 30 + random.nextDouble(), 70 + random.nextDouble());
+            }
+            for (int i = 0; i < 3; i++) {
+                history(date.withHour(8).withMinute(random.nextInt(60)), 70 + random.nextDouble(), 60 + random.nextDouble());
+            }
+            for (int i = 0; i < 4; i++) {
+                history(date.withHour(18).withMinute(random.nextInt(60)), 70 + random.nextDouble(), 30 + random.nextDouble());
+            }
+        }
+        // Fuera del rango del historial
+        history(START.minusDays(5).withHour(8), 10, 10);
+    }
+
+    @Test
+    public void testHourlyHeatmaps() {
+        assertEquals(130, planner.rebuild(START, START.plusDays(10)));
+
+        double[] morning = planner.heatmap(8);
+        int columns = (int) Math.sqrt(morning.length);
+        assertEquals(6.0, morning[14 * columns + 6], 1e-9, "Seis envíos diarios en la celda (30, 70)");
+        assertEquals(3.0, morning[12 * columns + 14], 1e-9);
+        assertEquals(0.0, morning[6 * columns + 14], 1e-9, "El foco de las 18 no aparece a las 8");
+        assertEquals(0.0, morning[2 * columns + 2], 1e-9, "Los envíos fuera del rango no cuentan");
+        assertEquals(3.0, planner.heatmap(9)[14 * columns + 6], 1e-9, "Las horas vecinas pesan la mitad");
+        assertEquals(4.0, planner.heatmap(18)[6 * columns + 14], 1e-9);
+    }
+
+    @Test
+    public void testIdleCouriersMoveToDemandPeaks() {
+        planner.rebuild(START, START.plusDays(10));
+        Deliverer first = delivererRepository.save(deliverer(40, 40));
+        Deliverer second = delivererRepository.save(deliverer(45, 52));
+        Deliverer gps = deliverer(0, 0);
+        double[] gpsPosition = GridCoordinateStrategy.convertGridToReal(72, 59);
+        gps.updateRealPosition(gpsPosition[0], gpsPosition[1]);
+        delivererRepository.save(gps);
+
+        // Dos focos a las 8: el repartidor GPS ya cubre (70, 60) y el más cercano va a (30, 70)
+        List<RepositioningMoveDTO> moves = planner.reposition(LocalDateTime.of(2024, 4, 2, 8, 0));
+        assertEquals(1, moves.size());
+        assertEquals(second.getId(), moves.get(0).getDelivererId());
+        assertNear(second, 30.5, 70.5);
+        assertEquals(40, first.getCurrentX(), 1e-9, "Sin foco libre el repartidor se queda donde está");
+        assertEquals(72, gps.getCurrentX(), 1e-6, "Los movimientos de menos de una celda no se recomiendan");
+
+        Map<String, Object> stats = planner.getStatistics();
+        assertTrue((double) stats.get("lastExpectedPickupDistanceAfter")
+            < (double) stats.get("lastExpectedPickupDistanceBefore"));
+        assertEquals(1L, stats.get("movesApplied"));
+
+        // A las 18 el foco de (70, 30) lo toma el más cercano y sus coordenadas GPS siguen al Grid
+        moves = planner.reposition(LocalDateTime.of(2024, 4, 2, 18, 10));
+        assertEquals(1, moves.size());
+        assertNear(gps, 70.5, 30.5);
+        double[] grid = GridCoordinateStrategy.convertRealToGrid(gps.getRealLatitude(), gps.getRealLongitude());
+        assertEquals(gps.getCurrentX(), grid[0], 1e-6);
+        assertEquals(gps.getCurrentY(), grid[1], 1e-6);
+        assertEquals(List.of(gps), delivererRepository.findNearestByGps(gps.getRealLatitude(), gps.getRealLongitude(),
+            1, d -> true), "El índice GPS sigue la nueva posición");
+    }
+
+    @Test
+    public void testBusyCouriersStayAndCoverTheirArea() {
+        planner.rebuild(START, START.plusDays(10));
+        Deliverer busy = delivererRepository.save(deliverer(30, 70));
+        assertTrue(delivererService.assignShipment(busy, shipmentRepository.findAll().get(0)));
+        Deliverer idle = delivererRepository.save(deliverer(50, 50));
+
+        List<RepositioningMoveDTO> moves = planner.reposition(LocalDateTime.of(2024, 4, 2, 8, 0));
+        assertEquals(1, moves.size());
+        assertEquals(idle.getId(), moves.get(0).getDelivererId());
+        assertNear(idle, 70.5, 60.5);
+        assertEquals(30, busy.getCurrentX(), 1e-9);
+        assertTrue(planner.plan(LocalDateTime.of(2024, 4, 2, 8, 0)).isEmpty(), "Ya ubicados, no hay más movimientos");
+    }
+
+    @Test
+    public void testCycleUsesRecentHistoryAndCanBeScheduled() {
+        Deliverer idle = delivererRepository.save(deliverer(45, 52));
+
+        // El ciclo toma las últimas semanas, incluido el envío anterior al 1 de marzo
+        List<RepositioningMoveDTO> moves = planner.runCycle(START.plusDays(10).withHour(8));
+        assertEquals(1, moves.size());
+        assertNear(idle, 30.5, 70.5);
+        Map<String, Object> stats = planner.getStatistics();
+        assertEquals(131L, stats.get("shipmentsIndexed"));
+        assertEquals(1L, stats.get("cycles"));
+
+        assertThrows(IllegalArgumentException.class, () -> planner.start(0));
+        planner.start(60_000);
+        assertTrue(planner.isScheduled());
+        planner.close();
+        assertFalse(planner.isScheduled());
+        planner.start(60_000);
+        assertFalse(planner.isScheduled(), "Cerrado no se vuelve a programar");
+    }
+
+    private static void assertNear(Deliverer deliverer, double... points) {
+        for (int i = 0; i < points.length; i += 2) {
+            if (Math.hypot(deliverer.getCurrentX() - points[i], deliverer.getCurrentY() - points[i + 1]) < 1) {
+                return;
+            }
+        }
+        fail("Repartidor en " + deliverer.getCurrentX() + ", " + deliverer.getCurrentY());
+    }
+
+    private void history(LocalDateTime creation, double x, double y) {
+        Address origin = Address.builder().id(UUID.randomUUID()).coordX(x).coordY(y).build();
+        shipmentRepository.save(Shipment.builder()
+            .id(UUID.randomUUID())
+            .origin(origin)
+            .priority(ShipmentPriority.STANDARD)
+            .status(ShipmentStatus.DELIVERED)
+            .creationDate(creation)
+            .build());
+    }
+
+    private static Deliverer deliverer(double x, double y) {
+        return Deliverer.builder()
+            .id(UUID.randomUUID())
+            .name("Repartidor")
+            .status(DelivererStatus.AVAILABLE)
+            .currentX(x)
+            .currentY(y)
+            .build();
+    }
+}
@@ -0,0 +1,127 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.DistanceMatrix;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.Route;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.OsmGraphLoader;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.graph.RoadGraph;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.RoadGraphRoutingStrategy;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.RoutingException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para el ruteo sobre el grafo vial de OpenStreetMap
+ * Valida la carga del extracto (solo vías aptas, sentidos y velocidades), las rutas de
+ * menor tiempo por las calles, la matriz de uno a muchos y el fallo fuera del área
+ */
+public class RoadGraphRoutingTest {
+
+    // A -- B residencial doble sentido, B -> C primaria de un sentido a 60 km/h,
+    // C -- D residencial, D -- A peatonal, E fuera de toda vía
+    static final String EXTRACT = """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <osm version="0.6">
+          <node id="1" lat="4.5300000" lon="-75.6800000"/>
+          <node id="2" lat="4.5300000" lon="-75.6700000"/>
+          <node id="3" lat="4.5400000" lon="-75.6700000"/>
+          <node id="4" lat="4.5400000" lon="-75.6800000"/>
+          <node id="5" lat="4.5350000" lon="-75.6750000"/>
+          <way id="10"><nd ref="1"/><nd ref="2"/><tag k="highway" v="residential"/></way>
+          <way id="11"><nd ref="2"/><nd ref="3"/><tag k="highway" v="primary"/>
+            <tag k="oneway" v="yes"/><tag k="maxspeed" v="60"/></way>
+          <way id="12"><nd ref="3"/><nd ref="4"/><nd ref="99"/><tag k="highway" v="residential"/></way>
+          <way id="13"><nd ref="4"/><nd ref="1"/><tag k="highway" v="footway"/></way>
+          <way id="14"><nd ref="5"/><nd ref="1"/><tag k="building" v="yes"/></way>
+        </osm>
+        """;
+
+    private static final Coordinates A = new Coordinates(4.53, -75.68);
+    private static final Coordinates C = new Coordinates(4.54, -75.67);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testLoadKeepsRoutableWays() throws IOException {
+        RoadGraph graph = new OsmGraphLoader().load(write("extracto.osm.gz"));
+
+        assertEquals(4, graph.getNodeCount(), "Solo los nodos usados por vías aptas");
+        assertEquals(5, graph.getEdgeCount(), "Doble sentido aporta dos aristas, un sentido una");
+        int a = graph.nearestNode(4.5301, -75.6801);
+        assertEquals(4.53, graph.getLatitude(a), 1e-7);
+        assertEquals(-75.68, graph.getLongitude(a), 1e-7);
+        assertEquals(1, graph.endEdge(a) - graph.firstEdge(a), "La vía peatonal no genera aristas");
+        assertEquals(graph.edgeMeters(graph.firstEdge(a)) / (25 / 3.6), graph.edgeSeconds(graph.firstEdge(a)), 1e-2);
+        assertThrows(IOException.class, () -> new OsmGraphLoader().load(directory.resolve("extracto.osm.pbf")),
+            "El formato PBF no está soportado");
+    }
+
+    @Test
+    public void testRouteFollowsStreetsAndOneway() throws Exception {
+        RoadGraphRoutingStrategy strategy = new RoadGraphRoutingStrategy(write("extracto.osm"));
+        assertTrue(strategy.isAvailable());
+
+        Route route = strategy.calculateRoute(A, C);
+        double ab = haversine(A, new Coordinates(4.53, -75.67));
+        double bc = haversine(new Coordinates(4.53, -75.67), C);
+        assertEquals(ab + bc, route.getStatistics().getTotalDistanceMeters(), 1.0);
+        double seconds = ab / (25 / 3.6) + bc / (60 / 3.6);
+        assertEquals(seconds, route.getStatistics().getEstimatedDuration().toMillis() / 1000.0, 1.0);
+        assertEquals(5, route.getWaypoints().size(), "Origen, tres nodos viales y destino");
+        assertEquals(-75.67, route.getWaypoints().get(2).getCoordinates().getLongitude(), 1e-7);
+        assertEquals("RoadGraph", route.getCalculationStrategy());
+
+        assertThrows(RoutingException.class, () -> strategy.calculateRoute(C, A),
+            "La primaria es de un sentido y la peatonal no sirve de retorno");
+        assertThrows(RoutingException.class, () -> strategy.calculateRoute(A, new Coordinates(5.0, -75.0)),
+            "Los puntos fuera del extracto pasan a la siguiente estrategia");
+    }
+
+    @Test
+    public void testMatrixMatchesRoutes() throws Exception {
+        RoadGraphRoutingStrategy strategy = new RoadGraphRoutingStrategy(new OsmGraphLoader().load(write("extracto.osm")));
+        Coordinates nearA = new Coordinates(4.5302, -75.6801);
+        Coordinates nearD = new Coordinates(4.5399, -75.6802);
+
+        DistanceMatrix matrix = strategy.calculateMatrix(List.of(nearA, C), List.of(nearD, A, C));
+        Route route = strategy.calculateRoute(nearA, nearD);
+        assertEquals(route.getStatistics().getTotalDistanceMeters(), matrix.distanceMeters(0, 0), 1e-3);
+        assertEquals(route.getStatistics().getEstimatedDuration().toMillis() / 1000.0, matrix.durationSeconds(0, 0), 1e-2);
+        assertEquals(haversine(nearA, A), matrix.distanceMeters(0, 1), 1e-3);
+        assertTrue(Double.isNaN(matrix.distanceMeters(1, 1)), "Sin camino de C hacia A");
+        assertEquals(0.0, matrix.distanceMeters(1, 2), 1e-9);
+
+        RoadGraphRoutingStrategy missing = new RoadGraphRoutingStrategy(directory.resolve("no-existe.osm"));
+        assertFalse(missing.isAvailable());
+        assertThrows(RoutingException.class, () -> missing.calculateRoute(A, C));
+    }
+
+    private Path write(String name) throws IOException {
+        Path path = directory.resolve(name);
+        try (OutputStream out = name.endsWith(".gz")
+                ? new GZIPOutputStream(Files.newOutputStream(path)) : Files.newOutputStream(path)) {
+            out.write(EXTRACT.strip().getBytes(StandardCharsets.UTF_8));
+        }
+        return path;
+    }
+
+    private static double haversine(Coordinates c1, Coordinates c2) {
+        double deltaLat = Math.toRadians(c2.getLatitude() - c1.getLatitude());
+        double deltaLng = Math.toRadians(c2.getLongitude() - c1.getLongitude());
+        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2)
+            + Math.cos(Math.toRadians(c1.getLatitude())) * Math.cos(Math.toRadians(c2.getLatitude()))
+            * Math.sin(deltaLng / 2) * Math.sin(deltaLng / 2);
+        return 6_371_000.0 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
@@ -0,0 +1,74 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.Route;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.service.RouteCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para el cache de rutas
+ * Valida que solicitudes casi idénticas compartan la ruta redondeando las coordenadas,
+ * el descarte LRU al superar el máximo, el vencimiento por tiempo (también en segundo
+ * plano) y los contadores de aciertos, fallos y descartes
+ */
+public class RouteCacheTest {
+
+    private static final Coordinates CENTRO = new Coordinates(4.5339, -75.6811);
+    private static final Coordinates NORTE = new Coordinates(4.5500, -75.6600);
+    private static final Coordinates SUR = new Coordinates(4.5100, -75.6900);
+
+    @Test
+    public void testSnappingAndLruEviction() {
+        RouteCache cache = new RouteCache(2, 60_000, 5);
+        try {
+            Route route = Route.builder().build();
+            cache.put(CENTRO, NORTE, route);
+
+            // A menos de un metro se reutiliza la ruta; en sentido contrario no
+            assertSame(route, cache.get(new Coordinates(4.533902, -75.681098), NORTE));
+            assertNull(cache.get(NORTE, CENTRO));
+            assertNull(cache.get(new Coordinates(4.5342, -75.6811), NORTE), "A ~33 m es otro punto");
+
+            cache.put(CENTRO, SUR, Route.builder().build());
+            assertNotNull(cache.get(CENTRO, NORTE)); // CENTRO→SUR pasa a ser la menos usada
+            cache.put(NORTE, SUR, Route.builder().build());
+            assertEquals(2, cache.size());
+            assertNull(cache.get(CENTRO, SUR), "Se descarta la ruta usada hace más tiempo");
+            assertSame(route, cache.get(CENTRO, NORTE));
+
+            Map<String, Object> stats = cache.getStatistics();
+            assertEquals(3L, stats.get("hits"));
+            assertEquals(3L, stats.get("misses"));
+            assertEquals(1L, stats.get("evictions"));
+            assertEquals(0L, stats.get("expirations"));
+        } finally {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    public void testExpiration() throws InterruptedException {
+        RouteCache cache = new RouteCache(100, 50, 5);
+        try {
+            cache.put(CENTRO, NORTE, Route.builder().build());
+            cache.put(CENTRO, SUR, Route.builder().build());
+            assertNotNull(cache.get(CENTRO, NORTE));
+
+            // El hilo de fondo las elimina sin que nadie las consulte
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (cache.size() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(0, cache.size());
+            assertNull(cache.get(CENTRO, NORTE));
+            assertEquals(2L, cache.getStatistics().get("expirations"));
+        } finally {
+            cache.shutdown();
+        }
+        assertThrows(IllegalArgumentException.class, () -> new RouteCache(0, 1_000, 5));
+    }
+}
@@ -0,0 +1,219 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Address;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Incident;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.DelivererStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.IncidentType;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentPriority;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.DelivererRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.IncidentRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.ShipmentRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.service.DistanceMatrixService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.DijkstraRoutingStrategy;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.BatchDispatchService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.DelivererService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.IncidentService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.ShipmentReassignmentService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.ShipmentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para la reasignación de envíos en bloque
+ * Valida que un incidente de zona libere a los repartidores de la zona y reasigne todos
+ * sus envíos en un solo lote, y que una ráfaga de incidentes omita los resueltos y los
+ * repetidos sin devolver envíos a los repartidores no disponibles. Los incidentes reportados
+ * uno a uno se agrupan en un solo lote
+ */
+public class ShipmentReassignmentServiceTest {
+
+    private static final double CENTER_LAT = 4.533889;
+    private static final double CENTER_LNG = -75.681111;
+
+    private final DistanceMatrixService offlineMatrix = new DistanceMatrixService(List.of(new DijkstraRoutingStrategy()));
+
+    private ShipmentRepository shipmentRepository;
+    private IncidentService incidentService;
+    private ShipmentService shipmentService;
+    private DelivererRepository delivererRepository;
+    private DelivererService delivererService;
+    private BatchDispatchService dispatcher;
+    private ShipmentReassignmentService reassignmentService;
+
+    @BeforeEach
+    public void setUp() {
+        shipmentRepository = new ShipmentRepository();
+        delivererRepository = new DelivererRepository();
+        delivererService = DelivererService.getInstance(delivererRepository);
+        incidentService = new IncidentService(new IncidentRepository());
+        shipmentService = new ShipmentService(shipmentRepository, delivererService, incidentService);
+        dispatcher = new BatchDispatchService(shipmentRepository, delivererService, offlineMatrix, s -> true, 200);
+        reassignmentService = new ShipmentReassignmentService(shipmentService, incidentService,
+            delivererService, dispatcher, 1_000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        reassignmentService.close();
+    }
+
+    @Test
+    public void testZoneIncidentReassignsInOneBatch() {
+        List<Deliverer> north = new ArrayList<>();
+        List<Shipment> affected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Deliverer deliverer = delivererRepository.save(deliverer(CENTER_LAT + 0.1, CENTER_LNG + 0.01 * i));
+            north.add(deliverer);
+            for (int k = 0; k < 3; k++) {
+                affected.add(assigned(deliverer, CENTER_LAT + 0.09, CENTER_LNG + 0.01 * k));
+            }
+            assertEquals(DelivererStatus.IN_SERVICE, deliverer.getStatus());
+        }
+        List<Deliverer> center = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            center.add(delivererRepository.save(deliverer(CENTER_LAT, CENTER_LNG + 0.002 * i)));
+        }
+
+        // El cierre se reporta por el servicio de envíos y no espera a la ventana
+        shipmentService.setReassignmentService(reassignmentService);
+        assertEquals(9, shipmentService.reportZoneClosure("Norte", "Cierre vial"));
+        assertEquals(1, dispatcher.getMetrics().getRuns(), "Todos los envíos entran en un solo lote");
+        for (Deliverer deliverer : north) {
+            assertTrue(deliverer.getCurrentShipments().isEmpty());
+            assertEquals(DelivererStatus.AVAILABLE, deliverer.getStatus());
+        }
+        for (Shipment shipment : affected) {
+            assertEquals(ShipmentStatus.ASSIGNED, shipment.getStatus());
+            assertTrue(center.contains(shipment.getDeliverer()));
+            assertTrue(shipment.getDeliverer().getCurrentShipments().contains(shipment));
+            assertTrue(shipment.getSpecialInstructions().endsWith("Reasignado: Cierre vial"));
+        }
+        int total = 0;
+        for (Deliverer deliverer : center) {
+            assertTrue(deliverer.getCurrentShipments().size() <= 3);
+            assertEquals(deliverer.getCurrentShipments().size(), 3 - delivererService.getRemainingCapacity(deliverer));
+            total += deliverer.getCurrentShipments().size();
+        }
+        assertEquals(9, total);
+    }
+
+    @Test
+    public void testIncidentBurstSkipsResolvedAndUnavailable() {
+        Deliverer unavailable = delivererRepository.save(deliverer(CENTER_LAT, CENTER_LNG));
+        Deliverer blocked = delivererRepository.save(deliverer(CENTER_LAT + 0.001, CENTER_LNG));
+        Deliverer spare = delivererRepository.save(deliverer(CENTER_LAT + 0.03, CENTER_LNG));
+        Shipment first = assigned(unavailable, CENTER_LAT, CENTER_LNG);
+        Shipment second = assigned(unavailable, CENTER_LAT, CENTER_LNG);
+        Shipment third = assigned(blocked, CENTER_LAT, CENTER_LNG);
+        Shipment untouched = assigned(blocked, CENTER_LAT, CENTER_LNG);
+        Shipment delivered = assigned(spare, CENTER_LAT, CENTER_LNG);
+        delivered.setStatus(ShipmentStatus.DELIVERED);
+
+        List<UUID> incidents = List.of(
+            incident(first, IncidentType.DELIVERER_UNAVAILABLE, false),
+            incident(first, IncidentType.DELIVERER_UNAVAILABLE, false),
+            incident(second, IncidentType.OTHER, false),
+            incident(third, IncidentType.INACCESSIBLE_ZONE, false),
+            incident(untouched, IncidentType.INACCESSIBLE_ZONE, true),
+            incident(delivered, IncidentType.PACKAGE_DAMAGED, false),
+            UUID.randomUUID());
+
+        assertEquals(3, reassignmentService.handleReassignments(incidents, "Ráfaga de incidentes"));
+        assertTrue(unavailable.getCurrentShipments().isEmpty(), "El repartidor no disponible no recibe envíos");
+        assertNotSame(unavailable, first.getDeliverer());
+        assertNotSame(unavailable, second.getDeliverer());
+        assertNotNull(third.getDeliverer());
+        assertSame(blocked, untouched.getDeliverer(), "Los incidentes resueltos no se reasignan");
+        assertSame(spare, delivered.getDeliverer(), "Los envíos entregados no se reasignan");
+        assertEquals(1, first.getSpecialInstructions().split("\n").length, "Los repetidos se reasignan una vez");
+        assertEquals(0, reassignmentService.reassignAll(List.of(), "Sin envíos", Set.of()));
+    }
+
+    @Test
+    public void testReportedIncidentsAreReassignedTogether() throws Exception {
+        shipmentService.setReassignmentService(reassignmentService);
+        Deliverer unavailable = delivererRepository.save(deliverer(CENTER_LAT, CENTER_LNG));
+        Deliverer blocked = delivererRepository.save(deliverer(CENTER_LAT + 0.001, CENTER_LNG));
+        Deliverer spare = delivererRepository.save(deliverer(CENTER_LAT + 0.03, CENTER_LNG));
+        List<Shipment> affected = List.of(
+            assigned(unavailable, CENTER_LAT, CENTER_LNG),
+            assigned(unavailable, CENTER_LAT, CENTER_LNG),
+            assigned(blocked, CENTER_LAT, CENTER_LNG));
+
+        shipmentService.reportIncident(reported(affected.get(0), IncidentType.DELIVERER_UNAVAILABLE));
+        shipmentService.reportIncident(reported(affected.get(1), IncidentType.DELIVERER_UNAVAILABLE));
+        shipmentService.reportIncident(reported(affected.get(2), IncidentType.INACCESSIBLE_ZONE));
+        for (Shipment shipment : affected) {
+            assertEquals(ShipmentStatus.PENDING_REASSIGNMENT, shipment.getStatus(), "Se espera a que cierre la ventana");
+        }
+        assertEquals(0, dispatcher.getMetrics().getRuns());
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (affected.stream().anyMatch(s -> s.getStatus() != ShipmentStatus.ASSIGNED)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, dispatcher.getMetrics().getRuns(), "La ráfaga entra en un solo lote");
+        for (Shipment shipment : affected) {
+            assertEquals(ShipmentStatus.ASSIGNED, shipment.getStatus());
+            assertNotSame(unavailable, shipment.getDeliverer(), "El repartidor no disponible no recibe envíos");
+            assertTrue(shipment.getSpecialInstructions().endsWith("Reasignado: Incidente reportado"));
+        }
+        assertTrue(unavailable.getCurrentShipments().isEmpty());
+        assertEquals(3, blocked.getCurrentShipments().size() + spare.getCurrentShipments().size());
+    }
+
+    private Incident reported(Shipment shipment, IncidentType type) {
+        return Incident.builder()
+            .id(UUID.randomUUID())
+            .shipment(shipment)
+            .type(type)
+            .date(LocalDateTime.now())
+            .build();
+    }
+
+    private UUID incident(Shipment shipment, IncidentType type, boolean resolved) {
+        Incident incident = Incident.builder()
+            .id(UUID.randomUUID())
+            .shipment(shipment)
+            .type(type)
+            .date(LocalDateTime.now())
+            .resolved(resolved)
+            .build();
+        return incidentService.getRepository().save(incident).getId();
+    }
+
+    private Shipment assigned(Deliverer deliverer, double latitude, double longitude) {
+        Address origin = Address.builder().id(UUID.randomUUID()).build();
+        origin.setGpsCoordinates(latitude, longitude);
+        Shipment shipment = shipmentRepository.save(Shipment.builder()
+            .id(UUID.randomUUID())
+            .origin(origin)
+            .priority(ShipmentPriority.STANDARD)
+            .status(ShipmentStatus.ASSIGNED)
+            .creationDate(LocalDateTime.now())
+            .build());
+        assertTrue(delivererService.assignShipment(deliverer, shipment));
+        shipment.setDeliverer(deliverer);
+        return shipment;
+    }
+
+    private static Deliverer deliverer(double latitude, double longitude) {
+        Deliverer deliverer = Deliverer.builder()
+            .id(UUID.randomUUID())
+            .name("Repartidor")
+            .status(DelivererStatus.AVAILABLE)
+            .build();
+        deliverer.updateRealPosition(latitude, longitude);
+        return deliverer;
+    }
+}
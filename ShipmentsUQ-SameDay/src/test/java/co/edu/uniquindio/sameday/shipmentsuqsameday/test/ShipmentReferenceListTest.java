@@ -0,0 +1,116 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.ShipmentReferenceList;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.User;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.UserRole;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para las listas de envíos por ID
+ * Valida la igualdad por ID, la búsqueda sin resolver la lista y que serializar
+ * un repartidor no arrastre el resto del grafo
+ */
+public class ShipmentReferenceListTest {
+
+    @Test
+    public void testContainsAndRemoveCompareByIdWithoutResolving() {
+        Shipment shipment = shipment(user("Ana"));
+        ShipmentReferenceList list = ShipmentReferenceList.ofIds(List.of(shipment.getId(), UUID.randomUUID()), id -> {
+            throw new AssertionError("La lista no debería resolverse");
+        });
+
+        Shipment sameId = Shipment.builder().id(shipment.getId()).status(ShipmentStatus.DELIVERED).build();
+        assertEquals(shipment, sameId, "Los envíos con el mismo ID son iguales");
+        assertEquals(shipment.hashCode(), sameId.hashCode());
+        assertTrue(list.contains(sameId));
+        assertEquals(2, list.size());
+
+        assertTrue(list.remove(sameId));
+        assertFalse(list.contains(shipment));
+        assertEquals(1, list.size());
+        assertFalse(list.isResolved());
+    }
+
+    @Test
+    public void testSerializedDelivererOnlyCarriesShipmentIds() throws Exception {
+        Deliverer deliverer = Deliverer.builder().id(UUID.randomUUID()).name("Carlos").build();
+        Map<UUID, Shipment> repository = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            User owner = user("Cliente-" + i);
+            Shipment shipment = shipment(owner);
+            shipment.setDeliverer(deliverer);
+            owner.getShipmentHistory().add(shipment);
+            deliverer.getCurrentShipments().add(shipment);
+            repository.put(shipment.getId(), shipment);
+        }
+        assertDoesNotThrow(deliverer::hashCode, "El hash no recorre el grafo cíclico");
+
+        byte[] bytes = serialize(deliverer);
+        assertFalse(new String(bytes, StandardCharsets.ISO_8859_1).contains("Cliente-"),
+            "Los usuarios de los envíos no se serializan con el repartidor");
+
+        Deliverer restored = (Deliverer) deserialize(bytes);
+        ShipmentReferenceList current = (ShipmentReferenceList) restored.getCurrentShipments();
+        assertFalse(current.isResolved());
+        assertEquals(20, current.size());
+
+        current.resolveWith(repository::get);
+        assertSame(deliverer.getCurrentShipments().get(0), current.get(0),
+            "Los envíos se resuelven a las instancias del repositorio");
+        assertEquals(deliverer, restored);
+    }
+
+    @Test
+    public void testPlainListsAreConvertedAndMissingShipmentsDropped() {
+        Shipment kept = shipment(user("Ana"));
+        Shipment deleted = shipment(user("Luis"));
+        User user = User.builder().id(UUID.randomUUID()).shipmentHistory(new ArrayList<>(List.of(kept, deleted))).build();
+        assertTrue(user.getShipmentHistory() instanceof ShipmentReferenceList);
+
+        ShipmentReferenceList pending = ShipmentReferenceList.ofIds(
+            ((ShipmentReferenceList) user.getShipmentHistory()).getIds(),
+            id -> id.equals(kept.getId()) ? kept : null);
+        assertEquals(List.of(kept), pending);
+        assertEquals(List.of(kept.getId()), pending.getIds());
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+    private static Shipment shipment(User user) {
+        return Shipment.builder()
+            .id(UUID.randomUUID())
+            .user(user)
+            .status(ShipmentStatus.PENDING)
+            .build();
+    }
+
+    private static User user(String name) {
+        return User.builder()
+            .id(UUID.randomUUID())
+            .name(name)
+            .email(name.toLowerCase() + "@uq.edu.co")
+            .role(UserRole.CLIENT)
+            .build();
+    }
+}
@@ -0,0 +1,175 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.dto.PaginatedDataDTO;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.User;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.command.CommandManager;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentPriority;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.DelivererRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.IncidentRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.ShipmentRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.DelivererService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.IncidentService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.ShipmentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para ShipmentRepository
+ * Valida que los índices secundarios se mantengan consistentes con el repositorio
+ * (también al deshacer y rehacer comandos) y las consultas por páginas, por cursor y por flujo
+ */
+public class ShipmentRepositoryTest {
+
+    private ShipmentRepository repository;
+    private User user;
+    private Deliverer deliverer;
+    private LocalDateTime baseDate;
+
+    @BeforeEach
+    public void setUp() {
+        repository = new ShipmentRepository();
+        user = User.builder().id(UUID.randomUUID()).name("Ana").email("ana@uq.edu.co").build();
+        deliverer = Deliverer.builder().id(UUID.randomUUID()).name("Luis").build();
+        baseDate = LocalDateTime.of(2025, 1, 1, 8, 0);
+    }
+
+    private Shipment newShipment(ShipmentStatus status, ShipmentPriority priority, int dayOffset) {
+        return Shipment.builder()
+            .id(UUID.randomUUID())
+            .user(user)
+            .status(status)
+            .priority(priority)
+            .creationDate(baseDate.plusDays(dayOffset))
+            .build();
+    }
+
+    @Test
+    public void testFindByStatusFollowsUpdates() {
+        Shipment shipment = repository.save(newShipment(ShipmentStatus.PENDING, ShipmentPriority.STANDARD, 0));
+        assertEquals(1, repository.findByStatus(ShipmentStatus.PENDING).size());
+
+        shipment.setStatus(ShipmentStatus.ASSIGNED);
+        repository.update(shipment);
+
+        assertTrue(repository.findByStatus(ShipmentStatus.PENDING).isEmpty(),
+            "El envío debe salir del índice de su estado anterior");
+        assertEquals(List.of(shipment), repository.findByStatus(ShipmentStatus.ASSIGNED));
+    }
+
+    @Test
+    public void testFindByStatusIgnoresStaleInMemoryChanges() {
+        Shipment shipment = repository.save(newShipment(ShipmentStatus.PENDING, ShipmentPriority.STANDARD, 0));
+        shipment.setStatus(ShipmentStatus.CANCELLED);
+
+        assertTrue(repository.findByStatus(ShipmentStatus.PENDING).isEmpty(),
+            "No debe devolver entidades cuyo estado actual ya no coincide");
+    }
+
+    @Test
+    public void testUndoCancelReturnsShipmentToPendingIndex() {
+        CommandManager.getInstance().clearStacks();
+        ShipmentService service = new ShipmentService(repository,
+            DelivererService.getInstance(new DelivererRepository()), new IncidentService(new IncidentRepository()));
+        Shipment shipment = repository.save(newShipment(ShipmentStatus.PENDING, ShipmentPriority.STANDARD, 0));
+
+        assertTrue(service.cancelShipment(shipment.getId()));
+        assertTrue(repository.findByStatus(ShipmentStatus.PENDING).isEmpty());
+
+        assertTrue(service.undoLastOperation());
+        assertEquals(List.of(shipment), repository.findByStatus(ShipmentStatus.PENDING),
+            "El envío restaurado debe volver al índice de pendientes");
+        assertTrue(repository.findByStatus(ShipmentStatus.CANCELLED).isEmpty());
+
+        assertTrue(service.redoLastOperation());
+        assertTrue(repository.findByStatus(ShipmentStatus.PENDING).isEmpty());
+        assertEquals(List.of(shipment), repository.findByStatus(ShipmentStatus.CANCELLED));
+        CommandManager.getInstance().clearStacks();
+    }
+
+    @Test
+    public void testFindByUserAndDeliverer() {
+        Shipment assigned = newShipment(ShipmentStatus.ASSIGNED, ShipmentPriority.URGENT, 0);
+        assigned.setDeliverer(deliverer);
+        repository.save(assigned);
+        repository.save(newShipment(ShipmentStatus.PENDING, ShipmentPriority.STANDARD, 1));
+
+        assertEquals(2, repository.findByUser(user).size());
+        assertEquals(List.of(assigned), repository.findByDeliverer(deliverer));
+        assertEquals(List.of(assigned), repository.findByPriority(ShipmentPriority.URGENT));
+    }
+
+    @Test
+    public void testFindByDateRangeIsInclusiveAndSorted() {
+        Shipment third = repository.save(newShipment(ShipmentStatus.PENDING, ShipmentPriority.STANDARD, 3));
+        Shipment first = repository.save(newShipment(ShipmentStatus.PENDING, ShipmentPriority.STANDARD, 1));
+        repository.save(newShipment(ShipmentStatus.PENDING, ShipmentPriority.STANDARD, 5));
+
+        List<Shipment> result = repository.findByDateRange(baseDate.plusDays(1), baseDate.plusDays(3));
+
+        assertEquals(List.of(first, third), result);
+        assertTrue(repository.findByDateRange(baseDate.plusDays(3), baseDate.plusDays(1)).isEmpty(),
+            "Un rango invertido no debe devolver resultados");
+    }
+
+    @Test
+    public void testDeleteAndLoadEntitiesRebuildIndexes() {
+        Shipment shipment = repository.save(newShipment(ShipmentStatus.PENDING, ShipmentPriority.STANDARD, 0));
+        repository.deleteById(shipment.getId());
+        assertTrue(repository.findByStatus(ShipmentStatus.PENDING).isEmpty());
+
+        Shipment loaded = newShipment(ShipmentStatus.IN_TRANSIT, ShipmentPriority.PRIORITY, 2);
+        repository.loadEntities(List.of(loaded));
+
+        assertEquals(List.of(loaded), repository.findByStatus(ShipmentStatus.IN_TRANSIT));
+        assertEquals(List.of(loaded), repository.findByPriority(ShipmentPriority.PRIORITY));
+    }
+
+    @Test
+    public void testFindPageWithSortReturnsConsecutiveSlices() {
+        for (int day = 0; day < 12; day++) {
+            repository.save(newShipment(ShipmentStatus.PENDING, ShipmentPriority.STANDARD, (day * 7) % 12));
+        }
+        Comparator<Shipment> newestFirst = Comparator.comparing(Shipment::getCreationDate).reversed();
+        List<Shipment> expected = repository.stream().sorted(newestFirst).collect(Collectors.toList());
+
+        PaginatedDataDTO<Shipment> first = repository.findPage(0, 5, newestFirst);
+        PaginatedDataDTO<Shipment> last = repository.findPage(10, 5, newestFirst);
+
+        assertEquals(expected.subList(0, 5), first.getItems());
+        assertEquals(expected.subList(10, 12), last.getItems());
+        assertEquals(12, first.getTotalItems());
+        assertEquals(3, first.getTotalPages());
+        assertEquals(2, last.getCurrentPage());
+    }
+
+    @Test
+    public void testCursorVisitsEveryShipmentOnce() {
+        for (int i = 0; i < 7; i++) {
+            repository.save(newShipment(ShipmentStatus.PENDING, ShipmentPriority.STANDARD, i));
+        }
+
+        List<UUID> visited = new ArrayList<>();
+        PaginatedDataDTO<Shipment> page = repository.findAfter(null, 3);
+        while (true) {
+            page.getItems().forEach(s -> visited.add(s.getId()));
+            if (page.getNextCursor() == null) {
+                break;
+            }
+            page = repository.findAfter(UUID.fromString(page.getNextCursor()), 3);
+        }
+
+        assertEquals(repository.stream().map(Shipment::getId).sorted().collect(Collectors.toList()), visited);
+    }
+}
@@ -0,0 +1,124 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.SnapshotFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para SnapshotFile
+ * Valida la escritura atómica, el checksum y la recuperación de la generación anterior
+ */
+public class SnapshotFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testWriteAndOpenReturnsOnlyContent() throws IOException {
+        Path file = tempDir.resolve("estado.bin");
+
+        long length = SnapshotFile.write(file, out -> out.write(bytes("generación 1")));
+
+        SnapshotFile opened = SnapshotFile.open(file);
+        assertEquals(length, opened.getContentLength());
+        assertFalse(opened.isPrevious());
+        assertEquals("generación 1", read(opened));
+        assertFalse(Files.exists(tempDir.resolve("estado.bin.tmp")));
+    }
+
+    @Test
+    public void testCorruptedFileFallsBackToPreviousGeneration() throws IOException {
+        Path file = tempDir.resolve("estado.bin");
+        SnapshotFile.write(file, out -> out.write(bytes("generación 1")));
+        SnapshotFile.write(file, out -> out.write(bytes("generación 2")));
+
+        byte[] content = Files.readAllBytes(file);
+        content[3] ^= 0x40;
+        Files.write(file, content);
+
+        SnapshotFile opened = SnapshotFile.open(file);
+        assertTrue(opened.isPrevious());
+        assertEquals("generación 1", read(opened));
+    }
+
+    @Test
+    public void testTruncatedFileIsNotRotatedOverPreviousGeneration() throws IOException {
+        Path file = tempDir.resolve("estado.bin");
+        SnapshotFile.write(file, out -> out.write(bytes("generación 1")));
+        SnapshotFile.write(file, out -> out.write(bytes("generación 2")));
+
+        // Un archivo al que le faltan bytes (modificado fuera de este proceso) falla la revisión del pie
+        byte[] content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOfRange(content, 4, content.length));
+        SnapshotFile.write(file, out -> out.write(bytes("generación 3")));
+
+        assertEquals("generación 3", read(SnapshotFile.open(file)));
+        Files.write(file, new byte[0]);
+        assertEquals("generación 1", read(SnapshotFile.open(file)), "La generación anterior válida se conserva");
+    }
+
+    @Test
+    public void testOpenUnverifiedChecksOnlyTrailerUntilMarkedDamaged() throws IOException {
+        Path file = tempDir.resolve("estado.bin");
+        SnapshotFile.write(file, out -> out.write(bytes("generación 1")));
+        SnapshotFile.write(file, out -> out.write(bytes("generación 2")));
+
+        byte[] content = Files.readAllBytes(file);
+        content[3] ^= 0x40;
+        Files.write(file, content);
+
+        // Sin leer el contenido el daño no se ve; quien lo encuentra marca el archivo
+        assertFalse(SnapshotFile.openUnverified(file).isPrevious());
+        SnapshotFile.markDamaged(file);
+        SnapshotFile fallback = SnapshotFile.openUnverified(file);
+        assertTrue(fallback.isPrevious());
+        assertEquals("generación 1", read(fallback));
+
+        SnapshotFile.write(file, out -> out.write(bytes("generación 3")));
+        Files.write(file, new byte[0]);
+        assertEquals("generación 1", read(SnapshotFile.open(file)), "El archivo dañado no reemplaza a la generación anterior");
+    }
+
+    @Test
+    public void testFailedWriteKeepsCurrentFile() throws IOException {
+        Path file = tempDir.resolve("estado.bin");
+        SnapshotFile.write(file, out -> out.write(bytes("generación 1")));
+
+        assertThrows(IOException.class, () -> SnapshotFile.write(file, out -> {
+            out.write(bytes("gener"));
+            throw new IOException("disco lleno");
+        }));
+
+        assertEquals("generación 1", read(SnapshotFile.open(file)));
+        assertFalse(Files.exists(tempDir.resolve("estado.bin.tmp")));
+    }
+
+    @Test
+    public void testFileWithoutTrailerIsAcceptedAsIs() throws IOException {
+        Path file = tempDir.resolve("estado.dat");
+        Files.write(file, bytes("formato anterior"));
+
+        SnapshotFile opened = SnapshotFile.open(file);
+        assertEquals(Files.size(file), opened.getContentLength());
+        assertEquals("formato anterior", read(opened));
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String read(SnapshotFile file) throws IOException {
+        try (InputStream in = file.newInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.User;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.EntityReference;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.persistence.WriteAheadJournal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para WriteAheadJournal
+ * Valida la reproducción de registros, la resolución de referencias y la tolerancia a registros incompletos
+ */
+public class WriteAheadJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path journalFile;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        journalFile = tempDir.resolve("app_state.journal");
+        user = User.builder().id(UUID.randomUUID()).name("Ana").email("ana@uq.edu.co").build();
+    }
+
+    private Shipment newShipment() {
+        return Shipment.builder().id(UUID.randomUUID()).user(user).status(ShipmentStatus.PENDING).build();
+    }
+
+    /** Reproduce el journal guardando las entidades en un mapa por ID */
+    private Map<UUID, Object> replay(long generation) throws IOException {
+        Map<UUID, Object> restored = new LinkedHashMap<>();
+        new WriteAheadJournal(journalFile).replay(generation, new WriteAheadJournal.ReplayHandler() {
+            @Override
+            public void onPut(String repository, UUID id, Object entity) {
+                restored.put(id, entity);
+            }
+
+            @Override
+            public void onDelete(String repository, UUID id) {
+                restored.remove(id);
+            }
+        }, reference -> reference.getId().equals(user.getId()) ? user : null);
+        return restored;
+    }
+
+    @Test
+    public void testReplayResolvesReferencesToCanonicalInstances() throws IOException {
+        Shipment shipment = newShipment();
+        try (WriteAheadJournal journal = new WriteAheadJournal(journalFile)) {
+            journal.open(1);
+            journal.appendPut(EntityReference.SHIPMENTS, shipment.getId(), shipment);
+        }
+
+        Shipment restored = (Shipment) replay(1).get(shipment.getId());
+
+        assertNotNull(restored);
+        assertEquals(ShipmentStatus.PENDING, restored.getStatus());
+        assertSame(user, restored.getUser(), "La referencia al usuario debe resolverse a la instancia del repositorio");
+    }
+
+    @Test
+    public void testDeleteAndGenerationMismatch() throws IOException {
+        Shipment kept = newShipment();
+        Shipment deleted = newShipment();
+        try (WriteAheadJournal journal = new WriteAheadJournal(journalFile)) {
+            journal.open(3);
+            journal.appendPut(EntityReference.SHIPMENTS, kept.getId(), kept);
+            journal.appendPut(EntityReference.SHIPMENTS, deleted.getId(), deleted);
+            journal.appendDelete(EntityReference.SHIPMENTS, deleted.getId());
+            assertEquals(3, journal.getRecordCount());
+        }
+
+        assertEquals(Set.of(kept.getId()), replay(3).keySet());
+        assertTrue(replay(4).isEmpty(), "Un journal de otra generación no debe reproducirse");
+    }
+
+    @Test
+    public void testTornTailIsIgnoredAndTruncatedOnOpen() throws IOException {
+        Shipment shipment = newShipment();
+        try (WriteAheadJournal journal = new WriteAheadJournal(journalFile)) {
+            journal.open(1);
+            journal.appendPut(EntityReference.SHIPMENTS, shipment.getId(), shipment);
+        }
+        long validSize = Files.size(journalFile);
+        Files.write(journalFile, new byte[] {0, 0, 0, 50, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        assertEquals(1, replay(1).size());
+
+        try (WriteAheadJournal journal = new WriteAheadJournal(journalFile)) {
+            journal.open(1);
+            assertEquals(1, journal.getRecordCount());
+            assertEquals(validSize, journal.size());
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Address;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Shipment;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.DelivererStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentPriority;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.enums.ShipmentStatus;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.DelivererRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.repository.ShipmentRepository;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.service.DistanceMatrixService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.routing.strategy.DijkstraRoutingStrategy;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.BatchDispatchService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.DelivererService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.IncidentService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.ShipmentService;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.service.ZoneDispatchService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para el despacho por zonas
+ * Valida que cada zona asigne solo con los repartidores ubicados en ella, que la zona
+ * se tome de las coordenadas y no del texto de la dirección, que una zona sin repartidores
+ * en turno use repartidores de otras zonas y que las zonas despachadas en paralelo
+ * respeten el máximo de envíos por repartidor, y que los envíos que quedan pendientes
+ * se encolen en su zona sin esperar al barrido periódico
+ */
+public class ZoneDispatchServiceTest {
+
+    private ShipmentRepository shipmentRepository;
+    private DelivererRepository delivererRepository;
+    private DelivererService delivererService;
+    private ZoneDispatchService zoneDispatcher;
+
+    @BeforeEach
+    public void setUp() {
+        shipmentRepository = new ShipmentRepository();
+        delivererRepository = new DelivererRepository();
+        delivererService = DelivererService.getInstance(delivererRepository);
+        BatchDispatchService batchDispatcher = new BatchDispatchService(shipmentRepository, delivererService,
+            new DistanceMatrixService(List.of(new DijkstraRoutingStrategy())), s -> true, 200);
+        zoneDispatcher = new ZoneDispatchService(batchDispatcher, shipmentRepository, delivererService);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        zoneDispatcher.close();
+    }
+
+    @Test
+    public void testZonesAssignOnlyTheirOwnDeliverers() {
+        Deliverer centro = delivererRepository.save(deliverer("Norte", 4.520, -75.681));
+        Deliverer norte = delivererRepository.save(deliverer("centro", 4.552, -75.681));
+        assertEquals(List.of(norte), delivererRepository.findByZone(" NORTE"), "La zona sale de la posición");
+        assertEquals(List.of(centro), delivererRepository.findByZone("Centro"));
+        assertEquals(2, delivererRepository.findZones().size());
+
+        // El repartidor del norte está más cerca, pero el origen está dentro del centro
+        Shipment fromCentro = shipmentRepository.save(shipment("Norte", 4.546, -75.681));
+        Shipment fromNorte = shipmentRepository.save(shipment("Centro", 4.560, -75.682));
+
+        assertEquals(2, zoneDispatcher.dispatchPendingAndWait());
+        assertSame(centro, fromCentro.getDeliverer());
+        assertSame(norte, fromNorte.getDeliverer());
+        assertEquals(0L, zoneDispatcher.getStatistics().get("crossZoneAssignments"));
+
+        // Al moverse el repartidor cambia de partición sin pasar por update()
+        norte.updateRealPosition(4.535, -75.681);
+        assertTrue(delivererRepository.findByZone("Norte").isEmpty());
+        assertEquals(2, delivererRepository.findByZone("Centro").size());
+    }
+
+    @Test
+    public void testEmptyZoneFallsBackToOtherZones() throws Exception {
+        Deliverer centro = delivererRepository.save(deliverer("Centro", 4.530, -75.680));
+        Shipment fromSur = shipmentRepository.save(shipment("Sur", 4.500, -75.700));
+        // Fuera de todas las zonas y sin zona escrita
+        Shipment noZone = shipmentRepository.save(shipment(null, 4.800, -75.600));
+
+        assertEquals(2, zoneDispatcher.dispatchPendingAndWait());
+        assertSame(centro, fromSur.getDeliverer());
+        assertSame(centro, noZone.getDeliverer());
+        assertEquals(2L, zoneDispatcher.getStatistics().get("crossZoneAssignments"));
+
+        // Los envíos encolados individualmente se despachan en el hilo de su zona
+        Shipment submitted = shipmentRepository.save(shipment("Centro", 4.531, -75.679));
+        zoneDispatcher.submit(submitted);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (submitted.getStatus() == ShipmentStatus.PENDING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertSame(centro, submitted.getDeliverer());
+        assertEquals(0, delivererService.getRemainingCapacity(centro));
+
+        // Una zona con repartidores ocupados espera; una zona sin repartidores en turno no
+        Deliverer norte = delivererRepository.save(deliverer("Norte", 4.560, -75.681));
+        Deliverer sur = delivererRepository.save(deliverer("Sur", 4.500, -75.700));
+        sur.setStatus(DelivererStatus.OFF_DUTY);
+        Shipment waiting = shipmentRepository.save(shipment("Sur", 4.532, -75.682));
+        Shipment fromSurAgain = shipmentRepository.save(shipment("Sur", 4.501, -75.701));
+        assertEquals(1, zoneDispatcher.dispatchPendingAndWait());
+        assertEquals(ShipmentStatus.PENDING, waiting.getStatus(), "El centro tiene repartidor en turno");
+        assertSame(norte, fromSurAgain.getDeliverer(), "El sur solo tiene repartidores fuera de turno");
+    }
+
+    @Test
+    public void testParallelZonesNeverOversubscribe() {
+        Random random = new Random(21);
+        String[] zones = {"Centro", "Norte", "Sur", "Oriente", "Occidente"};
+        double[][] anchors = {{0, 0}, {0.05, 0}, {-0.05, 0}, {0, 0.05}, {0, -0.05}};
+        Map<UUID, String> zoneOfDeliverer = new HashMap<>();
+        for (int z = 0; z < zones.length; z++) {
+            double latitude = 4.533889 + anchors[z][0];
+            double longitude = -75.681111 + anchors[z][1];
+            for (int i = 0; i < 5; i++) {
+                Deliverer deliverer = delivererRepository.save(deliverer(zones[z],
+                    latitude + (random.nextDouble() - 0.5) * 0.016, longitude + (random.nextDouble() - 0.5) * 0.016));
+                zoneOfDeliverer.put(deliverer.getId(), DelivererRepository.zoneKey(zones[z]));
+            }
+            for (int i = 0; i < 20; i++) {
+                shipmentRepository.save(shipment(zones[z],
+                    latitude + (random.nextDouble() - 0.5) * 0.016, longitude + (random.nextDouble() - 0.5) * 0.016));
+            }
+        }
+        assertEquals(zones.length, delivererRepository.findZones().size());
+
+        assertEquals(zones.length * 15, zoneDispatcher.dispatchPendingAndWait(), "Se llenan los cupos de cada zona");
+        for (Deliverer deliverer : delivererRepository.findAll()) {
+            assertEquals(3, deliverer.getCurrentShipments().size());
+        }
+        for (Shipment shipment : shipmentRepository.findByStatus(ShipmentStatus.ASSIGNED)) {
+            assertEquals(zoneOfDeliverer.get(shipment.getDeliverer().getId()),
+                delivererRepository.zoneOf(shipment.getOrigin()));
+        }
+        assertEquals(zones.length * 5, shipmentRepository.findByStatus(ShipmentStatus.PENDING).size());
+        assertEquals(0, zoneDispatcher.dispatchPendingAndWait(), "Sin cupos en ninguna zona no se asigna nada");
+    }
+
+    @Test
+    public void testShipmentsLeftPendingAreSubmitted() {
+        ShipmentService shipmentService = new ShipmentService(shipmentRepository, delivererService,
+            IncidentService.getInstance());
+        List<Shipment> submitted = Collections.synchronizedList(new ArrayList<>());
+        shipmentService.setDispatchHook(shipment -> {
+            submitted.add(shipment);
+            zoneDispatcher.submit(shipment);
+        });
+
+        // Tras el pago no hay repartidores: el envío pasa a la cola de su zona
+        Shipment paid = shipmentRepository.save(shipment("Centro", 4.531, -75.679));
+        assertFalse(shipmentService.tryAssignDeliverer(paid.getId()));
+        assertEquals(List.of(paid), submitted);
+        assertEquals(ShipmentStatus.PENDING, paid.getStatus());
+
+        // Una reasignación sin repartidores libera el cupo y devuelve el envío a pendientes
+        Deliverer offDuty = delivererRepository.save(deliverer("Centro", 4.530, -75.680));
+        Shipment kept = shipmentRepository.save(shipment("Centro", 4.532, -75.681));
+        Shipment moved = shipmentRepository.save(shipment("Centro", 4.533, -75.682));
+        for (Shipment shipment : List.of(kept, moved)) {
+            shipment.setDeliverer(offDuty);
+            shipment.setStatus(ShipmentStatus.ASSIGNED);
+            offDuty.getCurrentShipments().add(shipment);
+        }
+        offDuty.setStatus(DelivererStatus.OFF_DUTY);
+        assertThrows(IllegalStateException.class, () -> shipmentService.reassignShipment(moved.getId(), "Fin de turno"));
+        assertEquals(ShipmentStatus.PENDING, moved.getStatus());
+        assertNull(moved.getDeliverer());
+        assertEquals(List.of(kept), offDuty.getCurrentShipments());
+        assertEquals(List.of(paid, moved), submitted);
+
+        // Los envíos asignados no se encolan
+        shipmentService.requestDispatch(kept);
+        assertEquals(2, submitted.size());
+    }
+
+    private static Deliverer deliverer(String zone, double latitude, double longitude) {
+        Deliverer deliverer = Deliverer.builder()
+            .id(UUID.randomUUID())
+            .name("Repartidor " + zone)
+            .zone(zone)
+            .status(DelivererStatus.AVAILABLE)
+            .build();
+        deliverer.updateRealPosition(latitude, longitude);
+        return deliverer;
+    }
+
+    private static Shipment shipment(String zone, double latitude, double longitude) {
+        Address origin = Address.builder().id(UUID.randomUUID()).zone(zone).build();
+        origin.setGpsCoordinates(latitude, longitude);
+        return Shipment.builder()
+            .id(UUID.randomUUID())
+            .origin(origin)
+            .priority(ShipmentPriority.STANDARD)
+            .status(ShipmentStatus.PENDING)
+            .creationDate(LocalDateTime.now())
+            .build();
+    }
+}
@@ -0,0 +1,146 @@
+package co.edu.uniquindio.sameday.shipmentsuqsameday.test;
+
+import co.edu.uniquindio.sameday.shipmentsuqsameday.mapping.Coordinates;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Address;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.Deliverer;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.ServiceZone;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.strategy.GridCoordinateStrategy;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.strategy.RealCoordinateStrategy;
+import co.edu.uniquindio.sameday.shipmentsuqsameday.model.util.ZoneLocator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para el índice de zonas de servicio
+ * Valida que la cuadrícula precalculada resuelva igual que los polígonos exactos (incluidos
+ * polígonos cóncavos y solapados), la resolución de puntos del Grid, las áreas de servicio
+ * de las estrategias de coordenadas y el respaldo a la zona escrita fuera de todas las zonas
+ */
+public class ZoneLocatorTest {
+
+    private static final double CENTER_LAT = 4.533889;
+    private static final double CENTER_LNG = -75.681111;
+
+    @Test
+    public void testRasterMatchesExactPolygons() {
+        ZoneLocator locator = ZoneLocator.getDefault();
+        assertEquals(5, locator.getZones().size());
+        assertTrue(locator.getBoundaryCellCount() > 0);
+
+        Random random = new Random(17);
+        for (int i = 0; i < 50_000; i++) {
+            double latitude = CENTER_LAT + (random.nextDouble() - 0.5) * 0.5;
+            double longitude = CENTER_LNG + (random.nextDouble() - 0.5) * 0.5;
+            assertSame(exact(locator.getZones(), latitude, longitude), locator.resolve(latitude, longitude),
+                "Punto " + latitude + ", " + longitude);
+        }
+
+        assertEquals("centro", locator.resolve(CENTER_LAT, CENTER_LNG).getId());
+        assertEquals("norte", locator.resolve(CENTER_LAT + 0.1, CENTER_LNG + 0.05).getId());
+        assertEquals("oriente", locator.resolve(CENTER_LAT + 0.05, CENTER_LNG + 0.1).getId());
+        assertNull(locator.resolve(CENTER_LAT + 0.3, CENTER_LNG));
+        assertNull(locator.resolve(Double.NaN, CENTER_LNG));
+        assertTrue(locator.findZone(" OCCIDENTE ").isPresent());
+    }
+
+    @Test
+    public void testConcaveAndOverlappingZones() {
+        // Una "U" cóncava y un rectángulo que la solapa por la derecha
+        ServiceZone concave = ServiceZone.of("U", List.of(
+            new Coordinates(0.0, 0.0), new Coordinates(0.0, 0.3), new Coordinates(0.3, 0.3),
+            new Coordinates(0.3, 0.2), new Coordinates(0.1, 0.2), new Coordinates(0.1, 0.1),
+            new Coordinates(0.3, 0.1), new Coordinates(0.3, 0.0)));
+        ServiceZone overlapping = ServiceZone.of("Rectángulo", List.of(
+            new Coordinates(0.05, 0.25), new Coordinates(0.05, 0.45),
+            new Coordinates(0.25, 0.45), new Coordinates(0.25, 0.25)));
+        List<ServiceZone> zones = List.of(concave, overlapping);
+        ZoneLocator locator = new ZoneLocator(zones, 0.013);
+
+        assertNull(locator.resolve(0.2, 0.15), "El hueco de la U no pertenece a ninguna zona");
+        assertSame(concave, locator.resolve(0.2, 0.27), "En el solape gana la primera zona");
+        assertSame(overlapping, locator.resolve(0.2, 0.35));
+
+        Random random = new Random(3);
+        for (int i = 0; i < 50_000; i++) {
+            double latitude = random.nextDouble() * 0.5 - 0.1;
+            double longitude = random.nextDouble() * 0.6 - 0.1;
+            assertSame(exact(zones, latitude, longitude), locator.resolve(latitude, longitude),
+                "Punto " + latitude + ", " + longitude);
+        }
+        assertNull(new ZoneLocator(List.of()).resolve(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ZoneLocator(List.of(concave, concave)));
+    }
+
+    @Test
+    public void testGridPointsAndServiceAreas() {
+        ZoneLocator locator = ZoneLocator.getDefault();
+        GridCoordinateStrategy grid = new GridCoordinateStrategy();
+        RealCoordinateStrategy real = new RealCoordinateStrategy();
+        Random random = new Random(11);
+        for (int i = 0; i < 20_000; i++) {
+            double x = 40 + random.nextDouble() * 20;
+            double y = 40 + random.nextDouble() * 20;
+            double[] gps = GridCoordinateStrategy.convertGridToReal(x, y);
+            assertSame(locator.resolve(gps[0], gps[1]), locator.resolveGrid(x, y));
+
+            // Fuera de una franja de 2 m el área precalculada coincide con el radio exacto de 20 km
+            double latitude = CENTER_LAT + (random.nextDouble() - 0.5) * 0.42;
+            double longitude = CENTER_LNG + (random.nextDouble() - 0.5) * 0.42;
+            double distanceKm = real.calculateDistance(CENTER_LAT, CENTER_LNG, latitude, longitude);
+            if (Math.abs(distanceKm - 20.0) > 0.002) {
+                assertEquals(distanceKm <= 20.0, real.isInServiceArea(latitude, longitude));
+            }
+
+            // Y en el Grid con el radio de 25 celdas
+            double gridX = 50 + (random.nextDouble() - 0.5) * 60;
+            double gridY = 50 + (random.nextDouble() - 0.5) * 60;
+            double cells = Math.hypot(gridX - 50, gridY - 50);
+            if (Math.abs(cells - 25.0) > 0.01) {
+                assertEquals(cells <= 25.0, grid.isInServiceArea(gridX, gridY));
+            }
+        }
+        assertTrue(real.isInServiceArea(Coordinates.ARMENIA_CENTER));
+        assertFalse(real.isInServiceArea(new Coordinates(4.8, -75.7)));
+    }
+
+    @Test
+    public void testAddressAndDelivererZones() {
+        ZoneLocator locator = ZoneLocator.getDefault();
+
+        // Las coordenadas mandan sobre la zona escrita
+        Address north = Address.builder().id(UUID.randomUUID()).zone("Centro").build();
+        north.setGpsCoordinates(CENTER_LAT + 0.05, CENTER_LNG);
+        assertEquals("norte", locator.zoneId(north));
+
+        // Sin GPS se usa la posición en el Grid
+        double[] centerGrid = GridCoordinateStrategy.convertRealToGrid(CENTER_LAT, CENTER_LNG - 0.05);
+        Address west = Address.builder().id(UUID.randomUUID()).zone("Sur")
+            .coordX(centerGrid[0]).coordY(centerGrid[1]).build();
+        assertEquals("occidente", locator.zoneId(west));
+
+        // Fuera de todas las zonas cuenta la zona escrita, normalizada
+        Address outside = Address.builder().id(UUID.randomUUID()).zone(" Quindío ").build();
+        outside.setGpsCoordinates(4.45, -75.95);
+        assertEquals("quindío", locator.zoneId(outside));
+        assertNull(locator.zoneId((Address) null));
+
+        Deliverer deliverer = Deliverer.builder().id(UUID.randomUUID()).zone("Calarcá").build();
+        assertEquals("calarcá", locator.zoneId(deliverer), "Sin posición en ninguna zona");
+        deliverer.updateRealPosition(CENTER_LAT - 0.05, CENTER_LNG + 0.01);
+        assertEquals("sur", locator.zoneId(deliverer));
+    }
+
+    private static ServiceZone exact(List<ServiceZone> zones, double latitude, double longitude) {
+        for (ServiceZone zone : zones) {
+            if (zone.contains(latitude, longitude)) {
+                return zone;
+            }
+        }
+        return null;
+    }
+}